@@ -0,0 +1,240 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.client;
+
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-wide pacing of Vault API calls based on the burst limit headers.
+ * <p>
+ * The governor keeps a token bucket sized to the Vault burst limit. Every call takes
+ * one token before it is sent, and the bucket is refilled at the rate of the burst
+ * limit per burst window (5 minutes). Each response re-syncs the bucket from the
+ * X-VaultAPI-BurstLimit and X-VaultAPI-BurstLimitRemaining headers, less the calls
+ * still in flight. When fewer than the reserve tokens remain, calls are queued until
+ * the bucket refills, so the remaining burst limit never reaches zero.
+ * <p>
+ * Until the first response is received the burst limit is unknown and calls are not paced.
+ * The governor is enabled via {@link VaultClient.Builder#withBurstLimitGovernor(boolean)}.
+ */
+public class BurstLimitGovernor {
+	private static Logger log = LoggerFactory.getLogger(BurstLimitGovernor.class);
+
+	/**
+	 * Default number of burst limit calls held back, {@value #DEFAULT_RESERVE}
+	 */
+	public static final int DEFAULT_RESERVE = 10;
+
+	/**
+	 * Vault burst limit window, 5 minutes
+	 */
+	public static final long BURST_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private final int reserve;
+	private final long windowNanos;
+
+	// Token bucket state, guarded by this
+	private int burstLimit = 0;
+	private double tokens = 0;
+	private boolean synced = false;
+	private long lastRefillNanos = System.nanoTime();
+	private int inFlight = 0;
+
+	// Metrics
+	private final AtomicLong callCount = new AtomicLong();
+	private final AtomicLong queuedCallCount = new AtomicLong();
+	private final AtomicLong totalQueuedNanos = new AtomicLong();
+	private final AtomicLong maxQueuedNanos = new AtomicLong();
+
+	/**
+	 * Create a governor with the default reserve
+	 */
+	public BurstLimitGovernor() {
+		this(DEFAULT_RESERVE);
+	}
+
+	/**
+	 * Create a governor that holds back the given number of calls from the burst limit
+	 *
+	 * @param reserve Number of burst limit calls that are never used
+	 */
+	public BurstLimitGovernor(int reserve) {
+		this(reserve, BURST_WINDOW_MILLIS);
+	}
+
+	/**
+	 * Create a governor with a specific burst window
+	 *
+	 * @param reserve      Number of burst limit calls that are never used
+	 * @param windowMillis Length of the burst window in milliseconds
+	 */
+	public BurstLimitGovernor(int reserve, long windowMillis) {
+		this.reserve = Math.max(0, reserve);
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+	}
+
+	/**
+	 * Take a token for a call, blocking the calling thread until the call may be sent.
+	 * Every call to this method must be followed by {@link #onResponse(Map)}.
+	 */
+	public void acquire() {
+		long waitNanos = reserve();
+		if (waitNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Take a token for a call without blocking. The caller is responsible for
+	 * delaying the call by the returned time. Every call to this method must be
+	 * followed by {@link #onResponse(Map)}.
+	 *
+	 * @return Time in nanoseconds to wait before sending the call, 0 to send immediately
+	 */
+	public long reserve() {
+		long waitNanos = 0;
+
+		synchronized (this) {
+			inFlight++;
+			if (synced) {
+				refill();
+				tokens -= 1;
+				if (tokens < reserve) {
+					waitNanos = (long) Math.ceil((reserve - tokens) * windowNanos / burstLimit);
+				}
+			}
+		}
+
+		callCount.incrementAndGet();
+		if (waitNanos > 0) {
+			log.debug("Burst limit reserve reached, delaying call " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms");
+			queuedCallCount.incrementAndGet();
+			totalQueuedNanos.addAndGet(waitNanos);
+			maxQueuedNanos.accumulateAndGet(waitNanos, Math::max);
+		}
+
+		return waitNanos;
+	}
+
+	/**
+	 * Complete a call and re-sync the bucket from the burst limit response headers.
+	 * Pass null if the call failed without a response.
+	 *
+	 * @param headers The HTTP response headers
+	 */
+	public void onResponse(Map<String, List<String>> headers) {
+		Integer limit = getHeaderAsInteger(headers, VaultResponse.HTTP_HEADER_VAULT_BURST);
+		Integer remaining = getHeaderAsInteger(headers, VaultResponse.HTTP_HEADER_VAULT_BURST_REMAINING);
+
+		synchronized (this) {
+			inFlight = Math.max(0, inFlight - 1);
+			if (limit != null && limit > 0 && remaining != null) {
+				// Calls still in flight have taken their token but are not yet counted by Vault
+				lastRefillNanos = System.nanoTime();
+				burstLimit = limit;
+				tokens = remaining - inFlight;
+				synced = true;
+			}
+		}
+	}
+
+	/**
+	 * Add tokens for the time elapsed since the last refill
+	 */
+	private void refill() {
+		long now = System.nanoTime();
+		if (burstLimit > 0) {
+			tokens = Math.min(burstLimit, tokens + (double) (now - lastRefillNanos) * burstLimit / windowNanos);
+		}
+		lastRefillNanos = now;
+	}
+
+	private static Integer getHeaderAsInteger(Map<String, List<String>> headers, String name) {
+		if (headers == null) return null;
+
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			if (entry.getKey().equalsIgnoreCase(name) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+				try {
+					return Integer.valueOf(entry.getValue().get(0).trim());
+				} catch (NumberFormatException e) {
+					log.warn("Invalid " + name + " header value " + entry.getValue().get(0));
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return Number of calls reserved in the bucket below the burst limit remaining
+	 */
+	public int getReserve() {
+		return reserve;
+	}
+
+	/**
+	 * @return Last burst limit reported by Vault, 0 if unknown
+	 */
+	public synchronized int getBurstLimit() {
+		return burstLimit;
+	}
+
+	/**
+	 * @return Estimated number of calls remaining in the burst window
+	 */
+	public synchronized int getBurstLimitRemaining() {
+		refill();
+		return (int) Math.floor(tokens);
+	}
+
+	/**
+	 * @return Number of calls currently in flight
+	 */
+	public synchronized int getInFlightCount() {
+		return inFlight;
+	}
+
+	/**
+	 * @return Total number of calls passed through the governor
+	 */
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	/**
+	 * @return Number of calls that were queued to stay within the burst limit
+	 */
+	public long getQueuedCallCount() {
+		return queuedCallCount.get();
+	}
+
+	/**
+	 * @return Total time calls were queued, in milliseconds
+	 */
+	public long getTotalQueuedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(totalQueuedNanos.get());
+	}
+
+	/**
+	 * @return Longest time a single call was queued, in milliseconds
+	 */
+	public long getMaxQueuedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxQueuedNanos.get());
+	}
+}
@@ -0,0 +1,285 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.client;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side cache of VQL query responses, for reference data queried repeatedly.
+ * <p>
+ * Responses are keyed by the normalized query and the query headers, and evicted when
+ * their time to live expires or, least recently used first, when the cache is full. Only
+ * complete, successful responses are cached: responses with a next page are not.
+ * <p>
+ * Each entry is tagged with the object named in the top-level FROM clause of its query, and with
+ * the relationships named in its subqueries and relationship paths. Writes to object records through
+ * {@link com.veeva.vault.vapil.api.request.ObjectRecordRequest} on the same Vault Client invalidate
+ * the entries of that object. Since relationship names cannot be resolved to object names without
+ * metadata, entries of queries naming relationships are invalidated by writes to any object.
+ * Queries that cannot be parsed with certainty are not cached. Writes made through other clients,
+ * other APIs or by other users are only seen once entries expire.
+ * <p>
+ * Asynchronous jobs started through {@link com.veeva.vault.vapil.api.request.ObjectRecordRequest},
+ * such as cascade delete, deep copy, record merge or roll-up recalculation, invalidate all entries
+ * and suspend caching until their status is retrieved as finished through the same Vault Client,
+ * via {@link com.veeva.vault.vapil.api.request.JobRequest#retrieveJobStatus(int)} or the status
+ * request of the job. Jobs whose status is never retrieved keep caching suspended; see
+ * {@link #finishJob(String)}.
+ * <p>
+ * Cached responses are shared by all requests that hit the cache and must not be modified.
+ * The cache is enabled via {@link VaultClient.Builder#withQueryResultCache(int, long)} and
+ * used by queries with {@link com.veeva.vault.vapil.api.request.QueryRequest#setUseCache(boolean)}.
+ */
+public class QueryResultCache {
+
+	/**
+	 * Default time to live of cached responses, {@value #DEFAULT_TTL_SECONDS} seconds
+	 */
+	public static final long DEFAULT_TTL_SECONDS = 300;
+
+	/**
+	 * Tag of entries invalidated by writes to any object, see {@link #put(String, Collection, QueryResponse, long)}
+	 */
+	public static final String ALL_OBJECTS = "*";
+
+	private static final Set<String> RUNNING_JOB_STATUSES = Set.of("SCHEDULED", "QUEUEING", "QUEUED", "RUNNING");
+
+	private final int maxEntries;
+	private final long ttlNanos;
+
+	// Guarded by this, in access order
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long generation = 0;
+	private final Set<String> runningJobs = new HashSet<>();
+
+	// Metrics
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	/**
+	 * Create a cache
+	 *
+	 * @param maxEntries Maximum number of cached responses
+	 * @param ttlSeconds Time to live of cached responses
+	 */
+	public QueryResultCache(int maxEntries, long ttlSeconds) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be at least 1");
+		}
+		if (ttlSeconds < 1) {
+			throw new IllegalArgumentException("ttlSeconds must be at least 1");
+		}
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+	}
+
+	/**
+	 * Get a cached response, counting a hit or a miss
+	 *
+	 * @param key Cache key of the query
+	 * @return The cached response, null if not cached or expired
+	 */
+	public synchronized QueryResponse get(String key) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.expiresNanos - System.nanoTime() <= 0) {
+			entries.remove(key);
+			evictionCount.incrementAndGet();
+			entry = null;
+		}
+
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.response;
+	}
+
+	/**
+	 * Get the current generation, to be passed to {@link #put(String, Collection, QueryResponse, long)}
+	 * for a query about to be sent
+	 *
+	 * @return The number of invalidations so far
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Cache a complete, successful response. The response is not cached when it has a next page,
+	 * when an invalidation happened since the query was sent, since it may predate a write,
+	 * or while an asynchronous job is running.
+	 *
+	 * @param key         Cache key of the query
+	 * @param objectNames Objects and relationships named in the FROM clauses of the query, used for
+	 *                    invalidation; include {@link #ALL_OBJECTS} to invalidate on writes to any object
+	 * @param response    The response
+	 * @param generation  The generation when the query was sent, from {@link #getGeneration()}
+	 * @return true if the response was cached
+	 */
+	public synchronized boolean put(String key, Collection<String> objectNames, QueryResponse response, long generation) {
+		if (response == null || !response.isSuccessful() || generation != this.generation) return false;
+		if (response.getResponseDetails() != null && response.getResponseDetails().hasNextPage()) return false;
+		if (!runningJobs.isEmpty()) return false;
+
+		Set<String> tags = new HashSet<>();
+		for (String objectName : objectNames) {
+			tags.add(objectName.toLowerCase(Locale.ROOT));
+		}
+		entries.put(key, new Entry(response, tags, System.nanoTime() + ttlNanos));
+		if (entries.size() > maxEntries) {
+			Iterator<String> eldest = entries.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+			evictionCount.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Remove the cached responses of queries on an object, after a write to its records
+	 *
+	 * @param objectName Object name, such as product__v
+	 */
+	public synchronized void invalidateObject(String objectName) {
+		if (objectName == null) return;
+		generation++;
+		String tag = objectName.toLowerCase(Locale.ROOT);
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Set<String> tags = iterator.next().objectNames;
+			if (tags.contains(tag) || tags.contains(ALL_OBJECTS)) {
+				iterator.remove();
+				invalidationCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached responses
+	 */
+	public synchronized void invalidateAll() {
+		generation++;
+		invalidationCount.addAndGet(entries.size());
+		entries.clear();
+	}
+
+	/**
+	 * Remove all cached responses and suspend caching until the job finishes, when starting an
+	 * asynchronous job that writes to records
+	 *
+	 * @param jobKey Identifier of the job, such as its job id
+	 */
+	public synchronized void startJob(String jobKey) {
+		invalidateAll();
+		runningJobs.add(jobKey);
+	}
+
+	/**
+	 * Resume caching once a job started via {@link #startJob(String)} is no longer running
+	 *
+	 * @param jobKey Identifier of the job
+	 * @param status Status of the job, such as RUNNING or SUCCESS
+	 */
+	public synchronized void updateJob(String jobKey, String status) {
+		if (status == null || RUNNING_JOB_STATUSES.contains(status.toUpperCase(Locale.ROOT))) return;
+		finishJob(jobKey);
+	}
+
+	/**
+	 * Remove all cached responses and resume caching after a job started via {@link #startJob(String)}.
+	 * Use for jobs whose status is not retrieved through the Vault Client of the cache.
+	 *
+	 * @param jobKey Identifier of the job
+	 */
+	public synchronized void finishJob(String jobKey) {
+		if (runningJobs.remove(jobKey)) {
+			invalidateAll();
+		}
+	}
+
+	/**
+	 * @return Number of started jobs not yet finished, caching is suspended while not 0
+	 */
+	public synchronized int getRunningJobCount() {
+		return runningJobs.size();
+	}
+
+	/**
+	 * @return Number of cached responses, including expired responses not yet evicted
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Number of queries answered from the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return Number of cache lookups that found no valid response
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return Number of responses removed because they expired or the cache was full
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return Number of responses removed by writes or {@link #invalidateAll()}
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+	/**
+	 * @return Fraction of lookups answered from the cache, 0 if none
+	 */
+	public double getHitRatio() {
+		long hits = hitCount.get();
+		long lookups = hits + missCount.get();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("size=%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, invalidations=%d",
+				size(), getHitCount(), getMissCount(), getHitRatio(), getEvictionCount(), getInvalidationCount());
+	}
+
+	private static class Entry {
+		private final QueryResponse response;
+		private final Set<String> objectNames;
+		private final long expiresNanos;
+
+		private Entry(QueryResponse response, Set<String> objectNames, long expiresNanos) {
+			this.response = response;
+			this.objectNames = objectNames;
+			this.expiresNanos = expiresNanos;
+		}
+	}
+}
@@ -14,19 +14,30 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
 import com.veeva.vault.vapil.api.model.VaultModel;
 import com.veeva.vault.vapil.api.model.response.ApiVersionResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
 import com.veeva.vault.vapil.api.request.AuthenticationRequest;
+import com.veeva.vault.vapil.connector.ExponentialBackoffRetryPolicy;
+import com.veeva.vault.vapil.connector.HttpCallHistograms;
+import com.veeva.vault.vapil.connector.HttpCallListener;
+import com.veeva.vault.vapil.connector.HttpClientSettings;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
+import com.veeva.vault.vapil.connector.RetryPolicy;
 
 import com.veeva.vault.vapil.api.model.response.AuthenticationResponse;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +72,14 @@ public class VaultClient {
 	private String vaultClientId;
 	private boolean allowAllCertificates = false;
 	private boolean logApiErrors = true;
+	private OkHttpClient httpClient = null;
+	private BurstLimitGovernor burstLimitGovernor = null;
+	private RetryPolicy retryPolicy = RetryPolicy.NONE;
+	private String httpAcceptEncoding = null;
+	private boolean retainRawResponse = false;
+	private QueryResultCache queryResultCache = null;
+	private final List<HttpCallListener> httpCallListeners = new CopyOnWriteArrayList<>();
+	private final ObjectMapperRegistry objectMapperRegistry = new ObjectMapperRegistry();
 
 	private AuthenticationResponse authenticationResponse = null;
 
@@ -184,6 +203,164 @@ public class VaultClient {
 		return allowAllCertificates;
 	}
 
+	/**
+	 * Get the HTTP client used for all requests from this Vault Client. The client
+	 * owns its own connection pool and dispatcher, configured from the
+	 * transport settings of the {@link Builder}.
+	 *
+	 * @return The HTTP client, or null to use the shared default client
+	 */
+	public OkHttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	/**
+	 * Set the HTTP client used for all requests from this Vault Client
+	 *
+	 * @param httpClient The HTTP client
+	 */
+	protected void setHttpClient(OkHttpClient httpClient) {
+		this.httpClient = httpClient;
+	}
+
+	/**
+	 * Get the governor pacing requests from this Vault Client to stay within the burst limit,
+	 * including metrics for how long requests were queued.
+	 *
+	 * @return The burst limit governor, or null if not enabled
+	 */
+	public BurstLimitGovernor getBurstLimitGovernor() {
+		return burstLimitGovernor;
+	}
+
+	/**
+	 * Set the governor pacing requests from this Vault Client
+	 *
+	 * @param burstLimitGovernor The burst limit governor, null to disable
+	 */
+	protected void setBurstLimitGovernor(BurstLimitGovernor burstLimitGovernor) {
+		this.burstLimitGovernor = burstLimitGovernor;
+	}
+
+	/**
+	 * Get the cache of query responses, used by queries with
+	 * {@link com.veeva.vault.vapil.api.request.QueryRequest#setUseCache(boolean)},
+	 * including hit and miss metrics
+	 *
+	 * @return The query result cache, or null if not enabled
+	 */
+	public QueryResultCache getQueryResultCache() {
+		return queryResultCache;
+	}
+
+	/**
+	 * Set the cache of query responses
+	 *
+	 * @param queryResultCache The query result cache, null to disable
+	 */
+	protected void setQueryResultCache(QueryResultCache queryResultCache) {
+		this.queryResultCache = queryResultCache;
+	}
+
+	/**
+	 * Get the policy for retrying transient failures (I/O errors, 429 and 5xx responses)
+	 * of requests from this Vault Client that are safe to repeat
+	 *
+	 * @return The retry policy
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Set the policy for retrying transient failures of requests from this Vault Client
+	 *
+	 * @param retryPolicy The retry policy, {@link RetryPolicy#NONE} to disable
+	 */
+	protected void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.NONE;
+	}
+
+	/**
+	 * Get the shared JSON configuration of this Vault Client, with the cached
+	 * object readers used to deserialize responses
+	 *
+	 * @return The object mapper registry
+	 */
+	public ObjectMapperRegistry getObjectMapperRegistry() {
+		return objectMapperRegistry;
+	}
+
+	/**
+	 * Get the listeners notified of each HTTP call attempt from this Vault Client
+	 *
+	 * @return The listeners, empty if none
+	 */
+	public List<HttpCallListener> getHttpCallListeners() {
+		return httpCallListeners;
+	}
+
+	/**
+	 * Register a listener notified of each HTTP call attempt from this Vault Client, with the
+	 * endpoint, status, sizes, phase timings, Vault execution id and limit headers of the call.
+	 * See {@link HttpCallListener} and {@link HttpCallHistograms}.
+	 *
+	 * @param listener The listener
+	 */
+	public void addHttpCallListener(HttpCallListener listener) {
+		if (listener != null) {
+			httpCallListeners.add(listener);
+		}
+	}
+
+	/**
+	 * Remove a listener registered via {@link #addHttpCallListener(HttpCallListener)}
+	 *
+	 * @param listener The listener
+	 */
+	public void removeHttpCallListener(HttpCallListener listener) {
+		httpCallListeners.remove(listener);
+	}
+
+	/**
+	 * Get the explicit Accept-Encoding of requests from this Vault Client.
+	 * See {@link HttpRequestConnector#setAcceptEncoding(String)}.
+	 *
+	 * @return The Accept-Encoding, or null if left to the HTTP client
+	 */
+	public String getHttpAcceptEncoding() {
+		return httpAcceptEncoding;
+	}
+
+	/**
+	 * Set the explicit Accept-Encoding of requests from this Vault Client
+	 *
+	 * @param httpAcceptEncoding gzip, identity, or null to leave it to the HTTP client
+	 */
+	protected void setHttpAcceptEncoding(String httpAcceptEncoding) {
+		this.httpAcceptEncoding = httpAcceptEncoding;
+	}
+
+	/**
+	 * Indicates whether bulk JSON responses, such as query pages, keep the raw response text.
+	 * When false, they are deserialized directly from the HTTP response stream and
+	 * {@link VaultResponse#getResponse()} is empty. Default = false
+	 *
+	 * @return true/false
+	 */
+	public boolean isRetainRawResponse() {
+		return retainRawResponse;
+	}
+
+	/**
+	 * Set whether bulk JSON responses keep the raw response text
+	 *
+	 * @param retainRawResponse true to keep the raw response text
+	 */
+	protected void setRetainRawResponse(boolean retainRawResponse) {
+		this.retainRawResponse = retainRawResponse;
+	}
+
 	/**
 	 * Get the fully formed root API URL consisting of the Vault DNS
 	 *
@@ -508,6 +685,8 @@ public class VaultClient {
 		private static Logger log = LoggerFactory.getLogger(Builder.class);
 
 		private VaultClient.Settings settings;
+		private RetryPolicy retryPolicy = null;
+		private List<HttpCallListener> httpCallListeners = new ArrayList<>();
 
 		protected Builder() {
 			this.settings = new VaultClient.Settings();
@@ -545,13 +724,26 @@ public class VaultClient {
 			vaultClient.setVaultDNS(settings.getVaultDNS());
 			vaultClient.setLogApiErrors(settings.getLogApiErrors());
 
-			//if the user specified an http timeout, then set the global time out
-			if (settings.getHttpTimeout() != null) {
-				HttpRequestConnector.setGlobalTimeout(settings.getHttpTimeout());
+			vaultClient.setAllowAllCertificates(settings.getAllowAllCertificates());
+			vaultClient.setHttpClient(HttpRequestConnector.newHttpClient(getHttpClientSettings()));
+
+			if (settings.getBurstLimitGovernor()) {
+				vaultClient.setBurstLimitGovernor(new BurstLimitGovernor(settings.getBurstLimitReserve()));
+			}
+
+			vaultClient.setHttpAcceptEncoding(settings.getHttpAcceptEncoding());
+			vaultClient.setRetainRawResponse(settings.getRetainRawResponse());
+			if (settings.getQueryResultCacheSize() > 0) {
+				vaultClient.setQueryResultCache(new QueryResultCache(settings.getQueryResultCacheSize(),
+						settings.getQueryResultCacheTtlSeconds()));
 			}
+			httpCallListeners.forEach(vaultClient::addHttpCallListener);
 
-			if (settings.getAllowAllCertificates()) {
-				HttpRequestConnector.setAllowAllCertificates(settings.getAllowAllCertificates());
+			if (retryPolicy != null) {
+				vaultClient.setRetryPolicy(retryPolicy);
+			} else {
+				vaultClient.setRetryPolicy(new ExponentialBackoffRetryPolicy(settings.getHttpMaxRetries(),
+						settings.getHttpRetryBaseDelayMillis(), settings.getHttpRetryMaxDelayMillis()));
 			}
 
 			//create a generic auth request and response
@@ -640,6 +832,48 @@ public class VaultClient {
 			return vaultClient;
 		}
 
+		/**
+		 * Map the transport settings to the HTTP client settings. Millisecond timeouts
+		 * take precedence over the http timeout in minutes.
+		 *
+		 * @return {@link HttpClientSettings}
+		 */
+		private HttpClientSettings getHttpClientSettings() {
+			HttpClientSettings httpClientSettings = new HttpClientSettings();
+
+			if (settings.getHttpTimeout() != null) {
+				httpClientSettings.setTimeoutMillis(TimeUnit.MINUTES.toMillis(settings.getHttpTimeout()));
+			}
+			if (settings.getHttpConnectTimeoutMillis() != null) {
+				httpClientSettings.setConnectTimeoutMillis(settings.getHttpConnectTimeoutMillis());
+			}
+			if (settings.getHttpReadTimeoutMillis() != null) {
+				httpClientSettings.setReadTimeoutMillis(settings.getHttpReadTimeoutMillis());
+			}
+			if (settings.getHttpWriteTimeoutMillis() != null) {
+				httpClientSettings.setWriteTimeoutMillis(settings.getHttpWriteTimeoutMillis());
+			}
+			if (settings.getHttpCallTimeoutMillis() != null) {
+				httpClientSettings.setCallTimeoutMillis(settings.getHttpCallTimeoutMillis());
+			}
+			if (settings.getHttpConnectionPoolMaxIdle() != null) {
+				httpClientSettings.setConnectionPoolMaxIdle(settings.getHttpConnectionPoolMaxIdle());
+			}
+			if (settings.getHttpConnectionPoolKeepAliveMillis() != null) {
+				httpClientSettings.setConnectionPoolKeepAliveMillis(settings.getHttpConnectionPoolKeepAliveMillis());
+			}
+			if (settings.getHttpMaxRequests() != null) {
+				httpClientSettings.setMaxRequests(settings.getHttpMaxRequests());
+			}
+			if (settings.getHttpMaxRequestsPerHost() != null) {
+				httpClientSettings.setMaxRequestsPerHost(settings.getHttpMaxRequestsPerHost());
+			}
+			httpClientSettings.setPreferHttp2(settings.getHttpPreferHttp2());
+			httpClientSettings.setAllowAllCertificates(settings.getAllowAllCertificates());
+
+			return httpClientSettings;
+		}
+
 		/**
 		 * Initialize with a specific auth types
 		 *
@@ -665,7 +899,8 @@ public class VaultClient {
 		/**
 		 * Set the http timeout for the Vault Client. Default = 60 minutes.
 		 * <p>&nbsp;</p>
-		 * Can only be set before any and all HTTP calls are first executed including authentication
+		 * Applies to the connect, read, write, and call timeouts of this client only.
+		 * See {@link #withHttpTimeoutsMillis(long, long, long, long)} for per-phase timeouts.
 		 *
 		 * @param minutes Number of minutes before http timeout occurs
 		 * @return VaultClientBuilder
@@ -675,6 +910,196 @@ public class VaultClient {
 			return this;
 		}
 
+		/**
+		 * Set the per-phase http timeouts for the Vault Client, in milliseconds.
+		 * Takes precedence over {@link #withHttpTimeout(int)}. Pass 0 for no timeout.
+		 *
+		 * @param connectMillis Connect timeout
+		 * @param readMillis    Read timeout
+		 * @param writeMillis   Write timeout
+		 * @param callMillis    Timeout for the complete call
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpTimeoutsMillis(long connectMillis, long readMillis, long writeMillis, long callMillis) {
+			this.settings.setHttpConnectTimeoutMillis(connectMillis);
+			this.settings.setHttpReadTimeoutMillis(readMillis);
+			this.settings.setHttpWriteTimeoutMillis(writeMillis);
+			this.settings.setHttpCallTimeoutMillis(callMillis);
+			return this;
+		}
+
+		/**
+		 * Set the connection pool of the Vault Client. Default = 5 idle connections kept alive for 5 minutes.
+		 *
+		 * @param maxIdleConnections Maximum number of idle connections kept in the pool
+		 * @param keepAliveMillis    Time an idle connection is kept alive in the pool
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpConnectionPool(int maxIdleConnections, long keepAliveMillis) {
+			this.settings.setHttpConnectionPoolMaxIdle(maxIdleConnections);
+			this.settings.setHttpConnectionPoolKeepAliveMillis(keepAliveMillis);
+			return this;
+		}
+
+		/**
+		 * Set the limits on concurrent non-blocking requests of the Vault Client.
+		 * Default = 64 requests, 5 per host.
+		 *
+		 * @param maxRequests        Maximum number of concurrent requests
+		 * @param maxRequestsPerHost Maximum number of concurrent requests per host
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpMaxRequests(int maxRequests, int maxRequestsPerHost) {
+			this.settings.setHttpMaxRequests(maxRequests);
+			this.settings.setHttpMaxRequestsPerHost(maxRequestsPerHost);
+			return this;
+		}
+
+		/**
+		 * Negotiate HTTP/2 when the server supports it. Default = true
+		 *
+		 * @param enabled true to prefer HTTP/2, false for HTTP/1.1 only
+		 * @return {@link Builder}
+		 */
+		public Builder withHttp2(boolean enabled) {
+			this.settings.setHttpPreferHttp2(enabled);
+			return this;
+		}
+
+		/**
+		 * Pace requests from the Vault Client so the burst limit remaining never reaches zero.
+		 * Default = false. See {@link BurstLimitGovernor}.
+		 *
+		 * @param enabled Enable the burst limit governor
+		 * @return {@link Builder}
+		 */
+		public Builder withBurstLimitGovernor(boolean enabled) {
+			this.settings.setBurstLimitGovernor(enabled);
+			return this;
+		}
+
+		/**
+		 * Pace requests from the Vault Client, holding back the given number of calls
+		 * from the burst limit. See {@link BurstLimitGovernor}.
+		 *
+		 * @param reserve Number of burst limit calls that are never used. Default = {@value BurstLimitGovernor#DEFAULT_RESERVE}
+		 * @return {@link Builder}
+		 */
+		public Builder withBurstLimitGovernor(int reserve) {
+			this.settings.setBurstLimitGovernor(true);
+			this.settings.setBurstLimitReserve(reserve);
+			return this;
+		}
+
+		/**
+		 * Retry transient failures (I/O errors, 429 and 5xx responses) with exponential backoff
+		 * and jitter. Only requests that are safe to repeat are retried: GET requests, queries,
+		 * and writes marked via {@link com.veeva.vault.vapil.api.request.VaultRequest#setRetrySafe(boolean)}.
+		 * Default = {@value ExponentialBackoffRetryPolicy#DEFAULT_MAX_RETRIES} retries.
+		 *
+		 * @param maxRetries Maximum number of retries after the first attempt, 0 to disable
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpRetries(int maxRetries) {
+			this.settings.setHttpMaxRetries(maxRetries);
+			return this;
+		}
+
+		/**
+		 * Retry transient failures with exponential backoff and jitter. See {@link #withHttpRetries(int)}.
+		 *
+		 * @param maxRetries      Maximum number of retries after the first attempt, 0 to disable
+		 * @param baseDelayMillis Upper bound of the delay before the first retry
+		 * @param maxDelayMillis  Upper bound of the delay before any retry; longer waits requested by Vault are not retried
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpRetries(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+			this.settings.setHttpMaxRetries(maxRetries);
+			this.settings.setHttpRetryBaseDelayMillis(baseDelayMillis);
+			this.settings.setHttpRetryMaxDelayMillis(maxDelayMillis);
+			return this;
+		}
+
+		/**
+		 * Use a custom policy for retrying transient failures, instead of the
+		 * exponential backoff configured via {@link #withHttpRetries(int)}
+		 *
+		 * @param retryPolicy The retry policy, {@link RetryPolicy#NONE} to disable
+		 * @return {@link Builder}
+		 */
+		public Builder withRetryPolicy(RetryPolicy retryPolicy) {
+			this.retryPolicy = retryPolicy;
+			return this;
+		}
+
+		/**
+		 * Register a listener notified of each HTTP call attempt, including the authentication call.
+		 * See {@link VaultClient#addHttpCallListener(HttpCallListener)}.
+		 *
+		 * @param listener The listener, such as a {@link HttpCallHistograms}
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpCallListener(HttpCallListener listener) {
+			this.httpCallListeners.add(listener);
+			return this;
+		}
+
+		/**
+		 * Set the Accept-Encoding header of requests explicitly. With gzip, compressed responses
+		 * are decompressed as they are read, and the response body size on the wire is reported via
+		 * {@link com.veeva.vault.vapil.api.model.response.VaultResponse#getTransferMetrics()}.
+		 * With identity, responses are not compressed. Default = not set, the HTTP client
+		 * requests gzip and decompresses it transparently.
+		 *
+		 * @param httpAcceptEncoding {@value HttpRequestConnector#HTTP_CONTENT_ENCODING_GZIP} or {@value HttpRequestConnector#HTTP_CONTENT_ENCODING_IDENTITY}
+		 * @return {@link Builder}
+		 */
+		public Builder withHttpAcceptEncoding(String httpAcceptEncoding) {
+			if (httpAcceptEncoding != null && !httpAcceptEncoding.equalsIgnoreCase(HttpRequestConnector.HTTP_CONTENT_ENCODING_GZIP)
+					&& !httpAcceptEncoding.equalsIgnoreCase(HttpRequestConnector.HTTP_CONTENT_ENCODING_IDENTITY)) {
+				throw new IllegalArgumentException("Unsupported Accept-Encoding " + httpAcceptEncoding);
+			}
+			this.settings.setHttpAcceptEncoding(httpAcceptEncoding);
+			return this;
+		}
+
+		/**
+		 * Keep the raw text of bulk JSON responses, such as query pages, available via
+		 * {@link VaultResponse#getResponse()}. By default these responses are deserialized
+		 * directly from the HTTP response stream, without holding a copy of the body in memory.
+		 * Other responses always keep the raw text.
+		 *
+		 * @param retainRawResponse true to keep the raw response text. default = false
+		 * @return {@link Builder}
+		 */
+		public Builder withRetainRawResponse(boolean retainRawResponse) {
+			this.settings.setRetainRawResponse(retainRawResponse);
+			return this;
+		}
+
+		/**
+		 * Cache complete query responses of queries that opt in via
+		 * {@link com.veeva.vault.vapil.api.request.QueryRequest#setUseCache(boolean)}.
+		 * Writes to object records through this client invalidate the responses of
+		 * queries on the same object, or naming relationships.
+		 * <p>
+		 * Asynchronous jobs, such as cascade delete, deep copy or record merge, change records
+		 * after their request returns. Starting one through this client invalidates all responses
+		 * and suspends caching until the job status is retrieved as finished through this client.
+		 * When the job id is not in the response, such as for CSV responses, caching is not
+		 * suspended and responses cached while the job runs may predate it until they expire.
+		 * See {@link QueryResultCache}. Default = disabled.
+		 *
+		 * @param maxEntries Maximum number of cached responses, 0 to disable
+		 * @param ttlSeconds Time to live of cached responses. Default = {@value QueryResultCache#DEFAULT_TTL_SECONDS}
+		 * @return {@link Builder}
+		 */
+		public Builder withQueryResultCache(int maxEntries, long ttlSeconds) {
+			this.settings.setQueryResultCacheSize(maxEntries);
+			this.settings.setQueryResultCacheTtlSeconds(ttlSeconds);
+			return this;
+		}
+
 		/**
 		 * Initialize with an Idp Oauth Access Token.
 		 * <p>&nbsp;</p>
@@ -967,6 +1392,154 @@ public class VaultClient {
 		}
 		public void setHttpTimeout(Integer httpTimeout) {this.set("httpTimeout", httpTimeout);}
 
+		@JsonProperty("httpConnectTimeoutMillis")
+		public Long getHttpConnectTimeoutMillis() {
+			return getLongValue("httpConnectTimeoutMillis");
+		}
+		public void setHttpConnectTimeoutMillis(Long httpConnectTimeoutMillis) {this.set("httpConnectTimeoutMillis", httpConnectTimeoutMillis);}
+
+		@JsonProperty("httpReadTimeoutMillis")
+		public Long getHttpReadTimeoutMillis() {
+			return getLongValue("httpReadTimeoutMillis");
+		}
+		public void setHttpReadTimeoutMillis(Long httpReadTimeoutMillis) {this.set("httpReadTimeoutMillis", httpReadTimeoutMillis);}
+
+		@JsonProperty("httpWriteTimeoutMillis")
+		public Long getHttpWriteTimeoutMillis() {
+			return getLongValue("httpWriteTimeoutMillis");
+		}
+		public void setHttpWriteTimeoutMillis(Long httpWriteTimeoutMillis) {this.set("httpWriteTimeoutMillis", httpWriteTimeoutMillis);}
+
+		@JsonProperty("httpCallTimeoutMillis")
+		public Long getHttpCallTimeoutMillis() {
+			return getLongValue("httpCallTimeoutMillis");
+		}
+		public void setHttpCallTimeoutMillis(Long httpCallTimeoutMillis) {this.set("httpCallTimeoutMillis", httpCallTimeoutMillis);}
+
+		@JsonProperty("httpConnectionPoolMaxIdle")
+		public Integer getHttpConnectionPoolMaxIdle() {
+			return this.getInteger("httpConnectionPoolMaxIdle");
+		}
+		public void setHttpConnectionPoolMaxIdle(Integer httpConnectionPoolMaxIdle) {this.set("httpConnectionPoolMaxIdle", httpConnectionPoolMaxIdle);}
+
+		@JsonProperty("httpConnectionPoolKeepAliveMillis")
+		public Long getHttpConnectionPoolKeepAliveMillis() {
+			return getLongValue("httpConnectionPoolKeepAliveMillis");
+		}
+		public void setHttpConnectionPoolKeepAliveMillis(Long httpConnectionPoolKeepAliveMillis) {this.set("httpConnectionPoolKeepAliveMillis", httpConnectionPoolKeepAliveMillis);}
+
+		@JsonProperty("httpMaxRequests")
+		public Integer getHttpMaxRequests() {
+			return this.getInteger("httpMaxRequests");
+		}
+		public void setHttpMaxRequests(Integer httpMaxRequests) {this.set("httpMaxRequests", httpMaxRequests);}
+
+		@JsonProperty("httpMaxRequestsPerHost")
+		public Integer getHttpMaxRequestsPerHost() {
+			return this.getInteger("httpMaxRequestsPerHost");
+		}
+		public void setHttpMaxRequestsPerHost(Integer httpMaxRequestsPerHost) {this.set("httpMaxRequestsPerHost", httpMaxRequestsPerHost);}
+
+		@JsonProperty("httpPreferHttp2")
+		public Boolean getHttpPreferHttp2() {
+			Boolean httpPreferHttp2 = this.getBoolean("httpPreferHttp2");
+			if (httpPreferHttp2 != null) {
+				return httpPreferHttp2;
+			}
+			//default to true
+			return true;
+		}
+		public void setHttpPreferHttp2(Boolean httpPreferHttp2) {this.set("httpPreferHttp2", httpPreferHttp2);}
+
+		@JsonProperty("burstLimitGovernor")
+		public Boolean getBurstLimitGovernor() {
+			Boolean burstLimitGovernor = this.getBoolean("burstLimitGovernor");
+			if (burstLimitGovernor != null) {
+				return burstLimitGovernor;
+			}
+			//default to false
+			return false;
+		}
+		public void setBurstLimitGovernor(Boolean burstLimitGovernor) {this.set("burstLimitGovernor", burstLimitGovernor);}
+
+		@JsonProperty("burstLimitReserve")
+		public Integer getBurstLimitReserve() {
+			Integer burstLimitReserve = this.getInteger("burstLimitReserve");
+			if (burstLimitReserve != null) {
+				return burstLimitReserve;
+			}
+			return BurstLimitGovernor.DEFAULT_RESERVE;
+		}
+		public void setBurstLimitReserve(Integer burstLimitReserve) {this.set("burstLimitReserve", burstLimitReserve);}
+
+		@JsonProperty("httpMaxRetries")
+		public Integer getHttpMaxRetries() {
+			Integer httpMaxRetries = this.getInteger("httpMaxRetries");
+			if (httpMaxRetries != null) {
+				return httpMaxRetries;
+			}
+			return ExponentialBackoffRetryPolicy.DEFAULT_MAX_RETRIES;
+		}
+		public void setHttpMaxRetries(Integer httpMaxRetries) {this.set("httpMaxRetries", httpMaxRetries);}
+
+		@JsonProperty("httpRetryBaseDelayMillis")
+		public Long getHttpRetryBaseDelayMillis() {
+			Long httpRetryBaseDelayMillis = getLongValue("httpRetryBaseDelayMillis");
+			if (httpRetryBaseDelayMillis != null) {
+				return httpRetryBaseDelayMillis;
+			}
+			return ExponentialBackoffRetryPolicy.DEFAULT_BASE_DELAY_MILLIS;
+		}
+		public void setHttpRetryBaseDelayMillis(Long httpRetryBaseDelayMillis) {this.set("httpRetryBaseDelayMillis", httpRetryBaseDelayMillis);}
+
+		@JsonProperty("httpRetryMaxDelayMillis")
+		public Long getHttpRetryMaxDelayMillis() {
+			Long httpRetryMaxDelayMillis = getLongValue("httpRetryMaxDelayMillis");
+			if (httpRetryMaxDelayMillis != null) {
+				return httpRetryMaxDelayMillis;
+			}
+			return ExponentialBackoffRetryPolicy.DEFAULT_MAX_DELAY_MILLIS;
+		}
+		public void setHttpRetryMaxDelayMillis(Long httpRetryMaxDelayMillis) {this.set("httpRetryMaxDelayMillis", httpRetryMaxDelayMillis);}
+
+		@JsonProperty("httpAcceptEncoding")
+		public String getHttpAcceptEncoding() {
+			return this.getString("httpAcceptEncoding");
+		}
+		public void setHttpAcceptEncoding(String httpAcceptEncoding) {this.set("httpAcceptEncoding", httpAcceptEncoding);}
+
+		@JsonProperty("retainRawResponse")
+		public Boolean getRetainRawResponse() {
+			Boolean retainRawResponse = this.getBoolean("retainRawResponse");
+			if (retainRawResponse != null) {
+				return retainRawResponse;
+			}
+			//default to false
+			return false;
+		}
+		public void setRetainRawResponse(Boolean retainRawResponse) {this.set("retainRawResponse", retainRawResponse);}
+
+		@JsonProperty("queryResultCacheSize")
+		public Integer getQueryResultCacheSize() {
+			Integer queryResultCacheSize = this.getInteger("queryResultCacheSize");
+			if (queryResultCacheSize != null) {
+				return queryResultCacheSize;
+			}
+			//default to disabled
+			return 0;
+		}
+		public void setQueryResultCacheSize(Integer queryResultCacheSize) {this.set("queryResultCacheSize", queryResultCacheSize);}
+
+		@JsonProperty("queryResultCacheTtlSeconds")
+		public Long getQueryResultCacheTtlSeconds() {
+			Long queryResultCacheTtlSeconds = getLongValue("queryResultCacheTtlSeconds");
+			if (queryResultCacheTtlSeconds != null) {
+				return queryResultCacheTtlSeconds;
+			}
+			return QueryResultCache.DEFAULT_TTL_SECONDS;
+		}
+		public void setQueryResultCacheTtlSeconds(Long queryResultCacheTtlSeconds) {this.set("queryResultCacheTtlSeconds", queryResultCacheTtlSeconds);}
+
 		@JsonProperty("validateSession")
 		public Boolean getValidateSession() {
 			Boolean validateSession = this.getBoolean("validateSession");
@@ -987,5 +1560,14 @@ public class VaultClient {
 			return false;
 		}
 		public void setAllowAllCertificates(Boolean allowAllCertificates) {this.set("allowAllCertificates", allowAllCertificates);}
+
+		// JSON numbers are read as Integer or Long depending on their size
+		private Long getLongValue(String key) {
+			Object value = this.get(key);
+			if (value != null) {
+				return ((Number) value).longValue();
+			}
+			return null;
+		}
 	}
 }
@@ -0,0 +1,110 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared Jackson configuration for Vault API responses and models.
+ * <p>
+ * Building an {@link ObjectMapper} is expensive: each new mapper rebuilds its serializer and
+ * deserializer caches on first use. The registry holds one configured mapper and caches an
+ * {@link ObjectReader} per response class and set of enabled deserialization features, and an
+ * {@link ObjectWriter} per set of serialization features. Readers and writers are immutable and
+ * thread safe, so they are shared by all requests of a Vault Client.
+ * <p>
+ * The shared mapper must not be reconfigured. Use {@link #newObjectMapper()} for a mapper
+ * with the same configuration that can be changed.
+ */
+public class ObjectMapperRegistry {
+
+	private static final ObjectMapperRegistry DEFAULT = new ObjectMapperRegistry();
+
+	private final ObjectMapper objectMapper = newObjectMapper();
+	private final ConcurrentMap<List<Object>, ObjectReader> readers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<EnumSet<SerializationFeature>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	/**
+	 * @return The registry shared by models that are not tied to a Vault Client
+	 */
+	public static ObjectMapperRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Create a new object mapper with the common configuration for Vault responses,
+	 * ignoring unknown properties
+	 *
+	 * @return A new object mapper, which may be reconfigured by the caller
+	 */
+	public static ObjectMapper newObjectMapper() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		return objectMapper;
+	}
+
+	/**
+	 * @return The shared object mapper. Must not be reconfigured.
+	 */
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 * Get the cached reader for a class, with additional deserialization features enabled
+	 *
+	 * @param valueType       Class to deserialize
+	 * @param enabledFeatures Features enabled in addition to the common configuration,
+	 *                        such as {@link DeserializationFeature#ACCEPT_SINGLE_VALUE_AS_ARRAY}
+	 * @return The reader
+	 */
+	public ObjectReader getReader(Class<?> valueType, DeserializationFeature... enabledFeatures) {
+		EnumSet<DeserializationFeature> features = enabledFeatures.length == 0
+				? EnumSet.noneOf(DeserializationFeature.class)
+				: EnumSet.copyOf(Arrays.asList(enabledFeatures));
+
+		return readers.computeIfAbsent(List.of(valueType, features), key -> {
+			ObjectReader reader = objectMapper.readerFor(valueType);
+			for (DeserializationFeature feature : features) {
+				reader = reader.with(feature);
+			}
+			return reader;
+		});
+	}
+
+	/**
+	 * Get the cached writer with additional serialization features enabled
+	 *
+	 * @param enabledFeatures Features enabled in addition to the common configuration,
+	 *                        such as {@link SerializationFeature#ORDER_MAP_ENTRIES_BY_KEYS}
+	 * @return The writer
+	 */
+	public ObjectWriter getWriter(SerializationFeature... enabledFeatures) {
+		EnumSet<SerializationFeature> features = enabledFeatures.length == 0
+				? EnumSet.noneOf(SerializationFeature.class)
+				: EnumSet.copyOf(Arrays.asList(enabledFeatures));
+
+		return writers.computeIfAbsent(features, key -> {
+			ObjectWriter writer = objectMapper.writer();
+			for (SerializationFeature feature : features) {
+				writer = writer.with(feature);
+			}
+			return writer;
+		});
+	}
+}
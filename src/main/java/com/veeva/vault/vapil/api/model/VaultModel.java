@@ -30,28 +30,43 @@ import java.util.stream.Stream;
 public class VaultModel {
 	private static Logger log = LoggerFactory.getLogger(VaultModel.class);
 
+	private static final Object[] EMPTY_VALUES = new Object[0];
+
+	/**
+	 * Holds all model data. Field names and positions are shared with other models
+	 * populated with the same fields via the shape; values are held in a flat array.
+	 * Models whose fields cannot be shared keep their own map instead.
+	 */
 	@JsonIgnore
-	private List<String> fieldNames = new ArrayList<>();
+	private VaultModelShape shape = VaultModelShape.root(getClass());
 
 	@JsonIgnore
-	public List<String> getFieldNames() {
-		return this.fieldNames;
-	}
+	private Object[] values = EMPTY_VALUES;
+
+	@JsonIgnore
+	private Map<String, Object> dictionary;
 
 	/**
-	 * Holds all model data
+	 * Get the names of all fields, in the order they were set
+	 *
+	 * @return Unmodifiable list of field names
 	 */
 	@JsonIgnore
-	private Map<String, Object> vaultModelData = new HashMap<>();
+	public List<String> getFieldNames() {
+		if (dictionary != null) {
+			return Collections.unmodifiableList(new ArrayList<>(dictionary.keySet()));
+		}
+		return shape.getFieldNames();
+	}
 
 	/**
 	 * Get all model data
 	 *
-	 * @return Map&lt;String, Object%gt;
+	 * @return Map&lt;String, Object%gt; view of the model data, in field order
 	 */
 	@JsonAnyGetter
 	public Map<String, Object> getVaultModelData() {
-		return this.vaultModelData;
+		return new VaultModelData();
 	}
 
 	/**
@@ -61,11 +76,10 @@ public class VaultModel {
 	 */
 	@JsonIgnore
 	public void setVaultModelData(Map<String, Object> keyValueData) {
-		this.fieldNames.clear();
-		if (keyValueData != null)
-			this.fieldNames.addAll(keyValueData.keySet());
-
-		this.vaultModelData = keyValueData;
+		clear();
+		if (keyValueData != null) {
+			keyValueData.forEach(this::set);
+		}
 	}
 
 	/**
@@ -76,7 +90,11 @@ public class VaultModel {
 	 */
 	@JsonIgnore
 	public Object get(String key) {
-		return this.vaultModelData.get(key);
+		if (dictionary != null) {
+			return dictionary.get(key);
+		}
+		int position = shape.indexOf(key);
+		return position >= 0 ? values[position] : null;
 	}
 
 	/**
@@ -87,10 +105,85 @@ public class VaultModel {
 	 */
 	@JsonAnySetter
 	public void set(String key, Object value) {
-		if (!this.fieldNames.contains(key))
-			this.fieldNames.add(key);
+		put(key, value);
+	}
+
+	private Object put(String key, Object value) {
+		if (dictionary != null) {
+			return dictionary.put(key, value);
+		}
+
+		int position = shape.indexOf(key);
+		if (position < 0) {
+			VaultModelShape next = shape.withField(key);
+			if (next == null) {
+				toDictionary();
+				return dictionary.put(key, value);
+			}
+			position = shape.size();
+			shape = next;
+			if (position >= values.length) {
+				int capacity = Math.max(8, position + (position >> 1) + 1);
+				if (next.getSizeHint() > position + 1) {
+					// Other models went on to more fields from here, grow towards their size without slack
+					capacity = Math.min(next.getSizeHint(), Math.max(capacity, 2 * position));
+				}
+				values = Arrays.copyOf(values, capacity);
+			}
+		}
+
+		Object previous = values[position];
+		values[position] = value;
+		return previous;
+	}
+
+	private boolean containsField(Object key) {
+		if (dictionary != null) {
+			return dictionary.containsKey(key);
+		}
+		return key instanceof String && shape.indexOf((String) key) >= 0;
+	}
+
+	private Object remove(Object key) {
+		if (dictionary != null) {
+			return dictionary.remove(key);
+		}
+		if (!(key instanceof String)) return null;
+
+		int position = shape.indexOf((String) key);
+		if (position < 0) return null;
+
+		// Rebuild the remaining fields on a shared shape, removing fields is rare
+		Object previous = values[position];
+		VaultModelShape oldShape = shape;
+		Object[] oldValues = values;
+		clear();
+		for (int i = 0; i < oldShape.size(); i++) {
+			if (i != position) {
+				put(oldShape.getFieldName(i), oldValues[i]);
+			}
+		}
+		return previous;
+	}
+
+	private void clear() {
+		shape = VaultModelShape.root(getClass());
+		values = EMPTY_VALUES;
+		dictionary = null;
+	}
 
-		this.vaultModelData.put(key, value);
+	private int size() {
+		return dictionary != null ? dictionary.size() : shape.size();
+	}
+
+	private void toDictionary() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < shape.size(); i++) {
+			map.put(shape.getFieldName(i), values[i]);
+		}
+		shape = VaultModelShape.root(getClass());
+		values = EMPTY_VALUES;
+		dictionary = map;
 	}
 
 	/**
@@ -245,7 +338,7 @@ public class VaultModel {
 	 */
 	@JsonIgnore
 	public Map<String, Object> toMap(boolean convertArrayToString) {
-		ObjectMapper mapper = new ObjectMapper();
+		ObjectMapper mapper = ObjectMapperRegistry.getDefault().getObjectMapper();
 		Map<String, Object> result = mapper.convertValue(this, new TypeReference<Map<String, Object>>() {
 		});
 
@@ -285,9 +378,9 @@ public class VaultModel {
 	@JsonIgnore
 	public String toJsonString() {
 		try {
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-			return mapper.writeValueAsString(this.toMap(false));
+			return ObjectMapperRegistry.getDefault()
+					.getWriter(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+					.writeValueAsString(this.toMap(false));
 		} catch (Exception e) {
 			log.error(e.getMessage());
 			e.printStackTrace();
@@ -303,7 +396,7 @@ public class VaultModel {
 	@JsonIgnore
 	public JsonNode toJSONObject() {
 		try {
-			ObjectMapper objectMapper = new ObjectMapper();
+			ObjectMapper objectMapper = ObjectMapperRegistry.getDefault().getObjectMapper();
 			String jsonString = objectMapper.writeValueAsString(this);
 			return objectMapper.readTree(jsonString);
 		} catch (Exception e) {
@@ -311,4 +404,88 @@ public class VaultModel {
 			return null;
 		}
 	}
+
+	/**
+	 * Live map view of the model data
+	 */
+	private class VaultModelData extends AbstractMap<String, Object> {
+
+		@Override
+		public int size() {
+			return VaultModel.this.size();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return containsField(key);
+		}
+
+		@Override
+		public Object get(Object key) {
+			return key instanceof String ? VaultModel.this.get((String) key) : null;
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return VaultModel.this.put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return VaultModel.this.remove(key);
+		}
+
+		@Override
+		public void clear() {
+			VaultModel.this.clear();
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<Entry<String, Object>>() {
+				@Override
+				public int size() {
+					return VaultModel.this.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					if (dictionary != null) {
+						return dictionary.entrySet().iterator();
+					}
+					return new Iterator<Entry<String, Object>>() {
+						private int next = 0;
+						private int last = -1;
+
+						@Override
+						public boolean hasNext() {
+							return next < shape.size();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							if (!hasNext()) throw new NoSuchElementException();
+							last = next++;
+							String key = shape.getFieldName(last);
+							return new SimpleEntry<String, Object>(key, values[last]) {
+								@Override
+								public Object setValue(Object value) {
+									VaultModel.this.put(key, value);
+									return super.setValue(value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (last < 0) throw new IllegalStateException();
+							VaultModel.this.remove(shape.getFieldName(last));
+							next = last;
+							last = -1;
+						}
+					};
+				}
+			};
+		}
+	}
 }
@@ -0,0 +1,146 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable, shared field layout of {@link VaultModel} instances, in the style of a hidden class.
+ * <p>
+ * A shape maps field names, in insertion order, to positions in the value array of a model.
+ * Adding a field moves a model to the next shape via a cached transition, so all records
+ * populated with the same fields in the same order, such as the rows of a query, share one
+ * shape and one copy of the field index.
+ * <p>
+ * Each shape also remembers the largest number of fields models have reached from it, so
+ * value arrays grow to their final size, without slack, once the first record has been populated.
+ * <p>
+ * Each model class has its own root shape, so the fields of one class do not use up the
+ * transitions of another. Shapes are not shared beyond {@value #MAX_FIELDS} fields,
+ * {@value #MAX_TRANSITIONS} transitions from one shape or {@value #MAX_SHAPES} shapes in total,
+ * which bounds the memory held by shapes of models used as dictionaries with arbitrary keys or
+ * populated from many distinct query column sets. Such models keep their own map instead.
+ */
+final class VaultModelShape {
+
+	static final int MAX_FIELDS = 256;
+	static final int MAX_TRANSITIONS = 64;
+	static final int MAX_SHAPES = 16384;
+
+	private static final AtomicInteger SHAPE_COUNT = new AtomicInteger();
+	private static final ClassValue<VaultModelShape> ROOTS = new ClassValue<VaultModelShape>() {
+		@Override
+		protected VaultModelShape computeValue(Class<?> modelClass) {
+			return new VaultModelShape(null, new String[0]);
+		}
+	};
+
+	private final VaultModelShape parent;
+	private final String[] fieldNames;
+	private final List<String> fieldNameList;
+	private final Map<String, Integer> index;
+	private final ConcurrentMap<String, VaultModelShape> transitions = new ConcurrentHashMap<>();
+	private volatile int sizeHint;
+
+	private VaultModelShape(VaultModelShape parent, String[] fieldNames) {
+		this.parent = parent;
+		this.fieldNames = fieldNames;
+		this.sizeHint = fieldNames.length;
+		this.fieldNameList = Collections.unmodifiableList(Arrays.asList(fieldNames));
+		this.index = new HashMap<>(fieldNames.length * 4 / 3 + 1);
+		for (int i = 0; i < fieldNames.length; i++) {
+			index.put(fieldNames[i], i);
+		}
+	}
+
+	/**
+	 * @param modelClass Model class
+	 * @return The empty shape all models of the class start from
+	 */
+	static VaultModelShape root(Class<?> modelClass) {
+		return ROOTS.get(modelClass);
+	}
+
+	/**
+	 * @return Number of shapes created, excluding roots
+	 */
+	static int getShapeCount() {
+		return SHAPE_COUNT.get();
+	}
+
+	/**
+	 * @param fieldName Field name
+	 * @return Position of the field, -1 if the shape does not have the field
+	 */
+	int indexOf(String fieldName) {
+		Integer position = index.get(fieldName);
+		return position != null ? position : -1;
+	}
+
+	/**
+	 * @return Number of fields
+	 */
+	int size() {
+		return fieldNames.length;
+	}
+
+	/**
+	 * @param position Position of the field
+	 * @return Field name at the position
+	 */
+	String getFieldName(int position) {
+		return fieldNames[position];
+	}
+
+	/**
+	 * @return Largest number of fields reached from this shape
+	 */
+	int getSizeHint() {
+		return sizeHint;
+	}
+
+	/**
+	 * @return Unmodifiable field names, in insertion order
+	 */
+	List<String> getFieldNames() {
+		return fieldNameList;
+	}
+
+	/**
+	 * Get the shape with a field appended, positioned at {@link #size()}
+	 *
+	 * @param fieldName Field name, not present in this shape
+	 * @return The shared next shape, or null if shapes are not shared beyond this shape
+	 */
+	VaultModelShape withField(String fieldName) {
+		VaultModelShape next = transitions.get(fieldName);
+		if (next != null) return next;
+		if (fieldNames.length >= MAX_FIELDS || transitions.size() >= MAX_TRANSITIONS) return null;
+
+		return transitions.computeIfAbsent(fieldName, key -> {
+			if (SHAPE_COUNT.incrementAndGet() > MAX_SHAPES) {
+				SHAPE_COUNT.decrementAndGet();
+				return null;
+			}
+			String[] nextFieldNames = Arrays.copyOf(fieldNames, fieldNames.length + 1);
+			nextFieldNames[fieldNames.length] = key;
+			VaultModelShape shape = new VaultModelShape(this, nextFieldNames);
+			for (VaultModelShape ancestor = this; ancestor != null && ancestor.sizeHint < nextFieldNames.length; ancestor = ancestor.parent) {
+				ancestor.sizeHint = nextFieldNames.length;
+			}
+			return shape;
+		});
+	}
+}
@@ -8,6 +8,7 @@
 package com.veeva.vault.vapil.api.model.builder;
 
 import com.veeva.vault.vapil.api.model.common.LoaderTask;
+import com.veeva.vault.vapil.api.request.PreparedVql;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -220,6 +221,17 @@ public class LoaderTaskBuilder {
 		return this;
 	}
 
+	/**
+	 * Append a where clause rendered from a prepared template, with escaped values
+	 *
+	 * @param bindings The template and values, such as "WHERE name__v = :name"
+	 * @return The builder
+	 */
+	public LoaderTaskBuilder appendWhere(PreparedVql.Bindings bindings) {
+		whereClause.append(bindings.render());
+		return this;
+	}
+
 	public LoaderTaskBuilder setMaxRows(Integer maxRows) {
 		this.maxRows = maxRows;
 		return this;
@@ -0,0 +1,589 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model.response;
+
+import com.veeva.vault.vapil.api.model.metadata.VaultObjectField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column vector holding the values of one field across the rows of a columnar query.
+ * <p>
+ * Values are stored by type: numbers in primitive arrays, booleans in a bit set,
+ * picklist values dictionary encoded, and other values as objects. Null values are tracked
+ * in a bit set. The type is taken from the query describe when available, otherwise it is
+ * inferred from the first value. A column is widened when a value does not fit its type,
+ * for example from {@link Type#INT} to {@link Type#LONG} or {@link Type#DOUBLE}, or to
+ * {@link Type#OBJECT} for mixed values.
+ *
+ * @see QueryColumns
+ */
+public class QueryColumn {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+	/**
+	 * Storage type of a column
+	 */
+	public enum Type {
+		/**
+		 * Whole numbers in an int[]
+		 */
+		INT,
+		/**
+		 * Whole numbers in a long[]
+		 */
+		LONG,
+		/**
+		 * Decimal numbers in a double[]
+		 */
+		DOUBLE,
+		/**
+		 * Booleans in a bit set
+		 */
+		BOOLEAN,
+		/**
+		 * Strings in a String[]
+		 */
+		STRING,
+		/**
+		 * Dictionary encoded values, such as picklist value lists, with an int code per row
+		 */
+		DICTIONARY,
+		/**
+		 * Any other values, such as nested subquery results, in an Object[]
+		 */
+		OBJECT
+	}
+
+	private final String name;
+	private Type type;
+	private int size = 0;
+
+	private long[] nulls = new long[1];
+	private int[] ints;
+	private long[] longs;
+	private double[] doubles;
+	private long[] booleans;
+	private Object[] objects;
+	private int[] codes;
+	private List<Object> dictionary;
+	private Map<Object, Integer> dictionaryCodes;
+
+	/**
+	 * Create an empty column, typed by its first value
+	 *
+	 * @param name Field name
+	 */
+	public QueryColumn(String name) {
+		this(name, null);
+	}
+
+	/**
+	 * Create an empty column of the given type
+	 *
+	 * @param name Field name
+	 * @param type Storage type, null to infer it from the first value
+	 */
+	public QueryColumn(String name, Type type) {
+		this.name = name;
+		if (type != null) {
+			allocate(type, INITIAL_CAPACITY);
+		}
+	}
+
+	/**
+	 * Get the storage type for a field of a query describe
+	 *
+	 * @param field Field from the query describe
+	 * @return Storage type, null if it is inferred from the values
+	 */
+	public static Type getType(VaultObjectField field) {
+		if (field == null || field.getType() == null) return null;
+
+		switch (field.getType().toLowerCase()) {
+			case "number":
+			case "currency":
+				Integer scale = field.getScale();
+				return scale != null && scale == 0 ? Type.LONG : Type.DOUBLE;
+			case "boolean":
+				return Type.BOOLEAN;
+			case "picklist":
+				return Type.DICTIONARY;
+			case "id":
+			case "string":
+			case "longtext":
+			case "richtext":
+			case "date":
+			case "datetime":
+			case "object":
+			case "objectreference":
+			case "parent":
+			case "link":
+				return Type.STRING;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * @return Field name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Storage type, null while the column only holds nulls
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return Number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row Row index
+	 * @return True if the value of the row is null
+	 */
+	public boolean isNull(int row) {
+		checkIndex(row);
+		return isBitSet(nulls, row);
+	}
+
+	/**
+	 * @param row Row index
+	 * @return Value of an {@link Type#INT} column, 0 for null
+	 */
+	public int getInt(int row) {
+		checkIndex(row);
+		checkType(Type.INT);
+		if (isBitSet(nulls, row)) return 0;
+		return ints[row];
+	}
+
+	/**
+	 * @param row Row index
+	 * @return Value of an {@link Type#INT} or {@link Type#LONG} column, 0 for null
+	 */
+	public long getLong(int row) {
+		checkIndex(row);
+		if (isBitSet(nulls, row)) return 0;
+		if (type == Type.INT) return ints[row];
+		checkType(Type.LONG);
+		return longs[row];
+	}
+
+	/**
+	 * @param row Row index
+	 * @return Value of a numeric column, 0 for null
+	 */
+	public double getDouble(int row) {
+		checkIndex(row);
+		if (isBitSet(nulls, row)) return 0;
+		if (type == Type.INT) return ints[row];
+		if (type == Type.LONG) return longs[row];
+		checkType(Type.DOUBLE);
+		return doubles[row];
+	}
+
+	/**
+	 * @param row Row index
+	 * @return Value of a {@link Type#BOOLEAN} column, false for null
+	 */
+	public boolean getBoolean(int row) {
+		checkIndex(row);
+		checkType(Type.BOOLEAN);
+		return !isBitSet(nulls, row) && isBitSet(booleans, row);
+	}
+
+	/**
+	 * Get the value as a string. Dictionary encoded lists, such as picklist values,
+	 * are joined with commas.
+	 *
+	 * @param row Row index
+	 * @return String value, null for null
+	 */
+	public String getString(int row) {
+		Object value = get(row);
+		if (value == null) return null;
+		if (value instanceof List) {
+			StringBuilder joined = new StringBuilder();
+			for (Object item : (List<?>) value) {
+				if (joined.length() > 0) joined.append(',');
+				joined.append(item);
+			}
+			return joined.toString();
+		}
+		return value.toString();
+	}
+
+	/**
+	 * @param row Row index
+	 * @return Dictionary code of a {@link Type#DICTIONARY} column, -1 for null
+	 */
+	public int getCode(int row) {
+		checkIndex(row);
+		checkType(Type.DICTIONARY);
+		return isBitSet(nulls, row) ? -1 : codes[row];
+	}
+
+	/**
+	 * @return Distinct values of a {@link Type#DICTIONARY} column, indexed by code
+	 */
+	public List<Object> getDictionary() {
+		checkType(Type.DICTIONARY);
+		return dictionary != null ? Collections.unmodifiableList(dictionary) : Collections.emptyList();
+	}
+
+	/**
+	 * Get the value as an object, boxing primitive values
+	 *
+	 * @param row Row index
+	 * @return The value, null for null
+	 */
+	public Object get(int row) {
+		checkIndex(row);
+		if (isBitSet(nulls, row)) return null;
+
+		switch (type) {
+			case INT:
+				return ints[row];
+			case LONG:
+				return longs[row];
+			case DOUBLE:
+				return doubles[row];
+			case BOOLEAN:
+				return isBitSet(booleans, row);
+			case DICTIONARY:
+				return dictionary.get(codes[row]);
+			default:
+				return objects[row];
+		}
+	}
+
+	/**
+	 * Append a null value
+	 */
+	public void appendNull() {
+		ensureCapacity(size + 1);
+		setBit(nulls, size);
+		size++;
+	}
+
+	/**
+	 * Append a whole number, widening an {@link Type#INT} column if needed
+	 *
+	 * @param value The value
+	 */
+	public void appendLong(long value) {
+		if (type == null) {
+			allocate(value == (int) value ? Type.INT : Type.LONG, INITIAL_CAPACITY);
+		} else if (type == Type.INT && value != (int) value) {
+			widen(Type.LONG);
+		} else if (type != Type.INT && type != Type.LONG && type != Type.DOUBLE) {
+			widen(Type.OBJECT);
+		}
+
+		ensureCapacity(size + 1);
+		switch (type) {
+			case INT:
+				ints[size] = (int) value;
+				break;
+			case LONG:
+				longs[size] = value;
+				break;
+			case DOUBLE:
+				doubles[size] = value;
+				break;
+			default:
+				objects[size] = value;
+		}
+		size++;
+	}
+
+	/**
+	 * Append a decimal number, widening a whole number column to {@link Type#DOUBLE}
+	 *
+	 * @param value The value
+	 */
+	public void appendDouble(double value) {
+		if (type == null) {
+			allocate(Type.DOUBLE, INITIAL_CAPACITY);
+		} else if (type == Type.INT || type == Type.LONG) {
+			widen(Type.DOUBLE);
+		} else if (type != Type.DOUBLE) {
+			widen(Type.OBJECT);
+		}
+
+		ensureCapacity(size + 1);
+		if (type == Type.DOUBLE) {
+			doubles[size] = value;
+		} else {
+			objects[size] = value;
+		}
+		size++;
+	}
+
+	/**
+	 * Append a boolean
+	 *
+	 * @param value The value
+	 */
+	public void appendBoolean(boolean value) {
+		if (type == null) {
+			allocate(Type.BOOLEAN, INITIAL_CAPACITY);
+		} else if (type != Type.BOOLEAN) {
+			widen(Type.OBJECT);
+		}
+
+		ensureCapacity(size + 1);
+		if (type == Type.BOOLEAN) {
+			if (value) setBit(booleans, size);
+		} else {
+			objects[size] = value;
+		}
+		size++;
+	}
+
+	/**
+	 * Append a string
+	 *
+	 * @param value The value, null for a null value
+	 */
+	public void appendString(String value) {
+		appendValue(value);
+	}
+
+	/**
+	 * Append any value. Numbers and booleans are stored as such, strings and lists,
+	 * such as picklist values, in a {@link Type#STRING} or {@link Type#DICTIONARY} column,
+	 * and other values as objects.
+	 *
+	 * @param value The value, null for a null value
+	 */
+	public void appendValue(Object value) {
+		if (value == null) {
+			appendNull();
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			appendLong(((Number) value).longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			appendDouble(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			appendBoolean((Boolean) value);
+		} else {
+			if (type == null) {
+				allocate(value instanceof String ? Type.STRING : value instanceof List ? Type.DICTIONARY : Type.OBJECT, INITIAL_CAPACITY);
+			} else if (type == Type.DICTIONARY && (!(value instanceof String || value instanceof List)
+					|| (dictionary.size() >= MAX_DICTIONARY_SIZE && !dictionaryCodes.containsKey(value)))) {
+				widen(Type.OBJECT);
+			} else if (type == Type.STRING && !(value instanceof String)) {
+				widen(Type.OBJECT);
+			} else if (type != Type.STRING && type != Type.DICTIONARY && type != Type.OBJECT) {
+				widen(Type.OBJECT);
+			}
+
+			ensureCapacity(size + 1);
+			if (type == Type.DICTIONARY) {
+				codes[size] = encode(value);
+			} else {
+				objects[size] = value;
+			}
+			size++;
+		}
+	}
+
+	/**
+	 * Append all rows of another column, such as the same field of the next query page
+	 *
+	 * @param other The column to append
+	 */
+	public void append(QueryColumn other) {
+		if (other.type == null || other.type == type || type == null) {
+			if (type == null && other.type != null) {
+				// Adopt the type of the other column, keeping the nulls appended so far
+				allocate(other.type, Math.max(INITIAL_CAPACITY, size + other.size));
+			}
+			appendSameType(other);
+		} else {
+			for (int row = 0; row < other.size; row++) {
+				appendValue(other.get(row));
+			}
+		}
+	}
+
+	private void appendSameType(QueryColumn other) {
+		ensureCapacity(size + other.size);
+		for (int row = 0; row < other.size; row++) {
+			int target = size + row;
+			if (isBitSet(other.nulls, row)) {
+				setBit(nulls, target);
+				continue;
+			}
+			switch (type) {
+				case INT:
+					ints[target] = other.ints[row];
+					break;
+				case LONG:
+					longs[target] = other.longs[row];
+					break;
+				case DOUBLE:
+					doubles[target] = other.doubles[row];
+					break;
+				case BOOLEAN:
+					if (isBitSet(other.booleans, row)) setBit(booleans, target);
+					break;
+				case DICTIONARY:
+					codes[target] = encode(other.dictionary.get(other.codes[row]));
+					break;
+				default:
+					objects[target] = other.objects[row];
+			}
+		}
+		size += other.size;
+	}
+
+	private int encode(Object value) {
+		Integer code = dictionaryCodes.get(value);
+		if (code == null) {
+			code = dictionary.size();
+			dictionary.add(value);
+			dictionaryCodes.put(value, code);
+		}
+		return code;
+	}
+
+	/**
+	 * Change the storage type, converting the values appended so far
+	 */
+	private void widen(Type newType) {
+		QueryColumn widened = new QueryColumn(name, newType);
+		widened.ensureCapacity(Math.max(INITIAL_CAPACITY, size));
+		for (int row = 0; row < size; row++) {
+			Object value = get(row);
+			if (value == null) {
+				widened.appendNull();
+			} else if (newType == Type.DOUBLE) {
+				widened.appendDouble(((Number) value).doubleValue());
+			} else if (newType == Type.OBJECT) {
+				widened.ensureCapacity(row + 1);
+				widened.objects[row] = value;
+				widened.size++;
+			} else {
+				widened.appendValue(value);
+			}
+		}
+
+		type = widened.type;
+		nulls = widened.nulls;
+		ints = widened.ints;
+		longs = widened.longs;
+		doubles = widened.doubles;
+		booleans = widened.booleans;
+		objects = widened.objects;
+		codes = widened.codes;
+		dictionary = widened.dictionary;
+		dictionaryCodes = widened.dictionaryCodes;
+	}
+
+	private void allocate(Type newType, int capacity) {
+		type = newType;
+		switch (type) {
+			case INT:
+				ints = new int[capacity];
+				break;
+			case LONG:
+				longs = new long[capacity];
+				break;
+			case DOUBLE:
+				doubles = new double[capacity];
+				break;
+			case BOOLEAN:
+				booleans = new long[bitWords(capacity)];
+				break;
+			case DICTIONARY:
+				codes = new int[capacity];
+				dictionary = new ArrayList<>();
+				dictionaryCodes = new HashMap<>();
+				break;
+			default:
+				objects = new Object[capacity];
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (bitWords(capacity) > nulls.length) {
+			nulls = Arrays.copyOf(nulls, Math.max(bitWords(capacity), nulls.length * 2));
+		}
+		if (type == null) return;
+
+		switch (type) {
+			case INT:
+				if (capacity > ints.length) ints = Arrays.copyOf(ints, grow(ints.length, capacity));
+				break;
+			case LONG:
+				if (capacity > longs.length) longs = Arrays.copyOf(longs, grow(longs.length, capacity));
+				break;
+			case DOUBLE:
+				if (capacity > doubles.length) doubles = Arrays.copyOf(doubles, grow(doubles.length, capacity));
+				break;
+			case BOOLEAN:
+				if (bitWords(capacity) > booleans.length) booleans = Arrays.copyOf(booleans, Math.max(bitWords(capacity), booleans.length * 2));
+				break;
+			case DICTIONARY:
+				if (capacity > codes.length) codes = Arrays.copyOf(codes, grow(codes.length, capacity));
+				break;
+			default:
+				if (capacity > objects.length) objects = Arrays.copyOf(objects, grow(objects.length, capacity));
+		}
+	}
+
+	private static int grow(int length, int capacity) {
+		return Math.max(capacity, length + (length >> 1) + 1);
+	}
+
+	private static int bitWords(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	private static boolean isBitSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void setBit(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	private void checkIndex(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " out of bounds for column " + name + " of size " + size);
+		}
+	}
+
+	private void checkType(Type expected) {
+		if (type != expected && type != null) {
+			throw new IllegalStateException("Column " + name + " is of type " + type + ", not " + expected);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + type + ", " + size + " rows)";
+	}
+}
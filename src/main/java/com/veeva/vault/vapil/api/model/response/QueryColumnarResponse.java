@@ -0,0 +1,65 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Model for VQL query API calls, with the data decoded into columns
+ *
+ * @see QueryColumns
+ */
+public class QueryColumnarResponse extends VaultResponse {
+
+	private QueryColumns data;
+
+	@JsonIgnore
+	public QueryColumns getData() {
+		return data;
+	}
+
+	@JsonProperty("data")
+	@JsonDeserialize(using = QueryColumns.Deserializer.class)
+	public void setData(QueryColumns data) {
+		this.data = data;
+	}
+
+	@JsonIgnore
+	public boolean isPaginated() {
+		if (getResponseDetails() != null) {
+			if (getResponseDetails().getPreviousPage() != null || getResponseDetails().getNextPage() != null) {
+				return true;
+			}
+
+			if (getResponseDetails().getSize() != getResponseDetails().getTotal()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@JsonProperty("queryDescribe")
+	public QueryResponse.QueryDescribe getQueryDescribe() {
+		return (QueryResponse.QueryDescribe) this.get("queryDescribe");
+	}
+
+	public void setQueryDescribe(QueryResponse.QueryDescribe queryDescribe) {
+		this.set("queryDescribe", queryDescribe);
+	}
+
+	@JsonProperty("responseDetails")
+	public QueryResponse.ResponseDetails getResponseDetails() {
+		return (QueryResponse.ResponseDetails) this.get("responseDetails");
+	}
+
+	public void setResponseDetails(QueryResponse.ResponseDetails responseDetails) {
+		this.set("responseDetails", responseDetails);
+	}
+}
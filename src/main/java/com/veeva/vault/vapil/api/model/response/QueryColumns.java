@@ -0,0 +1,206 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model.response;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.veeva.vault.vapil.api.model.metadata.VaultObjectField;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query results decoded into one {@link QueryColumn} per field, instead of one map per row.
+ * <p>
+ * Rows are decoded directly from the JSON response. Column types are taken from the
+ * query describe when the response includes it before the data, otherwise they are inferred
+ * from the values. Fields missing from a row are null. The columns of further query
+ * pages can be appended via {@link #append(QueryColumns)}.
+ */
+public class QueryColumns {
+
+	private final Map<String, QueryColumn> columns = new LinkedHashMap<>();
+	private final Map<String, QueryColumn.Type> declaredTypes = new HashMap<>();
+	private int rowCount = 0;
+
+	/**
+	 * @return Number of rows
+	 */
+	public int size() {
+		return rowCount;
+	}
+
+	/**
+	 * @return Field names, in the order they first appeared
+	 */
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+	}
+
+	/**
+	 * @return Columns, in the order their fields first appeared
+	 */
+	public Collection<QueryColumn> getColumns() {
+		return Collections.unmodifiableCollection(columns.values());
+	}
+
+	/**
+	 * @param fieldName Field name
+	 * @return The column, null if no row had the field
+	 */
+	public QueryColumn getColumn(String fieldName) {
+		return columns.get(fieldName);
+	}
+
+	/**
+	 * Set the column types from the fields of a query describe,
+	 * for columns created after this call
+	 *
+	 * @param fields Fields of the query describe
+	 */
+	public void setFieldTypes(List<VaultObjectField> fields) {
+		if (fields == null) return;
+		for (VaultObjectField field : fields) {
+			QueryColumn.Type type = QueryColumn.getType(field);
+			if (field.getName() != null && type != null) {
+				declaredTypes.put(field.getName(), type);
+			}
+		}
+	}
+
+	/**
+	 * Append the rows of another page of the same query
+	 *
+	 * @param other The columns to append
+	 */
+	public void append(QueryColumns other) {
+		for (QueryColumn otherColumn : other.columns.values()) {
+			getOrCreateColumn(otherColumn.getName()).append(otherColumn);
+		}
+		rowCount += other.rowCount;
+		padColumns();
+	}
+
+	private QueryColumn getOrCreateColumn(String fieldName) {
+		QueryColumn column = columns.get(fieldName);
+		if (column == null) {
+			column = new QueryColumn(fieldName, declaredTypes.get(fieldName));
+			for (int row = 0; row < rowCount; row++) {
+				column.appendNull();
+			}
+			columns.put(fieldName, column);
+		}
+		return column;
+	}
+
+	/**
+	 * Fill the columns missing from the last rows with nulls
+	 */
+	private void padColumns() {
+		for (QueryColumn column : columns.values()) {
+			while (column.size() < rowCount) {
+				column.appendNull();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return rowCount + " rows, columns " + columns.values();
+	}
+
+	/**
+	 * Decodes the data array of a query response into columns, using the
+	 * query describe of the response being deserialized, if already read
+	 */
+	public static class Deserializer extends StdDeserializer<QueryColumns> {
+		private static final long serialVersionUID = 1L;
+
+		public Deserializer() {
+			super(QueryColumns.class);
+		}
+
+		@Override
+		public QueryColumns deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			QueryColumns queryColumns = new QueryColumns();
+
+			JsonStreamContext parent = p.getParsingContext().getParent();
+			Object response = parent != null ? parent.getCurrentValue() : null;
+			if (response instanceof QueryColumnarResponse) {
+				QueryResponse.QueryDescribe queryDescribe = ((QueryColumnarResponse) response).getQueryDescribe();
+				if (queryDescribe != null) {
+					queryColumns.setFieldTypes(queryDescribe.getFields());
+				}
+			}
+
+			if (!p.isExpectedStartArrayToken()) {
+				return (QueryColumns) ctxt.handleUnexpectedToken(QueryColumns.class, p);
+			}
+
+			JsonToken token;
+			while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					return (QueryColumns) ctxt.handleUnexpectedToken(QueryColumns.class, p);
+				}
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					QueryColumn column = queryColumns.getOrCreateColumn(p.currentName());
+					p.nextToken();
+					if (column.size() > queryColumns.rowCount) {
+						// Duplicate field in the row, keep the first value
+						p.skipChildren();
+						continue;
+					}
+					appendValue(column, p, ctxt);
+				}
+				queryColumns.rowCount++;
+				queryColumns.padColumns();
+			}
+
+			return queryColumns;
+		}
+
+		private static void appendValue(QueryColumn column, JsonParser p, DeserializationContext ctxt) throws IOException {
+			switch (p.currentToken()) {
+				case VALUE_NULL:
+					column.appendNull();
+					break;
+				case VALUE_NUMBER_INT:
+					if (p.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+						column.appendValue(p.getBigIntegerValue());
+					} else {
+						column.appendLong(p.getLongValue());
+					}
+					break;
+				case VALUE_NUMBER_FLOAT:
+					column.appendDouble(p.getDoubleValue());
+					break;
+				case VALUE_TRUE:
+					column.appendBoolean(true);
+					break;
+				case VALUE_FALSE:
+					column.appendBoolean(false);
+					break;
+				case VALUE_STRING:
+					column.appendString(p.getText());
+					break;
+				default:
+					// Picklist value lists and nested subquery results
+					column.appendValue(ctxt.readValue(p, Object.class));
+			}
+		}
+	}
+}
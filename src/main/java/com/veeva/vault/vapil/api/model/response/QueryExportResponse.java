@@ -0,0 +1,125 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Model for VQL query API calls whose records are written out while the response is read,
+ * rather than kept in the response.
+ * <p>
+ * The records are handed to the {@link RowWriter} set as attribute of the object reader,
+ * one at a time, straight from the JSON token stream.
+ */
+public class QueryExportResponse extends VaultResponse {
+
+	private long rowCount;
+
+	/**
+	 * @return Number of records written, see {@link com.veeva.vault.vapil.api.request.QueryRequest#exportTo}
+	 */
+	@JsonIgnore
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	@JsonIgnore
+	public void setRowCount(long rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	@JsonProperty("data")
+	@JsonDeserialize(using = RowDeserializer.class)
+	public void setData(Long rowCount) {
+		this.rowCount = rowCount != null ? rowCount : 0;
+	}
+
+	@JsonProperty("queryDescribe")
+	public QueryResponse.QueryDescribe getQueryDescribe() {
+		return (QueryResponse.QueryDescribe) this.get("queryDescribe");
+	}
+
+	public void setQueryDescribe(QueryResponse.QueryDescribe queryDescribe) {
+		this.set("queryDescribe", queryDescribe);
+	}
+
+	@JsonProperty("responseDetails")
+	public QueryResponse.ResponseDetails getResponseDetails() {
+		return (QueryResponse.ResponseDetails) this.get("responseDetails");
+	}
+
+	public void setResponseDetails(QueryResponse.ResponseDetails responseDetails) {
+		this.set("responseDetails", responseDetails);
+	}
+
+	/**
+	 * Destination of the records of a response, set on the object reader via
+	 * {@code objectReader.withAttribute(RowWriter.class, rowWriter)}
+	 */
+	public interface RowWriter {
+
+		/**
+		 * Write one record
+		 *
+		 * @param p             Parser positioned on the START_OBJECT token of the record, to be
+		 *                      left on its END_OBJECT token
+		 * @param queryDescribe Describe of the query, if received ahead of the records
+		 * @throws IOException if reading or writing fails
+		 */
+		void writeRow(JsonParser p, QueryResponse.QueryDescribe queryDescribe) throws IOException;
+	}
+
+	/**
+	 * Hand each record of the data array to the row writer, and count them
+	 */
+	public static class RowDeserializer extends StdDeserializer<Long> {
+
+		public RowDeserializer() {
+			super(Long.class);
+		}
+
+		@Override
+		public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			RowWriter rowWriter = (RowWriter) ctxt.getAttribute(RowWriter.class);
+			if (rowWriter == null) {
+				return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+			}
+
+			QueryResponse.QueryDescribe queryDescribe = null;
+			JsonStreamContext parent = p.getParsingContext().getParent();
+			Object response = parent != null ? parent.getCurrentValue() : null;
+			if (response instanceof QueryExportResponse) {
+				queryDescribe = ((QueryExportResponse) response).getQueryDescribe();
+			}
+
+			if (!p.isExpectedStartArrayToken()) {
+				return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+			}
+
+			long rows = 0;
+			JsonToken token;
+			while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+				}
+				rowWriter.writeRow(p, queryDescribe);
+				rows++;
+			}
+			return rows;
+		}
+	}
+}
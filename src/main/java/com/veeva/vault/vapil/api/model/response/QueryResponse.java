@@ -9,18 +9,21 @@ package com.veeva.vault.vapil.api.model.response;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
 import com.veeva.vault.vapil.api.model.metadata.VaultObjectField;
 import com.veeva.vault.vapil.api.model.VaultModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Model for VQL query API calls
  */
 public class QueryResponse extends VaultResponse {
+	private static Logger log = LoggerFactory.getLogger(QueryResponse.class);
 
 	@JsonProperty("data")
 	public List<QueryResult> getData() {
@@ -124,22 +127,53 @@ public class QueryResponse extends VaultResponse {
 	}
 
 	public static class QueryResult extends VaultModel {
+
+		// Decoded subqueries by field name, with the raw value they were decoded from
+		private volatile Map<String, SubQuery> subQueries;
+
+		/**
+		 * Get the results of a subquery field as a query response.
+		 * <p>
+		 * The subquery is decoded from the parsed field value on first access, without
+		 * re-serializing it to JSON, and cached on the row until the field value is replaced.
+		 *
+		 * @param fieldName Subquery field name
+		 * @return The subquery response, or null if the field is not set or cannot be decoded
+		 */
 		@JsonIgnore
 		public QueryResponse getSubQuery(String fieldName) {
+			Object value = this.get(fieldName);
+			if (value == null) return null;
+
+			Map<String, SubQuery> cache = subQueries;
+			if (cache == null) {
+				cache = new ConcurrentHashMap<>();
+				subQueries = cache;
+			}
+
+			SubQuery subQuery = cache.get(fieldName);
+			if (subQuery != null && subQuery.value == value) return subQuery.response;
+
 			try {
-				if (this.get(fieldName) != null) {
-					String json = new ObjectMapper().writeValueAsString(this.get(fieldName));
-					ObjectMapper mapper = new ObjectMapper();
-					mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-					return mapper.readValue(json, QueryResponse.class);
-				} else {
-					return null;
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
+				QueryResponse response = ObjectMapperRegistry.getDefault().getObjectMapper()
+						.convertValue(value, QueryResponse.class);
+				cache.put(fieldName, new SubQuery(value, response));
+				return response;
+			} catch (IllegalArgumentException e) {
+				log.error("Could not decode subquery " + fieldName + ": " + e.getMessage());
 				return null;
 			}
 		}
+
+		private static class SubQuery {
+			private final Object value;
+			private final QueryResponse response;
+
+			private SubQuery(Object value, QueryResponse response) {
+				this.value = value;
+				this.response = response;
+			}
+		}
 	}
 
 	public static class RecordProperty extends VaultModel {
@@ -175,7 +209,7 @@ public class QueryResponse extends VaultResponse {
 		}
 	}
 
-	public class ResponseDetails extends VaultModel {
+	public static class ResponseDetails extends VaultModel {
 
 		@JsonProperty("next_page")
 		public String getNextPage() {
@@ -11,7 +11,7 @@ package com.veeva.vault.vapil.api.model.response;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
 import com.veeva.vault.vapil.api.model.common.SCIMUser;
 
 public class SCIMUserResponse extends VaultResponse {
@@ -35,11 +35,10 @@ public class SCIMUserResponse extends VaultResponse {
 	@JsonIgnore
 	public SCIMUser getUser() {
 
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
 		try {
-			return mapper.readValue(this.getResponse(), SCIMUser.class);
+			return ObjectMapperRegistry.getDefault()
+					.getReader(SCIMUser.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+					.readValue(this.getResponse());
 		} catch (JsonProcessingException e) {
 			e.printStackTrace();
 		}
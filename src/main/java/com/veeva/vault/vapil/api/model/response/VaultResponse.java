@@ -11,7 +11,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
 import com.veeva.vault.vapil.api.model.VaultModel;
+import com.veeva.vault.vapil.connector.HttpTransferMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -125,6 +127,7 @@ public class VaultResponse extends VaultModel {
     private List<APIResponseWarning> warnings;
     private Map<String, List<String>> headers;
     private String outputFilePath; // For requests that wrote a file
+    private HttpTransferMetrics transferMetrics; // For requests that wrote a file or returned binary data
     private String response = ""; // Response as string
     private String responseStatus;
     private String responseMessage;
@@ -208,7 +211,7 @@ public class VaultResponse extends VaultModel {
     @JsonIgnore
     public JsonNode getResponseJSON() {
 		try {
-			ObjectMapper objectMapper = new ObjectMapper();
+			ObjectMapper objectMapper = ObjectMapperRegistry.getDefault().getObjectMapper();
 			String jsonString = objectMapper.writeValueAsString(this);
 			return objectMapper.readTree(jsonString);
 		} catch (Exception e) {
@@ -377,6 +380,22 @@ public class VaultResponse extends VaultModel {
         this.outputFilePath = outputFilePath;
     }
 
+    /**
+     * For requests creating files or returning binary content, the size,
+     * time and throughput of the download, and the digest if requested.
+     *
+     * @return The transfer metrics, null for other requests
+     */
+    @JsonIgnore
+    public HttpTransferMetrics getTransferMetrics() {
+        return transferMetrics;
+    }
+
+    @JsonIgnore
+    public void setTransferMetrics(HttpTransferMetrics transferMetrics) {
+        this.transferMetrics = transferMetrics;
+    }
+
     public Object getHeaderIgnoreCase(String header) {
         return headers.entrySet().stream()
                 .filter(headers -> headers.getKey().equalsIgnoreCase(header))
@@ -0,0 +1,67 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.model.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import okio.BufferedSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Vault API response for requests that stream binary content.
+ * <p>
+ * On success, the response body is left open and read incrementally via
+ * {@link #getInputStream()} or {@link #getSource()}, so memory use does not
+ * depend on the size of the content. The stream is tied to the HTTP connection;
+ * always close the response (for example with try-with-resources) to release it.
+ * On failure, the body has already been consumed and closed, and the errors
+ * are available as for any other response.
+ */
+public class VaultStreamResponse extends VaultResponse implements Closeable {
+
+    private BufferedSource source; // For requests that stream binary data
+
+    /**
+     * For successful requests, the response content as an okio source
+     *
+     * @return The response content, null if the request failed
+     */
+    @JsonIgnore
+    public BufferedSource getSource() {
+        return source;
+    }
+
+    @JsonIgnore
+    public void setSource(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * For successful requests, the response content as an input stream
+     *
+     * @return The response content, null if the request failed
+     */
+    @JsonIgnore
+    public InputStream getInputStream() {
+        return source != null ? source.inputStream() : null;
+    }
+
+    /**
+     * Close the response content and release the HTTP connection
+     *
+     * @throws IOException if closing the content fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (source != null) {
+            source.close();
+        }
+    }
+}
@@ -410,8 +410,9 @@ public class AuthenticationRequest extends VaultRequest<AuthenticationRequest> {
 				request.addBodyParam(SCOPE, idpOAuthScope);
 			}
 
+			request.setHttpClient(vaultClient.getHttpClient());
 			HttpResponseConnector response = request.sendPost();
-			OauthTokenResponse tokenResponse = getBaseObjectMapper().readValue(response.getResponse(), OauthTokenResponse.class);
+			OauthTokenResponse tokenResponse = getObjectReader(OauthTokenResponse.class).readValue(response.getResponse());
 			if (tokenResponse != null) {
 				return tokenResponse.getAccessToken();
 			} else {
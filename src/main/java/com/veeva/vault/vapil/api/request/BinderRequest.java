@@ -10,7 +10,6 @@ package com.veeva.vault.vapil.api.request;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veeva.vault.vapil.api.model.common.Binder.Node.BinderSection;
 import com.veeva.vault.vapil.api.model.common.Document;
 import com.veeva.vault.vapil.api.model.common.DocumentRelationship;
@@ -125,10 +124,8 @@ public class BinderRequest extends VaultRequest<BinderRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, BinderResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(BinderResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), BinderResponse.class);
 	}
 
 	/**
@@ -193,10 +190,8 @@ public class BinderRequest extends VaultRequest<BinderRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, BinderResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(BinderResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), BinderResponse.class);
 	}
 
 	/**
@@ -511,10 +506,8 @@ public class BinderRequest extends VaultRequest<BinderRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, BinderResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(BinderResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), BinderResponse.class);
 	}
 
 	/**
@@ -536,10 +529,8 @@ public class BinderRequest extends VaultRequest<BinderRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, BinderSectionResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(BinderSectionResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), BinderSectionResponse.class);
 	}
 
 	/**
@@ -578,10 +569,8 @@ public class BinderRequest extends VaultRequest<BinderRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, BinderSectionResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(BinderSectionResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), BinderSectionResponse.class);
 	}
 
 	/**
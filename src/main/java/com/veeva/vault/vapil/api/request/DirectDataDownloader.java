@@ -0,0 +1,349 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.response.DirectDataResponse;
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads all file parts of a Direct Data file concurrently.
+ * <p>
+ * Each part is streamed to its own file next to the destination, named after the
+ * destination with the part number as extension (.001, .002, ...), through a resumable
+ * download: a dropped connection resumes the part from its last written byte, and parts
+ * completed by an earlier call are not downloaded again. Part sizes are verified against
+ * the file part details, then the parts are either concatenated in order into the
+ * destination ({@link #download}) or read in order as one stream ({@link #downloadAsStream}).
+ * Memory use does not depend on the file size.
+ *
+ * <pre>
+ * DirectDataResponse.DirectDataItem item = response.getData().get(0);
+ * VaultResponse download = new DirectDataDownloader(vaultClient)
+ * 		.setParallelism(4)
+ * 		.download(item, Paths.get("/data", item.getFilename()));
+ * </pre>
+ */
+public class DirectDataDownloader {
+	private static Logger log = LoggerFactory.getLogger(DirectDataDownloader.class);
+
+	/**
+	 * Default number of parts downloaded at the same time, {@value #DEFAULT_PARALLELISM}
+	 */
+	public static final int DEFAULT_PARALLELISM = 4;
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final PartSender sender;
+	private int parallelism = DEFAULT_PARALLELISM;
+
+	/**
+	 * Create a downloader sending its requests through a Vault Client
+	 *
+	 * @param vaultClient The Vault Client
+	 */
+	public DirectDataDownloader(VaultClient vaultClient) {
+		this((name, filepart, outputPath) -> vaultClient.newRequest(DirectDataRequest.class)
+				.setFilepart(filepart)
+				.setOutputPath(outputPath.toString())
+				.setResumableDownload(true)
+				.downloadDirectDataFile(name));
+	}
+
+	DirectDataDownloader(PartSender sender) {
+		this.sender = sender;
+	}
+
+	/**
+	 * @param parallelism Number of parts downloaded at the same time. Default = {@value #DEFAULT_PARALLELISM}
+	 * @return The downloader
+	 */
+	public DirectDataDownloader setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Download all parts of a Direct Data file and concatenate them, in order, into the destination.
+	 * The destination is replaced only once the whole file is assembled and its size verified.
+	 *
+	 * @param item       The Direct Data file, from {@link DirectDataRequest#retrieveAvailableDirectDataFiles()}
+	 * @param outputPath The destination, such as a .tar.gz file
+	 * @return Successful response, or the response of the first failed part
+	 */
+	public VaultResponse download(DirectDataResponse.DirectDataItem item, Path outputPath) {
+		List<Path> partPaths = new ArrayList<>();
+		VaultResponse response = downloadParts(item, outputPath, partPaths);
+		if (!response.isSuccessful()) return response;
+
+		Path assembledPath = outputPath.resolveSibling(outputPath.getFileName() + ".assembling");
+		try {
+			if (partPaths.size() == 1) {
+				Files.move(partPaths.get(0), outputPath, StandardCopyOption.REPLACE_EXISTING);
+				return response;
+			}
+
+			try (FileChannel out = FileChannel.open(assembledPath, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				for (Path partPath : partPaths) {
+					try (FileChannel in = FileChannel.open(partPath, StandardOpenOption.READ)) {
+						long size = in.size();
+						long position = 0;
+						while (position < size) {
+							position += in.transferTo(position, size - position, out);
+						}
+					}
+				}
+			}
+
+			long expectedSize = getExpectedSize(item);
+			long size = Files.size(assembledPath);
+			if (expectedSize >= 0 && size != expectedSize) {
+				Files.deleteIfExists(assembledPath);
+				return getFailure("Assembled " + item.getName() + " has " + size + " bytes, expected " + expectedSize);
+			}
+
+			Files.move(assembledPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+			for (Path partPath : partPaths) {
+				Files.deleteIfExists(partPath);
+			}
+		} catch (IOException e) {
+			log.error("Assembly of " + item.getName() + " failed: " + e.getMessage());
+			try {
+				Files.deleteIfExists(assembledPath);
+			} catch (IOException ignored) {
+			}
+			return getFailure("Assembly of " + item.getName() + " failed: " + e.getMessage());
+		}
+		return response;
+	}
+
+	/**
+	 * Download all parts of a Direct Data file, and read them in order as one stream.
+	 * Closing the stream deletes the part files.
+	 *
+	 * @param item       The Direct Data file, from {@link DirectDataRequest#retrieveAvailableDirectDataFiles()}
+	 * @param outputPath Destination the part files are named after
+	 * @return Stream of the whole file, null if a part failed
+	 */
+	public InputStream downloadAsStream(DirectDataResponse.DirectDataItem item, Path outputPath) {
+		List<Path> partPaths = new ArrayList<>();
+		VaultResponse response = downloadParts(item, outputPath, partPaths);
+		if (!response.isSuccessful()) return null;
+
+		Iterator<Path> parts = partPaths.iterator();
+		Enumeration<InputStream> streams = new Enumeration<InputStream>() {
+			@Override
+			public boolean hasMoreElements() {
+				return parts.hasNext();
+			}
+
+			@Override
+			public InputStream nextElement() {
+				Path partPath = parts.next();
+				try {
+					return new BufferedInputStream(Files.newInputStream(partPath, StandardOpenOption.DELETE_ON_CLOSE), 256 * 1024);
+				} catch (IOException e) {
+					throw new IllegalStateException("Failed to open " + partPath + ": " + e.getMessage(), e);
+				}
+			}
+		};
+		return new SequenceInputStream(streams) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				while (parts.hasNext()) {
+					Files.deleteIfExists(parts.next());
+				}
+			}
+		};
+	}
+
+	/**
+	 * Download the parts concurrently, then verify their sizes
+	 *
+	 * @param partPaths Receives the part files, in part order
+	 * @return Successful response, or the response of the first failed part
+	 */
+	private VaultResponse downloadParts(DirectDataResponse.DirectDataItem item, Path outputPath, List<Path> partPaths) {
+		List<Part> parts = getParts(item, outputPath);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, parts.size()), runnable -> {
+			Thread thread = new Thread(runnable, "vapil-directdata-part-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		List<CompletableFuture<VaultResponse>> futures = new ArrayList<>(parts.size());
+		try {
+			for (Part part : parts) {
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					if (isComplete(part)) {
+						log.debug("Already downloaded " + part.path);
+						return getSuccess();
+					}
+					log.debug("Downloading " + part.path);
+					return sender.send(part.name, part.filepart, part.path);
+				}, executor));
+			}
+
+			VaultResponse failure = null;
+			for (int i = 0; i < parts.size(); i++) {
+				Part part = parts.get(i);
+				VaultResponse response;
+				try {
+					response = futures.get(i).join();
+				} catch (RuntimeException e) {
+					response = getFailure("Download of " + part.path + " failed: " + e.getMessage());
+				}
+
+				if (response == null || !response.isSuccessful()) {
+					if (failure == null) failure = response != null ? response : getFailure("Download of " + part.path + " failed");
+					log.error("Download of " + part.path + " failed");
+					continue;
+				}
+
+				long size = Files.size(part.path);
+				if (part.size != null && size != part.size) {
+					if (failure == null) failure = getFailure(part.path + " has " + size + " bytes, expected " + part.size);
+					log.error(part.path + " has " + size + " bytes, expected " + part.size);
+					Files.deleteIfExists(part.path);
+					continue;
+				}
+				partPaths.add(part.path);
+			}
+			return failure != null ? failure : getSuccess();
+		} catch (IOException e) {
+			log.error("Download of " + item.getName() + " failed: " + e.getMessage());
+			return getFailure("Download of " + item.getName() + " failed: " + e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * The parts of a file, from its file part details, or numbered 1 to the number of parts
+	 */
+	private static List<Part> getParts(DirectDataResponse.DirectDataItem item, Path outputPath) {
+		List<Part> parts = new ArrayList<>();
+		List<DirectDataResponse.DirectDataItem.FilePart> details = item.getFilepartDetails();
+		if (details != null && !details.isEmpty()) {
+			for (DirectDataResponse.DirectDataItem.FilePart detail : details) {
+				int filepart = detail.getFilepart() != null ? detail.getFilepart() : parts.size() + 1;
+				// Parts are downloaded by their own name when available, else by the file part number
+				if (detail.getName() != null) {
+					parts.add(new Part(detail.getName(), null, filepart, getPartPath(outputPath, filepart), detail.getSize()));
+				} else {
+					parts.add(new Part(item.getName(), filepart, filepart, getPartPath(outputPath, filepart), detail.getSize()));
+				}
+			}
+			parts.sort((a, b) -> Integer.compare(a.number, b.number));
+		} else {
+			int fileparts = item.getFileparts() != null && item.getFileparts() > 0 ? item.getFileparts() : 1;
+			for (int filepart = 1; filepart <= fileparts; filepart++) {
+				Long size = fileparts == 1 ? item.getSize() : null;
+				parts.add(new Part(item.getName(), fileparts > 1 ? filepart : null, filepart, getPartPath(outputPath, filepart), size));
+			}
+		}
+		return Collections.unmodifiableList(parts);
+	}
+
+	private static boolean isComplete(Part part) {
+		try {
+			return part.size != null && Files.isRegularFile(part.path) && Files.size(part.path) == part.size;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static Path getPartPath(Path outputPath, int filepart) {
+		return outputPath.resolveSibling(outputPath.getFileName() + String.format(".%03d", filepart));
+	}
+
+	private static long getExpectedSize(DirectDataResponse.DirectDataItem item) {
+		List<DirectDataResponse.DirectDataItem.FilePart> details = item.getFilepartDetails();
+		if (details != null && !details.isEmpty()) {
+			long size = 0;
+			for (DirectDataResponse.DirectDataItem.FilePart detail : details) {
+				if (detail.getSize() == null) return -1;
+				size += detail.getSize();
+			}
+			return size;
+		}
+		return item.getSize() != null ? item.getSize() : -1;
+	}
+
+	private static VaultResponse getSuccess() {
+		VaultResponse response = new VaultResponse();
+		response.setResponseStatus(VaultResponse.HTTP_RESPONSE_SUCCESS);
+		return response;
+	}
+
+	private static VaultResponse getFailure(String message) {
+		VaultResponse.APIResponseError error = new VaultResponse.APIResponseError();
+		error.setType(VaultRequest.ERROR_TYPE_TRANSFER_FAILED);
+		error.setMessage(message);
+
+		VaultResponse response = new VaultResponse();
+		response.setResponseStatus(VaultResponse.HTTP_RESPONSE_FAILURE);
+		response.setErrors(new ArrayList<>(Collections.singletonList(error)));
+		return response;
+	}
+
+	/**
+	 * Sends the download request of one part
+	 */
+	interface PartSender {
+		/**
+		 * @param name       Name of the file or of the file part
+		 * @param filepart   File part number, null when downloading by file part name
+		 * @param outputPath The part file
+		 * @return The download response
+		 */
+		VaultResponse send(String name, Integer filepart, Path outputPath);
+	}
+
+	private static class Part {
+		private final String name;
+		private final Integer filepart;
+		private final int number;
+		private final Path path;
+		private final Long size;
+
+		private Part(String name, Integer filepart, int number, Path path, Long size) {
+			this.name = name;
+			this.filepart = filepart;
+			this.number = number;
+			this.path = path;
+			this.size = size;
+		}
+	}
+}
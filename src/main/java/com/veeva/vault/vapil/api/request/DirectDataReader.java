@@ -0,0 +1,471 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a Direct Data archive in one pass, straight from the download stream.
+ * <p>
+ * The stream is decompressed and untarred on the fly: entries, such as manifest.csv,
+ * metadata.csv and the CSV file of each object or document extract, are returned in
+ * archive order by {@link #nextEntry()}. The rows of a CSV entry are parsed lazily by
+ * {@link Entry#rows()}. An entry can only be read until the next entry is requested.
+ * The archive may be the stream of a single-part file, the concatenated parts of a
+ * multi-part file, or an uncompressed tar.
+ *
+ * <pre>
+ * try (InputStream archive = new DirectDataDownloader(vaultClient).downloadAsStream(item, outputPath);
+ *      DirectDataReader reader = new DirectDataReader(archive)) {
+ *   DirectDataReader.Entry entry;
+ *   while ((entry = reader.nextEntry()) != null) {
+ *     if (entry.isCsv()) {
+ *       Iterator&lt;DirectDataReader.Row&gt; rows = entry.rows();
+ *       while (rows.hasNext()) {
+ *         DirectDataReader.Row row = rows.next();
+ *         System.out.println(entry.getName() + " " + row.get("id"));
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public class DirectDataReader implements Closeable {
+
+	private static final int BLOCK_SIZE = 512;
+	private static final int BUFFER_SIZE = 256 * 1024;
+	private static final ObjectReader CSV_READER = new CsvMapper()
+			.enable(CsvParser.Feature.WRAP_AS_ARRAY)
+			.readerFor(String[].class);
+
+	private final InputStream in;
+	private final byte[] header = new byte[BLOCK_SIZE];
+
+	private Entry entry;
+	private boolean finished = false;
+
+	/**
+	 * Create a reader of a gzip compressed or uncompressed tar archive
+	 *
+	 * @param archive The archive stream, closed with the reader
+	 * @throws IOException if the start of the stream cannot be read
+	 */
+	public DirectDataReader(InputStream archive) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(archive, BUFFER_SIZE);
+		buffered.mark(2);
+		int first = buffered.read();
+		int second = buffered.read();
+		buffered.reset();
+		this.in = first == 0x1f && second == 0x8b
+				? new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE)
+				: buffered;
+	}
+
+	/**
+	 * Move to the next file of the archive, skipping what is left of the current one
+	 *
+	 * @return The next file, null at the end of the archive
+	 * @throws IOException if the archive cannot be read or is malformed
+	 */
+	public Entry nextEntry() throws IOException {
+		if (entry != null) {
+			entry.skipRemaining();
+			entry = null;
+		}
+
+		String longName = null;
+		Map<String, String> paxHeaders = Collections.emptyMap();
+		while (!finished) {
+			if (!readBlock(header)) {
+				finished = true;
+				break;
+			}
+			if (isZeroBlock(header)) {
+				// End of archive marker
+				finished = true;
+				break;
+			}
+			verifyChecksum(header);
+
+			char type = (char) header[156];
+			long size = parseNumber(header, 124, 12);
+			if (type == 'L') {
+				longName = trimNul(readData(size));
+				continue;
+			}
+			if (type == 'x') {
+				paxHeaders = parsePaxHeaders(readData(size));
+				continue;
+			}
+			if (type == 'g') {
+				readData(size);
+				continue;
+			}
+
+			String name = paxHeaders.get("path");
+			if (name == null) name = longName;
+			if (name == null) {
+				String prefix = parseString(header, 345, 155);
+				name = parseString(header, 0, 100);
+				if (!prefix.isEmpty() && isUstar(header)) name = prefix + "/" + name;
+			}
+			if (paxHeaders.containsKey("size")) size = Long.parseLong(paxHeaders.get("size"));
+
+			Entry next = new Entry(name, size, type == '5' || name.endsWith("/"));
+			if (type != '0' && type != '\0' && type != '5') {
+				// Links and special files have no content to read
+				next.skipRemaining();
+				longName = null;
+				paxHeaders = Collections.emptyMap();
+				continue;
+			}
+			entry = next;
+			return entry;
+		}
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private boolean readBlock(byte[] block) throws IOException {
+		int read = in.readNBytes(block, 0, BLOCK_SIZE);
+		if (read == 0) return false;
+		if (read < BLOCK_SIZE) throw new EOFException("Truncated tar header");
+		return true;
+	}
+
+	private byte[] readData(long size) throws IOException {
+		if (size > Integer.MAX_VALUE - BLOCK_SIZE) throw new IOException("Tar header entry too large: " + size);
+		byte[] data = in.readNBytes((int) size);
+		if (data.length < size) throw new EOFException("Truncated tar header entry");
+		skipFully(padding(size));
+		return data;
+	}
+
+	private void skipFully(long count) throws IOException {
+		while (count > 0) {
+			long skipped = in.skip(count);
+			if (skipped <= 0) {
+				if (in.read() < 0) throw new EOFException("Truncated tar entry");
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	private static long padding(long size) {
+		long remainder = size % BLOCK_SIZE;
+		return remainder == 0 ? 0 : BLOCK_SIZE - remainder;
+	}
+
+	private static boolean isZeroBlock(byte[] block) {
+		for (byte b : block) {
+			if (b != 0) return false;
+		}
+		return true;
+	}
+
+	private static boolean isUstar(byte[] block) {
+		return block[257] == 'u' && block[258] == 's' && block[259] == 't' && block[260] == 'a' && block[261] == 'r';
+	}
+
+	private static void verifyChecksum(byte[] block) throws IOException {
+		long expected = parseNumber(block, 148, 8);
+		long sum = 0;
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			sum += (i >= 148 && i < 156) ? ' ' : (block[i] & 0xff);
+		}
+		if (sum != expected) throw new IOException("Not a tar archive, or corrupt tar header");
+	}
+
+	/**
+	 * Parse an octal number, or a base-256 number when the high bit of the first byte is set
+	 */
+	private static long parseNumber(byte[] block, int offset, int length) {
+		if ((block[offset] & 0x80) != 0) {
+			long value = block[offset] & 0x7f;
+			for (int i = offset + 1; i < offset + length; i++) {
+				value = (value << 8) | (block[i] & 0xff);
+			}
+			return value;
+		}
+
+		long value = 0;
+		for (int i = offset; i < offset + length; i++) {
+			byte b = block[i];
+			if (b == 0) break;
+			if (b >= '0' && b <= '7') value = (value << 3) + (b - '0');
+		}
+		return value;
+	}
+
+	private static String parseString(byte[] block, int offset, int length) {
+		int end = offset;
+		while (end < offset + length && block[end] != 0) end++;
+		return new String(block, offset, end - offset, StandardCharsets.UTF_8);
+	}
+
+	private static String trimNul(byte[] data) {
+		return parseString(data, 0, data.length);
+	}
+
+	/**
+	 * Parse pax extended header records, of the form "length key=value\n"
+	 */
+	private static Map<String, String> parsePaxHeaders(byte[] data) {
+		Map<String, String> headers = new HashMap<>();
+		int position = 0;
+		while (position < data.length) {
+			int space = position;
+			while (space < data.length && data[space] != ' ') space++;
+			if (space >= data.length) break;
+			int length = Integer.parseInt(new String(data, position, space - position, StandardCharsets.US_ASCII));
+			if (length <= 0 || position + length > data.length) break;
+
+			String record = new String(data, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+			int equals = record.indexOf('=');
+			if (equals > 0) headers.put(record.substring(0, equals), record.substring(equals + 1));
+			position += length;
+		}
+		return headers;
+	}
+
+	static Map<String, Integer> indexColumns(List<String> columnNames) {
+		Map<String, Integer> columnIndex = new HashMap<>();
+		for (int i = 0; i < columnNames.size(); i++) {
+			columnIndex.putIfAbsent(columnNames.get(i), i);
+		}
+		return columnIndex;
+	}
+
+	/**
+	 * A file of the archive, readable until the next entry is requested
+	 */
+	public class Entry {
+		private final String name;
+		private final long size;
+		private final boolean directory;
+		private long remaining;
+		private boolean padded = false;
+
+		private Entry(String name, long size, boolean directory) {
+			this.name = name;
+			this.size = directory ? 0 : size;
+			this.directory = directory;
+			this.remaining = this.size;
+		}
+
+		/**
+		 * @return Path of the file in the archive, such as Object/product__v.csv
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return Name of the file without its folder and extension, such as product__v
+		 */
+		public String getBaseName() {
+			String baseName = name.substring(name.lastIndexOf('/') + 1);
+			int extension = baseName.lastIndexOf('.');
+			return extension > 0 ? baseName.substring(0, extension) : baseName;
+		}
+
+		/**
+		 * @return Size of the file, in bytes
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		public boolean isDirectory() {
+			return directory;
+		}
+
+		/**
+		 * @return true for CSV files
+		 */
+		public boolean isCsv() {
+			return !directory && name.toLowerCase().endsWith(".csv");
+		}
+
+		/**
+		 * @return true for the manifest.csv file, listing the extracts of the archive
+		 */
+		public boolean isManifest() {
+			return isCsv() && getBaseName().equals("manifest");
+		}
+
+		/**
+		 * @return true for the metadata CSV files, describing the fields of the extracts
+		 */
+		public boolean isMetadata() {
+			return isCsv() && getBaseName().startsWith("metadata");
+		}
+
+		/**
+		 * The content of the file. Closing the stream does not close the archive.
+		 *
+		 * @return Stream of the file content
+		 */
+		public InputStream getInputStream() {
+			return new InputStream() {
+				@Override
+				public int read() throws IOException {
+					if (!isCurrent() || remaining <= 0) return -1;
+					int b = in.read();
+					if (b < 0) throw new EOFException("Truncated tar entry " + name);
+					remaining--;
+					return b;
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					if (length == 0) return 0;
+					if (!isCurrent() || remaining <= 0) return -1;
+					int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+					if (read < 0) throw new EOFException("Truncated tar entry " + name);
+					remaining -= read;
+					return read;
+				}
+
+				@Override
+				public int available() throws IOException {
+					return isCurrent() ? (int) Math.min(in.available(), remaining) : 0;
+				}
+
+				@Override
+				public void close() {
+					// The archive stays open for the next entries
+				}
+			};
+		}
+
+		/**
+		 * Parse the rows of a CSV file, the first line being the header
+		 *
+		 * @return Iterator of the rows, parsed as they are read
+		 * @throws IOException if the file cannot be read
+		 */
+		public Iterator<Row> rows() throws IOException {
+			MappingIterator<String[]> lines = CSV_READER.readValues(getInputStream());
+			if (!lines.hasNext()) return Collections.emptyIterator();
+
+			List<String> columnNames = Collections.unmodifiableList(Arrays.asList(lines.next()));
+			Map<String, Integer> columnIndex = indexColumns(columnNames);
+
+			return new Iterator<Row>() {
+				@Override
+				public boolean hasNext() {
+					return lines.hasNext();
+				}
+
+				@Override
+				public Row next() {
+					if (!hasNext()) throw new NoSuchElementException();
+					return new Row(columnNames, columnIndex, lines.next());
+				}
+			};
+		}
+
+		private boolean isCurrent() {
+			return entry == this;
+		}
+
+		private void skipRemaining() throws IOException {
+			skipFully(remaining);
+			remaining = 0;
+			if (!padded) {
+				skipFully(padding(size));
+				padded = true;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return name + " (" + size + " bytes)";
+		}
+	}
+
+	/**
+	 * A row of a CSV file, with its values by column
+	 */
+	public static class Row {
+		private final List<String> columnNames;
+		private final Map<String, Integer> columnIndex;
+		private final String[] values;
+
+		Row(List<String> columnNames, Map<String, Integer> columnIndex, String[] values) {
+			this.columnNames = columnNames;
+			this.columnIndex = columnIndex;
+			this.values = values;
+		}
+
+		/**
+		 * @return Column names, from the header of the file
+		 */
+		public List<String> getColumnNames() {
+			return columnNames;
+		}
+
+		/**
+		 * @param columnName Column name
+		 * @return The value, null if the row has no such column
+		 */
+		public String get(String columnName) {
+			Integer index = columnIndex.get(columnName);
+			return index != null ? get(index) : null;
+		}
+
+		/**
+		 * @param index Column position
+		 * @return The value, null if the row is shorter
+		 */
+		public String get(int index) {
+			return index < values.length ? values[index] : null;
+		}
+
+		/**
+		 * @return The values by column name, in column order
+		 */
+		public Map<String, String> toMap() {
+			Map<String, String> map = new LinkedHashMap<>();
+			for (int i = 0; i < columnNames.size(); i++) {
+				map.putIfAbsent(columnNames.get(i), get(i));
+			}
+			return map;
+		}
+
+		@Override
+		public String toString() {
+			return toMap().toString();
+		}
+	}
+}
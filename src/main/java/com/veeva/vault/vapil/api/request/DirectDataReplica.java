@@ -0,0 +1,821 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
+import com.veeva.vault.vapil.api.model.response.DirectDataResponse;
+import com.veeva.vault.vapil.api.request.DirectDataRequest.ExtractType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local replica of the records of Direct Data extracts, kept up to date from successive files.
+ * <p>
+ * The first sync loads the latest FULL file; each later sync applies the INCREMENTAL files
+ * published since, in start time order: created or modified records replace the record with
+ * the same id, and the records of the deletes files (such as Object/product__v_deletes.csv)
+ * are removed. Extracts are named after their folder and file, such as Object.product__v,
+ * and indexed by their id column. Files without an id column, such as picklists, replace the
+ * whole extract.
+ * <p>
+ * Each applied file is first written to the replica directory as a segment, a gzip compressed
+ * JSON Lines file of its upserts and deletions, then recorded in checkpoint.json along with the
+ * stop time of the file. The replica is rebuilt from its segments when loaded, so a failed or
+ * interrupted sync leaves the replica as it was after the last applied file. Segments are
+ * compacted into one once their number reaches the compaction threshold.
+ * <p>
+ * Lookups and scans are served from memory and do not call Vault. They can run while a file is
+ * applied, in which case they may see part of its changes.
+ *
+ * <pre>
+ * DirectDataReplica replica = new DirectDataReplica(vaultClient, Paths.get("replica"));
+ * DirectDataReplica.Result result = replica.sync();
+ * DirectDataReader.Row product = replica.get("Object.product__v", "00P000000000101");
+ * long active = replica.scan("Object.product__v")
+ * 		.filter(row -&gt; "active__v".equals(row.get("status__v")))
+ * 		.count();
+ * </pre>
+ */
+public class DirectDataReplica {
+	private static Logger log = LoggerFactory.getLogger(DirectDataReplica.class);
+
+	/**
+	 * Default number of segments that triggers a compaction, {@value #DEFAULT_COMPACTION_THRESHOLD}
+	 */
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 96;
+
+	private static final String CHECKPOINT_FILE = "checkpoint.json";
+	private static final String DOWNLOAD_DIRECTORY = "download";
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_EXTENSION = ".jsonl.gz";
+	private static final String DELETES_SUFFIX = "_deletes";
+	private static final String ID = "id";
+
+	private static final String BASE = "base";
+	private static final String EXTRACT = "extract";
+	private static final String COLUMNS = "columns";
+	private static final String UPSERT = "upsert";
+	private static final String DELETE = "delete";
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final int BUFFER_SIZE = 256 * 1024;
+
+	private final Source source;
+	private final Path directory;
+	private final Map<String, Map<String, DirectDataReader.Row>> extracts = new ConcurrentHashMap<>();
+	private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+	private Checkpoint checkpoint;
+	private boolean loaded = false;
+
+	/**
+	 * Create a replica kept in a directory, syncing through a Vault Client
+	 *
+	 * @param vaultClient The Vault Client
+	 * @param directory   The replica directory, created if needed
+	 */
+	public DirectDataReplica(VaultClient vaultClient, Path directory) {
+		this(new Source() {
+			@Override
+			public List<DirectDataResponse.DirectDataItem> list(ExtractType extractType, ZonedDateTime startTime) {
+				DirectDataRequest request = vaultClient.newRequest(DirectDataRequest.class)
+						.setExtractType(extractType);
+				if (startTime != null) request.setStartTime(startTime);
+
+				DirectDataResponse response = request.retrieveAvailableDirectDataFiles();
+				if (response == null || !response.isSuccessful()) return null;
+				return response.getData() != null ? response.getData() : Collections.emptyList();
+			}
+
+			@Override
+			public InputStream open(DirectDataResponse.DirectDataItem item, Path outputPath) {
+				return new DirectDataDownloader(vaultClient).downloadAsStream(item, outputPath);
+			}
+		}, directory);
+	}
+
+	DirectDataReplica(Source source, Path directory) {
+		this.source = source;
+		this.directory = directory;
+	}
+
+	/**
+	 * @param compactionThreshold Number of segments that triggers a compaction after a sync.
+	 *                            Default = {@value #DEFAULT_COMPACTION_THRESHOLD}
+	 * @return The replica
+	 */
+	public DirectDataReplica setCompactionThreshold(int compactionThreshold) {
+		if (compactionThreshold < 1) {
+			throw new IllegalArgumentException("compactionThreshold must be at least 1");
+		}
+		this.compactionThreshold = compactionThreshold;
+		return this;
+	}
+
+	/**
+	 * Rebuild the replica from its directory, without calling Vault. Called by the first sync.
+	 *
+	 * @return Successful result, with the number of records loaded as upserts
+	 */
+	public synchronized Result load() {
+		Result result = new Result();
+		extracts.clear();
+		checkpoint = null;
+		loaded = false;
+		try {
+			Files.createDirectories(directory);
+			Path checkpointPath = directory.resolve(CHECKPOINT_FILE);
+			if (Files.exists(checkpointPath)) {
+				checkpoint = ObjectMapperRegistry.getDefault().getReader(Checkpoint.class).readValue(checkpointPath.toFile());
+			}
+
+			Set<String> segments = checkpoint != null ? new HashSet<>(checkpoint.getSegments()) : Collections.emptySet();
+			deleteSegments(name -> !segments.contains(name));
+			if (checkpoint != null) {
+				for (String segment : checkpoint.getSegments()) {
+					replay(directory.resolve(segment), result);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			extracts.clear();
+			checkpoint = null;
+			log.error("Failed to load Direct Data replica " + directory + ": " + e.getMessage());
+			return result.fail(e.getMessage());
+		}
+
+		loaded = true;
+		result.checkpoint = checkpoint;
+		log.info("Loaded Direct Data replica " + directory + " = " + result);
+		return result;
+	}
+
+	/**
+	 * Bring the replica up to date: load the latest FULL file if the replica is empty,
+	 * then apply the INCREMENTAL files published since the last applied file, in order.
+	 * Stops at the first file that fails, after keeping the files applied before it.
+	 *
+	 * @return Result with the number of files, upserts and deletions applied
+	 */
+	public synchronized Result sync() {
+		Result result = new Result();
+		if (!loaded) {
+			Result loadResult = load();
+			if (!loadResult.isSuccessful()) return result.fail(loadResult.getErrorMessage());
+		}
+
+		if (checkpoint == null) {
+			List<DirectDataResponse.DirectDataItem> fullItems = source.list(ExtractType.FULL, null);
+			if (fullItems == null) return fail(result, "Failed to retrieve available full Direct Data files");
+
+			DirectDataResponse.DirectDataItem full = fullItems.stream()
+					.filter(item -> item.getStopTime() != null)
+					.max(Comparator.comparing(item -> toInstant(item.getStopTime())))
+					.orElse(null);
+			if (full == null) return fail(result, "No full Direct Data file available");
+			if (!download(full, result)) return result;
+		}
+
+		Instant stopTime = toInstant(checkpoint.getStopTime());
+		List<DirectDataResponse.DirectDataItem> incrementalItems = source.list(ExtractType.INCREMENTAL,
+				stopTime.atZone(ZoneOffset.UTC));
+		if (incrementalItems == null) return fail(result, "Failed to retrieve available incremental Direct Data files");
+
+		List<DirectDataResponse.DirectDataItem> pending = new ArrayList<>();
+		for (DirectDataResponse.DirectDataItem item : incrementalItems) {
+			if (item.getStartTime() != null && item.getStopTime() != null && toInstant(item.getStopTime()).isAfter(stopTime)) {
+				pending.add(item);
+			}
+		}
+		pending.sort(Comparator.comparing(item -> toInstant(item.getStartTime())));
+
+		for (DirectDataResponse.DirectDataItem item : pending) {
+			if (toInstant(item.getStartTime()).isAfter(toInstant(checkpoint.getStopTime()))) {
+				return fail(result, "No Direct Data file covers " + checkpoint.getStopTime() + " to " + item.getStartTime()
+						+ "; the replica needs a full file");
+			}
+			if (!download(item, result)) return result;
+		}
+
+		if (checkpoint.getSegments().size() >= compactionThreshold) {
+			Result compactResult = compact();
+			if (!compactResult.isSuccessful()) return result.fail(compactResult.getErrorMessage());
+		}
+
+		result.checkpoint = checkpoint;
+		log.info("Synced Direct Data replica " + directory + " = " + result);
+		return result;
+	}
+
+	/**
+	 * Apply a Direct Data file read by the caller. A FULL file replaces the content of the replica;
+	 * an INCREMENTAL file must start at or before the stop time of the last applied file, and files
+	 * already applied are skipped.
+	 *
+	 * @param item    The Direct Data file, from {@link DirectDataRequest#retrieveAvailableDirectDataFiles()}
+	 * @param archive The content of the file, closed once applied
+	 * @return Result with the number of upserts and deletions applied
+	 */
+	public synchronized Result apply(DirectDataResponse.DirectDataItem item, InputStream archive) {
+		Result result = new Result();
+		try (InputStream in = archive) {
+			if (!loaded) {
+				Result loadResult = load();
+				if (!loadResult.isSuccessful()) return result.fail(loadResult.getErrorMessage());
+			}
+			apply(item, in, result);
+		} catch (IOException e) {
+			log.error("Failed to close Direct Data file " + item.getName() + ": " + e.getMessage());
+		}
+		result.checkpoint = checkpoint;
+		return result;
+	}
+
+	/**
+	 * Replace all segments by one segment of the current content of the replica
+	 *
+	 * @return Successful result, with the number of records written as upserts
+	 */
+	public synchronized Result compact() {
+		Result result = new Result();
+		if (checkpoint == null) return result;
+
+		String segment = nextSegment();
+		Path segmentPath = directory.resolve(segment);
+		try {
+			Path tempPath = directory.resolve(segment + ".tmp");
+			try {
+				try (JsonGenerator generator = createGenerator(tempPath)) {
+					writeBase(generator);
+					for (Map.Entry<String, Map<String, DirectDataReader.Row>> extract : extracts.entrySet()) {
+						// One header per column layout, as rows applied before and after a layout change are interleaved
+						Map<List<String>, List<DirectDataReader.Row>> layouts = new LinkedHashMap<>();
+						for (DirectDataReader.Row row : extract.getValue().values()) {
+							layouts.computeIfAbsent(row.getColumnNames(), key -> new ArrayList<>()).add(row);
+						}
+						for (Map.Entry<List<String>, List<DirectDataReader.Row>> layout : layouts.entrySet()) {
+							writeExtract(generator, extract.getKey(), layout.getKey());
+							for (DirectDataReader.Row row : layout.getValue()) {
+								writeUpsert(generator, row);
+								result.upsertCount++;
+							}
+						}
+					}
+				}
+				Files.move(tempPath, segmentPath, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tempPath);
+			}
+
+			Checkpoint compacted = checkpoint.copy();
+			compacted.setSegments(Collections.singletonList(segment));
+			saveCheckpoint(compacted);
+			deleteSegments(name -> !name.equals(segment));
+		} catch (IOException | RuntimeException e) {
+			log.error("Failed to compact Direct Data replica " + directory + ": " + e.getMessage());
+			try {
+				if (checkpoint == null || !checkpoint.getSegments().contains(segment)) Files.deleteIfExists(segmentPath);
+			} catch (IOException ignored) {
+			}
+			return result.fail(e.getMessage());
+		}
+
+		result.checkpoint = checkpoint;
+		log.info("Compacted Direct Data replica " + directory + " = " + result);
+		return result;
+	}
+
+	/**
+	 * @param extract Extract name, such as Object.product__v
+	 * @param id      Record id
+	 * @return The record, null if the replica has no such record
+	 */
+	public DirectDataReader.Row get(String extract, String id) {
+		Map<String, DirectDataReader.Row> rows = extracts.get(extract);
+		return rows != null ? rows.get(id) : null;
+	}
+
+	/**
+	 * @param extract Extract name, such as Object.product__v
+	 * @return The records of the extract, in no particular order
+	 */
+	public Stream<DirectDataReader.Row> scan(String extract) {
+		Map<String, DirectDataReader.Row> rows = extracts.get(extract);
+		return rows != null ? rows.values().stream() : Stream.empty();
+	}
+
+	/**
+	 * @param extract Extract name, such as Object.product__v
+	 * @return Number of records of the extract
+	 */
+	public int size(String extract) {
+		Map<String, DirectDataReader.Row> rows = extracts.get(extract);
+		return rows != null ? rows.size() : 0;
+	}
+
+	/**
+	 * @return Names of the extracts of the replica
+	 */
+	public Set<String> getExtracts() {
+		return Collections.unmodifiableSet(extracts.keySet());
+	}
+
+	/**
+	 * @return The checkpoint of the last applied file, null if none was applied
+	 */
+	public synchronized Checkpoint getCheckpoint() {
+		return checkpoint;
+	}
+
+	private boolean download(DirectDataResponse.DirectDataItem item, Result result) {
+		Path downloadDirectory = directory.resolve(DOWNLOAD_DIRECTORY);
+		try {
+			Files.createDirectories(downloadDirectory);
+		} catch (IOException e) {
+			fail(result, "Failed to create " + downloadDirectory + ": " + e.getMessage());
+			return false;
+		}
+
+		InputStream archive = source.open(item, downloadDirectory.resolve(item.getFilename()));
+		if (archive == null) {
+			fail(result, "Failed to download Direct Data file " + item.getName());
+			return false;
+		}
+		try (InputStream in = archive) {
+			return apply(item, in, result);
+		} catch (IOException e) {
+			log.error("Failed to close Direct Data file " + item.getName() + ": " + e.getMessage());
+			return result.isSuccessful();
+		}
+	}
+
+	/**
+	 * Write the file as a segment, record it in the checkpoint, then replay it into memory
+	 */
+	private boolean apply(DirectDataResponse.DirectDataItem item, InputStream archive, Result result) {
+		boolean base = isFull(item);
+		if (item.getStartTime() == null || item.getStopTime() == null) {
+			fail(result, "Direct Data file " + item.getName() + " has no start or stop time");
+			return false;
+		}
+		Instant startTime = toInstant(item.getStartTime());
+		Instant stopTime = toInstant(item.getStopTime());
+		if (!base) {
+			if (checkpoint == null) {
+				fail(result, "Direct Data file " + item.getName() + " is incremental, the replica needs a full file first");
+				return false;
+			}
+			Instant appliedTime = toInstant(checkpoint.getStopTime());
+			if (!stopTime.isAfter(appliedTime)) {
+				log.info("Direct Data file " + item.getName() + " is already applied");
+				return true;
+			}
+			if (startTime.isAfter(appliedTime)) {
+				fail(result, "Direct Data file " + item.getName() + " starts after the last applied file, which stopped at "
+						+ checkpoint.getStopTime() + "; the replica needs a full file");
+				return false;
+			}
+		}
+
+		String segment = nextSegment();
+		Path segmentPath = directory.resolve(segment);
+		long upsertCount;
+		long deleteCount;
+		try {
+			Path tempPath = directory.resolve(segment + ".tmp");
+			try {
+				long[] counts = writeSegment(archive, tempPath, base);
+				upsertCount = counts[0];
+				deleteCount = counts[1];
+				Files.move(tempPath, segmentPath, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tempPath);
+			}
+
+			Checkpoint applied = checkpoint != null && !base ? checkpoint.copy() : new Checkpoint();
+			List<String> segments = new ArrayList<>(applied.getSegments());
+			segments.add(segment);
+			applied.setSegments(segments);
+			applied.setName(item.getName());
+			applied.setStartTime(item.getStartTime());
+			applied.setStopTime(item.getStopTime());
+			saveCheckpoint(applied);
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(segmentPath);
+			} catch (IOException ignored) {
+			}
+			fail(result, "Failed to apply Direct Data file " + item.getName() + ": " + e.getMessage());
+			return false;
+		}
+
+		try {
+			if (base) deleteSegments(name -> !name.equals(segment));
+			replay(segmentPath, new Result());
+		} catch (IOException | RuntimeException e) {
+			// The segment is committed, the next load replays it
+			loaded = false;
+			fail(result, "Failed to replay Direct Data file " + item.getName() + ": " + e.getMessage());
+			return false;
+		}
+
+		result.fileCount++;
+		result.upsertCount += upsertCount;
+		result.deleteCount += deleteCount;
+		log.info("Applied Direct Data file " + item.getName() + ": " + upsertCount + " upserts, " + deleteCount + " deletes");
+		return true;
+	}
+
+	/**
+	 * Write the upserts of the archive as they are read, then its deletions, so that within
+	 * one file a deletion wins over a modification of the same record
+	 *
+	 * @return Number of upserts and deletions written
+	 */
+	private long[] writeSegment(InputStream archive, Path segmentPath, boolean base) throws IOException {
+		long upsertCount = 0;
+		Map<String, List<String>> deletions = new LinkedHashMap<>();
+		try (DirectDataReader reader = new DirectDataReader(archive);
+			 JsonGenerator generator = createGenerator(segmentPath)) {
+			if (base) writeBase(generator);
+
+			DirectDataReader.Entry entry;
+			while ((entry = reader.nextEntry()) != null) {
+				String extract = getExtractName(entry);
+				if (extract == null) continue;
+
+				Iterator<DirectDataReader.Row> rows = entry.rows();
+				if (extract.endsWith(DELETES_SUFFIX)) {
+					List<String> ids = deletions.computeIfAbsent(
+							extract.substring(0, extract.length() - DELETES_SUFFIX.length()), key -> new ArrayList<>());
+					while (rows.hasNext()) {
+						String id = rows.next().get(ID);
+						if (id != null) ids.add(id);
+					}
+					continue;
+				}
+
+				if (!rows.hasNext()) continue;
+				DirectDataReader.Row row = rows.next();
+				writeExtract(generator, extract, row.getColumnNames());
+				while (true) {
+					writeUpsert(generator, row);
+					upsertCount++;
+					if (!rows.hasNext()) break;
+					row = rows.next();
+				}
+			}
+
+			long deleteCount = 0;
+			for (Map.Entry<String, List<String>> extractDeletions : deletions.entrySet()) {
+				for (String id : extractDeletions.getValue()) {
+					generator.writeStartObject();
+					generator.writeArrayFieldStart(DELETE);
+					generator.writeString(extractDeletions.getKey());
+					generator.writeString(id);
+					generator.writeEndArray();
+					generator.writeEndObject();
+					deleteCount++;
+				}
+			}
+			return new long[]{upsertCount, deleteCount};
+		}
+	}
+
+	/**
+	 * Apply a segment to the records in memory
+	 */
+	private void replay(Path segmentPath, Result result) throws IOException {
+		try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(segmentPath), BUFFER_SIZE), BUFFER_SIZE);
+			 JsonParser parser = JSON_FACTORY.createParser(in)) {
+			Map<String, DirectDataReader.Row> rows = null;
+			List<String> columnNames = null;
+			Map<String, Integer> columnIndex = null;
+			Integer idIndex = null;
+			Set<String> replacedExtracts = new HashSet<>();
+
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				String field = parser.nextFieldName();
+				if (BASE.equals(field)) {
+					parser.nextToken();
+					extracts.clear();
+				} else if (EXTRACT.equals(field)) {
+					String extract = parser.nextTextValue();
+					if (!COLUMNS.equals(parser.nextFieldName())) throw new IOException("Malformed segment " + segmentPath);
+					columnNames = Collections.unmodifiableList(readStrings(parser));
+					columnIndex = DirectDataReader.indexColumns(columnNames);
+					idIndex = columnIndex.get(ID);
+					if (idIndex == null && replacedExtracts.add(extract)) {
+						// A segment replaces an extract without id once, its later headers add to it
+						rows = new ConcurrentHashMap<>();
+						extracts.put(extract, rows);
+					} else {
+						rows = extracts.computeIfAbsent(extract, key -> new ConcurrentHashMap<>());
+					}
+				} else if (UPSERT.equals(field)) {
+					if (rows == null) throw new IOException("Malformed segment " + segmentPath);
+					List<String> values = readStrings(parser);
+					DirectDataReader.Row row = new DirectDataReader.Row(columnNames, columnIndex, values.toArray(new String[0]));
+					String id = idIndex != null ? row.get(idIndex) : Integer.toString(rows.size());
+					if (id != null) rows.put(id, row);
+					result.upsertCount++;
+				} else if (DELETE.equals(field)) {
+					List<String> deletion = readStrings(parser);
+					Map<String, DirectDataReader.Row> extractRows = extracts.get(deletion.get(0));
+					if (extractRows != null) extractRows.remove(deletion.get(1));
+					result.deleteCount++;
+				} else {
+					throw new IOException("Malformed segment " + segmentPath);
+				}
+				if (parser.nextToken() != JsonToken.END_OBJECT) throw new IOException("Malformed segment " + segmentPath);
+			}
+		}
+		result.fileCount++;
+	}
+
+	private static List<String> readStrings(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_ARRAY) throw new IOException("Expected an array of strings");
+		List<String> values = new ArrayList<>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			values.add(parser.getValueAsString());
+		}
+		return values;
+	}
+
+	private static JsonGenerator createGenerator(Path path) throws IOException {
+		OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE), BUFFER_SIZE);
+		return JSON_FACTORY.createGenerator(out).setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+	}
+
+	private static void writeBase(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeBooleanField(BASE, true);
+		generator.writeEndObject();
+	}
+
+	private static void writeExtract(JsonGenerator generator, String extract, List<String> columnNames) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField(EXTRACT, extract);
+		generator.writeArrayFieldStart(COLUMNS);
+		for (String columnName : columnNames) {
+			generator.writeString(columnName);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeUpsert(JsonGenerator generator, DirectDataReader.Row row) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart(UPSERT);
+		for (int i = 0; i < row.getColumnNames().size(); i++) {
+			generator.writeString(row.get(i));
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	/**
+	 * @return Extract name of a CSV file, such as Object.product__v for Object/product__v.csv;
+	 * null for files outside an extract folder and for the manifest and metadata files
+	 */
+	private static String getExtractName(DirectDataReader.Entry entry) {
+		if (!entry.isCsv() || entry.isManifest() || entry.isMetadata()) return null;
+
+		String[] path = entry.getName().split("/");
+		if (path.length < 2) return null;
+		String folder = path[path.length - 2];
+		if (folder.isEmpty() || folder.equals(".")) return null;
+		return folder + "." + entry.getBaseName();
+	}
+
+	private static boolean isFull(DirectDataResponse.DirectDataItem item) {
+		String extractType = item.getExtractType();
+		return extractType != null && (extractType.equalsIgnoreCase(ExtractType.FULL.getValue())
+				|| extractType.toLowerCase().startsWith("full"));
+	}
+
+	private static Instant toInstant(String value) {
+		try {
+			return OffsetDateTime.parse(value).toInstant();
+		} catch (DateTimeParseException e) {
+			return Instant.parse(value);
+		}
+	}
+
+	private String nextSegment() {
+		int number = 0;
+		if (checkpoint != null) {
+			for (String segment : checkpoint.getSegments()) {
+				String digits = segment.substring(SEGMENT_PREFIX.length(), segment.length() - SEGMENT_EXTENSION.length());
+				number = Math.max(number, Integer.parseInt(digits));
+			}
+		}
+		return String.format("%s%08d%s", SEGMENT_PREFIX, number + 1, SEGMENT_EXTENSION);
+	}
+
+	private void saveCheckpoint(Checkpoint saved) throws IOException {
+		Path tempPath = Files.createTempFile(directory, "checkpoint", ".tmp");
+		try {
+			ObjectMapperRegistry.getDefault().getWriter().writeValue(tempPath.toFile(), saved);
+			Files.move(tempPath, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempPath);
+		}
+		checkpoint = saved;
+	}
+
+	private void deleteSegments(Predicate<String> filter) throws IOException {
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+			for (Path path : paths) {
+				if (filter.test(path.getFileName().toString())) Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	private Result fail(Result result, String errorMessage) {
+		log.error(errorMessage);
+		return result.fail(errorMessage);
+	}
+
+	/**
+	 * Lists and opens Direct Data files
+	 */
+	interface Source {
+		/**
+		 * @return The available files, null on failure
+		 */
+		List<DirectDataResponse.DirectDataItem> list(ExtractType extractType, ZonedDateTime startTime);
+
+		/**
+		 * @return The content of the file, null on failure
+		 */
+		InputStream open(DirectDataResponse.DirectDataItem item, Path outputPath);
+	}
+
+	/**
+	 * The last file applied to the replica, and the segments holding its records
+	 */
+	public static class Checkpoint {
+		private String name;
+		private String startTime;
+		private String stopTime;
+		private List<String> segments = new ArrayList<>();
+
+		/**
+		 * @return Name of the last applied Direct Data file
+		 */
+		@JsonProperty("name")
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		@JsonProperty("start_time")
+		public String getStartTime() {
+			return startTime;
+		}
+
+		public void setStartTime(String startTime) {
+			this.startTime = startTime;
+		}
+
+		/**
+		 * @return Stop time of the last applied Direct Data file; the replica holds the changes up to this time
+		 */
+		@JsonProperty("stop_time")
+		public String getStopTime() {
+			return stopTime;
+		}
+
+		public void setStopTime(String stopTime) {
+			this.stopTime = stopTime;
+		}
+
+		/**
+		 * @return Segment files of the replica directory, in replay order
+		 */
+		@JsonProperty("segments")
+		public List<String> getSegments() {
+			return segments;
+		}
+
+		public void setSegments(List<String> segments) {
+			this.segments = segments != null ? segments : new ArrayList<>();
+		}
+
+		private Checkpoint copy() {
+			Checkpoint copy = new Checkpoint();
+			copy.name = name;
+			copy.startTime = startTime;
+			copy.stopTime = stopTime;
+			copy.segments = new ArrayList<>(segments);
+			return copy;
+		}
+	}
+
+	/**
+	 * Outcome of a load, sync, apply or compaction
+	 */
+	public static class Result {
+		private long fileCount = 0;
+		private long upsertCount = 0;
+		private long deleteCount = 0;
+		private String errorMessage;
+		private Checkpoint checkpoint;
+
+		private Result fail(String errorMessage) {
+			this.errorMessage = errorMessage;
+			return this;
+		}
+
+		/**
+		 * @return true if all files were applied
+		 */
+		public boolean isSuccessful() {
+			return errorMessage == null;
+		}
+
+		/**
+		 * @return The cause of the failure, null if successful
+		 */
+		public String getErrorMessage() {
+			return errorMessage;
+		}
+
+		/**
+		 * @return Number of Direct Data files applied, or segments loaded
+		 */
+		public long getFileCount() {
+			return fileCount;
+		}
+
+		/**
+		 * @return Number of created or modified records applied
+		 */
+		public long getUpsertCount() {
+			return upsertCount;
+		}
+
+		/**
+		 * @return Number of deletions applied
+		 */
+		public long getDeleteCount() {
+			return deleteCount;
+		}
+
+		/**
+		 * @return The checkpoint after the operation, null if the replica holds no file
+		 */
+		public Checkpoint getCheckpoint() {
+			return checkpoint;
+		}
+
+		@Override
+		public String toString() {
+			return (isSuccessful() ? "SUCCESS" : "FAILURE (" + errorMessage + ")")
+					+ ", files=" + fileCount + ", upserts=" + upsertCount + ", deletes=" + deleteCount;
+		}
+	}
+}
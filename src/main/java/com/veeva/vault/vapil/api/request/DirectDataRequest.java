@@ -2,6 +2,7 @@ package com.veeva.vault.vapil.api.request;
 
 import com.veeva.vault.vapil.api.model.response.DirectDataResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import com.veeva.vault.vapil.api.model.response.VaultStreamResponse;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
 
 import java.time.ZonedDateTime;
@@ -27,6 +28,7 @@ public class DirectDataRequest extends VaultRequest<DirectDataRequest> {
     private ZonedDateTime startTime;
     private ZonedDateTime stopTime;
     private Integer filepart;
+    private String outputPath;
     private static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm'Z'";
 
     // API Request Parameter Constants
@@ -100,9 +102,17 @@ public class DirectDataRequest extends VaultRequest<DirectDataRequest> {
      * @vapil.api <pre> GET /api/{version}/services/directdata/files/{name} </pre>
      * @vapil.vaultlink <a href='https://developer.veevavault.com/api/25.1/#download-direct-data-file' target='_blank'>https://developer.veevavault.com/api/25.1/#download-direct-data-file</a>
      * @vapil.request <pre>
+     * <i>Example 1 - Bytes</i>
      * VaultResponse response = vaultClient.newRequest(DirectDataRequest.class)
      *      .downloadDirectDataFile(fileName);
      * </pre>
+     * @vapil.request <pre>
+     * <i>Example 2 - To File, resumable</i>
+     * VaultResponse response = vaultClient.newRequest(DirectDataRequest.class)
+     *      .setOutputPath(outputPath)
+     *      .setResumableDownload(true)
+     *      .downloadDirectDataFile(fileName);
+     * </pre>
      * @vapil.response <pre>
      * System.out.println("Content-Type: " + response.getHeaderContentType());
      * System.out.println("Content-Disposition: " + response.getHttpHeaderContentDisposition());
@@ -117,9 +127,49 @@ public class DirectDataRequest extends VaultRequest<DirectDataRequest> {
             request.addQueryParam("filepart", filepart);
         }
 
+        if (outputPath != null) {
+            if (resumableDownload) {
+                return sendToFileResumable(request, outputPath, VaultResponse.class);
+            }
+            return sendToFile(HttpRequestConnector.HttpMethod.GET, request, outputPath, VaultResponse.class);
+        }
         return sendReturnBinary(HttpRequestConnector.HttpMethod.GET, request, VaultResponse.class);
     }
 
+    /**
+     * <b>Download Direct Data File (streamed)</b>
+     * <p>
+     * Download a Direct Data file as a stream. The file content is read incrementally
+     * from the response instead of being held in memory, so large files can be processed
+     * with flat heap use. The response must be closed to release the connection.
+     *
+     * @param name The name of the Direct Data file to download.
+     * @return VaultStreamResponse
+     * @vapil.api <pre> GET /api/{version}/services/directdata/files/{name} </pre>
+     * @vapil.vaultlink <a href='https://developer.veevavault.com/api/25.1/#download-direct-data-file' target='_blank'>https://developer.veevavault.com/api/25.1/#download-direct-data-file</a>
+     * @vapil.request <pre>
+     * try (VaultStreamResponse response = vaultClient.newRequest(DirectDataRequest.class)
+     *      .downloadDirectDataFileAsStream(fileName)) {
+     * </pre>
+     * @vapil.response <pre>
+     *   if (response.isSuccessful()) {
+     *     Files.copy(response.getInputStream(), Paths.get(fileName));
+     *   }
+     * }
+     * </pre>
+     */
+    public VaultStreamResponse downloadDirectDataFileAsStream(String name) {
+        String url = vaultClient.getAPIEndpoint(URL_DOWNLOAD_ITEM)
+                .replace("{name}", name);
+        HttpRequestConnector request = new HttpRequestConnector(url);
+
+        if (this.filepart != null) {
+            request.addQueryParam("filepart", filepart);
+        }
+
+        return sendReturnStream(HttpRequestConnector.HttpMethod.GET, request, VaultStreamResponse.class);
+    }
+
     /**
      * Set the Direct Data file type to retrieve. Options are FULL, INCREMENTAL, and LOG.
      *
@@ -164,6 +214,17 @@ public class DirectDataRequest extends VaultRequest<DirectDataRequest> {
         return this;
     }
 
+    /**
+     * Specify source data in an output file
+     *
+     * @param outputPath Absolute path to the file for the response
+     * @return DirectDataRequest
+     */
+    public DirectDataRequest setOutputPath(String outputPath) {
+        this.outputPath = outputPath;
+        return this;
+    }
+
     /**
      * Converts the date to the proper string format expected by the API
      *
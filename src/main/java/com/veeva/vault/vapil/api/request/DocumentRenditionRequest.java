@@ -165,7 +165,7 @@ public class DocumentRenditionRequest extends VaultRequest<DocumentRenditionRequ
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		if (outputPath != null) {
-			return sendToFile(HttpMethod.GET, request, outputPath, VaultResponse.class);
+			return sendToFileSegmented(request, outputPath, VaultResponse.class);
 		} else {
 			return sendReturnBinary(HttpMethod.GET, request, VaultResponse.class);
 		}
@@ -195,7 +195,7 @@ public class DocumentRenditionRequest extends VaultRequest<DocumentRenditionRequ
 			request.addQueryParam("steadyState", "true");
 
 		if (outputPath != null) {
-			return sendToFile(HttpMethod.GET, request, outputPath, VaultResponse.class);
+			return sendToFileSegmented(request, outputPath, VaultResponse.class);
 		} else {
 			return sendReturnBinary(HttpMethod.GET, request, VaultResponse.class);
 		}
@@ -10,6 +10,7 @@ package com.veeva.vault.vapil.api.request;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.veeva.vault.vapil.api.model.response.*;
@@ -458,6 +459,32 @@ public class DocumentRequest extends VaultRequest<DocumentRequest> {
 		return send(HttpMethod.GET, request, DocumentResponse.class);
 	}
 
+	/**
+	 * <b>Retrieve Document (non-blocking)</b>
+	 * <p>
+	 * Retrieve all metadata from a single document without blocking
+	 * the calling thread. See {@link #retrieveDocument(int)}.
+	 *
+	 * @param docId The Document Id
+	 * @return Future of the DocumentResponse
+	 * @vapil.api <pre>
+	 * GET /api/{version}/objects/documents/{doc_id}</pre>
+	 * @vapil.request <pre>
+	 * CompletableFuture&lt;DocumentResponse&gt; future = vaultClient.newRequest(DocumentRequest.class)
+	 * 		.retrieveDocumentAsync(docId);
+	 * </pre>
+	 * @vapil.response <pre>
+	 * Document responseDoc = future.join().getDocument();
+	 * </pre>
+	 */
+	public CompletableFuture<DocumentResponse> retrieveDocumentAsync(int docId) {
+		String url = vaultClient.getAPIEndpoint(URL_DOC)
+				.replace("{doc_id}", Integer.valueOf(docId).toString());
+		HttpRequestConnector request = new HttpRequestConnector(url);
+
+		return sendAsync(HttpMethod.GET, request, DocumentResponse.class);
+	}
+
 	/**
 	 * <b>Retrieve Document Versions</b>
 	 * <p>
@@ -545,6 +572,40 @@ public class DocumentRequest extends VaultRequest<DocumentRequest> {
 		}
 	}
 
+	/**
+	 * <b>Download Document File (streamed)</b>
+	 * <p>
+	 * Download the document file as a stream. The file content is read incrementally
+	 * from the response instead of being held in memory. The response must be closed
+	 * to release the connection. The output path setting is ignored.
+	 *
+	 * @param docId The Document Id
+	 * @return VaultStreamResponse
+	 * @vapil.api <pre>
+	 * GET /api/{version}/objects/documents/{doc_id}/file</pre>
+	 * @vapil.vaultlink <a href='https://developer.veevavault.com/api/25.1/#download-document-file' target='_blank'>https://developer.veevavault.com/api/25.1/#download-document-file</a>
+	 * @vapil.request <pre>
+	 * try (VaultStreamResponse response = vaultClient.newRequest(DocumentRequest.class)
+	 * 		.downloadDocumentFileAsStream(docId)) {</pre>
+	 * @vapil.response <pre>
+	 *   if (response.isSuccessful()) {
+	 *     Files.copy(response.getInputStream(), Paths.get(fileName));
+	 *   }
+	 * }</pre>
+	 */
+	public VaultStreamResponse downloadDocumentFileAsStream(int docId) {
+		String url = vaultClient.getAPIEndpoint(URL_DOC_FILE)
+				.replace("{doc_id}", Integer.valueOf(docId).toString());
+
+		HttpRequestConnector request = new HttpRequestConnector(url);
+
+		if (lockDocument != null && lockDocument) {
+			request.addQueryParam("lockDocument", "true");
+		}
+
+		return sendReturnStream(HttpMethod.GET, request, VaultStreamResponse.class);
+	}
+
 	/**
 	 * <b>Download Document Version File</b>
 	 *
@@ -572,7 +633,7 @@ public class DocumentRequest extends VaultRequest<DocumentRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		if (outputPath != null) {
-			return sendToFile(HttpMethod.GET, request, outputPath, VaultResponse.class);
+			return sendToFileSegmented(request, outputPath, VaultResponse.class);
 		} else {
 			return sendReturnBinary(HttpMethod.GET, request, VaultResponse.class);
 		}
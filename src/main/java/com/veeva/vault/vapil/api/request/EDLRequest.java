@@ -9,7 +9,6 @@ package com.veeva.vault.vapil.api.request;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.model.response.EDLResponse;
 import com.veeva.vault.vapil.api.model.response.JobCreateResponse;
@@ -125,10 +124,9 @@ public class EDLRequest extends VaultRequest<EDLRequest> {
 	public EDLResponse retrieveSpecificRootNodes(NodeType nodeType, List<String> nodeRefIds) {
 		List<EDLReferenceID> edlReferences = new ArrayList<>();
 		nodeRefIds.forEach(id -> edlReferences.add(new EDLReferenceID(id)));
-		ObjectMapper objectMapper = new ObjectMapper();
 		String bodyData = "";
 		try {
-			bodyData = objectMapper.writeValueAsString(edlReferences);
+			bodyData = vaultClient.getObjectMapperRegistry().getWriter().writeValueAsString(edlReferences);
 		} catch (JsonProcessingException e) {
 			//e.printStackTrace();
 		}
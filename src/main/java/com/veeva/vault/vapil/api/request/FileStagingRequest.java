@@ -167,12 +167,53 @@ public class FileStagingRequest extends VaultRequest<FileStagingRequest> {
 		}
 
 		if (outputPath != null) {
+			// An explicit range is downloaded as is
+			if (this.range == null) {
+				if (resumableDownload) {
+					return sendToFileResumable(request, outputPath, VaultResponse.class);
+				}
+				return sendToFileSegmented(request, outputPath, VaultResponse.class);
+			}
 			return sendToFile(HttpMethod.GET, request, outputPath, VaultResponse.class);
 		} else {
 			return sendReturnBinary(HttpMethod.GET, request, VaultResponse.class);
 		}
 	}
 
+	/**
+	 * <b>Download Item Content (streamed)</b>
+	 * <p>
+	 * Retrieve the content of a specified file from the file staging server as a stream.
+	 * The content is read incrementally from the response instead of being held in memory.
+	 * The response must be closed to release the connection. The Range header is applied
+	 * if set; the output path setting is ignored.
+	 *
+	 * @param item, the file path of the item
+	 * @return VaultStreamResponse
+	 * @vapil.api <pre> GET /api/{version}/services/file_staging/items/content/{item} </pre>
+	 * @vapil.vaultlink <a href='https://developer.veevavault.com/api/25.1/#get-item-content' target='_blank'>https://developer.veevavault.com/api/25.1/#get-item-content</a>
+	 * @vapil.request <pre>
+	 * try (VaultStreamResponse response = vaultClient.newRequest(FileStagingRequest.class)
+	 * 		.downloadItemContentAsStream("Documents/New/file.txt")) {
+	 * </pre>
+	 * @vapil.response <pre>
+	 *   if (response.isSuccessful()) {
+	 *     Files.copy(response.getInputStream(), Paths.get("file.txt"));
+	 *   }
+	 * }
+	 * </pre>
+	 */
+	public VaultStreamResponse downloadItemContentAsStream(String item) {
+		String url = vaultClient.getAPIEndpoint(URL_FILE_STAGING_GET_ITEM_CONTENT).replace("{item}", getItemAsUrl(item));
+		HttpRequestConnector request = new HttpRequestConnector(url);
+
+		if (this.range != null) {
+			request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_RANGE, this.range);
+		}
+
+		return sendReturnStream(HttpMethod.GET, request, VaultStreamResponse.class);
+	}
+
 
 	/*
 	 *
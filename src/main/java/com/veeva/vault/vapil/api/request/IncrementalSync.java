@@ -0,0 +1,521 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.response.DocumentDeletionResponse;
+import com.veeva.vault.vapil.api.model.response.ObjectRecordDeletedResponse;
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Incremental sync of object records or documents, emitting the changes since the previous sync.
+ * <p>
+ * Each sync queries the records modified since the watermark of the stored checkpoint, and the
+ * deletions since the deletion watermark, then emits them to a callback as one feed ordered by
+ * modification or deletion time. The first sync of a checkpoint key emits all records. Both
+ * watermarks are moved back by the overlap to catch changes committed late relative to the
+ * watermark, and the changes of the overlap window already emitted are skipped, so the work of a
+ * sync depends on the number of changes, not the number of records.
+ * <p>
+ * The checkpoint is saved once every change of the sync has been handled by the callback. When a
+ * query or the callback fails, the checkpoint is left unchanged and the next sync emits the same
+ * changes again: changes are delivered at least once.
+ * <p>
+ * Vault keeps deleted record ids for 30 days; syncs further apart may miss deletions.
+ *
+ * <pre>
+ * IncrementalSync sync = new IncrementalSync(vaultClient, SyncCheckpointStore.ofDirectory(Paths.get("checkpoints")));
+ * IncrementalSync.Result result = sync.syncObject("product__v", List.of("name__v", "status__v"), change -&gt; {
+ *   if (change.getType() == IncrementalSync.ChangeType.DELETE) {
+ *     replica.remove(change.getId());
+ *   } else {
+ *     replica.put(change.getId(), change.getRecord());
+ *   }
+ * });
+ * </pre>
+ */
+public class IncrementalSync {
+	private static Logger log = LoggerFactory.getLogger(IncrementalSync.class);
+
+	/**
+	 * Default time the watermarks are moved back by, {@value #DEFAULT_OVERLAP_SECONDS} seconds
+	 */
+	public static final long DEFAULT_OVERLAP_SECONDS = 300;
+
+	private static final Duration DELETION_RETENTION = Duration.ofDays(30);
+	private static final DateTimeFormatter DELETION_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+			.withZone(ZoneOffset.UTC);
+
+	private static final String DOCUMENTS = "documents";
+	private static final String ID = "id";
+	private static final String MODIFIED_DATE = "modified_date__v";
+	private static final String DOCUMENT_MODIFIED_DATE = "version_modified_date__v";
+
+	private final Function<String, Stream<QueryResponse.QueryResult>> query;
+	private final BiFunction<String, Instant, List<Change>> deletions;
+	private final SyncCheckpointStore checkpointStore;
+
+	private Duration overlap = Duration.ofSeconds(DEFAULT_OVERLAP_SECONDS);
+
+	/**
+	 * Create a sync querying through a Vault Client
+	 *
+	 * @param vaultClient     The Vault Client
+	 * @param checkpointStore Storage of the checkpoints, such as {@link SyncCheckpointStore#ofDirectory}
+	 */
+	public IncrementalSync(VaultClient vaultClient, SyncCheckpointStore checkpointStore) {
+		this(vql -> vaultClient.newRequest(QueryRequest.class).stream(vql),
+				(target, since) -> DOCUMENTS.equals(target)
+						? getDeletedDocuments(vaultClient, since)
+						: getDeletedObjectRecords(vaultClient, target, since),
+				checkpointStore);
+	}
+
+	IncrementalSync(Function<String, Stream<QueryResponse.QueryResult>> query,
+					BiFunction<String, Instant, List<Change>> deletions,
+					SyncCheckpointStore checkpointStore) {
+		if (checkpointStore == null) {
+			throw new IllegalArgumentException("checkpointStore is required");
+		}
+		this.query = query;
+		this.deletions = deletions;
+		this.checkpointStore = checkpointStore;
+	}
+
+	/**
+	 * @param overlapSeconds Time the watermarks are moved back by, to catch changes committed
+	 *                       late. Default = {@value #DEFAULT_OVERLAP_SECONDS}
+	 * @return The sync
+	 */
+	public IncrementalSync setOverlapSeconds(long overlapSeconds) {
+		if (overlapSeconds < 0) {
+			throw new IllegalArgumentException("overlapSeconds must not be negative");
+		}
+		this.overlap = Duration.ofSeconds(overlapSeconds);
+		return this;
+	}
+
+	/**
+	 * Emit the changes to the records of an object since the previous sync,
+	 * with the checkpoint stored under the object name
+	 *
+	 * @param objectName Object name, such as product__v
+	 * @param fieldNames Fields of the emitted records; id and modified_date__v are always included
+	 * @param callback   Handler of each change, in order of change time
+	 * @return The outcome of the sync
+	 */
+	public Result syncObject(String objectName, List<String> fieldNames, Consumer<Change> callback) {
+		return sync(objectName, MODIFIED_DATE, fieldNames, callback);
+	}
+
+	/**
+	 * Emit the changes to documents since the previous sync, with the checkpoint stored under
+	 * "documents". Modifications are those of the latest version of each document. Deletions have
+	 * the document id, like modifications, and include deleted versions: see {@link Change#getDeletionType()}
+	 * and the version numbers of the change.
+	 *
+	 * @param fieldNames Fields of the emitted documents; id and version_modified_date__v are always included
+	 * @param callback   Handler of each change, in order of change time
+	 * @return The outcome of the sync
+	 */
+	public Result syncDocuments(List<String> fieldNames, Consumer<Change> callback) {
+		return sync(DOCUMENTS, DOCUMENT_MODIFIED_DATE, fieldNames, callback);
+	}
+
+	private Result sync(String target, String modifiedField, List<String> fieldNames, Consumer<Change> callback) {
+		Result result = new Result(target);
+		Instant syncStart = Instant.now();
+
+		SyncCheckpoint checkpoint;
+		try {
+			checkpoint = checkpointStore.load(target);
+		} catch (RuntimeException e) {
+			log.error("Sync of " + target + " failed to load its checkpoint: " + e.getMessage());
+			return result.fail(e.getMessage());
+		}
+		if (checkpoint == null) checkpoint = new SyncCheckpoint();
+
+		Instant modifiedWatermark = SyncCheckpoint.toInstant(checkpoint.getModifiedWatermark());
+		Instant deletedWatermark = SyncCheckpoint.toInstant(checkpoint.getDeletedWatermark());
+		Map<String, String> recentlyModified = new HashMap<>(checkpoint.getRecentlyModified());
+		Map<String, String> recentlyDeleted = new HashMap<>(checkpoint.getRecentlyDeleted());
+
+		// Deletions are few compared to records: fetch them first, then merge them into the ordered records
+		List<Change> deleted = new ArrayList<>();
+		if (deletedWatermark != null) {
+			Instant since = deletedWatermark.minus(overlap);
+			Instant retentionStart = syncStart.minus(DELETION_RETENTION).plus(1, ChronoUnit.HOURS);
+			if (since.isBefore(retentionStart)) {
+				log.warn("Sync of " + target + " last ran before " + retentionStart + ", deletions before then may be missed");
+				since = retentionStart;
+			}
+			try {
+				for (Change change : deletions.apply(target, since)) {
+					if (change.getTimestamp() != null && change.getTimestamp().toString().equals(recentlyDeleted.get(change.getKey()))) {
+						result.duplicateCount++;
+					} else {
+						deleted.add(change);
+					}
+				}
+			} catch (RuntimeException e) {
+				log.error("Sync of " + target + " failed to retrieve deletions: " + e.getMessage());
+				return result.fail(e.getMessage());
+			}
+			deleted.sort(Comparator.comparing(Change::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+					.thenComparing(Change::getId));
+		} else {
+			// Nothing to delete before the first sync; look for deletions from now on
+			deletedWatermark = syncStart;
+		}
+
+		Set<String> fields = new LinkedHashSet<>();
+		fields.add(ID);
+		fields.add(modifiedField);
+		if (fieldNames != null) fields.addAll(fieldNames);
+		String vql = "SELECT " + String.join(", ", fields) + " FROM " + target
+				+ (modifiedWatermark != null ? " WHERE " + modifiedField + " >= " + Vql.toLiteral(modifiedWatermark.minus(overlap)) : "")
+				+ " ORDER BY " + modifiedField + " ASC";
+
+		Instant newModifiedWatermark = modifiedWatermark;
+		Instant newDeletedWatermark = deletedWatermark;
+		Iterator<Change> pendingDeletions = deleted.iterator();
+		Change nextDeletion = pendingDeletions.hasNext() ? pendingDeletions.next() : null;
+
+		try (Stream<QueryResponse.QueryResult> records = query.apply(vql)) {
+			Iterator<QueryResponse.QueryResult> iterator = records.iterator();
+			while (iterator.hasNext()) {
+				QueryResponse.QueryResult record = iterator.next();
+				String id = String.valueOf(record.get(ID));
+				Instant modified = parseInstant(record.getString(modifiedField));
+
+				if (modified != null && modified.toString().equals(recentlyModified.get(id))) {
+					result.duplicateCount++;
+					continue;
+				}
+
+				// Deletions before this modification come first
+				while (nextDeletion != null && modified != null && nextDeletion.getTimestamp() != null
+						&& nextDeletion.getTimestamp().isBefore(modified)) {
+					newDeletedWatermark = emitDeletion(nextDeletion, callback, result, recentlyDeleted, newDeletedWatermark);
+					nextDeletion = pendingDeletions.hasNext() ? pendingDeletions.next() : null;
+				}
+
+				callback.accept(new Change(ChangeType.UPSERT, target, id, modified, record, null, null, null));
+				result.upsertCount++;
+				if (modified != null) {
+					recentlyModified.put(id, modified.toString());
+					if (newModifiedWatermark == null || modified.isAfter(newModifiedWatermark)) newModifiedWatermark = modified;
+				}
+			}
+			while (nextDeletion != null) {
+				newDeletedWatermark = emitDeletion(nextDeletion, callback, result, recentlyDeleted, newDeletedWatermark);
+				nextDeletion = pendingDeletions.hasNext() ? pendingDeletions.next() : null;
+			}
+
+			// All deletions up to the sync start were fetched; those committed late fall within the overlap
+			Instant fetchedUntil = syncStart.minus(overlap);
+			if (fetchedUntil.isAfter(newDeletedWatermark)) newDeletedWatermark = fetchedUntil;
+		} catch (RuntimeException e) {
+			log.error("Sync of " + target + " failed after " + (result.upsertCount + result.deleteCount) + " changes: " + e.getMessage());
+			return result.fail(e.getMessage());
+		}
+
+		// Keep only the changes of the overlap window of the new watermarks
+		if (newModifiedWatermark != null) {
+			Instant windowStart = newModifiedWatermark.minus(overlap);
+			recentlyModified.values().removeIf(value -> Instant.parse(value).isBefore(windowStart));
+		}
+		Instant deletedWindowStart = newDeletedWatermark.minus(overlap);
+		recentlyDeleted.values().removeIf(value -> Instant.parse(value).isBefore(deletedWindowStart));
+
+		SyncCheckpoint newCheckpoint = new SyncCheckpoint();
+		newCheckpoint.setModifiedWatermark(SyncCheckpoint.toString(newModifiedWatermark));
+		newCheckpoint.setRecentlyModified(recentlyModified);
+		newCheckpoint.setDeletedWatermark(SyncCheckpoint.toString(newDeletedWatermark));
+		newCheckpoint.setRecentlyDeleted(recentlyDeleted);
+		try {
+			checkpointStore.save(target, newCheckpoint);
+		} catch (RuntimeException e) {
+			log.error("Sync of " + target + " failed to save its checkpoint: " + e.getMessage());
+			return result.fail(e.getMessage());
+		}
+
+		result.checkpoint = newCheckpoint;
+		log.info("Sync of " + target + " = " + result);
+		return result;
+	}
+
+	private static Instant emitDeletion(Change deletion, Consumer<Change> callback, Result result,
+										Map<String, String> recentlyDeleted, Instant deletedWatermark) {
+		callback.accept(deletion);
+		result.deleteCount++;
+		if (deletion.getTimestamp() == null) return deletedWatermark;
+
+		recentlyDeleted.put(deletion.getKey(), deletion.getTimestamp().toString());
+		return deletion.getTimestamp().isAfter(deletedWatermark) ? deletion.getTimestamp() : deletedWatermark;
+	}
+
+	private static List<Change> getDeletedObjectRecords(VaultClient vaultClient, String objectName, Instant since) {
+		List<Change> changes = new ArrayList<>();
+		ObjectRecordDeletedResponse response = vaultClient.newRequest(ObjectRecordRequest.class)
+				.setStartDateDeleted(since.atZone(ZoneOffset.UTC))
+				.retrieveDeletedObjectRecordId(objectName);
+		while (true) {
+			checkResponse(response, "Retrieve deleted " + objectName + " records");
+			if (response.getData() != null) {
+				for (ObjectRecordDeletedResponse.DeletedRecord deletedRecord : response.getData()) {
+					changes.add(new Change(ChangeType.DELETE, objectName, deletedRecord.getId(),
+							parseInstant(deletedRecord.getDateDeleted()), null, null, null, null));
+				}
+			}
+			if (response.getResponseDetails() == null || !response.getResponseDetails().hasNextPage()) break;
+			response = vaultClient.newRequest(ObjectRecordRequest.class)
+					.retrieveDeletedObjectRecordIdByPage(response.getResponseDetails().getNextPage());
+		}
+		return changes;
+	}
+
+	private static List<Change> getDeletedDocuments(VaultClient vaultClient, Instant since) {
+		List<Change> changes = new ArrayList<>();
+		DocumentDeletionResponse response = vaultClient.newRequest(DocumentRequest.class)
+				.setStartData(DELETION_DATE.format(since))
+				.retrieveDeletedDocumentIds();
+		while (true) {
+			checkResponse(response, "Retrieve deleted documents");
+			if (response.getData() != null) {
+				for (DocumentDeletionResponse.DeleteDocument deleteDocument : response.getData()) {
+					changes.add(new Change(ChangeType.DELETE, DOCUMENTS, String.valueOf(deleteDocument.getId()),
+							parseInstant(deleteDocument.getDateDeleted()), null, deleteDocument.getDeletionType(),
+							deleteDocument.getMajorVersionNumber(), deleteDocument.getMinorVersionNumber()));
+				}
+			}
+			if (response.getResponseDetails() == null || !response.getResponseDetails().hasNextPage()) break;
+			response = vaultClient.newRequest(DocumentRequest.class)
+					.retrieveDeletedDocumentIdsByPage(response.getResponseDetails().getNextPage());
+		}
+		return changes;
+	}
+
+	private static void checkResponse(VaultResponse response, String call) {
+		if (response == null || !response.isSuccessful()) {
+			String message = response != null && response.hasErrors()
+					? response.getErrors().get(0).getType() + " " + response.getErrors().get(0).getMessage()
+					: "no response";
+			throw new IllegalStateException(call + " failed: " + message);
+		}
+	}
+
+	/**
+	 * Parse a Vault datetime, with or without fractional seconds and zone
+	 */
+	private static Instant parseInstant(String value) {
+		if (value == null || value.isEmpty()) return null;
+		try {
+			return Instant.parse(value);
+		} catch (DateTimeParseException e) {
+			try {
+				return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+			} catch (DateTimeParseException ignored) {
+				log.error("Unrecognized datetime " + value);
+				return null;
+			}
+		}
+	}
+
+	public enum ChangeType {
+		UPSERT,
+		DELETE
+	}
+
+	/**
+	 * A created or modified record, with its fields, or a deleted record
+	 */
+	public static class Change {
+		private final ChangeType type;
+		private final String target;
+		private final String id;
+		private final Instant timestamp;
+		private final QueryResponse.QueryResult record;
+		private final String deletionType;
+		private final Integer majorVersionNumber;
+		private final Integer minorVersionNumber;
+
+		Change(ChangeType type, String target, String id, Instant timestamp, QueryResponse.QueryResult record,
+			   String deletionType, Integer majorVersionNumber, Integer minorVersionNumber) {
+			this.type = type;
+			this.target = target;
+			this.id = id;
+			this.timestamp = timestamp;
+			this.record = record;
+			this.deletionType = deletionType;
+			this.majorVersionNumber = majorVersionNumber;
+			this.minorVersionNumber = minorVersionNumber;
+		}
+
+		public ChangeType getType() {
+			return type;
+		}
+
+		/**
+		 * @return Object name, or "documents"
+		 */
+		public String getTarget() {
+			return target;
+		}
+
+		/**
+		 * @return Record id, or document id
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return Modification or deletion time
+		 */
+		public Instant getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return The record fields for upserts, null for deletions
+		 */
+		public QueryResponse.QueryResult getRecord() {
+			return record;
+		}
+
+		/**
+		 * @return For document deletions, document__v or document_version__v; otherwise null
+		 */
+		public String getDeletionType() {
+			return deletionType;
+		}
+
+		/**
+		 * @return For document deletions, the major version number of the deleted version; otherwise null
+		 */
+		public Integer getMajorVersionNumber() {
+			return majorVersionNumber;
+		}
+
+		/**
+		 * @return For document deletions, the minor version number of the deleted version; otherwise null
+		 */
+		public Integer getMinorVersionNumber() {
+			return minorVersionNumber;
+		}
+
+		/**
+		 * Deletions of versions are distinct changes of the same document
+		 *
+		 * @return Key of the change in the checkpoint
+		 */
+		String getKey() {
+			return majorVersionNumber == null && minorVersionNumber == null
+					? id
+					: id + "_" + majorVersionNumber + "_" + minorVersionNumber;
+		}
+
+		@Override
+		public String toString() {
+			return type + " " + target + " " + getKey() + " at " + timestamp;
+		}
+	}
+
+	/**
+	 * Outcome of a sync
+	 */
+	public static class Result {
+		private final String target;
+		private long upsertCount = 0;
+		private long deleteCount = 0;
+		private long duplicateCount = 0;
+		private String errorMessage;
+		private SyncCheckpoint checkpoint;
+
+		private Result(String target) {
+			this.target = target;
+		}
+
+		private Result fail(String errorMessage) {
+			this.errorMessage = errorMessage;
+			return this;
+		}
+
+		/**
+		 * @return true if all changes were handled and the checkpoint was saved
+		 */
+		public boolean isSuccessful() {
+			return errorMessage == null;
+		}
+
+		/**
+		 * @return The cause of the failure, null if successful
+		 */
+		public String getErrorMessage() {
+			return errorMessage;
+		}
+
+		/**
+		 * @return Number of created or modified records emitted
+		 */
+		public long getUpsertCount() {
+			return upsertCount;
+		}
+
+		/**
+		 * @return Number of deletions emitted
+		 */
+		public long getDeleteCount() {
+			return deleteCount;
+		}
+
+		/**
+		 * @return Number of changes of the overlap window skipped as already emitted
+		 */
+		public long getDuplicateCount() {
+			return duplicateCount;
+		}
+
+		/**
+		 * @return The saved checkpoint, null if the sync failed
+		 */
+		public SyncCheckpoint getCheckpoint() {
+			return checkpoint;
+		}
+
+		@Override
+		public String toString() {
+			return target + " upserts=" + upsertCount + " deletes=" + deleteCount + " duplicates=" + duplicateCount
+					+ (errorMessage != null ? " failed: " + errorMessage : "");
+		}
+	}
+}
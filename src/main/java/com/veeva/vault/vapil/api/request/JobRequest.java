@@ -7,6 +7,7 @@
  */
 package com.veeva.vault.vapil.api.request;
 
+import com.veeva.vault.vapil.api.client.QueryResultCache;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
 import com.veeva.vault.vapil.connector.HttpRequestConnector.HttpMethod;
@@ -210,7 +211,14 @@ public class JobRequest extends VaultRequest<JobRequest> {
 		url = url.replace("{job_id}", String.valueOf(jobId));
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
-		return send(HttpMethod.GET, request, JobStatusResponse.class);
+		JobStatusResponse response = send(HttpMethod.GET, request, JobStatusResponse.class);
+
+		// Resume query caching suspended by a job started through this client
+		QueryResultCache cache = vaultClient.getQueryResultCache();
+		if (cache != null && response != null && response.isSuccessful() && response.getData() != null) {
+			cache.updateJob(String.valueOf(jobId), response.getData().getStatus());
+		}
+		return response;
 	}
 
 
@@ -8,7 +8,6 @@
 package com.veeva.vault.vapil.api.request;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.model.response.JobCreateResponse;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
@@ -467,10 +466,8 @@ public class MetaDataRequest extends VaultRequest<MetaDataRequest> {
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_ACCEPT, headerAccept);
 
 		// Nodes/Properties can be either single value or arrays
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, MetaDataComponentTypeBulkResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(MetaDataComponentTypeBulkResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), MetaDataComponentTypeBulkResponse.class);
 	}
 
 	/**
@@ -640,10 +637,8 @@ public class MetaDataRequest extends VaultRequest<MetaDataRequest> {
 		HttpRequestConnector request = new HttpRequestConnector(url);
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_ACCEPT, HttpRequestConnector.HTTP_CONTENT_TYPE_JSON);
 
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, MetaDataObjectPageLayoutResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(MetaDataObjectPageLayoutResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), MetaDataObjectPageLayoutResponse.class);
 	}
 
 	/*
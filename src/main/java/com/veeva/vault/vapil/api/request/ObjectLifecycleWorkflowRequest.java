@@ -13,7 +13,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.model.response.ObjectRecordActionBulkResponse;
 import com.veeva.vault.vapil.api.model.response.ObjectRecordActionResponse;
@@ -161,10 +160,8 @@ public class ObjectLifecycleWorkflowRequest extends VaultRequest<ObjectLifecycle
 
 		// Single value is returned by the API so use custom object mapper for re-using
 		// the response (which is an array)
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, ObjectRecordActionResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(ObjectRecordActionResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), ObjectRecordActionResponse.class);
 	}
 
 	/**
@@ -858,10 +855,8 @@ public class ObjectLifecycleWorkflowRequest extends VaultRequest<ObjectLifecycle
 
 		// Single value is returned by the API so use custom object mapper for re-using
 		// the response (which is an array)
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, ObjectWorkflowTaskActionDetailsResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(ObjectWorkflowTaskActionDetailsResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), ObjectWorkflowTaskActionDetailsResponse.class);
 	}
 
 	/**
@@ -7,7 +7,7 @@
  */
 package com.veeva.vault.vapil.api.request;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
 import com.veeva.vault.vapil.api.model.response.MetaDataObjectResponse;
 import com.veeva.vault.vapil.api.model.response.ObjectRecordAttachmentResponse;
@@ -655,7 +655,7 @@ public class ObjectRecordAttachmentRequest extends VaultRequest<ObjectRecordAtta
 
 		url = url.replace("{object_name}", objectName);
 
-		ObjectMapper objectMapper = getBaseObjectMapper();
+		ObjectReader objectReader = getObjectReader(ObjectRecordAttachmentResponse.class);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, headerContentType);
@@ -681,7 +681,7 @@ public class ObjectRecordAttachmentRequest extends VaultRequest<ObjectRecordAtta
 				return sendReturnBinary(method, request, ObjectRecordAttachmentResponse.class);
 			}
 		} else
-			return send(method, request, objectMapper, ObjectRecordAttachmentResponse.class);
+			return send(method, request, objectReader, ObjectRecordAttachmentResponse.class);
 	}
 
 	/**
@@ -12,14 +12,17 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
+import com.veeva.vault.vapil.api.client.QueryResultCache;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.model.response.JobCreateResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
 import com.veeva.vault.vapil.connector.HttpRequestConnector.HttpMethod;
 
@@ -243,6 +246,33 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		return send(HttpMethod.GET, request, ObjectRecordResponse.class);
 	}
 
+	/**
+	 * <b>Retrieve Object Record (non-blocking)</b>
+	 * <p>
+	 * Retrieve metadata configured on a specific object record without blocking
+	 * the calling thread. See {@link #retrieveObjectRecord(String, String)}.
+	 *
+	 * @param objectName The object name for the operation
+	 * @param recordId   The object record id
+	 * @return Future of the ObjectRecordResponse
+	 * @vapil.api <pre>
+	 * GET /api/{version}/vobjects/{object_name}/{object_record_id}</pre>
+	 * @vapil.request <pre>
+	 * CompletableFuture&lt;ObjectRecordResponse&gt; future = vaultClient.newRequest(ObjectRecordRequest.class)
+	 * 					.retrieveObjectRecordAsync(objectName, id);</pre>
+	 * @vapil.response <pre>
+	 * ObjectRecord objectRecord = future.join().getData();</pre>
+	 */
+	public CompletableFuture<ObjectRecordResponse> retrieveObjectRecordAsync(String objectName, String recordId) {
+		String url = vaultClient.getAPIEndpoint(URL_OBJ_ID);
+		url = url.replace("{object_name}", objectName);
+		url = url.replace("{object_record_id}", recordId);
+
+		HttpRequestConnector request = new HttpRequestConnector(url);
+
+		return sendAsync(HttpMethod.GET, request, ObjectRecordResponse.class);
+	}
+
 	/**
 	 * <b>Create Object Records</b>
 	 * <p>
@@ -339,7 +369,8 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		url = url.replace("{object_name}", objectName);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
-		return send(HttpMethod.POST, request, VaultResponse.class);
+		return startQueryCacheJob(send(HttpMethod.POST, request, VaultResponse.class),
+				response -> URL_OBJ_ROLLUP_RECALCULATE.replace("{object_name}", objectName));
 	}
 
 	/**
@@ -363,7 +394,8 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		url = url.replace("{object_name}", objectName);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
-		return send(HttpMethod.GET, request, JobStatusResponse.class);
+		return updateQueryCacheJob(URL_OBJ_ROLLUP_RECALCULATE.replace("{object_name}", objectName),
+				send(HttpMethod.GET, request, JobStatusResponse.class));
 	}
 
 	/**
@@ -424,7 +456,7 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 
 		url = url.replace("{object_name}", objectName);
 
-		ObjectMapper objectMapper = getBaseObjectMapper();
+		ObjectReader objectReader = getObjectReader(ObjectRecordBulkResponse.class);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, headerContentType);
@@ -432,7 +464,7 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 
 		if (bodyParams != null && !bodyParams.isEmpty()) {
 			request.setBodyParams(bodyParams);
-			objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+			objectReader = getObjectReader(ObjectRecordBulkResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
 		}
 		if (idParam != null && !idParam.isEmpty())
 			request.addQueryParam(ID_PARAM, idParam);
@@ -462,12 +494,66 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		// Return binary if the Accept is CSV
 		if (headerAccept.equalsIgnoreCase(HttpRequestConnector.HTTP_CONTENT_TYPE_CSV)) {
 			if (outputPath != null) {
-				return sendToFile(method, request, outputPath, ObjectRecordBulkResponse.class);
+				return invalidateQueryCache(objectName, sendToFile(method, request, outputPath, ObjectRecordBulkResponse.class));
 			} else {
-				return sendReturnBinary(method, request, ObjectRecordBulkResponse.class);
+				return invalidateQueryCache(objectName, sendReturnBinary(method, request, ObjectRecordBulkResponse.class));
 			}
 		} else
-			return send(method, request, objectMapper, ObjectRecordBulkResponse.class);
+			return invalidateQueryCache(objectName, send(method, request, objectReader, ObjectRecordBulkResponse.class));
+	}
+
+	/**
+	 * Remove the cached query responses of an object after a write to its records,
+	 * see {@link QueryResultCache}
+	 *
+	 * @param objectName The object name
+	 * @param response   The response of the write
+	 * @return The response of the write
+	 */
+	private <R> R invalidateQueryCache(String objectName, R response) {
+		QueryResultCache cache = vaultClient.getQueryResultCache();
+		if (cache != null) {
+			cache.invalidateObject(objectName);
+		}
+		return response;
+	}
+
+	/**
+	 * Remove all cached query responses and suspend query caching while an asynchronous job
+	 * started by the request runs, see {@link QueryResultCache#startJob(String)}. When the
+	 * response has no job key, such as a failed request, the cached responses are only removed.
+	 *
+	 * @param response The response of the job request
+	 * @param jobKey   Function returning the job key of the response
+	 * @return The response of the job request
+	 */
+	private <R extends VaultResponse> R startQueryCacheJob(R response, Function<R, Object> jobKey) {
+		QueryResultCache cache = vaultClient.getQueryResultCache();
+		if (cache != null) {
+			Object key = response != null && response.isSuccessful() ? jobKey.apply(response) : null;
+			if (key != null) {
+				cache.startJob(String.valueOf(key));
+			} else {
+				cache.invalidateAll();
+			}
+		}
+		return response;
+	}
+
+	/**
+	 * Resume query caching once an asynchronous job is no longer running,
+	 * see {@link QueryResultCache#updateJob(String, String)}
+	 *
+	 * @param jobKey   The job key
+	 * @param response The job status response
+	 * @return The job status response
+	 */
+	private JobStatusResponse updateQueryCacheJob(String jobKey, JobStatusResponse response) {
+		QueryResultCache cache = vaultClient.getQueryResultCache();
+		if (cache != null && response != null && response.isSuccessful() && response.getData() != null) {
+			cache.updateJob(jobKey, response.getData().getStatus());
+		}
+		return response;
 	}
 
 	/**
@@ -501,12 +587,12 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		// Return binary if the Accept is CSV
 		if (headerAccept.equalsIgnoreCase(HttpRequestConnector.HTTP_CONTENT_TYPE_CSV)) {
 			if (outputPath != null) {
-				return sendToFile(HttpMethod.POST, request, outputPath, JobCreateResponse.class);
+				return startQueryCacheJob(sendToFile(HttpMethod.POST, request, outputPath, JobCreateResponse.class), JobCreateResponse::getJobId);
 			} else {
-				return sendReturnBinary(HttpMethod.POST, request, JobCreateResponse.class);
+				return startQueryCacheJob(sendReturnBinary(HttpMethod.POST, request, JobCreateResponse.class), JobCreateResponse::getJobId);
 			}
 		} else
-			return send(HttpMethod.POST, request, JobCreateResponse.class);
+			return startQueryCacheJob(send(HttpMethod.POST, request, JobCreateResponse.class), JobCreateResponse::getJobId);
 	}
 
 	/**
@@ -613,10 +699,8 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 			request.addQueryParam("loc", localized.toString());
 
 		// Single value is returned by the API so use custom object mapper for re-using the response (which is an array)
-		ObjectMapper objectMapper = super.getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
-		return send(HttpMethod.GET, request, objectMapper, ObjectRecordTypeResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(ObjectRecordTypeResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), ObjectRecordTypeResponse.class);
 	}
 
 	/**
@@ -875,7 +959,7 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		if (requestString != null && !requestString.isEmpty())
 			request.addRawString(HttpRequestConnector.HTTP_CONTENT_TYPE_JSON, requestString);
 
-		return send(HttpMethod.POST, request, JobCreateResponse.class);
+		return startQueryCacheJob(send(HttpMethod.POST, request, JobCreateResponse.class), JobCreateResponse::getJobId);
 	}
 
 	/**
@@ -1042,7 +1126,7 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		if (requestString != null && !requestString.isEmpty())
 			request.addRawString(HttpRequestConnector.HTTP_CONTENT_TYPE_JSON, requestString);
 
-		return send(HttpMethod.PUT, request, JobCreateResponse.class);
+		return startQueryCacheJob(send(HttpMethod.PUT, request, JobCreateResponse.class), JobCreateResponse::getJobId);
 	}
 
 	/**
@@ -1102,7 +1186,8 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		if (binaryFile != null)
 			request.addBinary(contentType, binaryFile.getBinaryContent());
 
-		return send(HttpMethod.POST, request, ObjectRecordMergeJobResponse.class);
+		return startQueryCacheJob(send(HttpMethod.POST, request, ObjectRecordMergeJobResponse.class),
+				response -> response.getData() != null ? response.getData().getJobId() : null);
 	}
 
 	/**
@@ -1134,7 +1219,7 @@ public class ObjectRecordRequest extends VaultRequest<ObjectRecordRequest> {
 		url = url.replace("{job_id}", String.valueOf(jobId));
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
-		return send(HttpMethod.GET, request, JobStatusResponse.class);
+		return updateQueryCacheJob(String.valueOf(jobId), send(HttpMethod.GET, request, JobStatusResponse.class));
 	}
 
 	/**
@@ -0,0 +1,235 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the records of a query split into disjoint partitions, which are
+ * retrieved concurrently.
+ * <p>
+ * Each partition pages through its own query on a worker thread. All calls go through
+ * the request, so they are paced by the burst limit governor of the Vault Client. Records
+ * are returned partition after partition when ordered, otherwise in the order pages arrive.
+ * Workers stop fetching while their retrieved pages wait to be consumed, up to the
+ * read-ahead depth of the request.
+ * <p>
+ * A failed partition is logged and ends without affecting the others. Check
+ * {@link #hasFailures()} or the state of each of {@link #getPartitions()} once the
+ * iteration ends. Closing the iterator cancels the partitions still running.
+ *
+ * @see QueryRequest#queryPartitioned(String, List, boolean)
+ */
+public class PartitionedQueryIterator implements Iterator<QueryResponse.QueryResult>, AutoCloseable {
+	private static Logger log = LoggerFactory.getLogger(PartitionedQueryIterator.class);
+
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final Function<String, QueryResponse> query;
+	private final Function<String, QueryResponse> queryByPage;
+	private final boolean ordered;
+	private final List<QueryPartition> partitions;
+	private final List<BlockingQueue<Batch>> queues;
+	private final ExecutorService executor;
+
+	private int currentQueue = 0;
+	private int remainingPartitions;
+	private Iterator<QueryResponse.QueryResult> records = Collections.emptyIterator();
+	private volatile boolean closed = false;
+
+	PartitionedQueryIterator(Function<String, QueryResponse> query, Function<String, QueryResponse> queryByPage,
+							 String vql, List<String> partitionFilters, boolean ordered, int parallelism, int readAhead) {
+		if (partitionFilters == null || partitionFilters.isEmpty()) {
+			throw new IllegalArgumentException("At least one partition filter is required");
+		}
+
+		this.query = query;
+		this.queryByPage = queryByPage;
+		this.ordered = ordered;
+		this.partitions = new ArrayList<>(partitionFilters.size());
+		for (int i = 0; i < partitionFilters.size(); i++) {
+			partitions.add(new QueryPartition(i, vql, partitionFilters.get(i)));
+		}
+		this.remainingPartitions = partitions.size();
+
+		// Ordered: one queue per partition, consumed in turn. Unordered: one shared queue.
+		this.queues = new ArrayList<>(partitions.size());
+		BlockingQueue<Batch> sharedQueue = ordered ? null : new ArrayBlockingQueue<>(readAhead * Math.min(parallelism, partitions.size()));
+		for (int i = 0; i < partitions.size(); i++) {
+			queues.add(ordered ? new ArrayBlockingQueue<>(readAhead) : sharedQueue);
+		}
+
+		this.executor = Executors.newFixedThreadPool(Math.min(parallelism, partitions.size()), runnable -> {
+			Thread thread = new Thread(runnable, "vapil-query-partition-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (QueryPartition partition : partitions) {
+			executor.execute(() -> run(partition, queues.get(partition.getIndex())));
+		}
+		executor.shutdown();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!records.hasNext()) {
+			if (closed || remainingPartitions == 0) return false;
+
+			Batch batch;
+			try {
+				batch = queues.get(currentQueue).take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				return false;
+			}
+
+			if (batch.records == null) {
+				remainingPartitions--;
+				if (ordered) currentQueue++;
+			} else {
+				records = batch.records.iterator();
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public QueryResponse.QueryResult next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return records.next();
+	}
+
+	/**
+	 * @return Stream of the records, which closes this iterator when closed
+	 */
+	public Stream<QueryResponse.QueryResult> stream() {
+		Spliterator<QueryResponse.QueryResult> spliterator = Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+
+	/**
+	 * @return The partitions, with their progress
+	 */
+	public List<QueryPartition> getPartitions() {
+		return Collections.unmodifiableList(partitions);
+	}
+
+	/**
+	 * @return true if any partition failed
+	 */
+	public boolean hasFailures() {
+		for (QueryPartition partition : partitions) {
+			if (partition.getState() == QueryPartition.State.FAILED) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Stop the iteration and cancel the partitions still running
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		executor.shutdownNow();
+		for (QueryPartition partition : partitions) {
+			if (partition.getState() == QueryPartition.State.PENDING || partition.getState() == QueryPartition.State.RUNNING) {
+				partition.setState(QueryPartition.State.CANCELLED);
+			}
+		}
+		for (BlockingQueue<Batch> queue : queues) {
+			queue.clear();
+		}
+		records = Collections.emptyIterator();
+	}
+
+	/**
+	 * Page through one partition, handing each page to the consumer, then mark the end of the partition
+	 */
+	private void run(QueryPartition partition, BlockingQueue<Batch> queue) {
+		if (closed) return;
+		partition.setState(QueryPartition.State.RUNNING);
+		try {
+			QueryResponse response = query.apply(partition.getVql());
+			while (!closed) {
+				if (response == null || !response.isSuccessful()) {
+					partition.onFailure(response);
+					log.error("Query " + partition + " failed: " + getErrorMessage(response));
+					break;
+				}
+
+				partition.onPage(response);
+				if (response.getData() != null && !response.getData().isEmpty()) {
+					queue.put(new Batch(response.getData()));
+				}
+
+				QueryResponse.ResponseDetails responseDetails = response.getResponseDetails();
+				if (responseDetails == null || !responseDetails.hasNextPage()) {
+					partition.setState(QueryPartition.State.COMPLETED);
+					break;
+				}
+				response = queryByPage.apply(responseDetails.getNextPage());
+			}
+			queue.put(new Batch(null));
+		} catch (InterruptedException e) {
+			partition.setState(QueryPartition.State.CANCELLED);
+		} catch (RuntimeException e) {
+			if (closed) {
+				// Call interrupted by close
+				partition.setState(QueryPartition.State.CANCELLED);
+				return;
+			}
+			partition.onFailure(null);
+			log.error("Query " + partition + " failed: " + e.getMessage(), e);
+			try {
+				queue.put(new Batch(null));
+			} catch (InterruptedException ignored) {
+				partition.setState(QueryPartition.State.CANCELLED);
+			}
+		}
+	}
+
+	private static String getErrorMessage(QueryResponse response) {
+		if (response == null) return "no response";
+		if (response.hasErrors()) {
+			return response.getErrors().get(0).getType() + " " + response.getErrors().get(0).getMessage();
+		}
+		return response.getResponseStatus();
+	}
+
+	/**
+	 * Records of one page, or the end of a partition when null
+	 */
+	private static class Batch {
+		private final List<QueryResponse.QueryResult> records;
+
+		private Batch(List<QueryResponse.QueryResult> records) {
+			this.records = records;
+		}
+	}
+}
@@ -0,0 +1,347 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * VQL template with named parameters, parsed once and rendered with escaped values.
+ * <p>
+ * Parameters are written as :name outside of string literals. Values are bound by
+ * name and rendered as VQL literals: strings are quoted and escaped, datetimes are
+ * formatted in UTC, and lists are rendered as a parenthesized list for CONTAINS.
+ * A parameter may appear several times in the template.
+ * <p>
+ * Each template has a stable identifier, derived from the normalized template, so
+ * logs, metrics and caches can refer to the shape of a query rather than its text.
+ * A PreparedVql is immutable and can be shared across threads; its {@link Bindings}
+ * are not thread-safe and are meant to be reused by one thread.
+ *
+ * <pre>
+ * PreparedVql byStatus = PreparedVql.prepare(
+ * 		"SELECT id, name__v FROM product__v WHERE status__v CONTAINS :statuses AND modified_date__v &gt; :since");
+ *
+ * QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+ * 		.query(byStatus.bind()
+ * 				.setList("statuses", List.of("active__v", "pending__c"))
+ * 				.setDateTime("since", lastRun));
+ * </pre>
+ *
+ * @see QueryRequest#query(PreparedVql.Bindings)
+ */
+public final class PreparedVql {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String template;
+	private final String id;
+	private final List<String> parameterNames;
+
+	// Text before each parameter occurrence, then the text after the last one
+	private final String[] fragments;
+	// Index in parameterNames of each parameter occurrence
+	private final int[] occurrences;
+	private final int fixedLength;
+
+	private PreparedVql(String template) {
+		this.template = template;
+		this.id = hash(Vql.normalize(template));
+
+		List<String> names = new ArrayList<>();
+		List<String> fragmentList = new ArrayList<>();
+		List<Integer> occurrenceList = new ArrayList<>();
+
+		int start = 0;
+		boolean quoted = false;
+		for (int i = 0; i < template.length(); i++) {
+			char c = template.charAt(i);
+			if (quoted) {
+				if (c == '\\') i++;
+				else if (c == '\'') quoted = false;
+			} else if (c == '\'') {
+				quoted = true;
+			} else if (c == ':' && i + 1 < template.length() && isNameStart(template.charAt(i + 1))) {
+				int end = i + 1;
+				while (end < template.length() && isNamePart(template.charAt(end))) end++;
+
+				String name = template.substring(i + 1, end);
+				int index = names.indexOf(name);
+				if (index < 0) {
+					index = names.size();
+					names.add(name);
+				}
+				fragmentList.add(template.substring(start, i));
+				occurrenceList.add(index);
+				start = end;
+				i = end - 1;
+			}
+		}
+		fragmentList.add(template.substring(start));
+
+		this.parameterNames = Collections.unmodifiableList(names);
+		this.fragments = fragmentList.toArray(new String[0]);
+		this.occurrences = occurrenceList.stream().mapToInt(Integer::intValue).toArray();
+
+		int length = 0;
+		for (String fragment : fragments) length += fragment.length();
+		this.fixedLength = length;
+	}
+
+	/**
+	 * Parse a VQL template
+	 *
+	 * @param template The query, with :name parameters
+	 * @return The prepared template
+	 */
+	public static PreparedVql prepare(String template) {
+		if (template == null || template.trim().isEmpty()) {
+			throw new IllegalArgumentException("template is required");
+		}
+		return new PreparedVql(template);
+	}
+
+	/**
+	 * @return Stable identifier of the template: the same for templates differing only
+	 * in whitespace or the case of names and keywords
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return The template, as prepared
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return Names of the parameters, in order of first appearance
+	 */
+	public List<String> getParameterNames() {
+		return parameterNames;
+	}
+
+	/**
+	 * @return New, empty bindings of the parameters of this template
+	 */
+	public Bindings bind() {
+		return new Bindings(this);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + id + "] " + template;
+	}
+
+	private static String hash(String text) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			char[] hex = new char[16];
+			for (int i = 0; i < hex.length / 2; i++) {
+				hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+				hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+			}
+			return new String(hex);
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is available on every Java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static boolean isNameStart(char c) {
+		return Character.isLetter(c) || c == '_';
+	}
+
+	private static boolean isNamePart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	/**
+	 * Values bound to the parameters of a template. Values are converted to literals when bound,
+	 * and the query is rendered into a buffer reused across calls to {@link #render()}.
+	 */
+	public static final class Bindings {
+		private final PreparedVql preparedVql;
+		private final String[] literals;
+		private final StringBuilder buffer;
+
+		private Bindings(PreparedVql preparedVql) {
+			this.preparedVql = preparedVql;
+			this.literals = new String[preparedVql.parameterNames.size()];
+			this.buffer = new StringBuilder(preparedVql.fixedLength + 16 * preparedVql.occurrences.length);
+		}
+
+		/**
+		 * @return The template of these bindings
+		 */
+		public PreparedVql getPreparedVql() {
+			return preparedVql;
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value String value, quoted and escaped
+		 * @return The bindings
+		 */
+		public Bindings setString(String name, String value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value Number value
+		 * @return The bindings
+		 */
+		public Bindings setNumber(String name, Number value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value Boolean value
+		 * @return The bindings
+		 */
+		public Bindings setBoolean(String name, Boolean value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value Date value, formatted as 'yyyy-MM-dd'
+		 * @return The bindings
+		 */
+		public Bindings setDate(String name, LocalDate value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value Datetime value, formatted in UTC as 'yyyy-MM-ddTHH:mm:ss.SSSZ'
+		 * @return The bindings
+		 */
+		public Bindings setDateTime(String name, Instant value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * @param name  Parameter name
+		 * @param value Datetime value, converted to UTC and formatted as 'yyyy-MM-ddTHH:mm:ss.SSSZ'
+		 * @return The bindings
+		 */
+		public Bindings setDateTime(String name, ZonedDateTime value) {
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * Bind a list of values, rendered as ('a', 'b') for use with CONTAINS
+		 *
+		 * @param name   Parameter name
+		 * @param values Values, converted as by {@link #set(String, Object)}
+		 * @return The bindings
+		 */
+		public Bindings setList(String name, Collection<?> values) {
+			if (values == null || values.isEmpty()) {
+				throw new IllegalArgumentException("At least one value is required for " + name);
+			}
+			StringBuilder list = new StringBuilder("(");
+			for (Object value : values) {
+				if (list.length() > 1) list.append(", ");
+				list.append(value == null ? "null" : Vql.toLiteral(value));
+			}
+			return setLiteral(name, list.append(')').toString());
+		}
+
+		/**
+		 * @param name Parameter name
+		 * @return The bindings, with the parameter bound to null
+		 */
+		public Bindings setNull(String name) {
+			return setLiteral(name, "null");
+		}
+
+		/**
+		 * Bind a value of any supported type: collections as lists, numbers, booleans,
+		 * dates, datetimes, and any other value as a string
+		 *
+		 * @param name  Parameter name
+		 * @param value The value
+		 * @return The bindings
+		 */
+		public Bindings set(String name, Object value) {
+			if (value instanceof Collection) {
+				return setList(name, (Collection<?>) value);
+			}
+			return setLiteral(name, value == null ? "null" : Vql.toLiteral(value));
+		}
+
+		/**
+		 * Remove all bound values, to bind the parameters again
+		 *
+		 * @return The bindings
+		 */
+		public Bindings clear() {
+			Arrays.fill(literals, null);
+			return this;
+		}
+
+		/**
+		 * Render the query with the bound values
+		 *
+		 * @return The fully formed query string
+		 * @throws IllegalStateException if a parameter is not bound
+		 */
+		public String render() {
+			buffer.setLength(0);
+			String[] fragments = preparedVql.fragments;
+			int[] occurrences = preparedVql.occurrences;
+			for (int i = 0; i < occurrences.length; i++) {
+				String literal = literals[occurrences[i]];
+				if (literal == null) {
+					throw new IllegalStateException("Parameter " + preparedVql.parameterNames.get(occurrences[i])
+							+ " is not bound in " + preparedVql);
+				}
+				buffer.append(fragments[i]).append(literal);
+			}
+			return buffer.append(fragments[fragments.length - 1]).toString();
+		}
+
+		/**
+		 * Form a key of the query from the template identifier and the bound values,
+		 * without rendering the query
+		 *
+		 * @return The key
+		 */
+		String getKey() {
+			StringBuilder key = new StringBuilder(preparedVql.id);
+			for (String literal : literals) {
+				key.append('\n').append(literal);
+			}
+			return key.toString();
+		}
+
+		private Bindings setLiteral(String name, String literal) {
+			int index = preparedVql.parameterNames.indexOf(name);
+			if (index < 0) {
+				throw new IllegalArgumentException("Unknown parameter " + name + " in " + preparedVql);
+			}
+			literals[index] = literal;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.veeva.vault.vapil.api.model.metadata.VaultObjectField;
+import com.veeva.vault.vapil.api.model.response.QueryExportResponse;
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Writes query records to CSV or JSON Lines as they are read from the response,
+ * token by token, without building records in memory.
+ * <p>
+ * CSV columns are the fields of the query describe, when available, followed by any
+ * other field of the first record, in record order. Without records, the header has the fields of
+ * the query describe only. Nested values, such as subqueries, are written as JSON text in CSV and
+ * as-is in JSON Lines.
+ */
+class QueryExportWriter implements QueryExportResponse.RowWriter, Closeable {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final CsvFactory CSV_FACTORY = new CsvFactory();
+
+	private final QueryRequest.ExportFormat format;
+	private final Writer writer;
+
+	private JsonGenerator generator;
+	private QueryResponse.QueryDescribe queryDescribe;
+
+	QueryExportWriter(Writer writer, QueryRequest.ExportFormat format) throws IOException {
+		this.writer = writer;
+		this.format = format;
+		if (format == QueryRequest.ExportFormat.JSONL) {
+			generator = JSON_FACTORY.createGenerator(writer);
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(null);
+		}
+	}
+
+	@Override
+	public void writeRow(JsonParser p, QueryResponse.QueryDescribe queryDescribe) throws IOException {
+		if (format == QueryRequest.ExportFormat.JSONL) {
+			generator.copyCurrentStructure(p);
+			generator.writeRaw('\n');
+			return;
+		}
+
+		if (generator == null) {
+			// Buffer the first record to derive the columns, then write it
+			TokenBuffer firstRow = new TokenBuffer(p);
+			firstRow.copyCurrentStructure(p);
+			try (JsonParser firstRowParser = firstRow.asParser(p.getCodec())) {
+				firstRowParser.nextToken();
+				generator = createCsvGenerator(getColumns(firstRowParser, queryDescribe));
+			}
+			try (JsonParser firstRowParser = firstRow.asParser(p.getCodec())) {
+				firstRowParser.nextToken();
+				writeCsvRow(firstRowParser);
+			}
+			return;
+		}
+		writeCsvRow(p);
+	}
+
+	/**
+	 * Set the describe of the query, for the CSV header when there are no records
+	 *
+	 * @param queryDescribe Describe of the query, null if not received
+	 */
+	void setQueryDescribe(QueryResponse.QueryDescribe queryDescribe) {
+		this.queryDescribe = queryDescribe;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (generator != null) {
+				generator.close();
+			} else if (format == QueryRequest.ExportFormat.CSV) {
+				writeCsvHeader(getDescribeColumns(queryDescribe));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Write a header row only, for an export without records
+	 */
+	private void writeCsvHeader(Set<String> columns) throws IOException {
+		if (columns.isEmpty()) return;
+
+		try (CsvGenerator csvGenerator = CSV_FACTORY.createGenerator(writer)) {
+			csvGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			csvGenerator.setSchema(CsvSchema.emptySchema());
+			csvGenerator.writeStartArray();
+			for (String column : columns) {
+				csvGenerator.writeString(column);
+			}
+			csvGenerator.writeEndArray();
+		}
+	}
+
+	private CsvGenerator createCsvGenerator(Set<String> columns) throws IOException {
+		CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+		for (String column : columns) {
+			schema.addColumn(column);
+		}
+
+		CsvGenerator csvGenerator = CSV_FACTORY.createGenerator(writer);
+		csvGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		// Fields missing from the first record are not written
+		csvGenerator.enable(JsonGenerator.Feature.IGNORE_UNKNOWN);
+		csvGenerator.setSchema(schema.build());
+		return csvGenerator;
+	}
+
+	private static Set<String> getDescribeColumns(QueryResponse.QueryDescribe queryDescribe) {
+		Set<String> columns = new LinkedHashSet<>();
+		if (queryDescribe != null && queryDescribe.getFields() != null) {
+			for (VaultObjectField field : queryDescribe.getFields()) {
+				columns.add(field.getName());
+			}
+		}
+		return columns;
+	}
+
+	private static Set<String> getColumns(JsonParser row, QueryResponse.QueryDescribe queryDescribe) throws IOException {
+		Set<String> columns = getDescribeColumns(queryDescribe);
+		while (row.nextToken() == JsonToken.FIELD_NAME) {
+			columns.add(row.currentName());
+			row.nextToken();
+			row.skipChildren();
+		}
+		return columns;
+	}
+
+	/**
+	 * Write one record, from its START_OBJECT token to its END_OBJECT token
+	 */
+	private void writeCsvRow(JsonParser p) throws IOException {
+		generator.writeStartObject();
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			generator.writeFieldName(p.currentName());
+			JsonToken value = p.nextToken();
+			if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+				StringWriter nested = new StringWriter();
+				try (JsonGenerator nestedGenerator = JSON_FACTORY.createGenerator(nested)) {
+					nestedGenerator.copyCurrentStructure(p);
+				}
+				generator.writeString(nested.toString());
+			} else {
+				generator.copyCurrentEvent(p);
+			}
+		}
+		generator.writeEndObject();
+	}
+}
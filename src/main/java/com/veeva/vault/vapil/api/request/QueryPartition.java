@@ -0,0 +1,218 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One disjoint partition of a query run by {@link QueryRequest#queryPartitioned(String, List, boolean)},
+ * with its progress.
+ * <p>
+ * A partition is the query restricted by an additional WHERE filter. The static methods
+ * build the filters of common partitionings, such as ranges of a field or windows of a
+ * date field. Together, the filters must match each record exactly once.
+ */
+public class QueryPartition {
+
+	private static final List<String> TAIL_KEYWORDS = List.of("ORDER", "MAXROWS", "SKIP", "PAGESIZE", "PAGEOFFSET", "LIMIT");
+
+	private final int index;
+	private final String filter;
+	private final String vql;
+
+	private volatile State state = State.PENDING;
+	private volatile int pageCount = 0;
+	private volatile long recordCount = 0;
+	private volatile Integer total;
+	private volatile QueryResponse failedResponse;
+
+	QueryPartition(int index, String vql, String filter) {
+		this.index = index;
+		this.filter = filter;
+		this.vql = addFilter(vql, filter);
+	}
+
+	/**
+	 * @return Position of the partition in the list of filters
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return The partition filter
+	 */
+	public String getFilter() {
+		return filter;
+	}
+
+	/**
+	 * @return The query of the partition, including the partition filter
+	 */
+	public String getVql() {
+		return vql;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return Number of pages retrieved so far
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * @return Number of records retrieved so far
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * @return Total records of the partition, from the first page, or null before the first page
+	 */
+	public Integer getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return The response that failed the partition, null if none
+	 */
+	public QueryResponse getFailedResponse() {
+		return failedResponse;
+	}
+
+	void setState(State state) {
+		this.state = state;
+	}
+
+	void onPage(QueryResponse response) {
+		if (pageCount == 0 && response.getResponseDetails() != null) {
+			total = response.getResponseDetails().getTotal();
+		}
+		pageCount++;
+		if (response.getData() != null) {
+			recordCount += response.getData().size();
+		}
+	}
+
+	void onFailure(QueryResponse response) {
+		failedResponse = response;
+		state = State.FAILED;
+	}
+
+	@Override
+	public String toString() {
+		return "partition " + index + " [" + filter + "] " + state + " pages=" + pageCount + " records=" + recordCount
+				+ (total != null ? "/" + total : "");
+	}
+
+	/**
+	 * Build filters that split the values of a field into consecutive ranges.
+	 * The first range also matches records without a value.
+	 * <p>
+	 * For boundaries b1 and b2, the filters are "field &lt; b1 OR field = null",
+	 * "field &gt;= b1 AND field &lt; b2" and "field &gt;= b2".
+	 *
+	 * @param fieldName  Field to partition on, such as id or created_date__v
+	 * @param boundaries Ascending range boundaries: numbers, dates (formatted as UTC datetimes)
+	 *                   or strings
+	 * @return One filter more than there are boundaries
+	 */
+	public static List<String> byRanges(String fieldName, List<?> boundaries) {
+		if (fieldName == null || fieldName.isEmpty()) {
+			throw new IllegalArgumentException("fieldName is required");
+		}
+		if (boundaries == null || boundaries.isEmpty()) {
+			throw new IllegalArgumentException("At least one boundary is required");
+		}
+
+		List<String> filters = new ArrayList<>(boundaries.size() + 1);
+		filters.add(fieldName + " < " + Vql.toLiteral(boundaries.get(0)) + " OR " + fieldName + " = null");
+		for (int i = 1; i < boundaries.size(); i++) {
+			filters.add(fieldName + " >= " + Vql.toLiteral(boundaries.get(i - 1)) + " AND " + fieldName + " < " + Vql.toLiteral(boundaries.get(i)));
+		}
+		filters.add(fieldName + " >= " + Vql.toLiteral(boundaries.get(boundaries.size() - 1)));
+		return filters;
+	}
+
+	/**
+	 * Build filters that split a date field into windows of equal length. Records
+	 * before the start fall in the first window and records after the end in the last.
+	 *
+	 * @param fieldName Date or datetime field, such as created_date__v
+	 * @param start     Start of the first window
+	 * @param end       End of the last window
+	 * @param count     Number of windows
+	 * @return count filters
+	 */
+	public static List<String> byDateWindows(String fieldName, Instant start, Instant end, int count) {
+		if (start == null || end == null || !start.isBefore(end)) {
+			throw new IllegalArgumentException("start must be before end");
+		}
+		if (count < 1) {
+			throw new IllegalArgumentException("count must be at least 1");
+		}
+
+		Duration window = Duration.between(start, end).dividedBy(count);
+		List<Instant> boundaries = new ArrayList<>(count - 1);
+		for (int i = 1; i < count; i++) {
+			boundaries.add(start.plus(window.multipliedBy(i)));
+		}
+		return byRanges(fieldName, boundaries);
+	}
+
+	/**
+	 * Add a filter to the WHERE clause of a query, ahead of any ORDER BY,
+	 * MAXROWS, SKIP, PAGESIZE or PAGEOFFSET clause. Subqueries are left unchanged.
+	 *
+	 * @param vql    The fully formed query string
+	 * @param filter Filter to add
+	 * @return The query with the filter and-ed to its WHERE clause
+	 */
+	static String addFilter(String vql, String filter) {
+		int fromIndex = Vql.indexOfKeyword(vql, 0, List.of("FROM"));
+		if (fromIndex < 0) {
+			throw new IllegalArgumentException("Query has no FROM clause: " + vql);
+		}
+
+		int tailIndex = Vql.indexOfKeyword(vql, fromIndex, TAIL_KEYWORDS);
+		if (tailIndex < 0) tailIndex = vql.length();
+		String tail = vql.substring(tailIndex).trim();
+
+		int whereIndex = Vql.indexOfKeyword(vql.substring(0, tailIndex), fromIndex, List.of("WHERE"));
+		StringBuilder partitioned = new StringBuilder();
+		if (whereIndex < 0) {
+			partitioned.append(vql.substring(0, tailIndex).trim()).append(" WHERE (").append(filter).append(")");
+		} else {
+			String condition = vql.substring(whereIndex + "WHERE".length(), tailIndex).trim();
+			partitioned.append(vql.substring(0, whereIndex))
+					.append("WHERE (").append(condition).append(") AND (").append(filter).append(")");
+		}
+		if (!tail.isEmpty()) {
+			partitioned.append(" ").append(tail);
+		}
+		return partitioned.toString();
+	}
+
+	public enum State {
+		PENDING,
+		RUNNING,
+		COMPLETED,
+		FAILED,
+		CANCELLED
+	}
+}
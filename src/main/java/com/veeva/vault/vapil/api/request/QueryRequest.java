@@ -7,19 +7,44 @@
  */
 package com.veeva.vault.vapil.api.request;
 
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.veeva.vault.vapil.api.client.QueryResultCache;
 import com.veeva.vault.vapil.api.client.VaultClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.veeva.vault.vapil.api.model.response.QueryColumnarResponse;
+import com.veeva.vault.vapil.api.model.response.QueryExportResponse;
 import com.veeva.vault.vapil.api.model.response.QueryResponse;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
 import com.veeva.vault.vapil.connector.HttpRequestConnector.HttpMethod;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * THE VQL CLASS TO END ALL VQL CLASSES
  * <p>
  * Available query methods:
  * <ul>
  * <li>{@link #query(String)} - query with pagination, use {@link #queryByPage(String)} for pagination of the results
+ * <li>{@link #queryAsync(String)} - non-blocking query, use {@link #queryByPageAsync(String)} for pagination of the results
+ * <li>{@link #query(PreparedVql.Bindings)} - query from a prepared template with bound values, see {@link PreparedVql}
+ * <li>{@link #stream(String)} - records of all pages, fetching the next pages in the background; {@link #iterator(String)} for an iterator
+ * <li>{@link #queryPartitioned(String, List, boolean)} - query split into partitions retrieved concurrently
+ * <li>{@link #queryColumnar(String)} - query decoded into columns, use {@link #queryColumnarByPage(String)} for pagination of the results
+ * <li>{@link #exportTo(String, Path, ExportFormat)} - records of all pages written to a CSV or JSON Lines file
  * </ul>
  * <p>
  * See {@link #query(String)} for example request and response methods, including reading of the resulting
@@ -40,12 +65,25 @@ public class QueryRequest extends VaultRequest<QueryRequest> {
 	 */
 	public static final String HTTP_HEADER_VAULT_RECORD_PROPERTIES = "X-VaultAPI-RecordProperties";
 
+	/**
+	 * Default number of result pages fetched ahead by {@link #stream(String)} and {@link #iterator(String)}
+	 */
+	public static final int DEFAULT_READ_AHEAD = 2;
+
+	/**
+	 * Default number of partitions retrieved at a time by {@link #queryPartitioned(String, List, boolean)}
+	 */
+	public static final int DEFAULT_PARTITION_PARALLELISM = 4;
+
 	// API Endpoints
 	private static final String URL_QUERY = "/query";
 
 	// API Request parameters
 	private Boolean queryDescribe = false;
 	private RecordPropertyType recordPropertyType = null;
+	private int readAhead = DEFAULT_READ_AHEAD;
+	private int partitionParallelism = DEFAULT_PARTITION_PARALLELISM;
+	private boolean useCache = false;
 
 	private QueryRequest() {
 	}
@@ -121,19 +159,97 @@ public class QueryRequest extends VaultRequest<QueryRequest> {
 	 * }</pre>
 	 */
 	public QueryResponse query(String vql) {
-		HttpRequestConnector request = new HttpRequestConnector(vaultClient.getAPIEndpoint(URL_QUERY));
+		return query(vql, vql, () -> Vql.normalize(vql));
+	}
 
-		request.addBodyParam("q", vql);
-		log.info("Query = " + vql);
+	/**
+	 * <b>VQL Query (prepared)</b>
+	 * <p>
+	 * Perform a Vault query request from a prepared template and its bound values.
+	 * The request is identical to {@link #query(String)}. The query is logged by template
+	 * identifier and template, with the rendered query at debug level, and cached by
+	 * template identifier and bound values.
+	 *
+	 * @param bindings The template and values, see {@link PreparedVql#bind()}
+	 * @return QueryResponse
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query</pre>
+	 * @vapil.request <pre>
+	 * PreparedVql byName = PreparedVql.prepare("SELECT id FROM product__v WHERE name__v = :name");
+	 * QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+	 * 				.query(byName.bind().setString("name", productName));</pre>
+	 */
+	public QueryResponse query(PreparedVql.Bindings bindings) {
+		String vql = bindings.render();
+		log.debug("Query " + bindings.getPreparedVql().getId() + " = " + vql);
+		return query(vql, bindings.getPreparedVql().toString(), bindings::getKey);
+	}
 
-		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, HttpRequestConnector.HTTP_CONTENT_TYPE_XFORM);
-		if (queryDescribe != null && queryDescribe)
-			request.addHeaderParam(HTTP_HEADER_VAULT_DESCRIBE_QUERY, Boolean.toString(queryDescribe));
+	/**
+	 * <b>VQL Query (prepared, non-blocking)</b>
+	 * <p>
+	 * Perform a Vault query request from a prepared template without blocking the calling thread.
+	 * The request is identical to {@link #query(PreparedVql.Bindings)}, without the cache.
+	 *
+	 * @param bindings The template and values, see {@link PreparedVql#bind()}
+	 * @return Future of the QueryResponse
+	 */
+	public CompletableFuture<QueryResponse> queryAsync(PreparedVql.Bindings bindings) {
+		String vql = bindings.render();
+		log.debug("Query " + bindings.getPreparedVql().getId() + " = " + vql);
+		return sendStreamedAsync(HttpMethod.POST, getQueryRequest(vql, bindings.getPreparedVql().toString()), QueryResponse.class);
+	}
 
-		if (recordPropertyType != null)
-			request.addHeaderParam(HTTP_HEADER_VAULT_RECORD_PROPERTIES, recordPropertyType.getValue());
+	/**
+	 * Send a query, through the query result cache when enabled
+	 *
+	 * @param vql         The fully formed query string
+	 * @param loggedQuery The query as logged
+	 * @param queryKey    The query as identified in the cache, only computed when the cache is used
+	 * @return QueryResponse
+	 */
+	private QueryResponse query(String vql, String loggedQuery, Supplier<String> queryKey) {
+		QueryResultCache cache = useCache ? vaultClient.getQueryResultCache() : null;
+		Set<String> queryTargets = cache != null ? Vql.getQueryTargets(vql) : null;
+		if (queryTargets == null) {
+			if (cache != null) log.debug("Query not cached, targets unknown = " + loggedQuery);
+			return sendStreamed(HttpMethod.POST, getQueryRequest(vql, loggedQuery), QueryResponse.class);
+		}
+		// Relationships cannot be resolved to their objects, invalidate on writes to any object
+		if (queryTargets.size() > 1) queryTargets.add(QueryResultCache.ALL_OBJECTS);
+
+		String key = getCacheKey(queryKey.get());
+		QueryResponse response = cache.get(key);
+		if (response != null) {
+			log.debug("Query answered from cache = " + loggedQuery);
+			return response;
+		}
+
+		long generation = cache.getGeneration();
+		response = sendStreamed(HttpMethod.POST, getQueryRequest(vql, loggedQuery), QueryResponse.class);
+		cache.put(key, queryTargets, response, generation);
+		return response;
+	}
 
-		return send(HttpMethod.POST, request, QueryResponse.class);
+	/**
+	 * <b>VQL Query (non-blocking)</b>
+	 * <p>
+	 * Perform a Vault query request without blocking the calling thread.
+	 * The request is identical to {@link #query(String)}; the returned future
+	 * completes with the QueryResponse once the HTTP call finishes.
+	 *
+	 * @param vql The fully formed query string
+	 * @return Future of the QueryResponse
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query</pre>
+	 * @vapil.request <pre>
+	 * CompletableFuture&lt;QueryResponse&gt; future = vaultClient.newRequest(QueryRequest.class)
+	 * 				.queryAsync(query);</pre>
+	 * @vapil.response <pre>
+	 * future.thenAccept(response -&gt; System.out.println("Total records = " + response.getData().size()));</pre>
+	 */
+	public CompletableFuture<QueryResponse> queryAsync(String vql) {
+		return sendStreamedAsync(HttpMethod.POST, getQueryRequest(vql), QueryResponse.class);
 	}
 
 	/**
@@ -163,7 +279,295 @@ public class QueryRequest extends VaultRequest<QueryRequest> {
 		// Manipulate the URL for passing in the exact URL from next_page or previous_page
 		String url = vaultClient.getPaginationEndpoint(pageUrl);
 		HttpRequestConnector request = new HttpRequestConnector(url);
-		return send(HttpMethod.GET, request, QueryResponse.class);
+		return sendStreamed(HttpMethod.GET, request, QueryResponse.class);
+	}
+
+	/**
+	 * <b>Get Query Page (non-blocking)</b>
+	 * <p>
+	 * Perform a paginated query without blocking the calling thread.
+	 * See {@link #queryByPage(String)}.
+	 *
+	 * @param pageUrl The URL from the previous_page or next_page parameter
+	 * @return Future of the QueryResponse
+	 * @vapil.request <pre>
+	 * CompletableFuture&lt;QueryResponse&gt; future = vaultClient.newRequest(QueryRequest.class)
+	 * 		.queryByPageAsync(response.getResponseDetails().getNextPage());
+	 * 	</pre>
+	 */
+	public CompletableFuture<QueryResponse> queryByPageAsync(String pageUrl) {
+		String url = vaultClient.getPaginationEndpoint(pageUrl);
+		HttpRequestConnector request = new HttpRequestConnector(url);
+		return sendStreamedAsync(HttpMethod.GET, request, QueryResponse.class);
+	}
+
+	/**
+	 * <b>VQL Query (all pages as a stream)</b>
+	 * <p>
+	 * Perform a Vault query request and stream the records of all result pages, following
+	 * the next page of each response. The following pages are fetched in the background
+	 * while the current page is consumed, up to the read-ahead depth set via
+	 * {@link #setReadAhead(int)}.
+	 * <p>
+	 * Close the stream, for example via try-with-resources, to cancel the page fetches in
+	 * progress when not all records are consumed. A failed page ends the stream with an
+	 * IllegalStateException.
+	 *
+	 * @param vql The fully formed query string
+	 * @return Stream of the records of all pages
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query
+	 * GET /query/{next_page}</pre>
+	 * @vapil.request <pre>
+	 * try (Stream&lt;QueryResponse.QueryResult&gt; records = vaultClient.newRequest(QueryRequest.class)
+	 * 				.setReadAhead(2)
+	 * 				.stream(query)) {
+	 *   records.forEach(record -&gt; System.out.println(record.getString("id")));
+	 * }</pre>
+	 */
+	public Stream<QueryResponse.QueryResult> stream(String vql) {
+		QueryResultIterator iterator = iterator(vql);
+		Spliterator<QueryResponse.QueryResult> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+	}
+
+	/**
+	 * <b>VQL Query (all pages as an iterator)</b>
+	 * <p>
+	 * Perform a Vault query request and iterate over the records of all result pages.
+	 * See {@link #stream(String)}.
+	 *
+	 * @param vql The fully formed query string
+	 * @return Iterator over the records of all pages, to be closed if not fully consumed
+	 * @vapil.request <pre>
+	 * try (QueryResultIterator records = vaultClient.newRequest(QueryRequest.class)
+	 * 				.iterator(query)) {
+	 *   while (records.hasNext()) {
+	 *     System.out.println(records.next().getString("id"));
+	 *   }
+	 * }</pre>
+	 */
+	public QueryResultIterator iterator(String vql) {
+		return new QueryResultIterator(queryAsync(vql), this::queryByPageAsync, readAhead);
+	}
+
+	/**
+	 * <b>VQL Query (partitioned)</b>
+	 * <p>
+	 * Split one query into disjoint partitions and retrieve them concurrently, for
+	 * extractions that are otherwise bound by fetching one page after the other.
+	 * Each partition is the query with one of the filters added to its WHERE clause;
+	 * see {@link QueryPartition#byRanges(String, List)} and
+	 * {@link QueryPartition#byDateWindows(String, Instant, Instant, int)}.
+	 * <p>
+	 * Up to {@link #setPartitionParallelism(int)} partitions run at a time, paced by the
+	 * burst limit governor of the Vault Client. A failed partition does not stop the others;
+	 * check {@link PartitionedQueryIterator#hasFailures()} once the records are consumed.
+	 *
+	 * @param vql              The fully formed query string
+	 * @param partitionFilters WHERE filters, one per partition, which together match each record once
+	 * @param ordered          true to return the records partition after partition,
+	 *                         false to return them as pages arrive
+	 * @return Iterator over the records of all partitions, to be closed if not fully consumed
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query</pre>
+	 * @vapil.request <pre>
+	 * List&lt;String&gt; filters = QueryPartition.byDateWindows("created_date__v",
+	 * 		Instant.parse("2020-01-01T00:00:00Z"), Instant.now(), 8);
+	 * try (PartitionedQueryIterator records = vaultClient.newRequest(QueryRequest.class)
+	 * 				.setPartitionParallelism(4)
+	 * 				.queryPartitioned("SELECT id, name__v FROM product__v", filters, false)) {
+	 *   records.stream().forEach(record -&gt; System.out.println(record.getString("id")));
+	 * }</pre>
+	 * @vapil.response <pre>
+	 * for (QueryPartition partition : records.getPartitions()) {
+	 *   System.out.println(partition.getState() + " " + partition.getRecordCount() + "/" + partition.getTotal());
+	 * }</pre>
+	 */
+	public PartitionedQueryIterator queryPartitioned(String vql, List<String> partitionFilters, boolean ordered) {
+		return new PartitionedQueryIterator(this::query, this::queryByPage, vql, partitionFilters,
+				ordered, partitionParallelism, readAhead);
+	}
+
+	/**
+	 * <b>VQL Query (columnar)</b>
+	 * <p>
+	 * Perform a Vault query request, decoding the returned records into one column per field
+	 * instead of one map per record. Numbers and booleans are held in primitive arrays,
+	 * picklist values are dictionary encoded and nulls are tracked in a bitmap, which
+	 * reduces the memory of large result sets.
+	 * <p>
+	 * When {@link #setDescribeQuery(Boolean)} is true, column types are taken from the
+	 * field types of the query describe. Otherwise they are inferred from the values.
+	 * Subsequent pages are retrieved via {@link #queryColumnarByPage(String)} and can be
+	 * appended to the columns of the first page.
+	 *
+	 * @param vql The fully formed query string
+	 * @return QueryColumnarResponse
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query</pre>
+	 * @vapil.request <pre>
+	 * QueryColumnarResponse response = vaultClient.newRequest(QueryRequest.class)
+	 * 				.setDescribeQuery(true)
+	 * 				.queryColumnar(query);</pre>
+	 * @vapil.response <pre>
+	 * QueryColumns columns = response.getData();
+	 * while (response.getResponseDetails().hasNextPage()) {
+	 *   response = vaultClient.newRequest(QueryRequest.class)
+	 *   		.queryColumnarByPage(response.getResponseDetails().getNextPage());
+	 *   columns.append(response.getData());
+	 * }
+	 *
+	 * QueryColumn amounts = columns.getColumn("amount__c");
+	 * double total = 0;
+	 * for (int row = 0; row &lt; columns.size(); row++) {
+	 *   if (!amounts.isNull(row)) total += amounts.getDouble(row);
+	 * }</pre>
+	 */
+	public QueryColumnarResponse queryColumnar(String vql) {
+		return sendStreamed(HttpMethod.POST, getQueryRequest(vql), QueryColumnarResponse.class);
+	}
+
+	/**
+	 * <b>Get Query Page (columnar)</b>
+	 * <p>
+	 * Perform a paginated query based on the URL from a previous query, decoding
+	 * the returned records into columns. See {@link #queryColumnar(String)}.
+	 *
+	 * @param pageUrl The URL from the previous_page or next_page parameter
+	 * @return QueryColumnarResponse
+	 * @vapil.request <pre>
+	 * QueryColumnarResponse paginatedResponse = vaultClient.newRequest(QueryRequest.class)
+	 * 		.queryColumnarByPage(response.getResponseDetails().getNextPage());
+	 * 	</pre>
+	 */
+	public QueryColumnarResponse queryColumnarByPage(String pageUrl) {
+		String url = vaultClient.getPaginationEndpoint(pageUrl);
+		HttpRequestConnector request = new HttpRequestConnector(url);
+		return sendStreamed(HttpMethod.GET, request, QueryColumnarResponse.class);
+	}
+
+	/**
+	 * <b>VQL Query (export to file)</b>
+	 * <p>
+	 * Perform a Vault query request and write the records of all result pages to a file,
+	 * following the next page of each response. Records are written as each page is read
+	 * from the HTTP response, so memory use does not depend on the number of records.
+	 * <p>
+	 * CSV files have a header row, with the fields of the query describe first (the describe
+	 * is requested for CSV exports), then any other field of the first record. A query
+	 * without records produces a header row only. JSON Lines
+	 * files have one record per line. The file is written in full on success only;
+	 * on failure, it is left unchanged.
+	 *
+	 * @param vql        The fully formed query string
+	 * @param outputPath The file to write
+	 * @param format     The file format
+	 * @return The response of the last page retrieved, with the number of records exported
+	 * @vapil.api <pre>
+	 * POST /api/{version}/query
+	 * GET /query/{next_page}</pre>
+	 * @vapil.request <pre>
+	 * QueryExportResponse response = vaultClient.newRequest(QueryRequest.class)
+	 * 				.exportTo(query, Paths.get("products.csv"), QueryRequest.ExportFormat.CSV);</pre>
+	 * @vapil.response <pre>
+	 * if (response.isSuccessful()) {
+	 *   System.out.println("Records exported = " + response.getRowCount());
+	 * }</pre>
+	 */
+	public QueryExportResponse exportTo(String vql, Path outputPath, ExportFormat format) {
+		Path partPath = outputPath.resolveSibling(outputPath.getFileName() + ".part");
+		QueryExportResponse response = null;
+		long rowCount = 0;
+
+		try (QueryExportWriter exportWriter = new QueryExportWriter(Files.newBufferedWriter(partPath, StandardCharsets.UTF_8), format)) {
+			ObjectReader objectReader = getObjectReader(QueryExportResponse.class)
+					.withAttribute(QueryExportResponse.RowWriter.class, exportWriter);
+
+			HttpRequestConnector request = getQueryRequest(vql);
+			if (format == ExportFormat.CSV) {
+				request.addHeaderParam(HTTP_HEADER_VAULT_DESCRIBE_QUERY, Boolean.toString(true));
+			}
+			response = sendStreamed(HttpMethod.POST, request, objectReader, QueryExportResponse.class);
+			exportWriter.setQueryDescribe(response.getQueryDescribe());
+
+			while (response.isSuccessful()) {
+				rowCount += response.getRowCount();
+				response.setRowCount(rowCount);
+
+				QueryResponse.ResponseDetails responseDetails = response.getResponseDetails();
+				if (responseDetails == null || !responseDetails.hasNextPage()) break;
+
+				HttpRequestConnector pageRequest = new HttpRequestConnector(vaultClient.getPaginationEndpoint(responseDetails.getNextPage()));
+				response = sendStreamed(HttpMethod.GET, pageRequest, objectReader, QueryExportResponse.class);
+			}
+		} catch (IOException e) {
+			log.error("Export to " + outputPath + " failed: " + e.getMessage());
+			response = getNoResponseFailure(QueryExportResponse.class, ERROR_TYPE_TRANSFER_FAILED,
+					"Export to " + outputPath + " failed: " + e.getMessage());
+		}
+
+		try {
+			if (response.isSuccessful()) {
+				Files.move(partPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+			} else {
+				Files.deleteIfExists(partPath);
+			}
+		} catch (IOException e) {
+			log.error("Export to " + outputPath + " failed: " + e.getMessage());
+			response = getNoResponseFailure(QueryExportResponse.class, ERROR_TYPE_TRANSFER_FAILED,
+					"Export to " + outputPath + " failed: " + e.getMessage());
+		}
+		return response;
+	}
+
+	/**
+	 * Form the cache key of a query: the query key and the values of the query headers
+	 *
+	 * @param queryKey The normalized query, or the template identifier and bound values of a prepared query
+	 * @return The cache key
+	 */
+	private String getCacheKey(String queryKey) {
+		return queryKey
+				+ "\n" + HTTP_HEADER_VAULT_DESCRIBE_QUERY + "=" + (queryDescribe != null && queryDescribe)
+				+ "\n" + HTTP_HEADER_VAULT_RECORD_PROPERTIES + "=" + (recordPropertyType != null ? recordPropertyType.getValue() : "");
+	}
+
+	/**
+	 * Form the query request, including the describe and record properties headers
+	 *
+	 * @param vql The fully formed query string
+	 * @return The HTTP request
+	 */
+	private HttpRequestConnector getQueryRequest(String vql) {
+		return getQueryRequest(vql, vql);
+	}
+
+	/**
+	 * Form the query request, including the describe and record properties headers
+	 *
+	 * @param vql         The fully formed query string
+	 * @param loggedQuery The query as logged
+	 * @return The HTTP request
+	 */
+	private HttpRequestConnector getQueryRequest(String vql, String loggedQuery) {
+		HttpRequestConnector request = new HttpRequestConnector(vaultClient.getAPIEndpoint(URL_QUERY));
+
+		request.addBodyParam("q", vql);
+		log.info("Query = " + loggedQuery);
+
+		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, HttpRequestConnector.HTTP_CONTENT_TYPE_XFORM);
+		if (queryDescribe != null && queryDescribe)
+			request.addHeaderParam(HTTP_HEADER_VAULT_DESCRIBE_QUERY, Boolean.toString(queryDescribe));
+
+		if (recordPropertyType != null)
+			request.addHeaderParam(HTTP_HEADER_VAULT_RECORD_PROPERTIES, recordPropertyType.getValue());
+
+		// Queries are read-only, so transient failures of the POST can be retried
+		request.setRetrySafe(true);
+
+		return request;
 	}
 
 	/*
@@ -172,6 +576,20 @@ public class QueryRequest extends VaultRequest<QueryRequest> {
 	 *
 	 */
 
+	/**
+	 * File format of {@link #exportTo(String, Path, ExportFormat)}
+	 */
+	public enum ExportFormat {
+		/**
+		 * Comma separated values, with a header row
+		 */
+		CSV,
+		/**
+		 * JSON Lines, one JSON object per record
+		 */
+		JSONL
+	}
+
 	/**
 	 * Download option for Document Token
 	 */
@@ -225,6 +643,50 @@ public class QueryRequest extends VaultRequest<QueryRequest> {
 		return this;
 	}
 
+	/**
+	 * Number of result pages fetched in the background ahead of the page being consumed
+	 * by {@link #stream(String)} and {@link #iterator(String)}. Defaults to {@value #DEFAULT_READ_AHEAD}.
+	 *
+	 * @param readAhead Number of pages, at least 1
+	 * @return The Request
+	 */
+	public QueryRequest setReadAhead(int readAhead) {
+		if (readAhead < 1) {
+			throw new IllegalArgumentException("readAhead must be at least 1");
+		}
+		this.readAhead = readAhead;
+		return this;
+	}
+
+	/**
+	 * Maximum number of partitions of {@link #queryPartitioned(String, List, boolean)}
+	 * retrieved at a time. Defaults to {@value #DEFAULT_PARTITION_PARALLELISM}.
+	 *
+	 * @param partitionParallelism Number of partitions, at least 1
+	 * @return The Request
+	 */
+	public QueryRequest setPartitionParallelism(int partitionParallelism) {
+		if (partitionParallelism < 1) {
+			throw new IllegalArgumentException("partitionParallelism must be at least 1");
+		}
+		this.partitionParallelism = partitionParallelism;
+		return this;
+	}
+
+	/**
+	 * Answer {@link #query(String)} from the query result cache of the Vault Client when
+	 * possible, and cache its complete responses. Has no effect when the Vault Client has no
+	 * cache; see {@link VaultClient.Builder#withQueryResultCache(int, long)}. Intended for
+	 * reference data, such as picklist or country lookups, queried repeatedly.
+	 *
+	 * @param useCache true to use the cache
+	 * @return The Request
+	 */
+	public QueryRequest setUseCache(boolean useCache) {
+		this.useCache = useCache;
+		return this;
+	}
+
 	/**
 	 * <b>X-VaultAPI-RecordProperties</b>
 	 * <p>
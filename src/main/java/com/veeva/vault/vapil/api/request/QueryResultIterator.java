@@ -0,0 +1,186 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Iterator over all records of a VQL query, following the next page of each response.
+ * <p>
+ * While the records of one page are consumed, the following pages are fetched in the
+ * background, up to the read-ahead depth of the request, so the wait for the network
+ * overlaps the processing of the records. Pages are still requested one after the other,
+ * since each page URL is only known from the previous response.
+ * <p>
+ * Closing the iterator cancels the fetches in progress. A page that fails ends the
+ * iteration with an {@link IllegalStateException}; the failed response is available via
+ * {@link #getFailedResponse()}.
+ *
+ * @see QueryRequest#iterator(String)
+ * @see QueryRequest#stream(String)
+ */
+public class QueryResultIterator implements Iterator<QueryResponse.QueryResult>, AutoCloseable {
+	private static Logger log = LoggerFactory.getLogger(QueryResultIterator.class);
+
+	private final Function<String, CompletableFuture<QueryResponse>> pageFetcher;
+	private final int readAhead;
+
+	// Guarded by this: pages fetched or in flight, in page order, not yet consumed
+	private final Deque<Page> pages = new ArrayDeque<>();
+	private String nextPageUrl;
+	private boolean closed = false;
+
+	private Iterator<QueryResponse.QueryResult> records = Collections.emptyIterator();
+	private QueryResponse failedResponse;
+
+	QueryResultIterator(CompletableFuture<QueryResponse> firstPage,
+						Function<String, CompletableFuture<QueryResponse>> pageFetcher,
+						int readAhead) {
+		this.pageFetcher = pageFetcher;
+		this.readAhead = readAhead;
+		synchronized (this) {
+			addPage(firstPage);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!records.hasNext()) {
+			Page page;
+			synchronized (this) {
+				if (closed) return false;
+				page = pages.pollFirst();
+				if (page == null) return false;
+				fill();
+			}
+
+			QueryResponse response;
+			try {
+				response = page.future.join();
+			} catch (CancellationException e) {
+				return false;
+			} catch (CompletionException e) {
+				close();
+				throw new IllegalStateException("Query page failed: " + e.getCause().getMessage(), e.getCause());
+			}
+
+			if (response == null || !response.isSuccessful()) {
+				close();
+				failedResponse = response;
+				String message = getErrorMessage(response);
+				log.error("Query page failed: " + message);
+				throw new IllegalStateException("Query page failed: " + message);
+			}
+
+			synchronized (this) {
+				onPage(page, response);
+			}
+			if (response.getData() != null) {
+				records = response.getData().iterator();
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public QueryResponse.QueryResult next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return records.next();
+	}
+
+	/**
+	 * Stop the iteration and cancel the page fetches in progress
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			nextPageUrl = null;
+			for (Page page : pages) {
+				page.future.cancel(true);
+			}
+			pages.clear();
+		}
+		records = Collections.emptyIterator();
+	}
+
+	/**
+	 * @return The response of the page that ended the iteration with an error, null if none
+	 */
+	public QueryResponse getFailedResponse() {
+		return failedResponse;
+	}
+
+	private void addPage(CompletableFuture<QueryResponse> future) {
+		Page page = new Page(future);
+		pages.addLast(page);
+		future.whenComplete((response, throwable) -> {
+			if (response != null && response.isSuccessful()) {
+				synchronized (this) {
+					onPage(page, response);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Record the next page URL of a successful page, once, and fetch it if the
+	 * read-ahead allows. Called when the page completes and when it is consumed,
+	 * whichever comes first.
+	 */
+	private void onPage(Page page, QueryResponse response) {
+		if (page.handled || closed) return;
+		page.handled = true;
+
+		QueryResponse.ResponseDetails responseDetails = response.getResponseDetails();
+		if (responseDetails != null && responseDetails.hasNextPage()) {
+			nextPageUrl = responseDetails.getNextPage();
+			fill();
+		}
+	}
+
+	private void fill() {
+		if (nextPageUrl != null && pages.size() < readAhead) {
+			String pageUrl = nextPageUrl;
+			nextPageUrl = null;
+			addPage(pageFetcher.apply(pageUrl));
+		}
+	}
+
+	private static String getErrorMessage(QueryResponse response) {
+		if (response == null) return "no response";
+		if (response.hasErrors()) {
+			VaultResponse.APIResponseError error = response.getErrors().get(0);
+			return error.getType() + " " + error.getMessage();
+		}
+		return response.getResponseStatus();
+	}
+
+	private static class Page {
+		private final CompletableFuture<QueryResponse> future;
+		private boolean handled = false;
+
+		private Page(CompletableFuture<QueryResponse> future) {
+			this.future = future;
+		}
+	}
+}
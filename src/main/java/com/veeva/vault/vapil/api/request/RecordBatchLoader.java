@@ -0,0 +1,354 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces lookups of single records by id into one VQL query per object.
+ * <p>
+ * Records requested via {@link #load(String, String)} are collected per object, and fetched
+ * together with a "WHERE id CONTAINS (...)" query once the batch reaches the maximum batch size,
+ * once the batch window has elapsed since the first lookup of the batch, or on {@link #dispatch()}.
+ * Lookups of an id already pending or in flight share its future. Each future completes with the record,
+ * or null if no record has the id. When the query fails, all futures of the batch complete
+ * exceptionally with an {@link IllegalStateException}.
+ * <p>
+ * Only the configured fields are retrieved, "id" by default; see {@link #setFields(String, String...)}.
+ *
+ * <pre>
+ * try (RecordBatchLoader loader = new RecordBatchLoader(vaultClient)
+ * 		.setFields("product__v", "id", "name__v", "status__v")) {
+ *   List&lt;CompletableFuture&lt;QueryResponse.QueryResult&gt;&gt; products = new ArrayList&lt;&gt;();
+ *   for (String id : productIds) {
+ *     products.add(loader.load("product__v", id));
+ *   }
+ *   loader.dispatch();
+ *   for (CompletableFuture&lt;QueryResponse.QueryResult&gt; product : products) {
+ *     System.out.println(product.join().getString("name__v"));
+ *   }
+ * }
+ * </pre>
+ */
+public class RecordBatchLoader implements AutoCloseable {
+	private static Logger log = LoggerFactory.getLogger(RecordBatchLoader.class);
+
+	/**
+	 * Default maximum number of ids per query, {@value #DEFAULT_MAX_BATCH_SIZE}
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 250;
+
+	/**
+	 * Default time lookups wait for other lookups to join their batch, {@value #DEFAULT_BATCH_WINDOW_MILLIS} ms
+	 */
+	public static final long DEFAULT_BATCH_WINDOW_MILLIS = 10;
+
+	private static final String DOCUMENTS = "documents";
+	private static final String ID = "id";
+
+	private final Function<String, CompletableFuture<QueryResponse>> query;
+	private final Function<String, CompletableFuture<QueryResponse>> queryByPage;
+	private final ScheduledExecutorService scheduler;
+
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+	private long batchWindowMillis = DEFAULT_BATCH_WINDOW_MILLIS;
+
+	// Guarded by this
+	private final Map<String, List<String>> fields = new HashMap<>();
+	private final Map<String, Batch> batches = new HashMap<>();
+	private final Map<String, CompletableFuture<QueryResponse.QueryResult>> inFlight = new HashMap<>();
+	private boolean closed = false;
+
+	/**
+	 * Create a loader sending its queries through a Vault Client
+	 *
+	 * @param vaultClient The Vault Client
+	 */
+	public RecordBatchLoader(VaultClient vaultClient) {
+		this(vql -> vaultClient.newRequest(QueryRequest.class).queryAsync(vql),
+				pageUrl -> vaultClient.newRequest(QueryRequest.class).queryByPageAsync(pageUrl));
+	}
+
+	RecordBatchLoader(Function<String, CompletableFuture<QueryResponse>> query,
+					  Function<String, CompletableFuture<QueryResponse>> queryByPage) {
+		this.query = query;
+		this.queryByPage = queryByPage;
+
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "vapil-record-batch-loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		this.scheduler = executor;
+	}
+
+	/**
+	 * @param maxBatchSize Maximum number of ids per query. Default = {@value #DEFAULT_MAX_BATCH_SIZE}
+	 * @return The loader
+	 */
+	public RecordBatchLoader setMaxBatchSize(int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize must be at least 1");
+		}
+		this.maxBatchSize = maxBatchSize;
+		return this;
+	}
+
+	/**
+	 * @param batchWindowMillis Time lookups wait for other lookups to join their batch,
+	 *                          0 to only send batches when full or on {@link #dispatch()}.
+	 *                          Default = {@value #DEFAULT_BATCH_WINDOW_MILLIS}
+	 * @return The loader
+	 */
+	public RecordBatchLoader setBatchWindowMillis(long batchWindowMillis) {
+		if (batchWindowMillis < 0) {
+			throw new IllegalArgumentException("batchWindowMillis must not be negative");
+		}
+		this.batchWindowMillis = batchWindowMillis;
+		return this;
+	}
+
+	/**
+	 * Set the fields retrieved for an object. The id field is always retrieved.
+	 *
+	 * @param objectName Object name, or "documents" for {@link #loadDocument(int)}
+	 * @param fieldNames Field names
+	 * @return The loader
+	 */
+	public synchronized RecordBatchLoader setFields(String objectName, String... fieldNames) {
+		Set<String> objectFields = new LinkedHashSet<>();
+		objectFields.add(ID);
+		objectFields.addAll(Arrays.asList(fieldNames));
+		fields.put(objectName, new ArrayList<>(objectFields));
+		return this;
+	}
+
+	/**
+	 * Load an object record, batched with other lookups of the same object
+	 *
+	 * @param objectName Object name
+	 * @param id         Record id
+	 * @return Future of the record, completing with null if there is no record with the id
+	 */
+	public CompletableFuture<QueryResponse.QueryResult> load(String objectName, String id) {
+		return load(objectName, id, Vql.toLiteral(id));
+	}
+
+	/**
+	 * Load object records, batched with other lookups of the same object
+	 *
+	 * @param objectName Object name
+	 * @param ids        Record ids
+	 * @return Future of the records found, by id
+	 */
+	public CompletableFuture<Map<String, QueryResponse.QueryResult>> loadAll(String objectName, Collection<String> ids) {
+		Map<String, CompletableFuture<QueryResponse.QueryResult>> futures = new LinkedHashMap<>();
+		for (String id : ids) {
+			futures.put(id, load(objectName, id));
+		}
+		return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+			Map<String, QueryResponse.QueryResult> records = new LinkedHashMap<>();
+			futures.forEach((id, future) -> {
+				QueryResponse.QueryResult record = future.join();
+				if (record != null) records.put(id, record);
+			});
+			return records;
+		});
+	}
+
+	/**
+	 * Load the latest version of a document, batched with other document lookups
+	 *
+	 * @param id Document id
+	 * @return Future of the document fields, completing with null if there is no document with the id
+	 */
+	public CompletableFuture<QueryResponse.QueryResult> loadDocument(int id) {
+		return load(DOCUMENTS, String.valueOf(id), Integer.toString(id));
+	}
+
+	/**
+	 * Send all pending batches now, without waiting for the batch window
+	 */
+	public void dispatch() {
+		List<Batch> pending;
+		synchronized (this) {
+			pending = new ArrayList<>(batches.values());
+			batches.clear();
+			pending.forEach(this::markInFlight);
+		}
+		pending.forEach(this::send);
+	}
+
+	/**
+	 * Send the pending batches and stop the batch window timer.
+	 * Lookups after close throw an {@link IllegalStateException}.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		dispatch();
+		scheduler.shutdown();
+	}
+
+	private CompletableFuture<QueryResponse.QueryResult> load(String objectName, String id, String literal) {
+		Batch full = null;
+		CompletableFuture<QueryResponse.QueryResult> future;
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("RecordBatchLoader is closed");
+			}
+
+			future = inFlight.get(objectName + "/" + id);
+			if (future != null) return future;
+
+			Batch batch = batches.get(objectName);
+			if (batch == null) {
+				batch = new Batch(objectName, fields.getOrDefault(objectName, List.of(ID)));
+				batches.put(objectName, batch);
+				if (batchWindowMillis > 0) {
+					Batch scheduled = batch;
+					batch.timer = scheduler.schedule(() -> dispatch(scheduled), batchWindowMillis, TimeUnit.MILLISECONDS);
+				}
+			}
+
+			future = batch.futures.get(id);
+			if (future == null) {
+				future = new CompletableFuture<>();
+				batch.futures.put(id, future);
+				batch.literals.add(literal);
+			}
+
+			if (batch.futures.size() >= maxBatchSize) {
+				batches.remove(objectName);
+				markInFlight(batch);
+				full = batch;
+			}
+		}
+
+		if (full != null) send(full);
+		return future;
+	}
+
+	private void dispatch(Batch batch) {
+		synchronized (this) {
+			if (batches.get(batch.objectName) != batch) return;
+			batches.remove(batch.objectName);
+			markInFlight(batch);
+		}
+		send(batch);
+	}
+
+	/**
+	 * Register the lookups of a batch removed from the pending batches as in flight, in the
+	 * same critical section, so lookups of its ids share its futures instead of starting a new batch
+	 */
+	private void markInFlight(Batch batch) {
+		batch.futures.forEach((id, future) -> inFlight.put(batch.objectName + "/" + id, future));
+	}
+
+	private void send(Batch batch) {
+		if (batch.timer != null) batch.timer.cancel(false);
+
+		String vql = "SELECT " + String.join(", ", batch.fields)
+				+ " FROM " + batch.objectName
+				+ " WHERE " + ID + " CONTAINS (" + String.join(", ", batch.literals) + ")";
+
+		CompletableFuture<QueryResponse> firstPage;
+		try {
+			firstPage = query.apply(vql);
+		} catch (RuntimeException e) {
+			// Fail the lookups of the batch like an asynchronous failure
+			firstPage = CompletableFuture.failedFuture(e);
+		}
+
+		queryAll(vql, firstPage, new ArrayList<>()).whenComplete((records, throwable) -> {
+			synchronized (this) {
+				batch.futures.keySet().forEach(id -> inFlight.remove(batch.objectName + "/" + id));
+			}
+
+			if (throwable != null) {
+				Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+						? throwable.getCause()
+						: throwable;
+				log.error("Batch lookup of " + batch.futures.size() + " " + batch.objectName + " records failed: " + cause.getMessage());
+				IllegalStateException exception = cause instanceof IllegalStateException
+						? (IllegalStateException) cause
+						: new IllegalStateException(cause.getMessage(), cause);
+				batch.futures.values().forEach(future -> future.completeExceptionally(exception));
+				return;
+			}
+
+			for (QueryResponse.QueryResult record : records) {
+				CompletableFuture<QueryResponse.QueryResult> future = batch.futures.get(String.valueOf(record.get(ID)));
+				if (future != null) future.complete(record);
+			}
+			batch.futures.values().forEach(future -> future.complete(null));
+		});
+	}
+
+	/**
+	 * Collect the records of all pages of a query
+	 */
+	private CompletableFuture<List<QueryResponse.QueryResult>> queryAll(String vql, CompletableFuture<QueryResponse> page,
+																		 List<QueryResponse.QueryResult> records) {
+		return page.thenCompose(response -> {
+			if (response == null || !response.isSuccessful()) {
+				String message = response != null && response.hasErrors()
+						? response.getErrors().get(0).getType() + " " + response.getErrors().get(0).getMessage()
+						: "no response";
+				return CompletableFuture.failedFuture(new IllegalStateException("Query failed: " + message + ", " + vql));
+			}
+
+			if (response.getData() != null) records.addAll(response.getData());
+			QueryResponse.ResponseDetails responseDetails = response.getResponseDetails();
+			if (responseDetails != null && responseDetails.hasNextPage()) {
+				return queryAll(vql, queryByPage.apply(responseDetails.getNextPage()), records);
+			}
+			return CompletableFuture.completedFuture(records);
+		});
+	}
+
+	/**
+	 * Pending lookups of one object, in lookup order
+	 */
+	private static class Batch {
+		private final String objectName;
+		private final List<String> fields;
+		private final Map<String, CompletableFuture<QueryResponse.QueryResult>> futures = new LinkedHashMap<>();
+		private final List<String> literals = new ArrayList<>();
+		private ScheduledFuture<?> timer;
+
+		private Batch(String objectName, List<String> fields) {
+			this.objectName = objectName;
+			this.fields = fields;
+		}
+	}
+}
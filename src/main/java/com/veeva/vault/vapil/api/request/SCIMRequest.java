@@ -15,7 +15,6 @@ package com.veeva.vault.vapil.api.request;
  */
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veeva.vault.vapil.api.model.common.SCIMUser;
 import com.veeva.vault.vapil.api.model.response.SCIMUserBulkResponse;
 import com.veeva.vault.vapil.api.model.response.SCIMResponse;
@@ -434,9 +433,6 @@ public class SCIMRequest extends VaultRequest<SCIMRequest> {
 	public SCIMUserResponse retrieveUser(String userId) {
 		String url = vaultClient.getAPIEndpoint(URL_USER_ID).replace("{id}", userId);
 
-		ObjectMapper objectMapper = getBaseObjectMapper();
-		objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-
 		HttpRequestConnector request = new HttpRequestConnector(url);
 
 		if (filter != null && !filter.isEmpty())
@@ -446,7 +442,8 @@ public class SCIMRequest extends VaultRequest<SCIMRequest> {
 		if (excludedAttributes != null && !excludedAttributes.isEmpty())
 			request.addQueryParam(HTTP_QUERYSTRING_EXCLUDED_ATTRIBUTES, excludedAttributes);
 
-		return send(HttpMethod.GET, request, objectMapper, SCIMUserResponse.class);
+		return send(HttpMethod.GET, request,
+				getObjectReader(SCIMUserResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY), SCIMUserResponse.class);
 	}
 
 	/**
@@ -0,0 +1,85 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Progress of the incremental sync of one object or of documents, see {@link IncrementalSync}.
+ * <p>
+ * The watermarks are the latest modification and deletion times synced. Changes within
+ * the overlap before each watermark are fetched again on the next sync; the changes of
+ * that window already synced are kept, by id, to skip them. Times are UTC ISO-8601 strings.
+ */
+public class SyncCheckpoint {
+
+	private String modifiedWatermark;
+	private Map<String, String> recentlyModified = new HashMap<>();
+	private String deletedWatermark;
+	private Map<String, String> recentlyDeleted = new HashMap<>();
+
+	/**
+	 * @return Latest modification time synced, null before the first sync of a record
+	 */
+	@JsonProperty("modified_watermark")
+	public String getModifiedWatermark() {
+		return modifiedWatermark;
+	}
+
+	public void setModifiedWatermark(String modifiedWatermark) {
+		this.modifiedWatermark = modifiedWatermark;
+	}
+
+	/**
+	 * @return Modification time of the records synced within the overlap window, by id
+	 */
+	@JsonProperty("recently_modified")
+	public Map<String, String> getRecentlyModified() {
+		return recentlyModified;
+	}
+
+	public void setRecentlyModified(Map<String, String> recentlyModified) {
+		this.recentlyModified = recentlyModified != null ? recentlyModified : new HashMap<>();
+	}
+
+	/**
+	 * @return Latest deletion time synced, or the start of the first sync
+	 */
+	@JsonProperty("deleted_watermark")
+	public String getDeletedWatermark() {
+		return deletedWatermark;
+	}
+
+	public void setDeletedWatermark(String deletedWatermark) {
+		this.deletedWatermark = deletedWatermark;
+	}
+
+	/**
+	 * @return Deletion time of the deletions synced within the overlap window, by id
+	 */
+	@JsonProperty("recently_deleted")
+	public Map<String, String> getRecentlyDeleted() {
+		return recentlyDeleted;
+	}
+
+	public void setRecentlyDeleted(Map<String, String> recentlyDeleted) {
+		this.recentlyDeleted = recentlyDeleted != null ? recentlyDeleted : new HashMap<>();
+	}
+
+	static Instant toInstant(String value) {
+		return value != null ? Instant.parse(value) : null;
+	}
+
+	static String toString(Instant value) {
+		return value != null ? value.toString() : null;
+	}
+}
@@ -0,0 +1,76 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Durable storage of {@link SyncCheckpoint} by key, such as the object name
+ * or "documents". Failures are reported as unchecked exceptions.
+ */
+public interface SyncCheckpointStore {
+
+	/**
+	 * @param key The checkpoint key
+	 * @return The checkpoint, null if none is stored
+	 */
+	SyncCheckpoint load(String key);
+
+	/**
+	 * Store a checkpoint, replacing the previous checkpoint of the key
+	 *
+	 * @param key        The checkpoint key
+	 * @param checkpoint The checkpoint
+	 */
+	void save(String key, SyncCheckpoint checkpoint);
+
+	/**
+	 * Create a store keeping each checkpoint in a JSON file of a directory, named after
+	 * the key. Files are replaced atomically, so a failed save leaves the previous checkpoint.
+	 *
+	 * @param directory The directory, created if needed
+	 * @return The store
+	 */
+	static SyncCheckpointStore ofDirectory(Path directory) {
+		return new SyncCheckpointStore() {
+			@Override
+			public SyncCheckpoint load(String key) {
+				Path file = directory.resolve(key + ".json");
+				if (!Files.exists(file)) return null;
+				try {
+					return ObjectMapperRegistry.getDefault().getReader(SyncCheckpoint.class).readValue(file.toFile());
+				} catch (IOException e) {
+					throw new UncheckedIOException("Failed to read sync checkpoint " + file, e);
+				}
+			}
+
+			@Override
+			public void save(String key, SyncCheckpoint checkpoint) {
+				Path file = directory.resolve(key + ".json");
+				try {
+					Files.createDirectories(directory);
+					Path temp = Files.createTempFile(directory, key, ".tmp");
+					try {
+						ObjectMapperRegistry.getDefault().getWriter().writeValue(temp.toFile(), checkpoint);
+						Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					} finally {
+						Files.deleteIfExists(temp);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException("Failed to write sync checkpoint " + file, e);
+				}
+			}
+		};
+	}
+}
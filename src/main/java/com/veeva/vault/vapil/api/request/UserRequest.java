@@ -10,7 +10,7 @@
 package com.veeva.vault.vapil.api.request;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.model.response.MetaDataUserResponse;
 import com.veeva.vault.vapil.api.model.response.UserBulkResponse;
@@ -503,7 +503,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 
 		String url = vaultClient.getAPIEndpoint(APIEndpoint);
 
-		ObjectMapper objectMapper = getBaseObjectMapper();
+		ObjectReader objectReader = getObjectReader(UserResponse.class);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, headerContentType);
@@ -511,7 +511,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 
 		if (bodyParams != null && !bodyParams.isEmpty()) {
 			request.setBodyParams(bodyParams);
-			objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+			objectReader = getObjectReader(UserResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
 		}
 
 		if (inputPath != null && !inputPath.isEmpty())
@@ -536,7 +536,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 				return sendReturnBinary(method, request, UserResponse.class);
 			}
 		else
-			return send(method, request, objectMapper, UserResponse.class);
+			return send(method, request, objectReader, UserResponse.class);
 	}
 
 	/**
@@ -551,7 +551,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 
 		String url = vaultClient.getAPIEndpoint(APIEndpoint);
 
-		ObjectMapper objectMapper = getBaseObjectMapper();
+		ObjectReader objectReader = getObjectReader(UserBulkResponse.class);
 
 		HttpRequestConnector request = new HttpRequestConnector(url);
 		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_CONTENT_TYPE, headerContentType);
@@ -559,7 +559,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 
 		if (bodyParams != null && !bodyParams.isEmpty()) {
 			request.setBodyParams(bodyParams);
-			objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+			objectReader = getObjectReader(UserBulkResponse.class, DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
 		}
 
 		if (inputPath != null && !inputPath.isEmpty())
@@ -584,7 +584,7 @@ public class UserRequest extends VaultRequest<UserRequest> {
 				return sendReturnBinary(method, request, UserBulkResponse.class);
 			}
 		else
-			return send(method, request, objectMapper, UserBulkResponse.class);
+			return send(method, request, objectReader, UserBulkResponse.class);
 	}
 
 	/**
@@ -9,12 +9,18 @@ package com.veeva.vault.vapil.api.request;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.veeva.vault.vapil.api.client.BurstLimitGovernor;
 import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.ObjectMapperRegistry;
 import com.veeva.vault.vapil.api.model.response.AuthenticationResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse.APIResponseError;
+import com.veeva.vault.vapil.api.model.response.VaultStreamResponse;
 import com.veeva.vault.vapil.connector.HttpRequestConnector;
 import com.veeva.vault.vapil.connector.HttpResponseConnector;
+import com.veeva.vault.vapil.connector.ResumableFileDownload;
+import com.veeva.vault.vapil.connector.SegmentedFileDownload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,7 +29,12 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class for performing HTTP requests to the Vault API. This class
@@ -45,8 +56,19 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 
 	public static final String HTTP_HEADER_VAULT_CLIENT_ID = "X-VaultAPI-ClientID";
 	public static final String HTTP_HEADER_REFERENCE_ID = "X-VaultAPI-ReferenceId";
+	public static final String ERROR_TYPE_NO_RESPONSE = "NO_RESPONSE";
+	public static final String ERROR_TYPE_TRANSFER_FAILED = "TRANSFER_FAILED";
+	public static final String ERROR_TYPE_PARSE_FAILED = "PARSE_FAILED";
 	protected String referenceId;
 	protected String requestClientId;
+	protected String outputFileDigestAlgorithm;
+	protected String outputFileExpectedDigest;
+	protected boolean preallocateOutputFile = false;
+	protected int downloadSegments = 1;
+	protected boolean resumableDownload = false;
+	protected boolean compressRequestBody = false;
+	protected boolean retrySafe = false;
+	protected Boolean retainRawResponse;
 
 	private static Logger log = LoggerFactory.getLogger(VaultRequest.class);
 
@@ -77,7 +99,7 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T send(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
-		return send(method, request, getBaseObjectMapper(), responseObjectClass);
+		return send(method, request, getObjectReader(responseObjectClass), responseObjectClass);
 	}
 
 	/**
@@ -100,12 +122,119 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T send(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectMapper objectMapper, Class<T> responseObjectClass) {
-		request = setVaultHeaderParams(request);
+		return send(method, request, objectMapper.readerFor(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP request after setting standard Vault information
+	 * such as the session id, deserializing the response with an object reader.
+	 * <p>
+	 * Readers from {@link #getObjectReader(Class, DeserializationFeature...)} are
+	 * cached by the Vault Client, so they avoid the cost of building a new object
+	 * mapper for each request.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param objectReader        Deserialization object reader to POJO
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response based on a response string
+	 */
+	protected <T> T send(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectReader objectReader, Class<T> responseObjectClass) {
+		request = prepareRequest(request);
+
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.STRING, null);
+		if (response != null) log.debug("HTTP response before deserialization = " + response.getResponse());
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.STRING, objectReader, responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP request for a potentially large JSON response, such as a query page.
+	 * Unless the raw response is retained (see {@link #setRetainRawResponse(boolean)}),
+	 * the response is deserialized directly from the HTTP response stream, without
+	 * holding the response text in memory, and {@link VaultResponse#getResponse()} is empty.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response
+	 */
+	protected <T> T sendStreamed(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
+		if (isRetainRawResponse()) {
+			return send(method, request, responseObjectClass);
+		}
+
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.STREAM, null);
+
+		return processStreamedResponse(response, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP request for a potentially large JSON response, always deserialized
+	 * directly from the HTTP response stream with the given reader. Use this method for
+	 * readers carrying attributes for custom deserializers, such as a destination the
+	 * response content is written to while it is read.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param objectReader        Deserialization object reader to POJO
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response
+	 */
+	protected <T> T sendStreamed(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectReader objectReader, Class<T> responseObjectClass) {
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.STREAM, null);
+
+		return processStreamedResponse(response, objectReader, responseObjectClass);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP request for a potentially large JSON response.
+	 * See {@link #sendStreamed(HttpRequestConnector.HttpMethod, HttpRequestConnector, Class)}.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response
+	 */
+	protected <T> CompletableFuture<T> sendStreamedAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
+		if (isRetainRawResponse()) {
+			return sendAsync(method, request, responseObjectClass);
+		}
+
+		request = prepareRequest(request);
+		ObjectReader objectReader = getObjectReader(responseObjectClass);
+
+		CompletableFuture<HttpResponseConnector> httpFuture = executeAsync(method, request, HttpRequestConnector.ResponseOption.STREAM, null);
+		CompletableFuture<T> responseFuture = httpFuture.thenApply(response -> processStreamedResponse(response, objectReader, responseObjectClass));
+		responseFuture.whenComplete((obj, throwable) -> {
+			if (responseFuture.isCancelled()) httpFuture.cancel(true);
+		});
 
-		HttpResponseConnector response = request.send(method);
-		log.debug("HTTP response before deserialization = " + response.getResponse());
+		return responseFuture;
+	}
 
-		return processResponse(response, HttpRequestConnector.ResponseOption.STRING, objectMapper, responseObjectClass);
+	/**
+	 * Keep the raw text of a large JSON response, such as a query page, available via
+	 * {@link VaultResponse#getResponse()}. Overrides {@link VaultClient#isRetainRawResponse()}
+	 * for this request.
+	 *
+	 * @param retainRawResponse true to keep the raw response text
+	 * @return The request
+	 */
+	public T setRetainRawResponse(boolean retainRawResponse) {
+		this.retainRawResponse = retainRawResponse;
+		return (T) this;
+	}
+
+	private boolean isRetainRawResponse() {
+		if (retainRawResponse != null) return retainRawResponse;
+		return vaultClient != null && vaultClient.isRetainRawResponse();
 	}
 
 	/**
@@ -122,10 +251,58 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T sendToFile(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, String outputFilePath, Class<T> responseObjectClass) {
-		request = setVaultHeaderParams(request);
-		HttpResponseConnector response = request.send(method, HttpRequestConnector.ResponseOption.TO_FILE, outputFilePath);
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.TO_FILE, outputFilePath);
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP GET request that creates a file, downloading byte ranges of the
+	 * file in parallel when more than one download segment is set
+	 * (see {@link #setDownloadSegments(int)}). Falls back to a single stream when the
+	 * server does not support Range requests. See {@link SegmentedFileDownload}.
+	 *
+	 * @param <T>                 The object
+	 * @param request             Fully formed HTTP GET request
+	 * @param outputFilePath      file path for the output file
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response based on a response string
+	 */
+	protected <T> T sendToFileSegmented(HttpRequestConnector request, String outputFilePath, Class<T> responseObjectClass) {
+		if (downloadSegments <= 1) {
+			return sendToFile(HttpRequestConnector.HttpMethod.GET, request, outputFilePath, responseObjectClass);
+		}
 
-		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, getBaseObjectMapper(), responseObjectClass);
+		HttpRequestConnector preparedRequest = prepareRequest(request);
+		SegmentedFileDownload download = new SegmentedFileDownload(preparedRequest::copy,
+				rangeRequest -> execute(HttpRequestConnector.HttpMethod.GET, rangeRequest, HttpRequestConnector.ResponseOption.STREAM, null))
+				.setSegments(downloadSegments)
+				.setDigest(outputFileDigestAlgorithm, outputFileExpectedDigest);
+		HttpResponseConnector response = download.download(outputFilePath);
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP GET request that creates a file, keeping a partial file and progress
+	 * record next to the output file so an interrupted download continues from the last
+	 * written byte, within this call or a later one. See {@link ResumableFileDownload}.
+	 *
+	 * @param <T>                 The object
+	 * @param request             Fully formed HTTP GET request
+	 * @param outputFilePath      file path for the output file
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response based on a response string
+	 */
+	protected <T> T sendToFileResumable(HttpRequestConnector request, String outputFilePath, Class<T> responseObjectClass) {
+		HttpRequestConnector preparedRequest = prepareRequest(request);
+		ResumableFileDownload download = new ResumableFileDownload(preparedRequest::copy,
+				resumeRequest -> execute(HttpRequestConnector.HttpMethod.GET, resumeRequest, HttpRequestConnector.ResponseOption.STREAM, null))
+				.setDigest(outputFileDigestAlgorithm, outputFileExpectedDigest);
+		HttpResponseConnector response = download.download(outputFilePath);
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, getObjectReader(responseObjectClass), responseObjectClass);
 	}
 
 	/**
@@ -149,10 +326,10 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T sendToFile(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectMapper objectMapper, String outputFilePath, Class<T> responseObjectClass) {
-		request = setVaultHeaderParams(request);
-		HttpResponseConnector response = request.send(method, HttpRequestConnector.ResponseOption.TO_FILE, outputFilePath);
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.TO_FILE, outputFilePath);
 
-		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, objectMapper, responseObjectClass);
+		return processResponse(response, HttpRequestConnector.ResponseOption.TO_FILE, objectMapper.readerFor(responseObjectClass), responseObjectClass);
 	}
 
 	/**
@@ -175,10 +352,10 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T sendReturnBinary(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectMapper objectMapper, Class<T> responseObjectClass) {
-		request = setVaultHeaderParams(request);
-		HttpResponseConnector response = request.send(method, HttpRequestConnector.ResponseOption.BYTE_ARRAY);
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.BYTE_ARRAY, null);
 
-		return processResponse(response, HttpRequestConnector.ResponseOption.BYTE_ARRAY, objectMapper, responseObjectClass);
+		return processResponse(response, HttpRequestConnector.ResponseOption.BYTE_ARRAY, objectMapper.readerFor(responseObjectClass), responseObjectClass);
 	}
 
 	/**
@@ -194,35 +371,220 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * @return POJO modeled response based on a response string
 	 */
 	protected <T> T sendReturnBinary(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
-		request = setVaultHeaderParams(request);
-		HttpResponseConnector response = request.send(method, HttpRequestConnector.ResponseOption.BYTE_ARRAY);
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.BYTE_ARRAY, null);
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.BYTE_ARRAY, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform an HTTP request that streams binary content. The request will contain
+	 * standard Vault information such as the session id. On success, the response
+	 * body is left open and read incrementally from the returned response, which
+	 * must be closed by the caller to release the HTTP connection.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseObjectClass POJO class representing the response
+	 * @return POJO modeled response with the open response content
+	 */
+	protected <T extends VaultStreamResponse> T sendReturnStream(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
+		request = prepareRequest(request);
+		HttpResponseConnector response = execute(method, request, HttpRequestConnector.ResponseOption.STREAM, null);
+
+		return processResponse(response, HttpRequestConnector.ResponseOption.STREAM, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP request after setting standard Vault information
+	 * such as the session id. The returned future is completed with the deserialized
+	 * response once the call finishes, without holding the calling thread for the
+	 * round trip.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response based on a response string
+	 */
+	protected <T> CompletableFuture<T> sendAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
+		return sendAsync(method, request, HttpRequestConnector.ResponseOption.STRING, null, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP request after setting standard Vault information
+	 * such as the session id. A passed object mapper allows flexibility for the calling
+	 * method to set deserialization rules when processing the response.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param objectMapper        Deserialization object mapper to POJO
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response based on a response string
+	 */
+	protected <T> CompletableFuture<T> sendAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, ObjectMapper objectMapper, Class<T> responseObjectClass) {
+		return sendAsync(method, request, HttpRequestConnector.ResponseOption.STRING, null, objectMapper.readerFor(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP request that creates a file.
+	 * See {@link #sendToFile(HttpRequestConnector.HttpMethod, HttpRequestConnector, String, Class)}.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param outputFilePath      file path for the output file
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response
+	 */
+	protected <T> CompletableFuture<T> sendToFileAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, String outputFilePath, Class<T> responseObjectClass) {
+		return sendAsync(method, request, HttpRequestConnector.ResponseOption.TO_FILE, outputFilePath, getObjectReader(responseObjectClass), responseObjectClass);
+	}
 
-		return processResponse(response, HttpRequestConnector.ResponseOption.BYTE_ARRAY, getBaseObjectMapper(), responseObjectClass);
+	/**
+	 * Perform a non-blocking HTTP request that returns binary content.
+	 * See {@link #sendReturnBinary(HttpRequestConnector.HttpMethod, HttpRequestConnector, Class)}.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response
+	 */
+	protected <T> CompletableFuture<T> sendReturnBinaryAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, Class<T> responseObjectClass) {
+		return sendAsync(method, request, HttpRequestConnector.ResponseOption.BYTE_ARRAY, null, getObjectReader(responseObjectClass), responseObjectClass);
+	}
+
+	/**
+	 * Queue the HTTP request and chain the response processing. Cancelling
+	 * the returned future cancels the underlying HTTP call.
+	 *
+	 * @param <T>                 The object
+	 * @param method              HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request             Fully formed HTTP request
+	 * @param responseOption      The format to return the HTTP response
+	 * @param outputFilePath      Optional output file to write, pass null to ignore
+	 * @param objectReader        Deserialization object reader to POJO
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return Future of the POJO modeled response
+	 */
+	private <T> CompletableFuture<T> sendAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, HttpRequestConnector.ResponseOption responseOption, String outputFilePath, ObjectReader objectReader, Class<T> responseObjectClass) {
+		request = prepareRequest(request);
+
+		CompletableFuture<HttpResponseConnector> httpFuture = executeAsync(method, request, responseOption, outputFilePath);
+		CompletableFuture<T> responseFuture = httpFuture.thenApply(response -> processResponse(response, responseOption, objectReader, responseObjectClass));
+		responseFuture.whenComplete((obj, throwable) -> {
+			if (responseFuture.isCancelled()) httpFuture.cancel(true);
+		});
+
+		return responseFuture;
+	}
+
+	/**
+	 * Send the prepared HTTP request, paced by the burst limit governor of the Vault Client
+	 *
+	 * @param method         HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request        Prepared HTTP request
+	 * @param responseOption The format to return the HTTP response
+	 * @param outputFilePath Optional output file to write, pass null to ignore
+	 * @return The HTTP response
+	 */
+	private HttpResponseConnector execute(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, HttpRequestConnector.ResponseOption responseOption, String outputFilePath) {
+		BurstLimitGovernor governor = vaultClient.getBurstLimitGovernor();
+		if (governor == null) {
+			return request.send(method, responseOption, outputFilePath);
+		}
+
+		governor.acquire();
+		HttpResponseConnector response = null;
+		try {
+			response = request.send(method, responseOption, outputFilePath);
+		} finally {
+			governor.onResponse(response != null ? response.getHeaders() : null);
+		}
+		return response;
+	}
+
+	/**
+	 * Queue the prepared HTTP request, paced by the burst limit governor of the Vault Client.
+	 * Calls delayed by the governor wait without holding a thread.
+	 *
+	 * @param method         HTTP Method (GET, POST, PUT, DELETE)
+	 * @param request        Prepared HTTP request
+	 * @param responseOption The format to return the HTTP response
+	 * @param outputFilePath Optional output file to write, pass null to ignore
+	 * @return Future of the HTTP response
+	 */
+	private CompletableFuture<HttpResponseConnector> executeAsync(HttpRequestConnector.HttpMethod method, HttpRequestConnector request, HttpRequestConnector.ResponseOption responseOption, String outputFilePath) {
+		BurstLimitGovernor governor = vaultClient.getBurstLimitGovernor();
+		if (governor == null) {
+			return request.sendAsync(method, responseOption, outputFilePath);
+		}
+
+		long waitNanos = governor.reserve();
+		CompletableFuture<HttpResponseConnector> httpFuture;
+		if (waitNanos > 0) {
+			CompletableFuture<HttpResponseConnector> delayedFuture = new CompletableFuture<>();
+			Executor delayedExecutor = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS);
+			delayedExecutor.execute(() -> {
+				// Skip the call if the future was cancelled while queued
+				if (delayedFuture.isDone()) return;
+
+				CompletableFuture<HttpResponseConnector> sentFuture = request.sendAsync(method, responseOption, outputFilePath);
+				sentFuture.whenComplete((response, throwable) -> {
+					if (throwable != null) delayedFuture.completeExceptionally(throwable);
+					else delayedFuture.complete(response);
+				});
+				delayedFuture.whenComplete((response, throwable) -> {
+					if (delayedFuture.isCancelled()) sentFuture.cancel(true);
+				});
+			});
+			httpFuture = delayedFuture;
+		} else {
+			httpFuture = request.sendAsync(method, responseOption, outputFilePath);
+		}
+
+		httpFuture.whenComplete((response, throwable) ->
+				governor.onResponse(response != null ? response.getHeaders() : null));
+		return httpFuture;
 	}
 
 	/**
 	 * Deserialize the JSON response from the HTTP request to Java object.
-	 * An object mapper defines the deserialization rules.
+	 * An object reader defines the deserialization rules.
 	 *
 	 * @param <T>                 The object
 	 * @param response            The response
 	 * @param responseOption      The option
-	 * @param objectMapper        Deserialization object mapper to POJO
+	 * @param objectReader        Deserialization object reader to POJO
 	 * @param responseObjectClass POJO class representing the deserialized JSON response
 	 * @return POJO modeled response
 	 */
-	private <T> T processResponse(HttpResponseConnector response, HttpRequestConnector.ResponseOption responseOption, ObjectMapper objectMapper, Class<T> responseObjectClass) {
+	private <T> T processResponse(HttpResponseConnector response, HttpRequestConnector.ResponseOption responseOption, ObjectReader objectReader, Class<T> responseObjectClass) {
 		T obj = null;
 
 		log.debug("responseOption = " + responseOption);
 
+		if (response == null) {
+			return getNoResponseFailure(responseObjectClass, ERROR_TYPE_NO_RESPONSE, "No HTTP response was received");
+		}
+		if (response.getTransferError() != null) {
+			T failure = getNoResponseFailure(responseObjectClass, ERROR_TYPE_TRANSFER_FAILED, response.getTransferError());
+			((VaultResponse) failure).setHeaders(response.getHeaders());
+			return failure;
+		}
+
 		// Instantiate the object based on the type of response 
 		switch (responseOption) {
 			case BYTE_ARRAY:
 			case TO_FILE:
+			case STREAM:
 				// This is going to be VaultResponse but use the variable just in case			
 				try {
-					if (response.getStatusCode() == 200) {
+					// 206 is returned for requests with a Range header
+					if (response.getStatusCode() == 200 || response.getStatusCode() == 206) {
 						//if the contentType is JSON, it means there is an inner JSON error returned by Vault API
 						if ((response.getContentType() != null)
 								&& (response.getContentType().contains(HttpRequestConnector.HTTP_CONTENT_TYPE_JSON))) {
@@ -236,6 +598,8 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 
 								if (responseOption == HttpRequestConnector.ResponseOption.BYTE_ARRAY) {
 									errorContent = response.getByteArray();
+								} else if (responseOption == HttpRequestConnector.ResponseOption.STREAM) {
+									errorContent = response.getSource().readByteArray();
 								} else {
 									File file = new File(response.getOutputFilePath());
 									if (file.exists()) {
@@ -243,7 +607,7 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 									}
 								}
 
-								obj = objectMapper.readValue(new String(errorContent, StandardCharsets.UTF_8), responseObjectClass);
+								obj = objectReader.readValue(new String(errorContent, StandardCharsets.UTF_8));
 								((VaultResponse) obj).setResponse(new String(errorContent, StandardCharsets.UTF_8));
 
 							} else{
@@ -263,7 +627,7 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 			case STRING:
 				// JSON response, initialize the object by deserializing the response
 				try {
-					obj = objectMapper.readValue(response.getResponse(), responseObjectClass);
+					obj = objectReader.readValue(response.getResponse());
 				} catch (IOException e) {
 					log.error(e.getMessage());
 				}
@@ -279,6 +643,14 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 			case TO_FILE:
 				((VaultResponse) obj).setOutputFilePath(response.getOutputFilePath());
 				break;
+			case STREAM:
+				// Hand the open body to the caller, otherwise release the connection
+				if (((VaultResponse) obj).isSuccessful() && obj instanceof VaultStreamResponse) {
+					((VaultStreamResponse) obj).setSource(response.getSource());
+				} else {
+					response.close();
+				}
+				break;
 			case STRING:
 				// Set the full response
 				((VaultResponse) obj).setResponse(response.getResponse());
@@ -288,17 +660,85 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 
 		// Set additional properties for the VaultResponse class
 		((VaultResponse) obj).setHeaders(response.getHeaders());
+		((VaultResponse) obj).setTransferMetrics(response.getTransferMetrics());
+		logApiErrors((VaultResponse) obj);
+
+		return obj;
+	}
+
+	/**
+	 * Deserialize a streamed JSON response directly from the HTTP response body,
+	 * then close the body
+	 *
+	 * @param <T>                 The object
+	 * @param response            The streamed response
+	 * @param objectReader        Deserialization object reader to POJO
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @return POJO modeled response
+	 */
+	private <T> T processStreamedResponse(HttpResponseConnector response, ObjectReader objectReader, Class<T> responseObjectClass) {
+		if (response == null) {
+			return getNoResponseFailure(responseObjectClass, ERROR_TYPE_NO_RESPONSE, "No HTTP response was received");
+		}
+
+		T obj;
+		try (HttpResponseConnector body = response) {
+			obj = objectReader.readValue(body.getInputStream());
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			obj = getNoResponseFailure(responseObjectClass, ERROR_TYPE_PARSE_FAILED,
+					"Failed to parse the HTTP response with status code " + response.getStatusCode() + ": " + e.getMessage());
+		}
+
+		((VaultResponse) obj).setHeaders(response.getHeaders());
+		((VaultResponse) obj).setTransferMetrics(response.getTransferMetrics());
+		logApiErrors((VaultResponse) obj);
+
+		return obj;
+	}
 
-		if (((VaultResponse) obj).hasErrors() && vaultClient.isLogApiErrorsEnabled()) {
-			//this only logs errors at the top level. any record level errors are not logged
-			List<APIResponseError> errors = ((VaultResponse) obj).getErrors();
+	/**
+	 * Log the top level errors of a response, if enabled on the Vault Client.
+	 * Record level errors are not logged.
+	 *
+	 * @param response The response
+	 */
+	private void logApiErrors(VaultResponse response) {
+		if (response.hasErrors() && vaultClient.isLogApiErrorsEnabled()) {
+			List<APIResponseError> errors = response.getErrors();
 			if (errors != null) {
-				for (APIResponseError error : ((VaultResponse) obj).getErrors()) {
+				for (APIResponseError error : errors) {
 					log.error("Vault Exception " + error.getType() + " " + error.getMessage());
 				}
 			}
 		}
+	}
 
+	/**
+	 * Create a failed response for a request without a usable HTTP response,
+	 * such as a dropped connection after all retries or a failed file transfer
+	 *
+	 * @param <T>                 The object
+	 * @param responseObjectClass POJO class representing the response
+	 * @param errorType           The error type
+	 * @param errorMessage        The error message
+	 * @return POJO modeled response with status FAILURE
+	 */
+	protected <T> T getNoResponseFailure(Class<T> responseObjectClass, String errorType, String errorMessage) {
+		T obj = null;
+		try {
+			Constructor<T> constructor = responseObjectClass.getDeclaredConstructor();
+			obj = constructor.newInstance();
+
+			APIResponseError error = new APIResponseError();
+			error.setType(errorType);
+			error.setMessage(errorMessage);
+
+			((VaultResponse) obj).setResponseStatus(VaultResponse.HTTP_RESPONSE_FAILURE);
+			((VaultResponse) obj).setErrors(new ArrayList<>(Collections.singletonList(error)));
+		} catch (ReflectiveOperationException e) {
+			log.error(e.getMessage());
+		}
 		return obj;
 	}
 
@@ -306,15 +746,52 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 	 * Base object mapper for common mapping rules of Vault requests.
 	 * Creates an object mapper with common properties. Allows additional
 	 * properties to be enabled/disabled before sending the HTTP request.
+	 * <p>
+	 * Creating a mapper per request is expensive; prefer
+	 * {@link #getObjectReader(Class, DeserializationFeature...)}.
 	 *
 	 * @return Base object mapper
 	 */
 	public ObjectMapper getBaseObjectMapper() {
-		ObjectMapper objectMapper = new ObjectMapper();
+		return ObjectMapperRegistry.newObjectMapper();
+	}
 
-		objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+	/**
+	 * Cached object reader of the Vault Client, with the common mapping rules
+	 * of Vault requests and additional deserialization features enabled
+	 *
+	 * @param responseObjectClass POJO class representing the deserialized JSON response
+	 * @param enabledFeatures     Additional features, such as {@link DeserializationFeature#ACCEPT_SINGLE_VALUE_AS_ARRAY}
+	 * @return Object reader
+	 */
+	protected ObjectReader getObjectReader(Class<?> responseObjectClass, DeserializationFeature... enabledFeatures) {
+		ObjectMapperRegistry registry = vaultClient != null ? vaultClient.getObjectMapperRegistry() : ObjectMapperRegistry.getDefault();
+		return registry.getReader(responseObjectClass, enabledFeatures);
+	}
 
-		return objectMapper;
+	/**
+	 * Prepare the HTTP request with the standard Vault header parameters
+	 * and the HTTP client of the Vault Client
+	 *
+	 * @param request The HTTP request
+	 * @return The HTTP request, ready to send
+	 */
+	private HttpRequestConnector prepareRequest(HttpRequestConnector request) {
+		request = setVaultHeaderParams(request);
+		request.setHttpClient(vaultClient.getHttpClient());
+		request.setRetryPolicy(vaultClient.getRetryPolicy());
+		request.setOutputFileDigestAlgorithm(outputFileDigestAlgorithm);
+		request.setOutputFileExpectedDigest(outputFileExpectedDigest);
+		request.setPreallocateOutputFile(preallocateOutputFile);
+		request.setCompressRequestBody(compressRequestBody);
+		request.setAcceptEncoding(vaultClient.getHttpAcceptEncoding());
+		request.setCallListeners(vaultClient.getHttpCallListeners());
+
+		// GET requests are always retry-safe; other methods only when marked by the caller or the request class
+		if (retrySafe)
+			request.setRetrySafe(true);
+
+		return request;
 	}
 
 	/**
@@ -391,4 +868,139 @@ public abstract class VaultRequest<T extends VaultRequest<T>> {
 		this.requestClientId = clientId;
 		return (T) this;
 	}
+
+	/**
+	 * Compute a digest of downloaded content while it is written to the output file.
+	 * The digest, along with the download size and throughput, is returned via
+	 * {@link VaultResponse#getTransferMetrics()}.
+	 *
+	 * @vapil.request <pre>
+	 * VaultResponse response = vaultClient.newRequest(DocumentRequest.class)
+	 * 		.setOutputPath(outputPath)
+	 * 		.setOutputFileDigest("SHA-256")
+	 * 		.downloadDocumentFile(docId);
+	 * </pre>
+	 * @vapil.response <pre>
+	 * System.out.println("SHA-256: " + response.getTransferMetrics().getDigest());
+	 * </pre>
+	 *
+	 * @param algorithm MD5, SHA-1, SHA-256 or SHA-512, null for none
+	 * @return The request
+	 */
+	public T setOutputFileDigest(String algorithm) {
+		this.outputFileDigestAlgorithm = algorithm;
+		this.outputFileExpectedDigest = null;
+		return (T) this;
+	}
+
+	/**
+	 * Compute a digest of downloaded content and verify it against the expected value.
+	 * On mismatch the output file is discarded and the response fails with
+	 * error type {@value #ERROR_TYPE_TRANSFER_FAILED}.
+	 *
+	 * @param algorithm      MD5, SHA-1, SHA-256 or SHA-512
+	 * @param expectedDigest Expected hex digest, such as the document md5checksum__v
+	 * @return The request
+	 */
+	public T setOutputFileDigest(String algorithm, String expectedDigest) {
+		this.outputFileDigestAlgorithm = algorithm;
+		this.outputFileExpectedDigest = expectedDigest;
+		return (T) this;
+	}
+
+	/**
+	 * Download large files written to an output path as multiple byte ranges in parallel.
+	 * Supported by document version file, document rendition file and file staging
+	 * item content downloads. See {@link SegmentedFileDownload}.
+	 *
+	 * @vapil.request <pre>
+	 * VaultResponse response = vaultClient.newRequest(DocumentRenditionRequest.class)
+	 * 		.setOutputPath(outputPath)
+	 * 		.setDownloadSegments(8)
+	 * 		.setOutputFileDigest("MD5", md5checksum)
+	 * 		.downloadDocumentRenditionFile(docId, renditionType);
+	 * </pre>
+	 *
+	 * @param downloadSegments Number of parallel range requests, 1 for a single stream. Default = 1
+	 * @return The request
+	 */
+	public T setDownloadSegments(int downloadSegments) {
+		this.downloadSegments = downloadSegments;
+		return (T) this;
+	}
+
+	/**
+	 * Download large files written to an output path resumably. Content is written to a
+	 * {@value ResumableFileDownload#PARTIAL_FILE_SUFFIX} file with a progress record beside it.
+	 * A dropped connection is resumed from the last written byte, and if all attempts fail the
+	 * partial file is kept so repeating the same download later continues where it stopped.
+	 * Supported by file staging item content and Direct Data file downloads.
+	 * See {@link ResumableFileDownload}.
+	 *
+	 * @param resumableDownload True to download resumably. Default = false
+	 * @return The request
+	 */
+	public T setResumableDownload(boolean resumableDownload) {
+		this.resumableDownload = resumableDownload;
+		return (T) this;
+	}
+
+	/**
+	 * Compress the request body with gzip, for large CSV or JSON uploads to endpoints
+	 * that accept a gzip Content-Encoding. The body is compressed as it is sent, without
+	 * buffering it in memory. The body size before and after compression is reported via
+	 * {@link VaultResponse#getTransferMetrics()}.
+	 *
+	 * @vapil.request <pre>
+	 * ObjectRecordBulkResponse response = vaultClient.newRequest(ObjectRecordRequest.class)
+	 * 		.setContentTypeCsv()
+	 * 		.setInputPath(csvFilePath)
+	 * 		.setCompressRequestBody(true)
+	 * 		.createObjectRecords(objectName);
+	 * System.out.println(response.getTransferMetrics());
+	 * </pre>
+	 *
+	 * @param compressRequestBody True to compress file, string, binary and input stream request bodies. Default = false
+	 * @return The request
+	 */
+	public T setCompressRequestBody(boolean compressRequestBody) {
+		this.compressRequestBody = compressRequestBody;
+		return (T) this;
+	}
+
+	/**
+	 * Mark the request as safe to repeat after a transient failure, so the retry policy of the
+	 * Vault Client applies to it. GET requests and queries are always retried; writes are not,
+	 * as a write that timed out may have been applied. Only mark writes that can be repeated
+	 * without a duplicate effect, such as an upsert by a unique field.
+	 *
+	 * @vapil.request <pre>
+	 * ObjectRecordBulkResponse response = vaultClient.newRequest(ObjectRecordRequest.class)
+	 * 		.setIdParam("external_id__v")
+	 * 		.setContentTypeCsv()
+	 * 		.setInputPath(csvFilePath)
+	 * 		.setRetrySafe(true)
+	 * 		.createObjectRecords(objectName);
+	 * </pre>
+	 *
+	 * @param retrySafe True if the request may be retried. Default = false
+	 * @return The request
+	 */
+	public T setRetrySafe(boolean retrySafe) {
+		this.retrySafe = retrySafe;
+		return (T) this;
+	}
+
+	/**
+	 * Extend the output file to the size reported in the Content-Length header before
+	 * the content is written, as a size hint. On most file systems the file is sparse:
+	 * disk space is not reserved, so a full disk is still only detected while writing.
+	 *
+	 * @param preallocateOutputFile True to preallocate the output file. Default = false
+	 * @return The request
+	 */
+	public T setPreallocateOutputFile(boolean preallocateOutputFile) {
+		this.preallocateOutputFile = preallocateOutputFile;
+		return (T) this;
+	}
 }
@@ -0,0 +1,172 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.api.request;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lexical helpers for VQL statements, aware of parentheses and string literals
+ */
+final class Vql {
+
+	private static final DateTimeFormatter VQL_DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+			.withZone(ZoneOffset.UTC);
+
+	private Vql() {
+	}
+
+	/**
+	 * Find the first of the keywords outside of parentheses and string literals
+	 *
+	 * @param vql       The query string
+	 * @param fromIndex Position to start searching from, outside of any literal or parentheses
+	 * @param keywords  Upper case keywords
+	 * @return Position of the keyword, -1 if not found
+	 */
+	static int indexOfKeyword(String vql, int fromIndex, List<String> keywords) {
+		int depth = 0;
+		boolean quoted = false;
+		for (int i = fromIndex; i < vql.length(); i++) {
+			char c = vql.charAt(i);
+			if (quoted) {
+				if (c == '\\') i++;
+				else if (c == '\'') quoted = false;
+			} else if (c == '\'') {
+				quoted = true;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+			} else if (depth == 0 && Character.isLetter(c) && (i == 0 || !isWordChar(vql.charAt(i - 1)))) {
+				int end = i;
+				while (end < vql.length() && isWordChar(vql.charAt(end))) end++;
+				if (keywords.contains(vql.substring(i, end).toUpperCase(Locale.ROOT))) return i;
+				i = end - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Normalize a query for comparison: whitespace runs become one space, and names
+	 * and keywords are lower case. String literals are unchanged.
+	 *
+	 * @param vql The query string
+	 * @return The normalized query
+	 */
+	static String normalize(String vql) {
+		StringBuilder normalized = new StringBuilder(vql.length());
+		boolean quoted = false;
+		boolean space = false;
+		for (int i = 0; i < vql.length(); i++) {
+			char c = vql.charAt(i);
+			if (quoted) {
+				normalized.append(c);
+				if (c == '\\' && i + 1 < vql.length()) normalized.append(vql.charAt(++i));
+				else if (c == '\'') quoted = false;
+			} else if (Character.isWhitespace(c)) {
+				space = normalized.length() > 0;
+			} else {
+				if (space) normalized.append(' ');
+				space = false;
+				if (c == '\'') quoted = true;
+				normalized.append(Character.toLowerCase(c));
+			}
+		}
+		return normalized.toString();
+	}
+
+	/**
+	 * Get the objects and relationships a query reads: the object or entity of the top-level
+	 * FROM clause, then the targets of the FROM clauses of subqueries and the relationships
+	 * of relationship paths, such as product__vr in product__vr.name__v
+	 *
+	 * @param vql The query string
+	 * @return Lower case names, the top-level target first, null if the query cannot be parsed
+	 * with certainty, such as unbalanced parentheses or literals, or not exactly one top-level FROM clause
+	 */
+	static Set<String> getQueryTargets(String vql) {
+		String fromTarget = null;
+		Set<String> targets = new LinkedHashSet<>();
+		int depth = 0;
+		boolean quoted = false;
+		for (int i = 0; i < vql.length(); i++) {
+			char c = vql.charAt(i);
+			if (quoted) {
+				if (c == '\\') i++;
+				else if (c == '\'') quoted = false;
+			} else if (c == '\'') {
+				quoted = true;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				if (--depth < 0) return null;
+			} else if (Character.isLetter(c) && (i == 0 || !isWordChar(vql.charAt(i - 1)))) {
+				int end = i;
+				while (end < vql.length() && isWordChar(vql.charAt(end))) end++;
+				String word = vql.substring(i, end).toLowerCase(Locale.ROOT);
+
+				if (word.equals("from")) {
+					String name;
+					do {
+						i = end;
+						while (i < vql.length() && Character.isWhitespace(vql.charAt(i))) i++;
+						end = i;
+						while (end < vql.length() && isWordChar(vql.charAt(end))) end++;
+						if (end == i) return null;
+						name = vql.substring(i, end).toLowerCase(Locale.ROOT);
+					} while (name.equals("allversions"));
+
+					if (depth > 0) {
+						targets.add(name);
+					} else if (fromTarget == null) {
+						fromTarget = name;
+					} else {
+						return null;
+					}
+				} else if (end < vql.length() && vql.charAt(end) == '.') {
+					targets.add(word);
+				}
+				i = end - 1;
+			}
+		}
+		if (quoted || depth != 0 || fromTarget == null) return null;
+
+		Set<String> queryTargets = new LinkedHashSet<>();
+		queryTargets.add(fromTarget);
+		queryTargets.addAll(targets);
+		return queryTargets;
+	}
+
+	/**
+	 * Format a value as a VQL literal
+	 *
+	 * @param value A number, a boolean, a date-time (formatted in UTC), or any other value as a quoted string
+	 * @return The literal
+	 */
+	static String toLiteral(Object value) {
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof TemporalAccessor && ((TemporalAccessor) value).isSupported(ChronoField.INSTANT_SECONDS)) {
+			return "'" + VQL_DATETIME.format((TemporalAccessor) value) + "'";
+		}
+		return "'" + String.valueOf(value).replace("\\", "\\\\").replace("'", "\\'") + "'";
+	}
+
+	private static boolean isWordChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+}
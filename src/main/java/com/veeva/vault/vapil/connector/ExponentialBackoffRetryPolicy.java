@@ -0,0 +1,167 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry policy with exponential backoff and full jitter.
+ * <p>
+ * I/O errors (such as a dropped connection) and the HTTP status codes 429, 500, 502, 503 and 504
+ * are retried up to the maximum number of retries. The delay before retry <i>n</i> is a random
+ * value between 0 and min(maxDelay, baseDelay * 2^(n-1)). If the server asks for a longer wait
+ * via the Retry-After or X-VaultAPI-ResponseDelay header, that wait is used instead. A requested
+ * wait longer than maxDelay is not retried, so a caller thread is never parked longer than maxDelay;
+ * the response is returned as is.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+	public static final String HTTP_HEADER_RETRY_AFTER = "Retry-After";
+	public static final String HTTP_HEADER_VAULT_RESPONSE_DELAY = "X-VaultAPI-ResponseDelay";
+
+	/**
+	 * Default maximum number of retries, {@value #DEFAULT_MAX_RETRIES}
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 3;
+
+	/**
+	 * Default base delay, {@value #DEFAULT_BASE_DELAY_MILLIS} ms
+	 */
+	public static final long DEFAULT_BASE_DELAY_MILLIS = 500;
+
+	/**
+	 * Default maximum delay, {@value #DEFAULT_MAX_DELAY_MILLIS} ms
+	 */
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 30000;
+
+	private static final Set<Integer> RETRYABLE_STATUS_CODES = new HashSet<>(Arrays.asList(429, 500, 502, 503, 504));
+
+	private final int maxRetries;
+	private final long baseDelayMillis;
+	private final long maxDelayMillis;
+
+	/**
+	 * Create a policy with the default number of retries and delays
+	 */
+	public ExponentialBackoffRetryPolicy() {
+		this(DEFAULT_MAX_RETRIES);
+	}
+
+	/**
+	 * Create a policy with the default delays
+	 *
+	 * @param maxRetries Maximum number of retries after the first attempt
+	 */
+	public ExponentialBackoffRetryPolicy(int maxRetries) {
+		this(maxRetries, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+	}
+
+	/**
+	 * Create a policy
+	 *
+	 * @param maxRetries      Maximum number of retries after the first attempt
+	 * @param baseDelayMillis Upper bound of the delay before the first retry
+	 * @param maxDelayMillis  Upper bound of the delay before any retry, including waits requested by the server
+	 */
+	public ExponentialBackoffRetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+		this.maxRetries = Math.max(0, maxRetries);
+		this.baseDelayMillis = Math.max(0, baseDelayMillis);
+		this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+	}
+
+	@Override
+	public long getRetryDelayMillis(int attempt, int statusCode, Map<String, List<String>> headers, IOException exception) {
+		if (attempt > maxRetries) return -1;
+		if (exception == null && !RETRYABLE_STATUS_CODES.contains(statusCode)) return -1;
+
+		long serverDelay = getServerDelayMillis(headers);
+		if (serverDelay > maxDelayMillis) return -1;
+
+		long backoff = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+		long delay = backoff > 0 ? ThreadLocalRandom.current().nextLong(backoff + 1) : 0;
+
+		return Math.max(delay, serverDelay);
+	}
+
+	/**
+	 * @return Maximum number of retries after the first attempt
+	 */
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * @return Upper bound of the delay before the first retry
+	 */
+	public long getBaseDelayMillis() {
+		return baseDelayMillis;
+	}
+
+	/**
+	 * @return Upper bound of the delay before any retry
+	 */
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	/**
+	 * Get the wait requested by the server via the Retry-After header (seconds or HTTP date)
+	 * or the X-VaultAPI-ResponseDelay header (milliseconds)
+	 *
+	 * @param headers HTTP response headers, may be null
+	 * @return Requested wait in milliseconds, 0 if none
+	 */
+	private static long getServerDelayMillis(Map<String, List<String>> headers) {
+		long delay = 0;
+
+		String retryAfter = getHeaderIgnoreCase(headers, HTTP_HEADER_RETRY_AFTER);
+		if (retryAfter != null) {
+			try {
+				delay = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter));
+			} catch (NumberFormatException e) {
+				try {
+					ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+					delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis();
+				} catch (DateTimeParseException ignored) {
+				}
+			}
+		}
+
+		String responseDelay = getHeaderIgnoreCase(headers, HTTP_HEADER_VAULT_RESPONSE_DELAY);
+		if (responseDelay != null) {
+			try {
+				delay = Math.max(delay, Long.parseLong(responseDelay));
+			} catch (NumberFormatException ignored) {
+			}
+		}
+
+		return Math.max(0, delay);
+	}
+
+	private static String getHeaderIgnoreCase(Map<String, List<String>> headers, String name) {
+		if (headers == null) return null;
+
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			if (entry.getKey().equalsIgnoreCase(name) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+				return entry.getValue().get(0).trim();
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,342 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Details and timings of one HTTP call attempt, passed to {@link HttpCallListener}s.
+ * <p>
+ * Phase timings are measured by an OkHttp {@link EventListener} installed on HTTP clients
+ * built via {@link HttpRequestConnector#newHttpClient(HttpClientSettings)}. They are 0 for
+ * phases that did not occur, such as DNS, connect and TLS on a reused connection, and for
+ * calls sent with a client built elsewhere. The total time is always measured.
+ */
+public class HttpCallEvent {
+
+	public static final String HTTP_HEADER_VAULT_EXECUTION_ID = "X-VaultAPI-ExecutionId";
+	public static final String HTTP_HEADER_VAULT_BURST_REMAINING = "X-VaultAPI-BurstLimitRemaining";
+	public static final String HTTP_HEADER_VAULT_DAILY_REMAINING = "X-VaultAPI-DailyLimitRemaining";
+
+	private static final Pattern API_VERSION_PATTERN = Pattern.compile("v\\d+(\\.\\d+)?");
+	private static final Pattern PATH_PARAMETER_PATTERN = Pattern.compile(".*[0-9%.].*");
+	private static final List<String> TWO_SEGMENT_FAMILIES = List.of("objects", "services", "metadata");
+
+	private final String method;
+	private final String url;
+	private final String endpoint;
+	private final int attempt;
+	private final long startNanos = System.nanoTime();
+
+	private int statusCode;
+	private String error;
+	private Map<String, List<String>> headers = Collections.emptyMap();
+	private long requestBytes;
+	private long responseBytes;
+	private long dnsNanos;
+	private long connectNanos;
+	private long tlsNanos;
+	private long timeToFirstByteNanos;
+	private long totalNanos;
+
+	HttpCallEvent(String method, HttpUrl url, int attempt) {
+		this.method = method;
+		this.url = url.toString();
+		this.endpoint = toEndpointTemplate(url.encodedPathSegments());
+		this.attempt = attempt;
+	}
+
+	/**
+	 * Derive the endpoint template of a request path, removing the /api/{version} prefix
+	 * and replacing path segments that look like ids or names (containing a digit,
+	 * an encoded character or a dot) with {id}
+	 *
+	 * @param pathSegments Encoded path segments of the URL
+	 * @return The endpoint template, such as /objects/documents/{id}/versions/{id}/{id}
+	 */
+	static String toEndpointTemplate(List<String> pathSegments) {
+		List<String> segments = new ArrayList<>(pathSegments);
+		if (segments.size() >= 2 && segments.get(0).equals("api") && API_VERSION_PATTERN.matcher(segments.get(1)).matches()) {
+			segments = segments.subList(2, segments.size());
+		}
+
+		StringBuilder endpoint = new StringBuilder();
+		for (String segment : segments) {
+			if (segment.isEmpty()) continue;
+			endpoint.append('/').append(PATH_PARAMETER_PATTERN.matcher(segment).matches() ? "{id}" : segment);
+		}
+		return endpoint.length() > 0 ? endpoint.toString() : "/";
+	}
+
+	/**
+	 * @return HTTP method, such as GET or POST
+	 */
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return Full request URL, including query parameters
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @return Endpoint template of the request, without the API version and with ids replaced by {id},
+	 * such as /vobjects/product__v/{id}
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * @return API family of the endpoint, its first path segment, or the first two for
+	 * /objects, /services and /metadata endpoints, such as vobjects, query or services/file_staging
+	 */
+	public String getApiFamily() {
+		String[] segments = endpoint.substring(1).split("/");
+		if (segments.length > 1 && TWO_SEGMENT_FAMILIES.contains(segments[0]) && !segments[1].equals("{id}")) {
+			return segments[0] + "/" + segments[1];
+		}
+		return segments[0];
+	}
+
+	/**
+	 * @return Number of the attempt, starting at 1, greater for retries
+	 */
+	public int getAttempt() {
+		return attempt;
+	}
+
+	/**
+	 * @return HTTP status code, 0 if no response was received
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * @return Error message if the call failed without a response, otherwise null
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @return HTTP response headers, empty if no response was received
+	 */
+	public Map<String, List<String>> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * @return Vault execution id of the request, null if none
+	 */
+	public String getExecutionId() {
+		return getHeader(HTTP_HEADER_VAULT_EXECUTION_ID);
+	}
+
+	/**
+	 * @return Remaining Vault burst limit after the request, null if not reported
+	 */
+	public Integer getBurstLimitRemaining() {
+		return getIntegerHeader(HTTP_HEADER_VAULT_BURST_REMAINING);
+	}
+
+	/**
+	 * @return Remaining Vault daily limit after the request, null if not reported
+	 */
+	public Integer getDailyLimitRemaining() {
+		return getIntegerHeader(HTTP_HEADER_VAULT_DAILY_REMAINING);
+	}
+
+	/**
+	 * @param name Header name, case insensitive
+	 * @return First value of the response header, null if not present
+	 */
+	public String getHeader(String name) {
+		for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+				return header.getValue().get(0);
+			}
+		}
+		return null;
+	}
+
+	private Integer getIntegerHeader(String name) {
+		String value = getHeader(name);
+		if (value == null) return null;
+		try {
+			return Integer.valueOf(value.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return Request body bytes sent on the wire
+	 */
+	public long getRequestBytes() {
+		return requestBytes;
+	}
+
+	/**
+	 * @return Response body bytes received on the wire, 0 for streamed responses
+	 * that had not been read when the event was reported
+	 */
+	public long getResponseBytes() {
+		return responseBytes;
+	}
+
+	/**
+	 * @return DNS lookup time in nanoseconds
+	 */
+	public long getDnsNanos() {
+		return dnsNanos;
+	}
+
+	/**
+	 * @return Connect time in nanoseconds, including the TLS handshake
+	 */
+	public long getConnectNanos() {
+		return connectNanos;
+	}
+
+	/**
+	 * @return TLS handshake time in nanoseconds
+	 */
+	public long getTlsNanos() {
+		return tlsNanos;
+	}
+
+	/**
+	 * @return Time from the start of the call to the first byte of the response headers, in nanoseconds
+	 */
+	public long getTimeToFirstByteNanos() {
+		return timeToFirstByteNanos;
+	}
+
+	/**
+	 * @return Total time of the attempt in nanoseconds, until the response was processed
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return Total time of the attempt in milliseconds
+	 */
+	public long getTotalMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+	}
+
+	void complete(int statusCode, Map<String, List<String>> headers, String error) {
+		this.statusCode = statusCode;
+		this.headers = headers != null ? headers : Collections.emptyMap();
+		this.error = error;
+		this.totalNanos = System.nanoTime() - startNanos;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + endpoint + " attempt=" + attempt
+				+ (error != null ? ", error=" + error : ", status=" + statusCode)
+				+ ", totalMillis=" + getTotalMillis()
+				+ ", ttfbMillis=" + TimeUnit.NANOSECONDS.toMillis(timeToFirstByteNanos)
+				+ ", requestBytes=" + requestBytes + ", responseBytes=" + responseBytes
+				+ (getExecutionId() != null ? ", executionId=" + getExecutionId() : "");
+	}
+
+	/**
+	 * Creates a timing listener for calls carrying an event as request tag
+	 */
+	static final EventListener.Factory EVENT_LISTENER_FACTORY = call -> {
+		HttpCallEvent event = call.request().tag(HttpCallEvent.class);
+		return event != null ? new TimingEventListener(event) : EventListener.NONE;
+	};
+
+	/**
+	 * Records the phase timings and body sizes of a call into its event
+	 */
+	private static final class TimingEventListener extends EventListener {
+		private final HttpCallEvent event;
+		private long dnsStart;
+		private long connectStart;
+		private long tlsStart;
+
+		private TimingEventListener(HttpCallEvent event) {
+			this.event = event;
+		}
+
+		@Override
+		public void dnsStart(Call call, String domainName) {
+			dnsStart = System.nanoTime();
+		}
+
+		@Override
+		public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+			event.dnsNanos += System.nanoTime() - dnsStart;
+		}
+
+		@Override
+		public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+			connectStart = System.nanoTime();
+		}
+
+		@Override
+		public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+			event.connectNanos += System.nanoTime() - connectStart;
+		}
+
+		@Override
+		public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+			event.connectNanos += System.nanoTime() - connectStart;
+		}
+
+		@Override
+		public void secureConnectStart(Call call) {
+			tlsStart = System.nanoTime();
+		}
+
+		@Override
+		public void secureConnectEnd(Call call, Handshake handshake) {
+			event.tlsNanos += System.nanoTime() - tlsStart;
+		}
+
+		@Override
+		public void requestBodyEnd(Call call, long byteCount) {
+			event.requestBytes = byteCount;
+		}
+
+		@Override
+		public void responseHeadersStart(Call call) {
+			event.timeToFirstByteNanos = System.nanoTime() - event.startNanos;
+		}
+
+		@Override
+		public void responseBodyEnd(Call call, long byteCount) {
+			event.responseBytes = byteCount;
+		}
+	}
+}
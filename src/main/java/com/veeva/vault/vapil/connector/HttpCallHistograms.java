@@ -0,0 +1,110 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory aggregation of HTTP call latencies, by endpoint and by API family.
+ * <p>
+ * Register an instance as an {@link HttpCallListener} to collect the total time of every call
+ * attempt. Endpoints are keyed by method and endpoint template, such as
+ * "GET /vobjects/product__v/{id}", and API families by their name, such as "query".
+ *
+ * <pre>
+ * HttpCallHistograms histograms = new HttpCallHistograms();
+ * VaultClient vaultClient = VaultClient.newClientBuilder(VaultClient.AuthenticationType.BASIC)
+ * 		...
+ * 		.withHttpCallListener(histograms)
+ * 		.build();
+ * ...
+ * System.out.println(histograms);
+ * </pre>
+ */
+public class HttpCallHistograms implements HttpCallListener {
+
+	private final ConcurrentMap<String, LatencyHistogram> endpoints = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LatencyHistogram> apiFamilies = new ConcurrentHashMap<>();
+	private final AtomicLong errors = new AtomicLong();
+
+	@Override
+	public void onCall(HttpCallEvent event) {
+		endpoints.computeIfAbsent(event.getMethod() + " " + event.getEndpoint(), key -> new LatencyHistogram())
+				.record(event.getTotalNanos());
+		apiFamilies.computeIfAbsent(event.getApiFamily(), key -> new LatencyHistogram())
+				.record(event.getTotalNanos());
+		if (event.getStatusCode() == 0 || event.getStatusCode() >= 400) {
+			errors.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return Histograms keyed by method and endpoint template, sorted by key
+	 */
+	public Map<String, LatencyHistogram> getEndpointHistograms() {
+		return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+	}
+
+	/**
+	 * @return Histograms keyed by API family, sorted by key
+	 */
+	public Map<String, LatencyHistogram> getApiFamilyHistograms() {
+		return Collections.unmodifiableMap(new TreeMap<>(apiFamilies));
+	}
+
+	/**
+	 * @param endpoint Method and endpoint template, such as "POST /query"
+	 * @return The histogram, null if no calls were recorded for the endpoint
+	 */
+	public LatencyHistogram getEndpointHistogram(String endpoint) {
+		return endpoints.get(endpoint);
+	}
+
+	/**
+	 * @param apiFamily API family, such as "query"
+	 * @return The histogram, null if no calls were recorded for the API family
+	 */
+	public LatencyHistogram getApiFamilyHistogram(String apiFamily) {
+		return apiFamilies.get(apiFamily);
+	}
+
+	/**
+	 * @return Number of call attempts that failed without a response or with a 4xx or 5xx status code
+	 */
+	public long getErrorCount() {
+		return errors.get();
+	}
+
+	/**
+	 * Clear all recorded calls
+	 */
+	public void reset() {
+		endpoints.clear();
+		apiFamilies.clear();
+		errors.set(0);
+	}
+
+	/**
+	 * @return One line per API family and per endpoint with the count and p50, p90, p99 and max latency
+	 */
+	@Override
+	public String toString() {
+		StringBuilder summary = new StringBuilder();
+		getApiFamilyHistograms().forEach((apiFamily, histogram) ->
+				summary.append(apiFamily).append(": ").append(histogram).append(System.lineSeparator()));
+		getEndpointHistograms().forEach((endpoint, histogram) ->
+				summary.append(endpoint).append(": ").append(histogram).append(System.lineSeparator()));
+		summary.append("errors=").append(getErrorCount());
+		return summary.toString();
+	}
+}
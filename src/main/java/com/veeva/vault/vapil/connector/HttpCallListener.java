@@ -0,0 +1,29 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+/**
+ * Listener notified once per HTTP call attempt, for instrumentation such as metrics or tracing.
+ * <p>
+ * Listeners are registered on the Vault Client and called on the thread that completed the
+ * call, after the response has been processed, or when the call fails without a response.
+ * Each retry of a call is a separate attempt with its own event. Listeners must be thread safe
+ * and return quickly; exceptions thrown by a listener are logged and otherwise ignored.
+ *
+ * @see HttpCallHistograms
+ */
+@FunctionalInterface
+public interface HttpCallListener {
+
+	/**
+	 * Called when an HTTP call attempt completes
+	 *
+	 * @param event Details and timings of the call
+	 */
+	void onCall(HttpCallEvent event);
+}
@@ -0,0 +1,212 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport settings for an HTTP client instance, such as the connection pool,
+ * dispatcher limits, and per-phase timeouts. Each VaultClient builds its own
+ * HTTP client from these settings via {@link HttpRequestConnector#newHttpClient(HttpClientSettings)},
+ * so multiple clients in one process do not share or overwrite each other's transport.
+ * <p>
+ * Dispatcher limits apply to non-blocking calls ({@link HttpRequestConnector#sendAsync(HttpRequestConnector.HttpMethod)});
+ * blocking calls run on the calling thread.
+ */
+public class HttpClientSettings {
+
+	/**
+	 * Default timeout for every phase of a call, 60 minutes
+	 */
+	public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+	private int connectionPoolMaxIdle = 5;
+	private long connectionPoolKeepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+	private int maxRequests = 64;
+	private int maxRequestsPerHost = 5;
+	private long connectTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	private long readTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	private long writeTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	private long callTimeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+	private boolean preferHttp2 = true;
+	private boolean allowAllCertificates = false;
+
+	/**
+	 * @return Maximum number of idle connections kept in the pool. Default = 5
+	 */
+	public int getConnectionPoolMaxIdle() {
+		return connectionPoolMaxIdle;
+	}
+
+	/**
+	 * @param connectionPoolMaxIdle Maximum number of idle connections kept in the pool
+	 * @return The settings
+	 */
+	public HttpClientSettings setConnectionPoolMaxIdle(int connectionPoolMaxIdle) {
+		this.connectionPoolMaxIdle = connectionPoolMaxIdle;
+		return this;
+	}
+
+	/**
+	 * @return Time an idle connection is kept alive in the pool. Default = 5 minutes
+	 */
+	public long getConnectionPoolKeepAliveMillis() {
+		return connectionPoolKeepAliveMillis;
+	}
+
+	/**
+	 * @param connectionPoolKeepAliveMillis Time an idle connection is kept alive in the pool
+	 * @return The settings
+	 */
+	public HttpClientSettings setConnectionPoolKeepAliveMillis(long connectionPoolKeepAliveMillis) {
+		this.connectionPoolKeepAliveMillis = connectionPoolKeepAliveMillis;
+		return this;
+	}
+
+	/**
+	 * @return Maximum number of concurrent non-blocking calls. Default = 64
+	 */
+	public int getMaxRequests() {
+		return maxRequests;
+	}
+
+	/**
+	 * @param maxRequests Maximum number of concurrent non-blocking calls
+	 * @return The settings
+	 */
+	public HttpClientSettings setMaxRequests(int maxRequests) {
+		this.maxRequests = maxRequests;
+		return this;
+	}
+
+	/**
+	 * @return Maximum number of concurrent non-blocking calls per host. Default = 5
+	 */
+	public int getMaxRequestsPerHost() {
+		return maxRequestsPerHost;
+	}
+
+	/**
+	 * @param maxRequestsPerHost Maximum number of concurrent non-blocking calls per host
+	 * @return The settings
+	 */
+	public HttpClientSettings setMaxRequestsPerHost(int maxRequestsPerHost) {
+		this.maxRequestsPerHost = maxRequestsPerHost;
+		return this;
+	}
+
+	/**
+	 * @return Connect timeout in milliseconds. Default = 60 minutes
+	 */
+	public long getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	/**
+	 * @param connectTimeoutMillis Connect timeout in milliseconds, 0 for no timeout
+	 * @return The settings
+	 */
+	public HttpClientSettings setConnectTimeoutMillis(long connectTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		return this;
+	}
+
+	/**
+	 * @return Read timeout in milliseconds. Default = 60 minutes
+	 */
+	public long getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+	/**
+	 * @param readTimeoutMillis Read timeout in milliseconds, 0 for no timeout
+	 * @return The settings
+	 */
+	public HttpClientSettings setReadTimeoutMillis(long readTimeoutMillis) {
+		this.readTimeoutMillis = readTimeoutMillis;
+		return this;
+	}
+
+	/**
+	 * @return Write timeout in milliseconds. Default = 60 minutes
+	 */
+	public long getWriteTimeoutMillis() {
+		return writeTimeoutMillis;
+	}
+
+	/**
+	 * @param writeTimeoutMillis Write timeout in milliseconds, 0 for no timeout
+	 * @return The settings
+	 */
+	public HttpClientSettings setWriteTimeoutMillis(long writeTimeoutMillis) {
+		this.writeTimeoutMillis = writeTimeoutMillis;
+		return this;
+	}
+
+	/**
+	 * @return Timeout for the complete call in milliseconds. Default = 60 minutes
+	 */
+	public long getCallTimeoutMillis() {
+		return callTimeoutMillis;
+	}
+
+	/**
+	 * @param callTimeoutMillis Timeout for the complete call in milliseconds, 0 for no timeout
+	 * @return The settings
+	 */
+	public HttpClientSettings setCallTimeoutMillis(long callTimeoutMillis) {
+		this.callTimeoutMillis = callTimeoutMillis;
+		return this;
+	}
+
+	/**
+	 * Set all timeouts (connect, read, write, call) to the same value
+	 *
+	 * @param timeoutMillis Timeout in milliseconds, 0 for no timeout
+	 * @return The settings
+	 */
+	public HttpClientSettings setTimeoutMillis(long timeoutMillis) {
+		this.connectTimeoutMillis = timeoutMillis;
+		this.readTimeoutMillis = timeoutMillis;
+		this.writeTimeoutMillis = timeoutMillis;
+		this.callTimeoutMillis = timeoutMillis;
+		return this;
+	}
+
+	/**
+	 * @return True if HTTP/2 is negotiated when the server supports it. Default = true
+	 */
+	public boolean getPreferHttp2() {
+		return preferHttp2;
+	}
+
+	/**
+	 * @param preferHttp2 True to negotiate HTTP/2 when the server supports it, false for HTTP/1.1 only
+	 * @return The settings
+	 */
+	public HttpClientSettings setPreferHttp2(boolean preferHttp2) {
+		this.preferHttp2 = preferHttp2;
+		return this;
+	}
+
+	/**
+	 * @return True if all SSL Certificates are trusted. Default = false
+	 */
+	public boolean getAllowAllCertificates() {
+		return allowAllCertificates;
+	}
+
+	/**
+	 * @param allowAllCertificates True to trust all SSL Certificates
+	 * @return The settings
+	 */
+	public HttpClientSettings setAllowAllCertificates(boolean allowAllCertificates) {
+		this.allowAllCertificates = allowAllCertificates;
+		return this;
+	}
+}
@@ -8,14 +8,23 @@
 package com.veeva.vault.vapil.connector;
 
 import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.FormBody;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.Buffer;
 import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,13 +35,18 @@ import java.io.*;
 import java.net.URLEncoder;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 /**
  * HTTP request class, whether to the Vault API or other servers/APIs.
@@ -49,6 +63,10 @@ public class HttpRequestConnector {
 	public static final String HTTP_HEADER_CONTENT_MD5 = "Content-MD5";
 	public static final String HTTP_HEADER_RANGE = "Range";
 	public static final String HTTP_HEADER_CONTENT_LENGTH = "Content-Length";
+	public static final String HTTP_HEADER_CONTENT_ENCODING = "Content-Encoding";
+	public static final String HTTP_HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+	public static final String HTTP_CONTENT_ENCODING_GZIP = "gzip";
+	public static final String HTTP_CONTENT_ENCODING_IDENTITY = "identity";
 	public static final String HTTP_CONTENT_TYPE_CSV = "text/csv";
 	public static final String HTTP_CONTENT_TYPE_JSON = "application/json";
 	public static final String HTTP_CONTENT_TYPE_SCIM_JSON = "application/scim+json";
@@ -66,14 +84,33 @@ public class HttpRequestConnector {
 	// Declare static to ensure single instance
 	private static OkHttpClient clientInstance = null;
 
-	private static OkHttpClient buildClient() {
+	/**
+	 * Build a new HTTP client from the given transport settings. Each client
+	 * owns its connection pool and dispatcher.
+	 *
+	 * @param settings Transport settings for the client
+	 * @return The HTTP client
+	 */
+	public static OkHttpClient newHttpClient(HttpClientSettings settings) {
+		Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequests(settings.getMaxRequests());
+		dispatcher.setMaxRequestsPerHost(settings.getMaxRequestsPerHost());
+
 		OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
-				.callTimeout(globalTimeout, TimeUnit.MINUTES)
-				.connectTimeout(globalTimeout, TimeUnit.MINUTES)
-				.writeTimeout(globalTimeout, TimeUnit.MINUTES)
-				.readTimeout(globalTimeout, TimeUnit.MINUTES);
+				.dispatcher(dispatcher)
+				.connectionPool(new ConnectionPool(settings.getConnectionPoolMaxIdle(),
+						settings.getConnectionPoolKeepAliveMillis(), TimeUnit.MILLISECONDS))
+				.callTimeout(settings.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.connectTimeout(settings.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.writeTimeout(settings.getWriteTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.readTimeout(settings.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+				.eventListenerFactory(HttpCallEvent.EVENT_LISTENER_FACTORY);
+
+		if (!settings.getPreferHttp2()) {
+			clientBuilder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+		}
 
-		if (allowAllCertificates) {
+		if (settings.getAllowAllCertificates()) {
 			try {
 				TrustManager[] trustAllCertificates = new TrustManager[]{
 						new X509TrustManager() {
@@ -98,13 +135,39 @@ public class HttpRequestConnector {
 		return clientBuilder.build();
 	}
 
-	private static OkHttpClient getClient() {
+	private static OkHttpClient buildClient() {
+		HttpClientSettings settings = new HttpClientSettings()
+				.setTimeoutMillis(TimeUnit.MINUTES.toMillis(globalTimeout))
+				.setAllowAllCertificates(allowAllCertificates);
+		return newHttpClient(settings);
+	}
+
+	private static synchronized OkHttpClient getDefaultClient() {
 		if (clientInstance == null) {
 			clientInstance = buildClient();
 		}
 		return clientInstance;
 	}
 
+	// HTTP client for this request, the shared default client is used when not set
+	private OkHttpClient httpClient = null;
+
+	// Retry of transient failures, only applied to requests that are safe to repeat
+	private RetryPolicy retryPolicy = RetryPolicy.NONE;
+	private boolean retrySafe = false;
+
+	// Options for responses written to a file
+	private String outputFileDigestAlgorithm = null;
+	private String outputFileExpectedDigest = null;
+	private boolean preallocateOutputFile = false;
+
+	// Compression of the request body and negotiation of the response encoding
+	private boolean compressRequestBody = false;
+	private String acceptEncoding = null;
+
+	// Listeners notified of each call attempt
+	private List<HttpCallListener> callListeners = Collections.emptyList();
+
 	// Parameters of the HTTP request
 	private String url = null;
 	private Map<String, Object> queryParams = null;
@@ -164,39 +227,285 @@ public class HttpRequestConnector {
 	 * for the provided HTTP Method. Responses are returned
 	 * based on the provided response option input.
 	 * An output file is optionally written for streamed data.
+	 * <p>
+	 * Transient failures are retried according to the retry policy,
+	 * if the request is safe to repeat (see {@link #isRetryable(HttpMethod)}).
 	 *
 	 * @param method         The HttpMethod for the request (GET, POST, PUT, DELETE)
 	 * @param responseOption The format to return the HTTP response
 	 * @param outputFilePath Optional output file to write, pass null to ignore
-	 * @return The HTTP response from the request, returned in format as specific by responseOption
+	 * @return The HTTP response from the request, returned in format as specific by responseOption,
+	 * or null if the call failed without a response
 	 */
 	public HttpResponseConnector send(HttpMethod method, HttpRequestConnector.ResponseOption responseOption, String outputFilePath) {
-		HttpResponseConnector response = null;
+		for (int attempt = 1; ; attempt++) {
+			Call call = newCall(method, attempt);
+
+			long retryDelay;
+			try {
+				Response clientResponse = call.execute();
+				try {
+					retryDelay = getRetryDelayMillis(method, attempt, clientResponse, null);
+					if (retryDelay < 0) {
+						return processClientResponse(call, clientResponse, responseOption, outputFilePath);
+					}
+				} catch (RuntimeException e) {
+					releaseFailedResponse(call, clientResponse, e);
+					throw e;
+				}
+				clientResponse.close();
+				notifyCallListeners(call, clientResponse, null);
+			} catch (IOException e) {
+				notifyCallListeners(call, null, e);
+				retryDelay = call.isCanceled() ? -1 : getRetryDelayMillis(method, attempt, null, e);
+				if (retryDelay < 0) {
+					log.error(e.getMessage());
+					return null;
+				}
+			}
+
+			try {
+				Thread.sleep(retryDelay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.error("Interrupted before retry of " + method + " " + url);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Perform a non-blocking HTTP call based on the class properties
+	 * (url, queryParams, headerParams, bodyParams)
+	 * for the provided HTTP Method. Responses are returned as a string.
+	 *
+	 * @param method The HttpMethod for the request (GET, POST, PUT, DELETE)
+	 * @return Future completed with the HTTP response, returned as a string
+	 * @see #sendAsync(HttpMethod, ResponseOption, String)
+	 */
+	public CompletableFuture<HttpResponseConnector> sendAsync(HttpMethod method) {
+		return sendAsync(method, HttpRequestConnector.ResponseOption.STRING);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP call based on the class properties
+	 * (url, queryParams, headerParams, bodyParams)
+	 * for the provided HTTP Method. Responses are returned
+	 * based on the provided response option input.
+	 *
+	 * @param method         The HttpMethod for the request (GET, POST, PUT, DELETE)
+	 * @param responseOption The format to return the HTTP response
+	 * @return Future completed with the HTTP response, returned in format as specified by responseOption
+	 * @see #sendAsync(HttpMethod, ResponseOption, String)
+	 */
+	public CompletableFuture<HttpResponseConnector> sendAsync(HttpMethod method, HttpRequestConnector.ResponseOption responseOption) {
+		return sendAsync(method, responseOption, null);
+	}
+
+	/**
+	 * Perform a non-blocking HTTP call based on the class properties
+	 * (url, queryParams, headerParams, bodyParams)
+	 * for the provided HTTP Method. The call is queued on the HTTP client
+	 * dispatcher and the calling thread returns immediately. The response is
+	 * processed on a dispatcher thread, so dependent stages attached to the
+	 * returned future should not block for long periods.
+	 * <p>
+	 * The future completes exceptionally if the call fails (for example an
+	 * I/O error) and is not retried. Retries are scheduled without blocking a thread.
+	 * Cancelling the future cancels the underlying HTTP call and any pending retry.
+	 *
+	 * @param method         The HttpMethod for the request (GET, POST, PUT, DELETE)
+	 * @param responseOption The format to return the HTTP response
+	 * @param outputFilePath Optional output file to write, pass null to ignore
+	 * @return Future completed with the HTTP response, returned in format as specified by responseOption
+	 */
+	public CompletableFuture<HttpResponseConnector> sendAsync(HttpMethod method, HttpRequestConnector.ResponseOption responseOption, String outputFilePath) {
+		CompletableFuture<HttpResponseConnector> future = new CompletableFuture<>();
+		enqueue(future, method, responseOption, outputFilePath, 1);
+		return future;
+	}
+
+	/**
+	 * Enqueue one attempt of a non-blocking call, completing the future
+	 * or scheduling the next attempt when the call fails
+	 */
+	private void enqueue(CompletableFuture<HttpResponseConnector> future, HttpMethod method,
+						 HttpRequestConnector.ResponseOption responseOption, String outputFilePath, int attempt) {
+		if (future.isDone()) return;
+
+		Call call = newCall(method, attempt);
+		future.whenComplete((response, throwable) -> {
+			if (future.isCancelled()) call.cancel();
+		});
+
+		call.enqueue(new Callback() {
+			@Override
+			public void onFailure(Call call, IOException e) {
+				notifyCallListeners(call, null, e);
+				long retryDelay = call.isCanceled() ? -1 : getRetryDelayMillis(method, attempt, null, e);
+				if (retryDelay < 0) {
+					log.error(e.getMessage());
+					future.completeExceptionally(e);
+				} else {
+					retryAsync(future, method, responseOption, outputFilePath, attempt, retryDelay);
+				}
+			}
+
+			@Override
+			public void onResponse(Call call, Response clientResponse) {
+				try {
+					long retryDelay = getRetryDelayMillis(method, attempt, clientResponse, null);
+					if (retryDelay < 0) {
+						future.complete(processClientResponse(call, clientResponse, responseOption, outputFilePath));
+					} else {
+						clientResponse.close();
+						notifyCallListeners(call, clientResponse, null);
+						retryAsync(future, method, responseOption, outputFilePath, attempt, retryDelay);
+					}
+				} catch (RuntimeException e) {
+					releaseFailedResponse(call, clientResponse, e);
+					future.completeExceptionally(e);
+				}
+			}
+		});
+	}
+
+	private void retryAsync(CompletableFuture<HttpResponseConnector> future, HttpMethod method,
+							HttpRequestConnector.ResponseOption responseOption, String outputFilePath, int attempt, long retryDelay) {
+		Executor delayedExecutor = CompletableFuture.delayedExecutor(retryDelay, TimeUnit.MILLISECONDS);
+		delayedExecutor.execute(() -> enqueue(future, method, responseOption, outputFilePath, attempt + 1));
+	}
 
+	/**
+	 * Determine whether a failed attempt is retried
+	 *
+	 * @param method         Http Method of the request
+	 * @param attempt        Number of the failed attempt, starting at 1
+	 * @param clientResponse The HTTP client response, null if the call failed without a response
+	 * @param exception      The I/O error, null if a response was received
+	 * @return Delay in milliseconds before the next attempt, or a negative value if the attempt is final
+	 */
+	private long getRetryDelayMillis(HttpMethod method, int attempt, Response clientResponse, IOException exception) {
+		if (retryPolicy == null || !isRetryable(method)) return -1;
+		if (clientResponse != null && clientResponse.isSuccessful()) return -1;
+
+		int statusCode = clientResponse != null ? clientResponse.code() : 0;
+		Map<String, List<String>> headers = clientResponse != null ? clientResponse.headers().toMultimap() : null;
+
+		long retryDelay = retryPolicy.getRetryDelayMillis(attempt, statusCode, headers, exception);
+		if (retryDelay >= 0) {
+			log.warn("Retrying " + method + " " + url + " in " + retryDelay + " ms, attempt " + attempt + " failed with "
+					+ (exception != null ? exception.getMessage() : "status code " + statusCode));
+		}
+		return retryDelay;
+	}
+
+	/**
+	 * A request is safe to repeat if it is a GET or was marked safe via {@link #setRetrySafe(boolean)},
+	 * and its body can be sent more than once (an input stream body cannot)
+	 *
+	 * @param method Http Method of the request
+	 * @return True if transient failures of the request may be retried
+	 */
+	public boolean isRetryable(HttpMethod method) {
+		if (requestOption == RequestOption.STREAM) return false;
+		return method == HttpMethod.GET || retrySafe;
+	}
+
+	/**
+	 * Build the HTTP call for the given method from the class properties
+	 *
+	 * @param method  Http Method (GET, POST, PUT, DELETE)
+	 * @param attempt Number of the attempt, starting at 1
+	 * @return The call, ready to be executed or enqueued
+	 */
+	private Call newCall(HttpMethod method, int attempt) {
 		Request.Builder requestBuilder = getRequestBuilder(method);
+		if (!callListeners.isEmpty()) {
+			// The event travels with the request, so the client's event listener can record timings
+			Request request = requestBuilder.build();
+			requestBuilder.tag(HttpCallEvent.class, new HttpCallEvent(request.method(), request.url(), attempt));
+		}
 		Request request = requestBuilder.build();
 
 		log.info("Sending " + request.method() + " to " + request.url());
 
-		Call call = getClient().newCall(request);
+		return getClient().newCall(request);
+	}
+
+	/**
+	 * Complete the event of a call attempt and pass it to the call listeners
+	 *
+	 * @param call           The call
+	 * @param clientResponse The HTTP client response, null if the call failed without a response
+	 * @param exception      The I/O error, null if a response was received
+	 */
+	private void notifyCallListeners(Call call, Response clientResponse, IOException exception) {
+		HttpCallEvent event = call.request().tag(HttpCallEvent.class);
+		if (event == null) return;
+
+		event.complete(clientResponse != null ? clientResponse.code() : 0,
+				clientResponse != null ? clientResponse.headers().toMultimap() : null,
+				exception != null ? exception.getMessage() : null);
+		for (HttpCallListener listener : callListeners) {
+			try {
+				listener.onCall(event);
+			} catch (RuntimeException e) {
+				log.warn("HTTP call listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Release the connection of a response that failed to be processed,
+	 * and pass the failure to the call listeners
+	 *
+	 * @param call           The call
+	 * @param clientResponse The HTTP client response
+	 * @param e              The processing failure
+	 */
+	private void releaseFailedResponse(Call call, Response clientResponse, RuntimeException e) {
+		clientResponse.close();
+		notifyCallListeners(call, clientResponse, new IOException(e.getMessage(), e));
+	}
 
-		try {
-			Response clientResponse = call.execute();
-			response = new HttpResponseConnector(responseOption);
-			response.processResponse(clientResponse, outputFilePath);
+	/**
+	 * Convert the HTTP client response to a response connector
+	 * and release the underlying connection
+	 *
+	 * @param call           The call
+	 * @param clientResponse The HTTP client response
+	 * @param responseOption The format to return the HTTP response
+	 * @param outputFilePath Optional output file to write, pass null to ignore
+	 * @return The processed HTTP response
+	 */
+	private HttpResponseConnector processClientResponse(Call call, Response clientResponse, HttpRequestConnector.ResponseOption responseOption, String outputFilePath) {
+		HttpResponseConnector response = new HttpResponseConnector(responseOption);
+		response.setDigestAlgorithm(outputFileDigestAlgorithm);
+		response.setExpectedDigest(outputFileExpectedDigest);
+		response.setPreallocateOutputFile(preallocateOutputFile);
+		response.processResponse(clientResponse, outputFilePath);
+
+		if (clientResponse.request().body() instanceof GzipRequestBody) {
+			GzipRequestBody requestBody = (GzipRequestBody) clientResponse.request().body();
+			response.setRequestBodyMetrics(requestBody.getBytes(), requestBody.getWireBytes());
+			log.debug("Request body compressed from " + requestBody.getBytes() + " to " + requestBody.getWireBytes() + " bytes");
+		}
 
+		// A streamed body is released when the caller closes the response
+		if (responseOption != ResponseOption.STREAM) {
 			clientResponse.close();
+		}
 
-			log.debug("HTTP status code = " + response.getStatusCode());
+		log.debug("HTTP status code = " + response.getStatusCode());
 
-			if (response.getStatusCode() > 299) {
-				log.error("Error status code = " + response.getStatusCode());
+		if (response.getStatusCode() > 299) {
+			log.error("Error status code = " + response.getStatusCode());
 
-			}
-		} catch (IOException e) {
-			log.error(e.getMessage());
 		}
 
+		notifyCallListeners(call, clientResponse, null);
+
 		return response;
 	}
 
@@ -274,10 +583,10 @@ public class HttpRequestConnector {
 				requestBuilder.get();
 				break;
 			case POST:
-				requestBuilder.post(getRequestBody());
+				requestBuilder.post(getRequestBody(method));
 				break;
 			case PUT:
-				requestBuilder.put(getRequestBody());
+				requestBuilder.put(getRequestBody(method));
 				break;
 			case DELETE:
 				RequestBody requestBody = getRequestBody();
@@ -296,9 +605,54 @@ public class HttpRequestConnector {
 				requestBuilder.addHeader(key, headerParams.get(key).toString());
 		}
 
+		if (isCompressedRequestBody(method)) {
+			requestBuilder.header(HTTP_HEADER_CONTENT_ENCODING, HTTP_CONTENT_ENCODING_GZIP);
+		}
+
+		// Ranges apply to the encoded content, so the encoding of range requests is left to the HTTP client
+		if (acceptEncoding != null && (headerParams == null || !headerParams.containsKey(HTTP_HEADER_RANGE))) {
+			requestBuilder.header(HTTP_HEADER_ACCEPT_ENCODING, acceptEncoding);
+		}
+
 		return requestBuilder;
 	}
 
+	/**
+	 * Form the request body for the given method, compressed with gzip
+	 * if request body compression applies
+	 *
+	 * @param method Http Method (POST, PUT)
+	 * @return The created RequestBody
+	 */
+	private RequestBody getRequestBody(HttpMethod method) {
+		RequestBody requestBody = getRequestBody();
+		if (isCompressedRequestBody(method)) {
+			return new GzipRequestBody(requestBody);
+		}
+		return requestBody;
+	}
+
+	/**
+	 * Request body compression applies to POST and PUT requests with a file,
+	 * string, binary or input stream body
+	 *
+	 * @param method Http Method of the request
+	 * @return True if the request body is sent compressed
+	 */
+	private boolean isCompressedRequestBody(HttpMethod method) {
+		if (!compressRequestBody || (method != HttpMethod.POST && method != HttpMethod.PUT)) return false;
+
+		switch (requestOption) {
+			case FILE:
+			case STRING:
+			case BYTE_ARRAY:
+			case STREAM:
+				return true;
+			default:
+				return false;
+		}
+	}
+
 	/**
 	 * Form the request body based on the set request option
 	 * and set properties of the class
@@ -467,24 +821,225 @@ public class HttpRequestConnector {
 	}
 
 	/**
-	 * Encode the value in a map of name/value pairs
+	 * Encode the value in a map of name/value pairs. The input map is not
+	 * modified, so the request can be sent more than once (for example on retry).
 	 *
 	 * @param map Name/Value pairs to encode
-	 * @return Encoded map
+	 * @return Encoded copy of the map
 	 */
 	protected Map<String, Object> encodeMap(Map<String, Object> map) {
 		if (map != null && !map.isEmpty()) {
-			for (String key : map.keySet()) {
+			Map<String, Object> encodedMap = new LinkedHashMap<>();
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
 				try {
-					map.put(key, encodeValue(map.get(key)));
+					encodedMap.put(entry.getKey(), encodeValue(entry.getValue()));
 				} catch (UnsupportedEncodingException e) {
 					e.printStackTrace();
 				}
 			}
+			return encodedMap;
 		}
 		return map;
 	}
 
+	/**
+	 * Create an independent copy of this request, with the same URL, parameters,
+	 * body and transport settings. Parameter maps are copied, so parameters added
+	 * to the copy (such as a Range header) do not affect this request.
+	 *
+	 * @return The copied request
+	 */
+	public HttpRequestConnector copy() {
+		HttpRequestConnector copy = new HttpRequestConnector(url);
+		copy.httpClient = httpClient;
+		copy.retryPolicy = retryPolicy;
+		copy.retrySafe = retrySafe;
+		copy.outputFileDigestAlgorithm = outputFileDigestAlgorithm;
+		copy.outputFileExpectedDigest = outputFileExpectedDigest;
+		copy.preallocateOutputFile = preallocateOutputFile;
+		copy.compressRequestBody = compressRequestBody;
+		copy.acceptEncoding = acceptEncoding;
+		copy.callListeners = callListeners;
+		copy.queryParams = queryParams != null ? new HashMap<>(queryParams) : null;
+		copy.headerParams = headerParams != null ? new HashMap<>(headerParams) : null;
+		copy.bodyParams = bodyParams != null ? new HashMap<>(bodyParams) : null;
+		copy.requestOption = requestOption;
+		copy.requestMediaType = requestMediaType;
+		copy.requestBinaryContent = requestBinaryContent;
+		copy.requestFile = requestFile;
+		copy.requestRawString = requestRawString;
+		copy.requestInputStream = requestInputStream;
+		return copy;
+	}
+
+	/**
+	 * @return The HTTP client used for this request. The shared default
+	 * client is returned if no client was set.
+	 */
+	public OkHttpClient getClient() {
+		return httpClient != null ? httpClient : getDefaultClient();
+	}
+
+	/**
+	 * Set the HTTP client used for this request, such as the client owned by a VaultClient.
+	 * When not set, the shared default client is used.
+	 *
+	 * @param httpClient The HTTP client
+	 */
+	public void setHttpClient(OkHttpClient httpClient) {
+		this.httpClient = httpClient;
+	}
+
+	/**
+	 * @return The retry policy for transient failures
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Set the retry policy for transient failures. Default = {@link RetryPolicy#NONE}
+	 *
+	 * @param retryPolicy The retry policy
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	/**
+	 * @return True if the request is marked safe to repeat regardless of the HTTP method
+	 */
+	public boolean isRetrySafe() {
+		return retrySafe;
+	}
+
+	/**
+	 * Mark a non-GET request as safe to repeat, such as a read-only POST
+	 * or a write that can be applied twice without a duplicate effect. Default = false
+	 *
+	 * @param retrySafe True if the request may be retried
+	 */
+	public void setRetrySafe(boolean retrySafe) {
+		this.retrySafe = retrySafe;
+	}
+
+	/**
+	 * @return Digest algorithm computed for responses written to a file, null if none
+	 */
+	public String getOutputFileDigestAlgorithm() {
+		return outputFileDigestAlgorithm;
+	}
+
+	/**
+	 * Compute a digest while writing the response to a file, reported via
+	 * {@link HttpResponseConnector#getTransferMetrics()}
+	 *
+	 * @param outputFileDigestAlgorithm MD5, SHA-1, SHA-256 or SHA-512, null for none
+	 */
+	public void setOutputFileDigestAlgorithm(String outputFileDigestAlgorithm) {
+		if (outputFileDigestAlgorithm != null) {
+			// Fail before sending the request if the algorithm is not supported
+			HttpResponseConnector.newHashingSink(Okio.blackhole(), outputFileDigestAlgorithm);
+		}
+		this.outputFileDigestAlgorithm = outputFileDigestAlgorithm;
+	}
+
+	/**
+	 * @return Expected digest of responses written to a file, null if not verified
+	 */
+	public String getOutputFileExpectedDigest() {
+		return outputFileExpectedDigest;
+	}
+
+	/**
+	 * Verify the digest of responses written to a file. On mismatch, the file is
+	 * discarded and {@link HttpResponseConnector#getTransferError()} is set.
+	 * Requires a digest algorithm, see {@link #setOutputFileDigestAlgorithm(String)}.
+	 *
+	 * @param outputFileExpectedDigest Hex digest, null to skip verification
+	 */
+	public void setOutputFileExpectedDigest(String outputFileExpectedDigest) {
+		this.outputFileExpectedDigest = outputFileExpectedDigest;
+	}
+
+	/**
+	 * @return True if output files are extended to the Content-Length before writing
+	 */
+	public boolean isPreallocateOutputFile() {
+		return preallocateOutputFile;
+	}
+
+	/**
+	 * Extend output files to the Content-Length before writing, as a size hint. On most
+	 * file systems the file is sparse: disk space is not reserved. Default = false
+	 *
+	 * @param preallocateOutputFile True to preallocate output files
+	 */
+	public void setPreallocateOutputFile(boolean preallocateOutputFile) {
+		this.preallocateOutputFile = preallocateOutputFile;
+	}
+
+	/**
+	 * @return True if file, string, binary and input stream request bodies are sent compressed
+	 */
+	public boolean isCompressRequestBody() {
+		return compressRequestBody;
+	}
+
+	/**
+	 * Compress file, string, binary and input stream bodies of POST and PUT requests with gzip,
+	 * sent with a Content-Encoding header. The body is compressed as it is written,
+	 * without buffering it in memory. Only set for endpoints that accept compressed bodies.
+	 * Default = false
+	 *
+	 * @param compressRequestBody True to compress the request body
+	 */
+	public void setCompressRequestBody(boolean compressRequestBody) {
+		this.compressRequestBody = compressRequestBody;
+	}
+
+	/**
+	 * @return The explicit Accept-Encoding of the request, null if left to the HTTP client
+	 */
+	public String getAcceptEncoding() {
+		return acceptEncoding;
+	}
+
+	/**
+	 * Set the Accept-Encoding header explicitly instead of leaving it to the HTTP client.
+	 * With {@value #HTTP_CONTENT_ENCODING_GZIP}, compressed responses are decompressed as they
+	 * are read and the bytes received on the wire are reported via
+	 * {@link HttpResponseConnector#getTransferMetrics()}. With {@value #HTTP_CONTENT_ENCODING_IDENTITY},
+	 * responses are not compressed. Default = null, the HTTP client requests and transparently
+	 * decompresses gzip responses.
+	 *
+	 * @param acceptEncoding {@value #HTTP_CONTENT_ENCODING_GZIP}, {@value #HTTP_CONTENT_ENCODING_IDENTITY} or null
+	 */
+	public void setAcceptEncoding(String acceptEncoding) {
+		if (acceptEncoding != null && !acceptEncoding.equalsIgnoreCase(HTTP_CONTENT_ENCODING_GZIP)
+				&& !acceptEncoding.equalsIgnoreCase(HTTP_CONTENT_ENCODING_IDENTITY)) {
+			throw new IllegalArgumentException("Unsupported Accept-Encoding " + acceptEncoding);
+		}
+		this.acceptEncoding = acceptEncoding;
+	}
+
+	/**
+	 * @return Listeners notified of each call attempt
+	 */
+	public List<HttpCallListener> getCallListeners() {
+		return callListeners;
+	}
+
+	/**
+	 * Set the listeners notified of each call attempt, with the endpoint, status,
+	 * sizes and phase timings of the call. See {@link HttpCallListener}.
+	 *
+	 * @param callListeners The listeners, null or empty for none
+	 */
+	public void setCallListeners(List<HttpCallListener> callListeners) {
+		this.callListeners = callListeners != null ? callListeners : Collections.emptyList();
+	}
+
 	public String getUrl() {
 		return url;
 	}
@@ -672,7 +1227,12 @@ public class HttpRequestConnector {
 		/**
 		 * Receive the response as a byte[]
 		 */
-		BYTE_ARRAY
+		BYTE_ARRAY,
+		/**
+		 * Receive the response as an open stream, read incrementally
+		 * and closed by the caller
+		 */
+		STREAM
 	}
 
 	/**
@@ -777,7 +1337,83 @@ public class HttpRequestConnector {
 	}
 
 	/**
-	 * Set the global timeout for the HTTP Client. Default = 60 minutes.
+	 * Request body compressed with gzip as it is written to the connection.
+	 * The body size before and after compression is counted on each write,
+	 * so the counts reflect the last attempt of a retried request.
+	 */
+	static final class GzipRequestBody extends RequestBody {
+		private final RequestBody delegate;
+		private long bytes = 0;
+		private long wireBytes = 0;
+
+		GzipRequestBody(RequestBody delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public MediaType contentType() {
+			return delegate.contentType();
+		}
+
+		@Override
+		public long contentLength() {
+			// Unknown until compressed, the body is sent chunked
+			return -1;
+		}
+
+		@Override
+		public boolean isOneShot() {
+			return delegate.isOneShot();
+		}
+
+		@Override
+		public void writeTo(BufferedSink sink) throws IOException {
+			CountingSink wireSink = new CountingSink(sink);
+			CountingSink contentSink = new CountingSink(new GzipSink(wireSink));
+			BufferedSink gzipSink = Okio.buffer(contentSink);
+			try {
+				delegate.writeTo(gzipSink);
+			} finally {
+				// Writes the gzip trailer. Closing twice has no effect if the delegate closed the sink.
+				gzipSink.close();
+				bytes = contentSink.getBytes();
+				wireBytes = wireSink.getBytes();
+			}
+		}
+
+		long getBytes() {
+			return bytes;
+		}
+
+		long getWireBytes() {
+			return wireBytes;
+		}
+	}
+
+	/**
+	 * Counts the bytes written to the underlying sink
+	 */
+	private static final class CountingSink extends ForwardingSink {
+		private long bytes = 0;
+
+		private CountingSink(Sink delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public void write(Buffer source, long byteCount) throws IOException {
+			super.write(source, byteCount);
+			bytes += byteCount;
+		}
+
+		private long getBytes() {
+			return bytes;
+		}
+	}
+
+	/**
+	 * Set the global timeout for the shared default HTTP Client. Default = 60 minutes.
+	 * Requests sent via a VaultClient use the client's own transport settings instead.
 	 * <p>&nbsp;</p>
 	 * Can only be set before any and all HTTP calls are first executed
 	 *
@@ -793,7 +1429,8 @@ public class HttpRequestConnector {
 	}
 
 	/**
-	 * Turn on setting to allow all SSL Certificates. Default = false.
+	 * Turn on setting to allow all SSL Certificates on the shared default HTTP Client. Default = false.
+	 * Requests sent via a VaultClient use the client's own transport settings instead.
 	 * <p>&nbsp;</p>
 	 * Can only be set before any and all HTTP calls are first executed
 	 *
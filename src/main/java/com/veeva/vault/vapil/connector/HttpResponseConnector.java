@@ -1,28 +1,58 @@
 package com.veeva.vault.vapil.connector;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import okhttp3.Headers;
+import okhttp3.MediaType;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.HashingSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
 
 /**
  * HTTP response class, instantiated via the HttpRequestConnector response.
  * This class provides methods for accessing the response status code, headers,
  * and the response body.
+ * <p>
+ * For streamed responses ({@link HttpRequestConnector.ResponseOption#STREAM}), the
+ * response body remains open until {@link #close()} is called.
  */
-public class HttpResponseConnector {
+public class HttpResponseConnector implements Closeable {
 
 	private static Logger log = LoggerFactory.getLogger(HttpResponseConnector.class);
 
+	// Maximum number of bytes read from the response body per transfer loop iteration
+	private static final long TRANSFER_BUFFER_SIZE = 1024 * 1024;
+
 	// Standard properties	
 	private Map<String, List<String>> headers;
 	private String contentType;
@@ -33,9 +63,19 @@ public class HttpResponseConnector {
 
 	private String response;
 	private byte[] byteArray;
+	private BufferedSource source;
+	private CountingSource streamSource;
+	private CountingSource streamWireSource;
+	private long streamStart;
 
 	// For returning responses written to file
 	private String outputFilePath;
+	private String digestAlgorithm;
+	private String expectedDigest;
+	private boolean preallocateOutputFile = false;
+
+	private HttpTransferMetrics transferMetrics;
+	private String transferError;
 
 	/**
 	 * Default constructor to retrieve response as a string
@@ -82,18 +122,46 @@ public class HttpResponseConnector {
 		}
 
 		try {
+			// A gzip body is only seen here when Accept-Encoding was set explicitly,
+			// otherwise the HTTP client decompresses it transparently
+			BufferedSource bodySource = responseBody.source();
+			long contentLength = responseBody.contentLength();
+			CountingSource wireSource = null;
+			if (HttpRequestConnector.HTTP_CONTENT_ENCODING_GZIP.equalsIgnoreCase(
+					headerFirstValueIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_ENCODING))) {
+				wireSource = new CountingSource(bodySource);
+				bodySource = Okio.buffer(new GzipSource(wireSource));
+				contentLength = -1;
+				headers.keySet().removeIf(name -> name.equalsIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_ENCODING)
+						|| name.equalsIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_LENGTH));
+			}
+
+			long start = System.nanoTime();
 			switch (responseOption) {
-				case STRING:
-					response = responseBody.string();
-					break;
 				case TO_FILE:
-					writeToFile(responseBody, outputFilePath);
+					writeToFile(bodySource, contentLength, outputFilePath);
 					break;
 				case BYTE_ARRAY:
-					byteArray = responseBody.bytes();
+					byteArray = bodySource.readByteArray();
+					setTransferMetrics(byteArray.length, start);
 					break;
+				case STREAM:
+					// The body is read by the caller and closed via close(), which records the transfer metrics
+					streamSource = new CountingSource(bodySource);
+					streamWireSource = wireSource;
+					streamStart = start;
+					source = Okio.buffer(streamSource);
+					return;
+				case STRING:
 				default:
-					response = responseBody.string();
+					byte[] content = bodySource.readByteArray();
+					MediaType mediaType = responseBody.contentType();
+					response = new String(content, mediaType != null ? mediaType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8);
+					setTransferMetrics(content.length, start);
+			}
+
+			if (wireSource != null && transferMetrics != null) {
+				transferMetrics.setWireBytes(wireSource.getBytes());
 			}
 		} catch (IOException e) {
 			log.error(e.toString());
@@ -103,32 +171,249 @@ public class HttpResponseConnector {
 	}
 
 	/**
-	 * Stream the response and write the results to a file
+	 * Close a streamed response body and release the HTTP connection. The bytes read
+	 * from the body until then are recorded in the transfer metrics.
+	 * Has no effect for other response options, which are closed once processed.
+	 */
+	@Override
+	public void close() {
+		if (source != null) {
+			try {
+				source.close();
+			} catch (IOException e) {
+				log.error(e.getMessage());
+			}
+		}
+		if (streamSource != null) {
+			if (transferMetrics == null) {
+				transferMetrics = new HttpTransferMetrics();
+			}
+			transferMetrics.setBytes(streamSource.getBytes());
+			transferMetrics.setElapsedNanos(System.nanoTime() - streamStart);
+			if (streamWireSource != null) {
+				transferMetrics.setWireBytes(streamWireSource.getBytes());
+			}
+			streamSource = null;
+		}
+	}
+
+	/**
+	 * Stream the response and write the results to a file.
+	 * <p>
+	 * The body is moved through okio segment buffers, up to {@value #TRANSFER_BUFFER_SIZE} bytes
+	 * per read, into a temporary file next to the destination, optionally computing a digest
+	 * on the fly. The temporary file replaces the destination only once the transfer completes,
+	 * so a failed download never leaves a truncated file behind. If an expected digest is set
+	 * and does not match, the file is discarded and the transfer error is set.
 	 *
-	 * @param responseBody   The HTTP response
+	 * @param source         The HTTP response body
+	 * @param contentLength  The Content-Length of the body, -1 if unknown
 	 * @param outputFilePath The destination file
 	 */
-	private void writeToFile(ResponseBody responseBody, String outputFilePath) {
+	private void writeToFile(BufferedSource source, long contentLength, String outputFilePath) {
+		Path target = Paths.get(outputFilePath).toAbsolutePath();
+		Path tempFile = null;
 
 		try {
-			File file = new File(outputFilePath);
-			if (file.exists()) file.delete();
-			FileOutputStream output = new FileOutputStream(file);
-
+			tempFile = createPartFile(target);
+
+			long start = System.nanoTime();
+			long bytes = 0;
+			HashingSink hashingSink = null;
+
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				if (preallocateOutputFile && contentLength > 0) {
+					// Size hint: sets the file size up front, sparse on most file systems, so no space is reserved
+					channel.write(ByteBuffer.wrap(new byte[1]), contentLength - 1);
+				}
+
+				Sink fileSink = Okio.sink(Channels.newOutputStream(channel));
+				if (digestAlgorithm != null) {
+					hashingSink = newHashingSink(fileSink, digestAlgorithm);
+					fileSink = hashingSink;
+				}
+
+				BufferedSink sink = Okio.buffer(fileSink);
+				long read;
+				while ((read = source.read(sink.getBuffer(), TRANSFER_BUFFER_SIZE)) != -1) {
+					bytes += read;
+					sink.emitCompleteSegments();
+				}
+				sink.flush();
+
+				// Drop any preallocated space beyond the received content
+				channel.truncate(bytes);
+			}
 
-			byte[] data = new byte[1024];
-			int len = 0;
+			String digest = hashingSink != null ? hashingSink.hash().hex() : null;
+			verifyDigest(digest);
 
-			while ((len = responseBody.byteStream().read(data)) > 0)
-				output.write(data, 0, len);
+			moveFile(tempFile, target);
 
-			output.flush();
-			output.close();
+			transferMetrics = new HttpTransferMetrics();
+			transferMetrics.setBytes(bytes);
+			transferMetrics.setElapsedNanos(System.nanoTime() - start);
+			if (digest != null) {
+				transferMetrics.setDigestAlgorithm(digestAlgorithm);
+				transferMetrics.setDigest(digest);
+			}
+			log.debug("Wrote " + outputFilePath + ", " + transferMetrics);
 		} catch (IOException e) {
 			log.error(e.getMessage());
+			transferError = e.getMessage();
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e2) {
+					log.error(e2.getMessage());
+				}
+			}
+		}
+	}
+
+	private void setTransferMetrics(long bytes, long start) {
+		transferMetrics = new HttpTransferMetrics();
+		transferMetrics.setBytes(bytes);
+		transferMetrics.setElapsedNanos(System.nanoTime() - start);
+	}
+
+	/**
+	 * Record the size of a compressed request body, before and after compression
+	 *
+	 * @param requestBytes     Request body bytes before compression
+	 * @param requestWireBytes Request body bytes sent on the wire
+	 */
+	void setRequestBodyMetrics(long requestBytes, long requestWireBytes) {
+		if (transferMetrics == null) {
+			transferMetrics = new HttpTransferMetrics();
+		}
+		transferMetrics.setRequestBytes(requestBytes);
+		transferMetrics.setRequestWireBytes(requestWireBytes);
+	}
+
+	/**
+	 * Write the body of a streamed response to a file, as if the response had been
+	 * processed with {@link HttpRequestConnector.ResponseOption#TO_FILE}, and close it
+	 *
+	 * @param outputFilePath The destination file
+	 */
+	void writeStreamToFile(String outputFilePath) {
+		this.outputFilePath = outputFilePath;
+		this.responseOption = HttpRequestConnector.ResponseOption.TO_FILE;
+
+		String contentLength = headerFirstValueIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_LENGTH);
+		writeToFile(source, contentLength != null ? Long.parseLong(contentLength) : -1, outputFilePath);
+		streamSource = null;
+		close();
+		source = null;
+	}
+
+	/**
+	 * Complete a response whose body was written to a file by the caller,
+	 * such as a segmented download. The streamed body, if any, is closed.
+	 *
+	 * @param outputFilePath  The written file
+	 * @param transferMetrics Measurements of the transfer
+	 */
+	void completeFileTransfer(String outputFilePath, HttpTransferMetrics transferMetrics) {
+		close();
+		this.source = null;
+		this.responseOption = HttpRequestConnector.ResponseOption.TO_FILE;
+		this.outputFilePath = outputFilePath;
+		this.transferMetrics = transferMetrics;
+		this.statusCode = 200;
+		this.statusMessage = "OK";
+		if (headers == null) {
+			// No HTTP response, such as a download completed before it was resumed
+			headers = new HashMap<String, List<String>>();
 		}
+		headers.keySet().removeIf(name -> name.equalsIgnoreCase("Content-Range"));
+		headers.keySet().removeIf(name -> name.equalsIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_LENGTH));
+		headers.put(HttpRequestConnector.HTTP_HEADER_CONTENT_LENGTH, Collections.singletonList(String.valueOf(transferMetrics.getBytes())));
 	}
 
+	/**
+	 * Compare a computed digest to the expected digest, if set
+	 *
+	 * @param digest The computed digest
+	 * @throws IOException if the digests do not match
+	 */
+	void verifyDigest(String digest) throws IOException {
+		if (expectedDigest != null && digest != null && !expectedDigest.equalsIgnoreCase(digest)) {
+			throw new IOException(digestAlgorithm + " digest mismatch, expected " + expectedDigest + " but received " + digest);
+		}
+	}
+
+	/**
+	 * Compute the digest of a file
+	 *
+	 * @param path      The file
+	 * @param algorithm MD5, SHA-1, SHA-256 or SHA-512
+	 * @return Lowercase hex digest
+	 * @throws IOException if the file cannot be read
+	 */
+	static String digestFile(Path path, String algorithm) throws IOException {
+		HashingSink hashingSink = newHashingSink(Okio.blackhole(), algorithm);
+		try (BufferedSource fileSource = Okio.buffer(Okio.source(path))) {
+			fileSource.readAll(hashingSink);
+		}
+		return hashingSink.hash().hex();
+	}
+
+	/**
+	 * Create an empty temporary file next to the destination. Unlike {@link Files#createTempFile},
+	 * which restricts the file to its owner, the file gets the default permissions of new files,
+	 * so the destination has them once the temporary file is moved into place.
+	 *
+	 * @param target The destination file
+	 * @return The temporary file
+	 */
+	static Path createPartFile(Path target) throws IOException {
+		while (true) {
+			Path partFile = target.resolveSibling(target.getFileName() + "."
+					+ Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".part");
+			try {
+				Files.newByteChannel(partFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+				return partFile;
+			} catch (FileAlreadyExistsException e) {
+				// Name taken, try another
+			}
+		}
+	}
+
+	/**
+	 * Replace the destination file with the completed temporary file,
+	 * atomically if the file system supports it
+	 */
+	static void moveFile(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Wrap a sink to compute a digest of all bytes written to it
+	 *
+	 * @param sink      The sink to wrap
+	 * @param algorithm MD5, SHA-1, SHA-256 or SHA-512
+	 * @return The hashing sink
+	 */
+	static HashingSink newHashingSink(Sink sink, String algorithm) {
+		switch (algorithm.toUpperCase(Locale.ROOT).replace("-", "")) {
+			case "MD5":
+				return HashingSink.md5(sink);
+			case "SHA1":
+				return HashingSink.sha1(sink);
+			case "SHA256":
+				return HashingSink.sha256(sink);
+			case "SHA512":
+				return HashingSink.sha512(sink);
+			default:
+				throw new IllegalArgumentException("Unsupported digest algorithm " + algorithm);
+		}
+	}
 
 	/**
 	 * @return The HTTP response headers. Single element headers,
@@ -155,6 +440,23 @@ public class HttpResponseConnector {
 		return value;
 	}
 
+	/**
+	 * Return first header string value of the given named header, ignoring case
+	 *
+	 * @param name The header name (key) to retrieve
+	 * @return The first value as a string, null if not found
+	 */
+	public String headerFirstValueIgnoreCase(String name) {
+		if (headers != null) {
+			for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+				if (entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) {
+					return entry.getValue().get(0);
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Form a library agnostic list of the header values returned.
 	 * Allows calling class a consistent property for header information.
@@ -205,6 +507,20 @@ public class HttpResponseConnector {
 		return byteArray;
 	}
 
+	/**
+	 * @return The HTTP response body as an okio source, for streamed responses
+	 */
+	public BufferedSource getSource() {
+		return source;
+	}
+
+	/**
+	 * @return The HTTP response body as an input stream, for streamed responses
+	 */
+	public InputStream getInputStream() {
+		return source != null ? source.inputStream() : null;
+	}
+
 	/**
 	 * @return The file path of the output
 	 */
@@ -212,4 +528,97 @@ public class HttpResponseConnector {
 		return outputFilePath;
 	}
 
+	/**
+	 * @return Digest algorithm computed while writing the output file, null if none
+	 */
+	public String getDigestAlgorithm() {
+		return digestAlgorithm;
+	}
+
+	/**
+	 * Compute a digest of the content while writing the output file. The result
+	 * is available via {@link #getTransferMetrics()}.
+	 *
+	 * @param digestAlgorithm MD5, SHA-1, SHA-256 or SHA-512, null for none
+	 */
+	public void setDigestAlgorithm(String digestAlgorithm) {
+		this.digestAlgorithm = digestAlgorithm;
+	}
+
+	/**
+	 * @return Expected digest of the output file, null if not verified
+	 */
+	public String getExpectedDigest() {
+		return expectedDigest;
+	}
+
+	/**
+	 * Verify the digest of the output file. On mismatch, the file is discarded
+	 * and {@link #getTransferError()} is set. Requires a digest algorithm.
+	 *
+	 * @param expectedDigest Hex digest, null to skip verification
+	 */
+	public void setExpectedDigest(String expectedDigest) {
+		this.expectedDigest = expectedDigest;
+	}
+
+	/**
+	 * @return True if the output file is extended to the Content-Length before writing
+	 */
+	public boolean isPreallocateOutputFile() {
+		return preallocateOutputFile;
+	}
+
+	/**
+	 * Extend the output file to the Content-Length before writing, as a size hint. On most
+	 * file systems the file is sparse: disk space is not reserved. Default = false
+	 *
+	 * @param preallocateOutputFile True to preallocate the output file
+	 */
+	public void setPreallocateOutputFile(boolean preallocateOutputFile) {
+		this.preallocateOutputFile = preallocateOutputFile;
+	}
+
+	/**
+	 * @return Bytes, time, throughput and digest of the body transfer,
+	 * for responses written to a file or returned as a byte array. Null otherwise.
+	 */
+	public HttpTransferMetrics getTransferMetrics() {
+		return transferMetrics;
+	}
+
+	/**
+	 * @return Error that prevented the response body from being written to the output file,
+	 * such as an I/O error or a digest mismatch. Null if the transfer succeeded.
+	 */
+	public String getTransferError() {
+		return transferError;
+	}
+
+	void setTransferError(String transferError) {
+		this.transferError = transferError;
+	}
+
+
+	/**
+	 * Counts the bytes read from the underlying source
+	 */
+	private static class CountingSource extends ForwardingSource {
+		private long bytes = 0;
+
+		private CountingSource(Source delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public long read(Buffer sink, long byteCount) throws IOException {
+			long read = super.read(sink, byteCount);
+			if (read > 0) bytes += read;
+			return read;
+		}
+
+		private long getBytes() {
+			return bytes;
+		}
+	}
 }
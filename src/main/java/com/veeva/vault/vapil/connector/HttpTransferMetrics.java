@@ -0,0 +1,132 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurements of the transfer of an HTTP response body, such as a file download.
+ * The elapsed time covers reading the body only, from the first byte read
+ * to the last byte written.
+ * <p>
+ * For compressed transfers, the content size and the size on the wire are reported
+ * separately, for both the response body and a gzip request body.
+ */
+public class HttpTransferMetrics {
+
+	private long bytes;
+	private long wireBytes = -1;
+	private long requestBytes = -1;
+	private long requestWireBytes = -1;
+	private long elapsedNanos;
+	private String digestAlgorithm;
+	private String digest;
+
+	/**
+	 * @return Number of bytes transferred
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return Number of response body bytes received on the wire, before decompression.
+	 * Equal to {@link #getBytes()} if the body was not compressed
+	 */
+	public long getWireBytes() {
+		return wireBytes >= 0 ? wireBytes : bytes;
+	}
+
+	public void setWireBytes(long wireBytes) {
+		this.wireBytes = wireBytes;
+	}
+
+	/**
+	 * @return Number of request body bytes before compression, -1 if the request body was not compressed
+	 */
+	public long getRequestBytes() {
+		return requestBytes;
+	}
+
+	public void setRequestBytes(long requestBytes) {
+		this.requestBytes = requestBytes;
+	}
+
+	/**
+	 * @return Number of request body bytes sent on the wire after compression,
+	 * -1 if the request body was not compressed
+	 */
+	public long getRequestWireBytes() {
+		return requestWireBytes;
+	}
+
+	public void setRequestWireBytes(long requestWireBytes) {
+		this.requestWireBytes = requestWireBytes;
+	}
+
+	/**
+	 * @return Transfer time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return Transfer time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+
+	/**
+	 * @return Measured throughput in bytes per second, 0 if no time elapsed
+	 */
+	public double getBytesPerSecond() {
+		if (elapsedNanos <= 0) return 0;
+		return bytes * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	/**
+	 * @return Digest algorithm applied to the content, such as MD5 or SHA-256, null if none
+	 */
+	public String getDigestAlgorithm() {
+		return digestAlgorithm;
+	}
+
+	public void setDigestAlgorithm(String digestAlgorithm) {
+		this.digestAlgorithm = digestAlgorithm;
+	}
+
+	/**
+	 * @return Lowercase hex digest of the content, null if no digest was requested
+	 */
+	public String getDigest() {
+		return digest;
+	}
+
+	public void setDigest(String digest) {
+		this.digest = digest;
+	}
+
+	@Override
+	public String toString() {
+		return "bytes=" + bytes + ", elapsedMillis=" + getElapsedMillis()
+				+ ", bytesPerSecond=" + Math.round(getBytesPerSecond())
+				+ (wireBytes >= 0 && wireBytes != bytes ? ", wireBytes=" + wireBytes : "")
+				+ (requestBytes >= 0 ? ", requestBytes=" + requestBytes + ", requestWireBytes=" + requestWireBytes : "")
+				+ (digest != null ? ", " + digestAlgorithm + "=" + digest : "");
+	}
+}
@@ -0,0 +1,137 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe latency histogram with fixed memory and bounded relative error.
+ * <p>
+ * Values are recorded in microseconds into log-linear buckets, in the style of an HDR
+ * histogram: values below {@value #LINEAR_BUCKETS} microseconds are counted exactly, and each
+ * power of two above is split into {@value #SUB_BUCKETS} buckets, so a reported percentile is
+ * within about 6% of the recorded value. Values up to about 2^41 microseconds (25 days)
+ * are supported; larger values are counted in the last bucket.
+ */
+public class LatencyHistogram {
+
+	private static final int LINEAR_BUCKETS = 32;
+	private static final int SUB_BUCKETS = 16;
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int OCTAVES = 37;
+	private static final int BUCKETS = LINEAR_BUCKETS + OCTAVES * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalMicros = new AtomicLong();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * Record a latency
+	 *
+	 * @param nanos Latency in nanoseconds, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		counts.incrementAndGet(bucketIndex(micros));
+		count.incrementAndGet();
+		totalMicros.addAndGet(micros);
+		maxMicros.accumulateAndGet(micros, Math::max);
+	}
+
+	/**
+	 * @return Number of recorded values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @return Largest recorded value in nanoseconds, 0 if none
+	 */
+	public long getMaxNanos() {
+		return TimeUnit.MICROSECONDS.toNanos(maxMicros.get());
+	}
+
+	/**
+	 * @return Mean of the recorded values in nanoseconds, 0 if none
+	 */
+	public long getMeanNanos() {
+		long n = count.get();
+		return n == 0 ? 0 : TimeUnit.MICROSECONDS.toNanos(totalMicros.get() / n);
+	}
+
+	/**
+	 * Get the value at a percentile, the upper bound of the bucket containing it,
+	 * capped at the largest recorded value
+	 *
+	 * @param percentile Percentile between 0 and 100, such as 50 or 99.9
+	 * @return Value in nanoseconds, 0 if no values were recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= rank) {
+				return TimeUnit.MICROSECONDS.toNanos(Math.min(bucketUpperBound(i), maxMicros.get()));
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * @param percentile Percentile between 0 and 100
+	 * @return Value at the percentile in milliseconds, with microsecond precision
+	 */
+	public double getMillisAtPercentile(double percentile) {
+		return getValueAtPercentile(percentile) / 1_000_000.0;
+	}
+
+	/**
+	 * Clear all recorded values. Values recorded concurrently may be partially cleared.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		totalMicros.set(0);
+		maxMicros.set(0);
+	}
+
+	static int bucketIndex(long micros) {
+		if (micros < LINEAR_BUCKETS) return (int) micros;
+
+		int highestBit = 63 - Long.numberOfLeadingZeros(micros);
+		int shift = highestBit - SUB_BUCKET_BITS;
+		int index = LINEAR_BUCKETS + (highestBit - 5) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+		return Math.min(index, BUCKETS - 1);
+	}
+
+	static long bucketUpperBound(int index) {
+		if (index < LINEAR_BUCKETS) return index;
+
+		int octave = (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+		int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		int shift = octave + 5 - SUB_BUCKET_BITS;
+		return ((long) (subBucket + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, p50=%.1fms, p90=%.1fms, p99=%.1fms, max=%.1fms",
+				getCount(), getMillisAtPercentile(50), getMillisAtPercentile(90), getMillisAtPercentile(99),
+				getMaxNanos() / 1_000_000.0);
+	}
+}
@@ -0,0 +1,442 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import okio.BufferedSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Download of a single file that survives dropped connections and process restarts.
+ * <p>
+ * Content is written to a partial file next to the destination ({@value #PARTIAL_FILE_SUFFIX}).
+ * A small progress file ({@value #PROGRESS_FILE_SUFFIX}) records the source of the download,
+ * the number of bytes safely written, the file size and its ETag. It is saved every
+ * checkpoint interval and whenever the transfer is interrupted. A failed transfer is
+ * retried from the last written byte with a Range request, and a later download of the same
+ * file to the same destination continues from the recorded offset.
+ * <p>
+ * The If-Range header makes the server return the whole file if it has changed, in which
+ * case the download starts over. Once complete, the optional digest is computed and
+ * verified over the whole file, the partial file replaces the destination and the progress
+ * file is deleted.
+ */
+public class ResumableFileDownload {
+	private static Logger log = LoggerFactory.getLogger(ResumableFileDownload.class);
+
+	/**
+	 * Suffix of the partial file, {@value #PARTIAL_FILE_SUFFIX}
+	 */
+	public static final String PARTIAL_FILE_SUFFIX = ".part";
+
+	/**
+	 * Suffix of the progress file, {@value #PROGRESS_FILE_SUFFIX}
+	 */
+	public static final String PROGRESS_FILE_SUFFIX = ".part.progress";
+
+	/**
+	 * Default number of attempts within one download, {@value #DEFAULT_MAX_ATTEMPTS}
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+	/**
+	 * Default number of bytes written between progress checkpoints, {@value #DEFAULT_CHECKPOINT_BYTES} (64 MB)
+	 */
+	public static final long DEFAULT_CHECKPOINT_BYTES = 64L * 1024 * 1024;
+
+	private static final String HTTP_HEADER_CONTENT_RANGE = "Content-Range";
+	private static final String HTTP_HEADER_ETAG = "ETag";
+	private static final String HTTP_HEADER_IF_RANGE = "If-Range";
+	private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+	private static final String PROGRESS_SOURCE = "source";
+	private static final String PROGRESS_OFFSET = "offset";
+	private static final String PROGRESS_SIZE = "size";
+	private static final String PROGRESS_ETAG = "etag";
+
+	private final Supplier<HttpRequestConnector> requestSupplier;
+	private final SegmentedFileDownload.RangeSender sender;
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private long checkpointBytes = DEFAULT_CHECKPOINT_BYTES;
+	private String digestAlgorithm;
+	private String expectedDigest;
+
+	/**
+	 * Create a resumable download
+	 *
+	 * @param requestSupplier Supplies a new, fully formed GET request for the file on each call
+	 * @param sender          Sends a request and returns the streamed response
+	 */
+	public ResumableFileDownload(Supplier<HttpRequestConnector> requestSupplier, SegmentedFileDownload.RangeSender sender) {
+		this.requestSupplier = requestSupplier;
+		this.sender = sender;
+	}
+
+	/**
+	 * @param maxAttempts Number of requests sent before giving up, the partial file is kept
+	 *                    for a later download. Default = {@value #DEFAULT_MAX_ATTEMPTS}
+	 * @return The download
+	 */
+	public ResumableFileDownload setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = Math.max(1, maxAttempts);
+		return this;
+	}
+
+	/**
+	 * @param checkpointBytes Number of bytes written between progress checkpoints.
+	 *                        Default = {@value #DEFAULT_CHECKPOINT_BYTES}
+	 * @return The download
+	 */
+	public ResumableFileDownload setCheckpointBytes(long checkpointBytes) {
+		this.checkpointBytes = Math.max(1, checkpointBytes);
+		return this;
+	}
+
+	/**
+	 * @param digestAlgorithm Digest computed over the downloaded file, MD5, SHA-1, SHA-256 or SHA-512. Null for none
+	 * @param expectedDigest  Hex digest the file must match, null to skip verification
+	 * @return The download
+	 */
+	public ResumableFileDownload setDigest(String digestAlgorithm, String expectedDigest) {
+		this.digestAlgorithm = digestAlgorithm;
+		this.expectedDigest = expectedDigest;
+		return this;
+	}
+
+	/**
+	 * Download the file, continuing a previous partial download of the same file if one exists.
+	 * When the partial file is already complete, no request is sent: it is verified and moved.
+	 *
+	 * @param outputFilePath The destination file
+	 * @return The last response, completed as a response written to file.
+	 * Null if no response was received. Check {@link HttpResponseConnector#getTransferError()}
+	 * for failures while writing the file.
+	 */
+	public HttpResponseConnector download(String outputFilePath) {
+		long start = System.nanoTime();
+
+		Path target = Paths.get(outputFilePath).toAbsolutePath();
+		Path partialFile = target.resolveSibling(target.getFileName() + PARTIAL_FILE_SUFFIX);
+		Path progressFile = target.resolveSibling(target.getFileName() + PROGRESS_FILE_SUFFIX);
+
+		Progress progress = loadProgress(progressFile, partialFile, describeSource(requestSupplier.get()));
+		if (progress.offset > 0) {
+			log.info("Resuming download of " + outputFilePath + " at byte " + progress.offset);
+		}
+		long resumedAt = progress.offset;
+
+		HttpResponseConnector response = null;
+		String error = null;
+		int attempt = 0;
+		boolean complete = false;
+
+		if (progress.size >= 0 && progress.offset >= progress.size) {
+			// Every byte was written before the previous download stopped, only the verification and move remain
+			try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.WRITE)) {
+				channel.truncate(progress.size);
+				progress.offset = progress.size;
+				complete = true;
+			} catch (IOException e) {
+				log.warn("Cannot reuse the partial file " + partialFile + ", restarting download: " + e.getMessage());
+				progress.restart(-1, null);
+				resumedAt = 0;
+			}
+			if (complete) {
+				log.info("Download of " + outputFilePath + " already complete, skipping the request");
+				response = new HttpResponseConnector(HttpRequestConnector.ResponseOption.TO_FILE);
+				response.setDigestAlgorithm(digestAlgorithm);
+				response.setExpectedDigest(expectedDigest);
+			}
+		}
+
+		while (!complete && attempt++ < maxAttempts) {
+			if (response != null) response.close();
+			response = sendFrom(progress);
+			if (response == null) {
+				error = "No response at byte " + progress.offset;
+				continue;
+			}
+			response.setDigestAlgorithm(digestAlgorithm);
+			response.setExpectedDigest(expectedDigest);
+
+			try {
+				if (response.getStatusCode() == 200) {
+					String contentType = response.getContentType();
+					if (contentType != null && contentType.contains(HttpRequestConnector.HTTP_CONTENT_TYPE_JSON)) {
+						// Vault error, returned as is so the error is parsed. The partial file is kept.
+						response.writeStreamToFile(outputFilePath);
+						return response;
+					}
+					if (progress.offset > 0) {
+						log.warn("Range not honored or file changed, restarting download of " + outputFilePath);
+					}
+					String contentLength = response.headerFirstValueIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_LENGTH);
+					progress.restart(contentLength != null ? Long.parseLong(contentLength) : -1,
+							response.headerFirstValueIgnoreCase(HTTP_HEADER_ETAG));
+					resumedAt = 0;
+				} else if (response.getStatusCode() == 206) {
+					verifyRangeResponse(response, progress);
+				} else if (response.getStatusCode() == 416 && progress.offset > 0) {
+					// The recorded offset is past the end of the file, the file has changed
+					progress.restart(-1, null);
+					resumedAt = 0;
+					throw new IOException("Requested range not satisfiable");
+				} else {
+					// Failed request, returned as is. The partial file is kept.
+					response.close();
+					return response;
+				}
+
+				complete = writeToPartialFile(response.getSource(), partialFile, progressFile, progress);
+				if (!complete) {
+					throw new IOException("Unexpected end of file at byte " + progress.offset);
+				}
+			} catch (IOException e) {
+				error = e.getMessage();
+				log.warn("Download of " + outputFilePath + " interrupted at byte " + progress.offset + ": " + error);
+				saveProgressQuietly(progressFile, progress);
+			}
+		}
+
+		if (response == null) return null;
+		if (!complete) {
+			log.error("Download of " + outputFilePath + " failed after " + maxAttempts + " attempts, "
+					+ progress.offset + " bytes kept in " + partialFile + ": " + error);
+			response.close();
+			response.setTransferError(error);
+			return response;
+		}
+
+		try {
+			HttpTransferMetrics transferMetrics = new HttpTransferMetrics();
+			transferMetrics.setBytes(progress.offset);
+			if (digestAlgorithm != null) {
+				String digest = HttpResponseConnector.digestFile(partialFile, digestAlgorithm);
+				transferMetrics.setDigestAlgorithm(digestAlgorithm);
+				transferMetrics.setDigest(digest);
+				try {
+					response.verifyDigest(digest);
+				} catch (IOException e) {
+					// A corrupt partial file cannot be resumed
+					deleteQuietly(partialFile);
+					throw e;
+				}
+			}
+
+			HttpResponseConnector.moveFile(partialFile, target);
+			transferMetrics.setElapsedNanos(System.nanoTime() - start);
+			response.completeFileTransfer(outputFilePath, transferMetrics);
+			log.debug("Wrote " + outputFilePath + " (" + (progress.offset - resumedAt) + " bytes transferred), " + transferMetrics);
+		} catch (IOException e) {
+			log.error("Download of " + outputFilePath + " failed: " + e.getMessage());
+			response.close();
+			response.setTransferError(e.getMessage());
+		}
+		deleteQuietly(progressFile);
+
+		return response;
+	}
+
+	/**
+	 * Send a request for the file from the recorded offset
+	 */
+	private HttpResponseConnector sendFrom(Progress progress) {
+		HttpRequestConnector request = requestSupplier.get();
+		if (progress.offset > 0) {
+			request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_RANGE, "bytes=" + progress.offset + "-");
+			if (progress.etag != null) {
+				request.addHeaderParam(HTTP_HEADER_IF_RANGE, progress.etag);
+			}
+		}
+		return sender.send(request);
+	}
+
+	/**
+	 * Check that a 206 response continues the partial file
+	 */
+	private static void verifyRangeResponse(HttpResponseConnector response, Progress progress) throws IOException {
+		String contentRange = response.headerFirstValueIgnoreCase(HTTP_HEADER_CONTENT_RANGE);
+		Matcher matcher = contentRange != null ? CONTENT_RANGE_PATTERN.matcher(contentRange.trim()) : null;
+		if (matcher == null || !matcher.matches() || Long.parseLong(matcher.group(1)) != progress.offset) {
+			throw new IOException("Unexpected Content-Range " + contentRange + " for byte " + progress.offset);
+		}
+
+		long size = matcher.group(3).equals("*") ? -1 : Long.parseLong(matcher.group(3));
+		String etag = response.headerFirstValueIgnoreCase(HTTP_HEADER_ETAG);
+		if ((progress.size >= 0 && size >= 0 && progress.size != size)
+				|| (progress.etag != null && etag != null && !progress.etag.equals(etag))) {
+			progress.restart(-1, null);
+			throw new IOException("File changed since the partial download, restarting");
+		}
+		if (size >= 0) progress.size = size;
+		if (etag != null) progress.etag = etag;
+	}
+
+	/**
+	 * Append a response body to the partial file at the recorded offset, checkpointing
+	 * progress as it goes
+	 *
+	 * @return True if the file is complete
+	 */
+	private boolean writeToPartialFile(BufferedSource source, Path partialFile, Path progressFile, Progress progress) throws IOException {
+		try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			// Drop anything written after the last recorded offset
+			channel.truncate(progress.offset);
+			saveProgress(progressFile, progress);
+
+			ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+			long position = progress.offset;
+			long checkpoint = position + checkpointBytes;
+			boolean eof = false;
+
+			try {
+				while (!eof) {
+					int read = source.read(buffer);
+					if (read == -1) {
+						eof = true;
+					}
+					if (eof || !buffer.hasRemaining()) {
+						buffer.flip();
+						while (buffer.hasRemaining()) {
+							position += channel.write(buffer, position);
+						}
+						buffer.clear();
+					}
+					if (position >= checkpoint) {
+						channel.force(false);
+						progress.offset = position;
+						saveProgress(progressFile, progress);
+						checkpoint = position + checkpointBytes;
+					}
+				}
+			} finally {
+				// Record everything written so far, also when the transfer is interrupted
+				channel.force(false);
+				progress.offset = position;
+			}
+		}
+		return progress.size < 0 || progress.offset == progress.size;
+	}
+
+	/**
+	 * @return The URL and query parameters of the request, identifying the downloaded file
+	 */
+	private static String describeSource(HttpRequestConnector request) {
+		StringBuilder source = new StringBuilder(request.getUrl());
+		if (request.getQueryParams() != null) {
+			Map<String, Object> queryParams = new TreeMap<>(request.getQueryParams());
+			for (Map.Entry<String, Object> queryParam : queryParams.entrySet()) {
+				source.append(source.indexOf("?") < 0 ? '?' : '&')
+						.append(queryParam.getKey()).append('=').append(queryParam.getValue());
+			}
+		}
+		return source.toString();
+	}
+
+	/**
+	 * Load the progress of a previous download of the same source, or start a new download
+	 * if there is none, it is for a different source, or the partial file is missing
+	 */
+	private static Progress loadProgress(Path progressFile, Path partialFile, String source) {
+		Progress progress = new Progress(source);
+		if (Files.exists(progressFile)) {
+			Properties properties = new Properties();
+			try (InputStream inputStream = Files.newInputStream(progressFile)) {
+				properties.load(inputStream);
+				if (source.equals(properties.getProperty(PROGRESS_SOURCE)) && Files.exists(partialFile)) {
+					long offset = Long.parseLong(properties.getProperty(PROGRESS_OFFSET, "0"));
+					if (offset <= Files.size(partialFile)) {
+						progress.offset = offset;
+						progress.size = Long.parseLong(properties.getProperty(PROGRESS_SIZE, "-1"));
+						progress.etag = properties.getProperty(PROGRESS_ETAG);
+					}
+				}
+			} catch (IOException | NumberFormatException e) {
+				log.warn("Ignoring unreadable progress file " + progressFile + ": " + e.getMessage());
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Write the progress file, replacing the previous one atomically so an interrupted
+	 * write never leaves a corrupt record
+	 */
+	private static void saveProgress(Path progressFile, Progress progress) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(PROGRESS_SOURCE, progress.source);
+		properties.setProperty(PROGRESS_OFFSET, String.valueOf(progress.offset));
+		properties.setProperty(PROGRESS_SIZE, String.valueOf(progress.size));
+		if (progress.etag != null) {
+			properties.setProperty(PROGRESS_ETAG, progress.etag);
+		}
+
+		Path tempFile = Files.createTempFile(progressFile.getParent(), progressFile.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+				properties.store(outputStream, null);
+			}
+			HttpResponseConnector.moveFile(tempFile, progressFile);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private static void saveProgressQuietly(Path progressFile, Progress progress) {
+		try {
+			saveProgress(progressFile, progress);
+		} catch (IOException e) {
+			log.error(e.getMessage());
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Persisted state of a download
+	 */
+	private static class Progress {
+		private final String source;
+		private long offset = 0;
+		private long size = -1;
+		private String etag;
+
+		private Progress(String source) {
+			this.source = source;
+		}
+
+		private void restart(long size, String etag) {
+			this.offset = 0;
+			this.size = size;
+			this.etag = etag;
+		}
+	}
+}
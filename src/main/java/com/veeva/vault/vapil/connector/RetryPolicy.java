@@ -0,0 +1,41 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Policy deciding whether, and after what delay, a failed HTTP call is retried.
+ * <p>
+ * The policy is only consulted for calls that are safe to repeat: GET requests,
+ * and other requests explicitly marked via {@link HttpRequestConnector#setRetrySafe(boolean)}.
+ * Requests with a one-shot body, such as an input stream, are never retried.
+ *
+ * @see ExponentialBackoffRetryPolicy
+ */
+public interface RetryPolicy {
+
+	/**
+	 * Policy that never retries
+	 */
+	RetryPolicy NONE = (attempt, statusCode, headers, exception) -> -1;
+
+	/**
+	 * Determine the delay before the next attempt of a failed call
+	 *
+	 * @param attempt    Number of the attempt that failed, starting at 1
+	 * @param statusCode HTTP status code of the failed attempt, 0 if no response was received
+	 * @param headers    HTTP response headers of the failed attempt, null if no response was received
+	 * @param exception  I/O error of the failed attempt, null if a response was received
+	 * @return Delay in milliseconds before the next attempt, or a negative value to stop retrying
+	 * and return the result of the failed attempt
+	 */
+	long getRetryDelayMillis(int attempt, int statusCode, Map<String, List<String>> headers, IOException exception);
+}
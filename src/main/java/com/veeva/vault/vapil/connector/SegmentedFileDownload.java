@@ -0,0 +1,344 @@
+/*---------------------------------------------------------------------
+ *	Copyright (c) 2021 Veeva Systems Inc.  All Rights Reserved.
+ *	This code is based on pre-existing content developed and
+ *	owned by Veeva Systems Inc. and may only be used in connection
+ *	with the deliverable with which it was provided to Customer.
+ *---------------------------------------------------------------------
+ */
+package com.veeva.vault.vapil.connector;
+
+import okio.BufferedSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Download of a single file as multiple byte ranges fetched in parallel.
+ * <p>
+ * The first range doubles as a probe: its Content-Range header reports the file size.
+ * The remaining bytes are split into equal ranges, each fetched with its own Range request
+ * and written at its offset in a preallocated temporary file via positional
+ * {@link FileChannel} writes. A range interrupted mid-transfer is resumed from the last
+ * written byte. Once all ranges complete, the optional digest is computed and verified,
+ * and the temporary file replaces the destination.
+ * <p>
+ * If the server does not honor the Range header, or the file fits in the first range,
+ * the probe response is written as a single stream instead.
+ */
+public class SegmentedFileDownload {
+	private static Logger log = LoggerFactory.getLogger(SegmentedFileDownload.class);
+
+	/**
+	 * Default number of parallel range requests, {@value #DEFAULT_SEGMENTS}
+	 */
+	public static final int DEFAULT_SEGMENTS = 4;
+
+	/**
+	 * Default minimum size of a range, {@value #DEFAULT_MIN_SEGMENT_SIZE} bytes (8 MB)
+	 */
+	public static final long DEFAULT_MIN_SEGMENT_SIZE = 8L * 1024 * 1024;
+
+	private static final String HTTP_HEADER_CONTENT_RANGE = "Content-Range";
+	private static final String HTTP_HEADER_ETAG = "ETag";
+	private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+	private static final int RANGE_RETRIES = 3;
+
+	/**
+	 * Sends a request for one range and returns the response with
+	 * {@link HttpRequestConnector.ResponseOption#STREAM}
+	 */
+	@FunctionalInterface
+	public interface RangeSender {
+		/**
+		 * @param request The request, including the Range header
+		 * @return The streamed response, null if no response was received
+		 */
+		HttpResponseConnector send(HttpRequestConnector request);
+	}
+
+	private final Supplier<HttpRequestConnector> requestSupplier;
+	private final RangeSender sender;
+	private int segments = DEFAULT_SEGMENTS;
+	private long minSegmentSize = DEFAULT_MIN_SEGMENT_SIZE;
+	private String digestAlgorithm;
+	private String expectedDigest;
+
+	/**
+	 * Create a segmented download
+	 *
+	 * @param requestSupplier Supplies a new, fully formed GET request for the file on each call
+	 * @param sender          Sends a range request
+	 */
+	public SegmentedFileDownload(Supplier<HttpRequestConnector> requestSupplier, RangeSender sender) {
+		this.requestSupplier = requestSupplier;
+		this.sender = sender;
+	}
+
+	/**
+	 * @param segments Number of parallel range requests after the first range. Default = {@value #DEFAULT_SEGMENTS}
+	 * @return The download
+	 */
+	public SegmentedFileDownload setSegments(int segments) {
+		this.segments = Math.max(1, segments);
+		return this;
+	}
+
+	/**
+	 * @param minSegmentSize Minimum size of a range in bytes, also the size of the first range.
+	 *                       Default = {@value #DEFAULT_MIN_SEGMENT_SIZE}
+	 * @return The download
+	 */
+	public SegmentedFileDownload setMinSegmentSize(long minSegmentSize) {
+		this.minSegmentSize = Math.max(1, minSegmentSize);
+		return this;
+	}
+
+	/**
+	 * @param digestAlgorithm Digest computed over the downloaded file, MD5, SHA-1, SHA-256 or SHA-512. Null for none
+	 * @param expectedDigest  Hex digest the file must match, null to skip verification
+	 * @return The download
+	 */
+	public SegmentedFileDownload setDigest(String digestAlgorithm, String expectedDigest) {
+		this.digestAlgorithm = digestAlgorithm;
+		this.expectedDigest = expectedDigest;
+		return this;
+	}
+
+	/**
+	 * Download the file
+	 *
+	 * @param outputFilePath The destination file
+	 * @return The response of the first range, completed as a response written to file.
+	 * Null if no response was received. Check {@link HttpResponseConnector#getTransferError()}
+	 * for failures while writing the file.
+	 */
+	public HttpResponseConnector download(String outputFilePath) {
+		long start = System.nanoTime();
+
+		HttpResponseConnector probe = sendRange(0, minSegmentSize - 1);
+		if (probe == null) return null;
+		probe.setDigestAlgorithm(digestAlgorithm);
+		probe.setExpectedDigest(expectedDigest);
+
+		long[] contentRange = parseContentRange(probe);
+		if (probe.getStatusCode() != 206 || contentRange == null || contentRange[2] <= contentRange[1] + 1) {
+			// Range not supported, or the whole file is in the first response
+			log.debug("Downloading " + outputFilePath + " as a single stream");
+			probe.writeStreamToFile(outputFilePath);
+			return probe;
+		}
+
+		long total = contentRange[2];
+		List<long[]> ranges = splitRanges(contentRange[1] + 1, total);
+		log.info("Downloading " + total + " bytes to " + outputFilePath + " in " + (ranges.size() + 1) + " ranges");
+
+		Path target = Paths.get(outputFilePath).toAbsolutePath();
+		Path tempFile = null;
+		ExecutorService executor = Executors.newFixedThreadPool(ranges.size() + 1, new DaemonThreadFactory());
+		try {
+			tempFile = HttpResponseConnector.createPartFile(target);
+			String etag = probe.headerFirstValueIgnoreCase(HTTP_HEADER_ETAG);
+
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				// Preallocate the file so each range can be written at its offset
+				channel.write(ByteBuffer.wrap(new byte[1]), total - 1);
+
+				List<Future<?>> futures = new ArrayList<>();
+				futures.add(executor.submit(() -> {
+					downloadRange(channel, contentRange[0], contentRange[1], etag, probe);
+					return null;
+				}));
+				for (long[] range : ranges) {
+					futures.add(executor.submit(() -> {
+						downloadRange(channel, range[0], range[1], etag, null);
+						return null;
+					}));
+				}
+
+				for (Future<?> future : futures) {
+					future.get();
+				}
+				channel.force(false);
+			}
+
+			HttpTransferMetrics transferMetrics = new HttpTransferMetrics();
+			transferMetrics.setBytes(total);
+			if (digestAlgorithm != null) {
+				String digest = HttpResponseConnector.digestFile(tempFile, digestAlgorithm);
+				probe.verifyDigest(digest);
+				transferMetrics.setDigestAlgorithm(digestAlgorithm);
+				transferMetrics.setDigest(digest);
+			}
+
+			HttpResponseConnector.moveFile(tempFile, target);
+			transferMetrics.setElapsedNanos(System.nanoTime() - start);
+			probe.completeFileTransfer(outputFilePath, transferMetrics);
+			log.debug("Wrote " + outputFilePath + ", " + transferMetrics);
+		} catch (IOException | ExecutionException e) {
+			String message = e instanceof ExecutionException ? e.getCause().getMessage() : e.getMessage();
+			log.error("Segmented download of " + outputFilePath + " failed: " + message);
+			probe.close();
+			probe.setTransferError(message);
+			deleteQuietly(tempFile);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			probe.close();
+			probe.setTransferError("Interrupted");
+			deleteQuietly(tempFile);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return probe;
+	}
+
+	/**
+	 * Split the bytes from the given offset to the end of the file into
+	 * at most the configured number of ranges of at least the minimum size
+	 */
+	private List<long[]> splitRanges(long offset, long total) {
+		long remaining = total - offset;
+		int count = (int) Math.max(1, Math.min(segments, remaining / minSegmentSize));
+		long rangeSize = (remaining + count - 1) / count;
+
+		List<long[]> ranges = new ArrayList<>();
+		for (long rangeStart = offset; rangeStart < total; rangeStart += rangeSize) {
+			ranges.add(new long[]{rangeStart, Math.min(total, rangeStart + rangeSize) - 1});
+		}
+		return ranges;
+	}
+
+	/**
+	 * Download one range into the file, resuming from the last written byte if the
+	 * transfer is interrupted
+	 *
+	 * @param channel  The file
+	 * @param first    First byte of the range
+	 * @param last     Last byte of the range
+	 * @param etag     ETag of the first response, used to detect changes to the file, null if none
+	 * @param response Response already received for the range, null to send a request
+	 */
+	private void downloadRange(FileChannel channel, long first, long last, String etag, HttpResponseConnector response) throws IOException {
+		long position = first;
+		int attempt = 0;
+
+		while (position <= last) {
+			try {
+				if (response == null) {
+					response = sendRange(position, last);
+					verifyRangeResponse(response, position, last, etag);
+				}
+				position = writeRange(response.getSource(), channel, position, last);
+				if (position <= last) {
+					throw new IOException("Unexpected end of range at byte " + position);
+				}
+			} catch (IOException e) {
+				if (++attempt > RANGE_RETRIES) throw e;
+				log.warn("Range " + first + "-" + last + " interrupted at byte " + position + ", resuming: " + e.getMessage());
+			} finally {
+				if (response != null) response.close();
+				response = null;
+			}
+		}
+	}
+
+	/**
+	 * Copy a range body into the file at its offset
+	 *
+	 * @return The position after the last byte written
+	 */
+	private static long writeRange(BufferedSource source, FileChannel channel, long position, long last) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+		boolean eof = false;
+
+		while (!eof && position <= last) {
+			int read = source.read(buffer);
+			if (read == -1) {
+				eof = true;
+			}
+			if (eof || !buffer.hasRemaining()) {
+				buffer.flip();
+				// Never write past the requested range
+				buffer.limit((int) Math.min(buffer.limit(), last - position + 1));
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+				buffer.clear();
+			}
+		}
+		return position;
+	}
+
+	private HttpResponseConnector sendRange(long first, long last) {
+		HttpRequestConnector request = requestSupplier.get();
+		request.addHeaderParam(HttpRequestConnector.HTTP_HEADER_RANGE, "bytes=" + first + "-" + last);
+		return sender.send(request);
+	}
+
+	private static void verifyRangeResponse(HttpResponseConnector response, long first, long last, String etag) throws IOException {
+		if (response == null) {
+			throw new IOException("No response for range " + first + "-" + last);
+		}
+		long[] contentRange = parseContentRange(response);
+		if (response.getStatusCode() != 206 || contentRange == null || contentRange[0] != first || contentRange[1] != last) {
+			throw new IOException("Unexpected response for range " + first + "-" + last + ", status code " + response.getStatusCode());
+		}
+		String responseEtag = response.headerFirstValueIgnoreCase(HTTP_HEADER_ETAG);
+		if (etag != null && responseEtag != null && !etag.equals(responseEtag)) {
+			throw new IOException("File changed during download, ETag " + etag + " became " + responseEtag);
+		}
+	}
+
+	/**
+	 * @return First byte, last byte and total size from the Content-Range header,
+	 * null if missing or the total size is unknown
+	 */
+	private static long[] parseContentRange(HttpResponseConnector response) {
+		String contentRange = response.headerFirstValueIgnoreCase(HTTP_HEADER_CONTENT_RANGE);
+		if (contentRange == null) return null;
+
+		Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange.trim());
+		if (!matcher.matches() || matcher.group(3).equals("*")) return null;
+
+		return new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(3))};
+	}
+
+	private static void deleteQuietly(Path path) {
+		if (path == null) return;
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.error(e.getMessage());
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private static final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "vapil-segmented-download-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.veeva.vault.vapil.api.client;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("QueryResultCacheTest")
+@DisplayName("Query result cache should")
+public class QueryResultCacheTest {
+
+	private QueryResultCache cache;
+	private QueryResponse response;
+
+	@BeforeEach
+	void setup() {
+		cache = new QueryResultCache(10, 300);
+		response = new QueryResponse();
+		response.setResponseStatus(VaultResponse.HTTP_RESPONSE_SUCCESS);
+	}
+
+	@Test
+	@DisplayName("invalidate the entries of an object, and entries naming relationships on any write")
+	void testInvalidateObject() {
+		assertTrue(cache.put("product", List.of("product__v"), response, cache.getGeneration()));
+		assertTrue(cache.put("country", List.of("country__v"), response, cache.getGeneration()));
+		assertTrue(cache.put("children", List.of("parent__c", "children__cr", QueryResultCache.ALL_OBJECTS),
+				response, cache.getGeneration()));
+
+		cache.invalidateObject("child__c");
+		assertNull(cache.get("children"));
+		assertSame(response, cache.get("product"));
+
+		cache.invalidateObject("PRODUCT__V");
+		assertNull(cache.get("product"));
+		assertSame(response, cache.get("country"));
+	}
+
+	@Test
+	@DisplayName("suspend caching while a job runs")
+	void testJob() {
+		assertTrue(cache.put("product", List.of("product__v"), response, cache.getGeneration()));
+
+		cache.startJob("42");
+		assertNull(cache.get("product"));
+		assertEquals(1, cache.getRunningJobCount());
+		long generation = cache.getGeneration();
+		assertFalse(cache.put("product", List.of("product__v"), response, generation));
+
+		cache.updateJob("42", "RUNNING");
+		assertEquals(1, cache.getRunningJobCount());
+		cache.updateJob("42", "SUCCESS");
+		assertEquals(0, cache.getRunningJobCount());
+		assertFalse(cache.put("product", List.of("product__v"), response, generation));
+		assertTrue(cache.put("product", List.of("product__v"), response, cache.getGeneration()));
+
+		cache.startJob("43");
+		cache.finishJob("43");
+		assertEquals(0, cache.getRunningJobCount());
+		assertNull(cache.get("product"));
+	}
+}
@@ -0,0 +1,125 @@
+package com.veeva.vault.vapil.api.model;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("VaultModelTest")
+@DisplayName("Vault model should")
+public class VaultModelTest {
+
+	static class FirstModel extends VaultModel {
+	}
+
+	static class SecondModel extends VaultModel {
+	}
+
+	static class DictionaryModel extends VaultModel {
+	}
+
+	@Test
+	@DisplayName("expose its fields as a live map view")
+	void testVaultModelData() {
+		VaultModel model = new VaultModel();
+		model.set("id", "V001");
+		model.set("name__v", "Product");
+
+		Map<String, Object> data = model.getVaultModelData();
+		assertEquals(2, data.size());
+		assertEquals(Arrays.asList("id", "name__v"), Arrays.asList(data.keySet().toArray()));
+
+		data.put("status__v", "active__v");
+		assertEquals("active__v", model.getString("status__v"));
+
+		model.set("name__v", "Renamed");
+		assertEquals("Renamed", data.get("name__v"));
+
+		for (Map.Entry<String, Object> entry : data.entrySet()) {
+			if (entry.getKey().equals("id")) entry.setValue("V002");
+		}
+		assertEquals("V002", model.getString("id"));
+
+		Iterator<Map.Entry<String, Object>> iterator = data.entrySet().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getKey().equals("name__v")) iterator.remove();
+		}
+		assertEquals(Arrays.asList("id", "status__v"), model.getFieldNames());
+
+		data.clear();
+		assertTrue(model.getFieldNames().isEmpty());
+		assertNull(model.get("id"));
+	}
+
+	@Test
+	@DisplayName("remove a field and keep the others in order")
+	void testRemove() {
+		VaultModel model = new VaultModel();
+		model.set("a", 1);
+		model.set("b", 2);
+		model.set("c", 3);
+
+		assertEquals(2, model.getVaultModelData().remove("b"));
+		assertNull(model.getVaultModelData().remove("missing"));
+		assertEquals(Arrays.asList("a", "c"), model.getFieldNames());
+		assertEquals(1, model.getInteger("a"));
+		assertEquals(3, model.getInteger("c"));
+		assertNull(model.get("b"));
+
+		model.set("b", 4);
+		assertEquals(Arrays.asList("a", "c", "b"), model.getFieldNames());
+		assertEquals(4, model.getInteger("b"));
+	}
+
+	@Test
+	@DisplayName("fall back to a map for fields that cannot share a shape")
+	void testDictionaryFallback() {
+		VaultModel wide = new DictionaryModel();
+		for (int i = 0; i <= VaultModelShape.MAX_FIELDS + 10; i++) {
+			wide.set("field_" + i + "__c", i);
+		}
+		assertEquals(VaultModelShape.MAX_FIELDS + 11, wide.getFieldNames().size());
+		assertEquals("field_0__c", wide.getFieldNames().get(0));
+		assertEquals(VaultModelShape.MAX_FIELDS + 10, wide.getInteger("field_" + (VaultModelShape.MAX_FIELDS + 10) + "__c"));
+		wide.getVaultModelData().remove("field_0__c");
+		assertNull(wide.get("field_0__c"));
+		assertEquals(1, wide.getInteger("field_1__c"));
+
+		for (int i = 0; i < VaultModelShape.MAX_TRANSITIONS + 10; i++) {
+			VaultModel model = new DictionaryModel();
+			model.set("key_" + i, i);
+			model.set("value", "v" + i);
+			assertEquals(Arrays.asList("key_" + i, "value"), model.getFieldNames());
+			assertEquals(i, model.getInteger("key_" + i));
+			assertEquals("v" + i, model.getString("value"));
+		}
+	}
+
+	@Test
+	@DisplayName("keep the shapes of each model class apart")
+	void testShapePerClass() {
+		VaultModelShape firstRoot = VaultModelShape.root(FirstModel.class);
+		assertSame(firstRoot, VaultModelShape.root(FirstModel.class));
+		assertNotSame(firstRoot, VaultModelShape.root(SecondModel.class));
+
+		for (int i = 0; i < VaultModelShape.MAX_TRANSITIONS; i++) {
+			assertNotNull(firstRoot.withField("first_" + i));
+		}
+		assertNull(firstRoot.withField("first_overflow"));
+		assertNotNull(VaultModelShape.root(SecondModel.class).withField("first_overflow"));
+
+		FirstModel first = new FirstModel();
+		first.set("first_0", "a");
+		SecondModel second = new SecondModel();
+		second.set("first_0", "b");
+		FirstModel other = new FirstModel();
+		other.set("first_0", "c");
+		// Models of a class populated with the same fields share one shape
+		assertSame(first.getFieldNames(), other.getFieldNames());
+		assertEquals("a", first.getString("first_0"));
+		assertEquals("b", second.getString("first_0"));
+	}
+}
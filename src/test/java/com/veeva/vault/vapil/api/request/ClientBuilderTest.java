@@ -61,6 +61,39 @@ public class ClientBuilderTest {
 
 	}
 
+	@Test
+	@Tag("SmokeTest")
+	@DisplayName("Should successfully build clients with independent http transport settings")
+	public void testHttpTransportSettings() {
+		Map<String, String> basicMap = getBasicSettingsMap();
+		VaultClient firstClient = VaultClient
+				.newClientBuilder(VaultClient.AuthenticationType.BASIC)
+				.withVaultClientId(basicMap.get("vaultClientId"))
+				.withVaultDNS(basicMap.get("vaultDNS"))
+				.withVaultUsername(basicMap.get("vaultUsername"))
+				.withVaultPassword(basicMap.get("vaultPassword"))
+				.withHttpMaxRequests(128, 32)
+				.withHttpConnectionPool(16, 60000)
+				.withHttpTimeoutsMillis(10000, 300000, 300000, 0)
+				.build();
+
+		VaultClient secondClient = VaultClient
+				.newClientBuilder(VaultClient.AuthenticationType.BASIC)
+				.withVaultClientId(basicMap.get("vaultClientId"))
+				.withVaultDNS(basicMap.get("vaultDNS"))
+				.withVaultUsername(basicMap.get("vaultUsername"))
+				.withVaultPassword(basicMap.get("vaultPassword"))
+				.withHttp2(false)
+				.build();
+
+		Assertions.assertTrue(firstClient.validateSession());
+		Assertions.assertTrue(secondClient.validateSession());
+		Assertions.assertEquals(32, firstClient.getHttpClient().dispatcher().getMaxRequestsPerHost());
+		Assertions.assertEquals(10000, firstClient.getHttpClient().connectTimeoutMillis());
+		Assertions.assertEquals(5, secondClient.getHttpClient().dispatcher().getMaxRequestsPerHost());
+		Assertions.assertNotSame(firstClient.getHttpClient().connectionPool(), secondClient.getHttpClient().connectionPool());
+	}
+
 	@Test
 	@Tag("SmokeTest")
 	@DisplayName("Should unsuccessfully build a client from a bad password")
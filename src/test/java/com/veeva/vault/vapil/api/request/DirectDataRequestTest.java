@@ -3,6 +3,7 @@ package com.veeva.vault.vapil.api.request;
 import com.veeva.vault.vapil.api.client.VaultClient;
 import com.veeva.vault.vapil.api.model.response.DirectDataResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import com.veeva.vault.vapil.api.model.response.VaultStreamResponse;
 import com.veeva.vault.vapil.api.request.DirectDataRequest.ExtractType;
 import com.veeva.vault.vapil.extension.FileHelper;
 import com.veeva.vault.vapil.extension.VaultClientParameterResolver;
@@ -10,8 +11,14 @@ import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -124,4 +131,219 @@ public class DirectDataRequestTest {
             assertEquals(downloadItemResponse.getHeaderContentType(), "application/octet-stream;charset=UTF-8");
         }
     }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully stream a direct data file")
+    class TestDownloadItemAsStream {
+        VaultStreamResponse downloadItemResponse = null;
+        String fileName = null;
+        long fileSize = 0;
+
+        @BeforeAll
+        void setup() {
+            ZonedDateTime currentDateTime = ZonedDateTime.now(ZoneId.of("UTC"));
+            ZonedDateTime stopTime = currentDateTime.toLocalDate().atStartOfDay(ZoneId.of("UTC"));
+            ZonedDateTime startTime = stopTime.minusDays(1);
+
+            DirectDataResponse response = vaultClient.newRequest(DirectDataRequest.class)
+                    .setExtractType(ExtractType.INCREMENTAL)
+                    .setStartTime(startTime)
+                    .setStopTime(stopTime)
+                    .retrieveAvailableDirectDataFiles();
+
+            assertTrue(response.isSuccessful());
+            fileName = response.getData().get(0).getFilepartDetails().get(0).getName();
+            fileSize = response.getData().get(0).getFilepartDetails().get(0).getSize();
+        }
+
+        @Test
+        @Order(1)
+        void testRequest() {
+            downloadItemResponse = vaultClient.newRequest(DirectDataRequest.class)
+                    .downloadDirectDataFileAsStream(fileName);
+
+            assertNotNull(downloadItemResponse);
+        }
+
+        @Test
+        @Order(2)
+        void testResponse() throws IOException {
+            try (VaultStreamResponse response = downloadItemResponse) {
+                assertTrue(response.isSuccessful());
+                assertNull(response.getBinaryContent());
+                assertEquals(fileSize, response.getInputStream().transferTo(OutputStream.nullOutputStream()));
+            }
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully download all file parts of a direct data file")
+    class TestDownloadAllFileparts {
+        VaultResponse downloadResponse = null;
+        DirectDataResponse.DirectDataItem item = null;
+        Path outputPath = null;
+
+        @BeforeAll
+        void setup() throws IOException {
+            ZonedDateTime currentDateTime = ZonedDateTime.now(ZoneId.of("UTC"));
+            ZonedDateTime stopTime = currentDateTime.toLocalDate().atStartOfDay(ZoneId.of("UTC"));
+            ZonedDateTime startTime = stopTime.minusDays(1);
+
+            DirectDataResponse response = vaultClient.newRequest(DirectDataRequest.class)
+                    .setExtractType(ExtractType.INCREMENTAL)
+                    .setStartTime(startTime)
+                    .setStopTime(stopTime)
+                    .retrieveAvailableDirectDataFiles();
+
+            assertTrue(response.isSuccessful());
+            item = response.getData().get(0);
+            outputPath = Files.createTempDirectory("vapil-directdata").resolve(item.getFilename());
+        }
+
+        @Test
+        @Order(1)
+        void testRequest() {
+            downloadResponse = new DirectDataDownloader(vaultClient)
+                    .setParallelism(4)
+                    .download(item, outputPath);
+
+            assertNotNull(downloadResponse);
+        }
+
+        @Test
+        @Order(2)
+        void testResponse() throws IOException {
+            assertTrue(downloadResponse.isSuccessful());
+            long size = 0;
+            for (DirectDataResponse.DirectDataItem.FilePart filepart : item.getFilepartDetails()) {
+                size += filepart.getSize();
+            }
+            assertEquals(size, Files.size(outputPath));
+            Files.delete(outputPath);
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully read the files of a direct data archive")
+    class TestReadArchive {
+        DirectDataResponse.DirectDataItem item = null;
+        Path outputPath = null;
+
+        @BeforeAll
+        void setup() throws IOException {
+            ZonedDateTime currentDateTime = ZonedDateTime.now(ZoneId.of("UTC"));
+            ZonedDateTime stopTime = currentDateTime.toLocalDate().atStartOfDay(ZoneId.of("UTC"));
+            ZonedDateTime startTime = stopTime.minusDays(1);
+
+            DirectDataResponse response = vaultClient.newRequest(DirectDataRequest.class)
+                    .setExtractType(ExtractType.INCREMENTAL)
+                    .setStartTime(startTime)
+                    .setStopTime(stopTime)
+                    .retrieveAvailableDirectDataFiles();
+
+            assertTrue(response.isSuccessful());
+            item = response.getData().get(0);
+            outputPath = Files.createTempDirectory("vapil-directdata").resolve(item.getFilename());
+        }
+
+        @Test
+        @Order(1)
+        void testRead() throws IOException {
+            InputStream archive = new DirectDataDownloader(vaultClient).downloadAsStream(item, outputPath);
+            assertNotNull(archive);
+
+            boolean manifest = false;
+            try (DirectDataReader reader = new DirectDataReader(archive)) {
+                DirectDataReader.Entry entry;
+                while ((entry = reader.nextEntry()) != null) {
+                    if (entry.isManifest()) {
+                        manifest = true;
+                        Iterator<DirectDataReader.Row> rows = entry.rows();
+                        while (rows.hasNext()) {
+                            assertNotNull(rows.next().get("extract"));
+                        }
+                    }
+                }
+            }
+            assertTrue(manifest);
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully keep a local replica of direct data extracts")
+    class TestReplica {
+        Path replicaPath = null;
+        DirectDataReplica.Result syncResult = null;
+
+        @BeforeAll
+        void setup() throws IOException {
+            replicaPath = Files.createTempDirectory("vapil-replica");
+        }
+
+        @Test
+        @Order(1)
+        void testSync() {
+            DirectDataReplica replica = new DirectDataReplica(vaultClient, replicaPath);
+            syncResult = replica.sync();
+
+            assertTrue(syncResult.isSuccessful(), syncResult.getErrorMessage());
+            assertTrue(syncResult.getFileCount() > 0);
+            assertNotNull(syncResult.getCheckpoint());
+            assertNotNull(syncResult.getCheckpoint().getStopTime());
+            assertFalse(replica.getExtracts().isEmpty());
+        }
+
+        @Test
+        @Order(2)
+        void testLoad() {
+            DirectDataReplica replica = new DirectDataReplica(vaultClient, replicaPath);
+            DirectDataReplica.Result loadResult = replica.load();
+
+            assertTrue(loadResult.isSuccessful(), loadResult.getErrorMessage());
+            assertEquals(syncResult.getCheckpoint().getStopTime(), replica.getCheckpoint().getStopTime());
+            assertFalse(replica.getExtracts().isEmpty());
+            for (String extract : replica.getExtracts()) {
+                replica.scan(extract).limit(1).forEach(row -> {
+                    String id = row.get("id");
+                    if (id != null) {
+                        assertNotNull(replica.get(extract, id));
+                    }
+                });
+            }
+        }
+
+        @Test
+        @Order(3)
+        void testApplyAppliedFile() {
+            DirectDataReplica replica = new DirectDataReplica(vaultClient, replicaPath);
+            DirectDataResponse.DirectDataItem item = new DirectDataResponse.DirectDataItem();
+            item.setName(syncResult.getCheckpoint().getName());
+            item.setExtractType(ExtractType.INCREMENTAL.getValue());
+            item.setStartTime(syncResult.getCheckpoint().getStartTime());
+            item.setStopTime(syncResult.getCheckpoint().getStopTime());
+
+            DirectDataReplica.Result applyResult = replica.apply(item, InputStream.nullInputStream());
+            assertTrue(applyResult.isSuccessful(), applyResult.getErrorMessage());
+            assertEquals(0, applyResult.getFileCount());
+        }
+
+        @Test
+        @Order(4)
+        void testSyncUpToDate() {
+            DirectDataReplica replica = new DirectDataReplica(vaultClient, replicaPath);
+            DirectDataReplica.Result result = replica.sync();
+
+            assertTrue(result.isSuccessful(), result.getErrorMessage());
+            // Files published since the first sync may be applied
+            assertTrue(result.getCheckpoint().getStopTime().compareTo(syncResult.getCheckpoint().getStopTime()) >= 0);
+        }
+    }
 }
@@ -12,6 +12,7 @@ import com.veeva.vault.vapil.api.model.common.ResumableUploadSession;
 import com.veeva.vault.vapil.api.model.common.ResumableUploadSessionPart;
 import com.veeva.vault.vapil.api.model.response.*;
 import com.veeva.vault.vapil.api.request.FileStagingRequest.Kind;
+import com.veeva.vault.vapil.connector.ResumableFileDownload;
 import com.veeva.vault.vapil.extension.FileHelper;
 import com.veeva.vault.vapil.extension.JobStatusHelper;
 import com.veeva.vault.vapil.extension.VaultClientParameterResolver;
@@ -21,6 +22,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -490,6 +495,168 @@ public class FileStagingRequestTest {
         }
     }
 
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully download a file to a local path with a digest")
+    class TestDownloadItemContentToFileWithDigest {
+        VaultResponse downloadResp = null;
+        byte[] bytes = null;
+
+        @BeforeAll
+        public void setup() throws IOException {
+            File testFile = new File(FileHelper.getPathTestFile());
+            bytes = Files.readAllBytes(testFile.toPath());
+
+            FileStagingItemResponse createFileResponse = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOverwrite(true)
+                    .setFile(testFile.getPath(), bytes)
+                    .createFolderOrFile(Kind.FILE, TEST_FILE_FSS_NAME);
+
+            assertNotNull(createFileResponse);
+        }
+
+        @AfterAll
+        public void teardown() {
+            FileStagingJobResponse resp = vaultClient.newRequest(FileStagingRequest.class)
+                    .deleteFolderOrFile(TEST_FILE_FSS_NAME);
+
+            Assertions.assertTrue(resp.isSuccessful());
+            Assertions.assertTrue(JobStatusHelper.checkJobCompletion(vaultClient, resp.getData().getJobId()));
+        }
+
+        @Test
+        @Order(1)
+        public void testRequest() {
+            downloadResp = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOutputPath(FileHelper.PATH_RESOURCES_FOLDER + TEST_DOWNLOAD_FILE_NAME)
+                    .setOutputFileDigest("SHA-256")
+                    .setPreallocateOutputFile(true)
+                    .downloadItemContent(TEST_FILE_FSS_NAME);
+
+            assertNotNull(downloadResp);
+        }
+
+        @Test
+        @Order(2)
+        public void testResponse() throws NoSuchAlgorithmException {
+            assertTrue(downloadResp.isSuccessful());
+            assertNotNull(downloadResp.getTransferMetrics());
+            assertEquals(bytes.length, downloadResp.getTransferMetrics().getBytes());
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)),
+                    downloadResp.getTransferMetrics().getDigest());
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully download a file to a local path in segments")
+    class TestDownloadItemContentToFileSegmented {
+        VaultResponse downloadResp = null;
+        byte[] bytes = null;
+
+        @BeforeAll
+        public void setup() throws IOException {
+            File testFile = new File(FileHelper.getPathTestFile());
+            bytes = Files.readAllBytes(testFile.toPath());
+
+            FileStagingItemResponse createFileResponse = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOverwrite(true)
+                    .setFile(testFile.getPath(), bytes)
+                    .createFolderOrFile(Kind.FILE, TEST_FILE_FSS_NAME);
+
+            assertNotNull(createFileResponse);
+        }
+
+        @AfterAll
+        public void teardown() {
+            FileStagingJobResponse resp = vaultClient.newRequest(FileStagingRequest.class)
+                    .deleteFolderOrFile(TEST_FILE_FSS_NAME);
+
+            Assertions.assertTrue(resp.isSuccessful());
+            Assertions.assertTrue(JobStatusHelper.checkJobCompletion(vaultClient, resp.getData().getJobId()));
+        }
+
+        @Test
+        @Order(1)
+        public void testRequest() throws NoSuchAlgorithmException {
+            downloadResp = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOutputPath(FileHelper.PATH_RESOURCES_FOLDER + TEST_DOWNLOAD_FILE_NAME)
+                    .setOutputFileDigest("SHA-256", HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)))
+                    .setDownloadSegments(4)
+                    .downloadItemContent(TEST_FILE_FSS_NAME);
+
+            assertNotNull(downloadResp);
+        }
+
+        @Test
+        @Order(2)
+        public void testResponse() throws NoSuchAlgorithmException {
+            assertTrue(downloadResp.isSuccessful());
+            assertNotNull(downloadResp.getTransferMetrics());
+            assertEquals(bytes.length, downloadResp.getTransferMetrics().getBytes());
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)),
+                    downloadResp.getTransferMetrics().getDigest());
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully download a file to a local path resumably")
+    class TestDownloadItemContentToFileResumable {
+        VaultResponse downloadResp = null;
+        byte[] bytes = null;
+        String outputPath = FileHelper.PATH_RESOURCES_FOLDER + TEST_DOWNLOAD_FILE_NAME;
+
+        @BeforeAll
+        public void setup() throws IOException {
+            File testFile = new File(FileHelper.getPathTestFile());
+            bytes = Files.readAllBytes(testFile.toPath());
+
+            FileStagingItemResponse createFileResponse = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOverwrite(true)
+                    .setFile(testFile.getPath(), bytes)
+                    .createFolderOrFile(Kind.FILE, TEST_FILE_FSS_NAME);
+
+            assertNotNull(createFileResponse);
+
+            // Leave a stale partial download without a progress record, which must be discarded
+            Files.write(Paths.get(outputPath + ResumableFileDownload.PARTIAL_FILE_SUFFIX), new byte[bytes.length / 2]);
+        }
+
+        @AfterAll
+        public void teardown() {
+            FileStagingJobResponse resp = vaultClient.newRequest(FileStagingRequest.class)
+                    .deleteFolderOrFile(TEST_FILE_FSS_NAME);
+
+            Assertions.assertTrue(resp.isSuccessful());
+            Assertions.assertTrue(JobStatusHelper.checkJobCompletion(vaultClient, resp.getData().getJobId()));
+        }
+
+        @Test
+        @Order(1)
+        public void testRequest() throws NoSuchAlgorithmException {
+            downloadResp = vaultClient.newRequest(FileStagingRequest.class)
+                    .setOutputPath(outputPath)
+                    .setOutputFileDigest("SHA-256", HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)))
+                    .setResumableDownload(true)
+                    .downloadItemContent(TEST_FILE_FSS_NAME);
+
+            assertNotNull(downloadResp);
+        }
+
+        @Test
+        @Order(2)
+        public void testResponse() throws IOException {
+            assertTrue(downloadResp.isSuccessful());
+            assertArrayEquals(bytes, Files.readAllBytes(Paths.get(outputPath)));
+            assertFalse(Files.exists(Paths.get(outputPath + ResumableFileDownload.PARTIAL_FILE_SUFFIX)));
+            assertFalse(Files.exists(Paths.get(outputPath + ResumableFileDownload.PROGRESS_FILE_SUFFIX)));
+        }
+    }
+
     @Nested
     @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
     @TestInstance(TestInstance.Lifecycle.PER_CLASS)
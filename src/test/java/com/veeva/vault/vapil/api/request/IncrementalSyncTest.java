@@ -0,0 +1,162 @@
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import org.junit.jupiter.api.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("IncrementalSyncTest")
+@DisplayName("Incremental sync should")
+public class IncrementalSyncTest {
+
+	private static final Pattern WATERMARK = Pattern.compile(">= '([^']+)'");
+
+	private final List<QueryResponse.QueryResult> records = new ArrayList<>();
+	private final List<IncrementalSync.Change> deletions = new ArrayList<>();
+	private final List<Instant> deletionQueries = new ArrayList<>();
+	private final Map<String, SyncCheckpoint> checkpoints = new HashMap<>();
+	private IncrementalSync sync;
+
+	@BeforeEach
+	void setup() {
+		records.clear();
+		deletions.clear();
+		deletionQueries.clear();
+		checkpoints.clear();
+
+		SyncCheckpointStore store = new SyncCheckpointStore() {
+			@Override
+			public SyncCheckpoint load(String key) {
+				return checkpoints.get(key);
+			}
+
+			@Override
+			public void save(String key, SyncCheckpoint checkpoint) {
+				checkpoints.put(key, checkpoint);
+			}
+		};
+		sync = new IncrementalSync(vql -> {
+			Matcher matcher = WATERMARK.matcher(vql);
+			Instant since = matcher.find() ? Instant.parse(matcher.group(1)) : Instant.MIN;
+			String modifiedField = vql.contains("version_modified_date__v") ? "version_modified_date__v" : "modified_date__v";
+			return records.stream()
+					.filter(record -> !Instant.parse(record.getString(modifiedField)).isBefore(since));
+		}, (target, since) -> {
+			deletionQueries.add(since);
+			return deletions.stream()
+					.filter(deletion -> !deletion.getTimestamp().isBefore(since))
+					.collect(Collectors.toList());
+		}, store).setOverlapSeconds(60);
+	}
+
+	private static QueryResponse.QueryResult record(String id, String modifiedField, Instant modified) {
+		QueryResponse.QueryResult record = new QueryResponse.QueryResult();
+		record.set("id", id);
+		record.set(modifiedField, modified.toString());
+		return record;
+	}
+
+	@Test
+	@DisplayName("emit all records on the first sync, then only changes")
+	void testSyncObject() {
+		Instant now = Instant.now();
+		records.add(record("1", "modified_date__v", now.minus(2, ChronoUnit.HOURS)));
+		records.add(record("2", "modified_date__v", now.minus(1, ChronoUnit.HOURS)));
+
+		List<IncrementalSync.Change> changes = new ArrayList<>();
+		IncrementalSync.Result result = sync.syncObject("product__v", Collections.emptyList(), changes::add);
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		assertEquals(2, result.getUpsertCount());
+		assertEquals("1", changes.get(0).getId());
+		assertEquals("2", changes.get(1).getId());
+
+		records.add(record("3", "modified_date__v", now.minus(1, ChronoUnit.MINUTES)));
+		deletions.add(new IncrementalSync.Change(IncrementalSync.ChangeType.DELETE, "product__v", "1",
+				now.minus(30, ChronoUnit.SECONDS), null, null, null, null));
+		changes.clear();
+		result = sync.syncObject("product__v", Collections.emptyList(), changes::add);
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		assertEquals(1, result.getUpsertCount());
+		assertEquals(1, result.getDeleteCount());
+		assertEquals("3", changes.get(0).getId());
+		assertEquals(IncrementalSync.ChangeType.DELETE, changes.get(1).getType());
+	}
+
+	@Test
+	@DisplayName("keep the checkpoint when the callback fails")
+	void testCallbackFailure() {
+		records.add(record("1", "modified_date__v", Instant.now().minus(1, ChronoUnit.HOURS)));
+
+		IncrementalSync.Result result = sync.syncObject("product__v", Collections.emptyList(), change -> {
+			throw new IllegalStateException("callback failed");
+		});
+		assertFalse(result.isSuccessful());
+		assertNull(checkpoints.get("product__v"));
+
+		List<IncrementalSync.Change> changes = new ArrayList<>();
+		result = sync.syncObject("product__v", Collections.emptyList(), changes::add);
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		assertEquals(1, changes.size());
+	}
+
+	@Test
+	@DisplayName("advance the deletion watermark when there are no deletions")
+	void testDeletedWatermarkAdvances() {
+		Instant now = Instant.now();
+		SyncCheckpoint checkpoint = new SyncCheckpoint();
+		checkpoint.setDeletedWatermark(now.minus(40, ChronoUnit.DAYS).toString());
+		checkpoints.put("product__v", checkpoint);
+
+		IncrementalSync.Result result = sync.syncObject("product__v", Collections.emptyList(), change -> {});
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		Instant deletedWatermark = Instant.parse(result.getCheckpoint().getDeletedWatermark());
+		assertFalse(deletedWatermark.isBefore(now.minus(60, ChronoUnit.SECONDS)));
+
+		result = sync.syncObject("product__v", Collections.emptyList(), change -> {});
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		Instant since = deletionQueries.get(deletionQueries.size() - 1);
+		assertFalse(since.isBefore(now.minus(120, ChronoUnit.SECONDS)));
+	}
+
+	@Test
+	@DisplayName("emit document deletions with the document id and version numbers")
+	void testSyncDocumentDeletions() {
+		Instant now = Instant.now();
+		records.add(record("10", "version_modified_date__v", now.minus(1, ChronoUnit.HOURS)));
+		IncrementalSync.Result result = sync.syncDocuments(Collections.emptyList(), change -> {});
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+
+		Instant deleted = now.minus(10, ChronoUnit.SECONDS);
+		deletions.add(new IncrementalSync.Change(IncrementalSync.ChangeType.DELETE, "documents", "10",
+				deleted, null, "document_version__v", 0, 1));
+		deletions.add(new IncrementalSync.Change(IncrementalSync.ChangeType.DELETE, "documents", "10",
+				deleted, null, "document_version__v", 0, 2));
+
+		List<IncrementalSync.Change> changes = new ArrayList<>();
+		result = sync.syncDocuments(Collections.emptyList(), changes::add);
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		assertEquals(2, result.getDeleteCount());
+		for (IncrementalSync.Change change : changes) {
+			assertEquals("10", change.getId());
+			assertEquals(0, change.getMajorVersionNumber());
+		}
+		assertNotEquals(changes.get(0).getMinorVersionNumber(), changes.get(1).getMinorVersionNumber());
+
+		changes.clear();
+		result = sync.syncDocuments(Collections.emptyList(), changes::add);
+		assertTrue(result.isSuccessful(), result.getErrorMessage());
+		assertEquals(0, result.getDeleteCount());
+		assertTrue(changes.isEmpty());
+	}
+}
@@ -7,12 +7,25 @@
 */
 package com.veeva.vault.vapil.api.request;
 
+import com.veeva.vault.vapil.api.client.QueryResultCache;
 import com.veeva.vault.vapil.api.client.VaultClient;
+import com.veeva.vault.vapil.api.model.response.ObjectRecordBulkResponse;
+import com.veeva.vault.vapil.api.model.response.QueryColumn;
+import com.veeva.vault.vapil.api.model.response.QueryColumnarResponse;
+import com.veeva.vault.vapil.api.model.response.QueryColumns;
+import com.veeva.vault.vapil.api.model.response.QueryExportResponse;
 import com.veeva.vault.vapil.api.model.response.QueryResponse;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import com.veeva.vault.vapil.extension.ObjectRecordRequestHelper;
 import com.veeva.vault.vapil.extension.VaultClientParameterResolver;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Tag("QueryRequestTest")
 @Tag("SmokeTest")
@@ -39,6 +52,70 @@ public class QueryRequestTest {
 		Assertions.assertTrue(!response.hasErrors());
 	}
 	
+	@Test
+	@DisplayName("successfully answer a repeated query from the cache until the object is written")
+	public void testQueryCache() throws IOException {
+		VaultClient cachedClient = VaultClient
+				.newClientBuilder(VaultClient.AuthenticationType.SESSION_ID)
+				.withVaultClientId(vaultClient.getVaultClientId())
+				.withVaultDNS(vaultClient.getVaultDNS())
+				.withVaultSessionId(vaultClient.getSessionId())
+				.withQueryResultCache(100, 300)
+				.build();
+		QueryResultCache cache = cachedClient.getQueryResultCache();
+		Assertions.assertNotNull(cache);
+
+		String query = "SELECT id, name__v FROM vapil_test_object__c";
+		QueryResponse response = cachedClient.newRequest(QueryRequest.class)
+				.setUseCache(true)
+				.query(query);
+		Assertions.assertTrue(response.isSuccessful());
+		Assertions.assertEquals(0, cache.getHitCount());
+
+		QueryResponse cachedResponse = cachedClient.newRequest(QueryRequest.class)
+				.setUseCache(true)
+				.query("select id,  name__v from vapil_test_object__c");
+		Assertions.assertSame(response, cachedResponse);
+		Assertions.assertEquals(1, cache.getHitCount());
+
+		ObjectRecordBulkResponse createResponse = cachedClient.newRequest(ObjectRecordRequest.class)
+				.setContentTypeJson()
+				.setRequestString("[{\"name__v\":\"VAPIL Test Query Cache " + Instant.now() + "\"}]")
+				.createObjectRecords("vapil_test_object__c");
+		Assertions.assertTrue(createResponse.isSuccessful());
+		String recordId = createResponse.getData().get(0).getData().getId();
+		Assertions.assertEquals(0, cache.size());
+
+		try {
+			QueryResponse createdResponse = cachedClient.newRequest(QueryRequest.class)
+					.setUseCache(true)
+					.query(query);
+			Assertions.assertNotSame(response, createdResponse);
+			Assertions.assertEquals(response.getResponseDetails().getTotal() + 1, createdResponse.getResponseDetails().getTotal());
+			Assertions.assertEquals(1, cache.getHitCount());
+
+			ObjectRecordBulkResponse updateResponse = cachedClient.newRequest(ObjectRecordRequest.class)
+					.setContentTypeJson()
+					.setRequestString("[{\"id\":\"" + recordId + "\",\"name__v\":\"VAPIL Test Query Cache Updated\"}]")
+					.updateObjectRecords("vapil_test_object__c");
+			Assertions.assertTrue(updateResponse.isSuccessful());
+			Assertions.assertEquals(0, cache.size());
+		} finally {
+			ObjectRecordRequestHelper.deleteObjectRecords(vaultClient, List.of(recordId));
+		}
+	}
+
+	@Test
+	@DisplayName("successfully send a valid query without blocking")
+	public void testQueryAsync() {
+		String query = "SELECT id, username__sys FROM user__sys";
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.queryAsync(query)
+				.join();
+		Assertions.assertNotNull(response);
+		Assertions.assertTrue(!response.hasErrors());
+	}
+
 	@Test
 	@DisplayName("successfully paginate query results")
 	public void testQueryPagination() {
@@ -74,4 +151,132 @@ public class QueryRequestTest {
 			Assertions.assertNotNull(recordProperty.getFieldProperties());
 		}
 	}
+
+	@Test
+	@DisplayName("successfully stream the records of all query pages")
+	public void testQueryStream() {
+		String query = "SELECT id, username__sys FROM user__sys PAGESIZE 2";
+
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query(query);
+		Assertions.assertTrue(!response.hasErrors());
+
+		try (Stream<QueryResponse.QueryResult> records = vaultClient.newRequest(QueryRequest.class)
+				.setReadAhead(2)
+				.stream(query)) {
+			Assertions.assertEquals(response.getResponseDetails().getTotal().longValue(), records.count());
+		}
+	}
+
+	@Test
+	@DisplayName("successfully retrieve all records of a partitioned query")
+	public void testQueryPartitioned() {
+		String query = "SELECT id, username__sys FROM user__sys";
+
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query(query);
+		Assertions.assertTrue(!response.hasErrors());
+
+		List<String> filters = QueryPartition.byDateWindows("created_date__v",
+				Instant.parse("2015-01-01T00:00:00Z"), Instant.now(), 4);
+		try (PartitionedQueryIterator records = vaultClient.newRequest(QueryRequest.class)
+				.setPartitionParallelism(2)
+				.queryPartitioned(query, filters, false)) {
+			Assertions.assertEquals(response.getResponseDetails().getTotal().longValue(), records.stream().count());
+			Assertions.assertFalse(records.hasFailures());
+		}
+	}
+
+	@Test
+	@DisplayName("successfully parse a query from the response stream, retaining the raw response only on request")
+	public void testQueryRetainRawResponse() {
+		String query = "SELECT id, username__sys FROM user__sys";
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query(query);
+		Assertions.assertTrue(!response.hasErrors());
+		Assertions.assertTrue(response.getResponse().isEmpty());
+		Assertions.assertTrue(response.getTransferMetrics().getBytes() > 0);
+
+		QueryResponse rawResponse = vaultClient.newRequest(QueryRequest.class)
+				.setRetainRawResponse(true)
+				.query(query);
+		Assertions.assertTrue(!rawResponse.hasErrors());
+		Assertions.assertFalse(rawResponse.getResponse().isEmpty());
+		Assertions.assertEquals(response.getData().size(), rawResponse.getData().size());
+	}
+
+	@Test
+	@DisplayName("successfully decode a described query into columns matching the row results")
+	public void testQueryColumnar() {
+		String query = "SELECT id, username__sys, status__v FROM user__sys";
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query(query);
+		Assertions.assertTrue(!response.hasErrors());
+
+		QueryColumnarResponse columnarResponse = vaultClient.newRequest(QueryRequest.class)
+				.setDescribeQuery(true)
+				.queryColumnar(query);
+		Assertions.assertTrue(!columnarResponse.hasErrors());
+
+		QueryColumns columns = columnarResponse.getData();
+		Assertions.assertEquals(response.getData().size(), columns.size());
+		Assertions.assertEquals(QueryColumn.Type.STRING, columns.getColumn("id").getType());
+		for (int row = 0; row < columns.size(); row++) {
+			Assertions.assertEquals(response.getData().get(row).getString("id"), columns.getColumn("id").getString(row));
+		}
+	}
+
+	@Test
+	@DisplayName("successfully query with a prepared template")
+	public void testQueryPrepared() {
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query("SELECT id, username__sys FROM user__sys MAXROWS 1");
+		Assertions.assertTrue(!response.hasErrors());
+		String username = response.getData().get(0).getString("username__sys");
+
+		PreparedVql byUsername = PreparedVql.prepare("SELECT id FROM user__sys WHERE username__sys = :username");
+		Assertions.assertEquals(byUsername.getId(),
+				PreparedVql.prepare("select id  from user__sys where username__sys = :username").getId());
+
+		QueryResponse preparedResponse = vaultClient.newRequest(QueryRequest.class)
+				.query(byUsername.bind().setString("username", username));
+		Assertions.assertTrue(!preparedResponse.hasErrors());
+		Assertions.assertEquals(1, preparedResponse.getData().size());
+		Assertions.assertEquals(response.getData().get(0).getString("id"), preparedResponse.getData().get(0).getString("id"));
+
+		QueryResponse escapedResponse = vaultClient.newRequest(QueryRequest.class)
+				.query(byUsername.bind().setString("username", "x' OR username__sys != 'x"));
+		Assertions.assertTrue(!escapedResponse.hasErrors());
+		Assertions.assertEquals(0, escapedResponse.getData().size());
+	}
+
+	@Test
+	@DisplayName("successfully export a query to CSV and JSON Lines files")
+	public void testExportTo() throws IOException {
+		String query = "SELECT id, username__sys, status__v FROM user__sys";
+		QueryResponse response = vaultClient.newRequest(QueryRequest.class)
+				.query(query);
+		Assertions.assertTrue(!response.hasErrors());
+		int total = response.getResponseDetails().getTotal();
+
+		Path csvFile = Files.createTempFile("vapil-export", ".csv");
+		Path jsonlFile = Files.createTempFile("vapil-export", ".jsonl");
+		try {
+			QueryExportResponse csvResponse = vaultClient.newRequest(QueryRequest.class)
+					.exportTo(query, csvFile, QueryRequest.ExportFormat.CSV);
+			Assertions.assertTrue(csvResponse.isSuccessful());
+			Assertions.assertEquals(total, csvResponse.getRowCount());
+			List<String> csvLines = Files.readAllLines(csvFile);
+			Assertions.assertEquals(total + 1, csvLines.size());
+			Assertions.assertTrue(csvLines.get(0).contains("username__sys"));
+
+			QueryExportResponse jsonlResponse = vaultClient.newRequest(QueryRequest.class)
+					.exportTo(query, jsonlFile, QueryRequest.ExportFormat.JSONL);
+			Assertions.assertTrue(jsonlResponse.isSuccessful());
+			Assertions.assertEquals(total, Files.readAllLines(jsonlFile).size());
+		} finally {
+			Files.deleteIfExists(csvFile);
+			Files.deleteIfExists(jsonlFile);
+		}
+	}
 }
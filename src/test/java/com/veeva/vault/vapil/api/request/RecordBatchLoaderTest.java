@@ -0,0 +1,152 @@
+package com.veeva.vault.vapil.api.request;
+
+import com.veeva.vault.vapil.api.model.response.QueryResponse;
+import com.veeva.vault.vapil.api.model.response.VaultResponse;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("RecordBatchLoaderTest")
+@DisplayName("Record batch loader should")
+public class RecordBatchLoaderTest {
+
+	private static final Pattern LITERAL = Pattern.compile("'([^']*)'");
+
+	private final List<String> queries = new ArrayList<>();
+	private RuntimeException queryFailure;
+	private CompletableFuture<QueryResponse> pendingResponse;
+	private RecordBatchLoader loader;
+
+	@BeforeEach
+	void setup() {
+		queries.clear();
+		queryFailure = null;
+		pendingResponse = null;
+		loader = new RecordBatchLoader(vql -> {
+			synchronized (queries) {
+				queries.add(vql);
+			}
+			if (queryFailure != null) throw queryFailure;
+			if (pendingResponse != null) return pendingResponse;
+			QueryResponse response = new QueryResponse();
+			response.setResponseStatus(VaultResponse.HTTP_RESPONSE_SUCCESS);
+			List<QueryResponse.QueryResult> records = new ArrayList<>();
+			Matcher matcher = LITERAL.matcher(vql);
+			while (matcher.find()) {
+				if (matcher.group(1).startsWith("missing")) continue;
+				QueryResponse.QueryResult record = new QueryResponse.QueryResult();
+				record.set("id", matcher.group(1));
+				records.add(record);
+			}
+			response.setData(records);
+			return CompletableFuture.completedFuture(response);
+		}, pageUrl -> CompletableFuture.failedFuture(new IllegalStateException("unexpected page " + pageUrl)));
+	}
+
+	@AfterEach
+	void teardown() {
+		loader.close();
+	}
+
+	@Test
+	@DisplayName("send lookups of the same object as one query on dispatch")
+	void testDispatch() {
+		loader.setBatchWindowMillis(0);
+		CompletableFuture<QueryResponse.QueryResult> first = loader.load("product__v", "V001");
+		CompletableFuture<QueryResponse.QueryResult> second = loader.load("product__v", "V002");
+		CompletableFuture<QueryResponse.QueryResult> missing = loader.load("product__v", "missing");
+		assertSame(first, loader.load("product__v", "V001"));
+		assertTrue(queries.isEmpty());
+
+		loader.dispatch();
+		assertEquals(1, queries.size());
+		assertEquals("SELECT id FROM product__v WHERE id CONTAINS ('V001', 'V002', 'missing')", queries.get(0));
+		assertEquals("V001", first.join().getString("id"));
+		assertEquals("V002", second.join().getString("id"));
+		assertNull(missing.join());
+	}
+
+	@Test
+	@DisplayName("send a batch once it is full")
+	void testMaxBatchSize() {
+		loader.setBatchWindowMillis(0).setMaxBatchSize(2);
+		CompletableFuture<Map<String, QueryResponse.QueryResult>> records =
+				loader.loadAll("product__v", List.of("V001", "V002", "V003"));
+		assertEquals(1, queries.size());
+		assertFalse(records.isDone());
+
+		loader.dispatch();
+		assertEquals(2, queries.size());
+		assertEquals(List.of("V001", "V002", "V003"), new ArrayList<>(records.join().keySet()));
+	}
+
+	@Test
+	@DisplayName("send a batch once the batch window has elapsed")
+	void testBatchWindow() throws Exception {
+		loader.setBatchWindowMillis(20);
+		CompletableFuture<QueryResponse.QueryResult> record = loader.load("product__v", "V001");
+		assertEquals("V001", record.get(5, TimeUnit.SECONDS).getString("id"));
+		assertEquals(1, queries.size());
+	}
+
+	@Test
+	@DisplayName("share the future of a lookup in flight")
+	void testInFlight() {
+		loader.setBatchWindowMillis(0);
+		pendingResponse = new CompletableFuture<>();
+		CompletableFuture<QueryResponse.QueryResult> record = loader.load("product__v", "V001");
+		loader.dispatch();
+		assertEquals(1, queries.size());
+
+		assertSame(record, loader.load("product__v", "V001"));
+		loader.dispatch();
+		assertEquals(1, queries.size());
+
+		QueryResponse response = new QueryResponse();
+		response.setResponseStatus(VaultResponse.HTTP_RESPONSE_SUCCESS);
+		response.setData(new ArrayList<>());
+		pendingResponse.complete(response);
+		assertNull(record.join());
+	}
+
+	@Test
+	@DisplayName("fail the lookups of a batch whose query throws")
+	void testQueryThrows() {
+		loader.setBatchWindowMillis(0);
+		queryFailure = new IllegalArgumentException("query rejected");
+		CompletableFuture<QueryResponse.QueryResult> record = loader.load("product__v", "V001");
+		loader.dispatch();
+		CompletionException exception = assertThrows(CompletionException.class, record::join);
+		assertInstanceOf(IllegalStateException.class, exception.getCause());
+
+		queryFailure = null;
+		CompletableFuture<QueryResponse.QueryResult> retry = loader.load("product__v", "V001");
+		assertNotSame(record, retry);
+		loader.dispatch();
+		assertEquals("V001", retry.join().getString("id"));
+	}
+
+	@Test
+	@DisplayName("send pending lookups on close and reject lookups after close")
+	void testClose() {
+		loader.setBatchWindowMillis(0);
+		CompletableFuture<QueryResponse.QueryResult> record = loader.load("product__v", "V001");
+		loader.close();
+		assertEquals("V001", record.join().getString("id"));
+
+		IllegalStateException exception = assertThrows(IllegalStateException.class,
+				() -> loader.load("product__v", "V002"));
+		assertEquals("RecordBatchLoader is closed", exception.getMessage());
+		assertThrows(IllegalStateException.class, () -> loader.loadDocument(1));
+		assertEquals(1, queries.size());
+	}
+}
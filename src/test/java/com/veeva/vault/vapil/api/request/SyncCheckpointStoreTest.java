@@ -0,0 +1,46 @@
+package com.veeva.vault.vapil.api.request;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("SyncCheckpointStoreTest")
+@DisplayName("Sync checkpoint store should")
+public class SyncCheckpointStoreTest {
+
+	@Test
+	@DisplayName("save and load checkpoints in a directory")
+	void testOfDirectory() throws IOException {
+		Path directory = Files.createTempDirectory("vapil-checkpoints").resolve("store");
+		SyncCheckpointStore store = SyncCheckpointStore.ofDirectory(directory);
+		assertNull(store.load("product__v"));
+
+		SyncCheckpoint checkpoint = new SyncCheckpoint();
+		checkpoint.setModifiedWatermark("2026-10-01T00:00:00Z");
+		checkpoint.setDeletedWatermark("2026-10-01T00:05:00Z");
+		checkpoint.setRecentlyModified(Map.of("V001", "2026-10-01T00:00:00Z"));
+		store.save("product__v", checkpoint);
+
+		SyncCheckpoint loaded = store.load("product__v");
+		assertNotNull(loaded);
+		assertEquals(checkpoint.getModifiedWatermark(), loaded.getModifiedWatermark());
+		assertEquals(checkpoint.getDeletedWatermark(), loaded.getDeletedWatermark());
+		assertEquals(checkpoint.getRecentlyModified(), loaded.getRecentlyModified());
+		assertTrue(loaded.getRecentlyDeleted().isEmpty());
+
+		checkpoint.setModifiedWatermark("2026-10-02T00:00:00Z");
+		store.save("product__v", checkpoint);
+		assertEquals("2026-10-02T00:00:00Z", store.load("product__v").getModifiedWatermark());
+		assertNull(store.load("documents"));
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.veeva.vault.vapil.api.request;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.veeva.vault.vapil.api.client.BurstLimitGovernor;
 import com.veeva.vault.vapil.api.client.VaultClient;
 import com.veeva.vault.vapil.api.model.response.VaultResponse;
 import com.veeva.vault.vapil.api.model.response.VaultResponse.*;
@@ -177,4 +178,38 @@ public class VaultRequestTest {
             assertEquals(JsonNodeType.OBJECT, response.getResponseJSON().getNodeType());
         }
     }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("track the burst limit with the burst limit governor")
+    class TestBurstLimitGovernor {
+        VaultClient client;
+
+        @Test
+        @Order(1)
+        void testRequest() {
+            client = VaultClient.newClientBuilder(VaultClient.AuthenticationType.BASIC)
+                    .withVaultDNS(basicSettingsNode.get("vaultDNS").asText())
+                    .withVaultClientId(basicSettingsNode.get("vaultClientId").asText())
+                    .withVaultUsername(basicSettingsNode.get("vaultUsername").asText())
+                    .withVaultPassword(basicSettingsNode.get("vaultPassword").asText())
+                    .withBurstLimitGovernor(true)
+                    .build();
+
+            VaultResponse response = client.newRequest(QueryRequest.class).query("SELECT id FROM documents MAXROWS 1");
+            assertNotNull(response);
+        }
+
+        @Test
+        @Order(2)
+        void testResponse() {
+            BurstLimitGovernor governor = client.getBurstLimitGovernor();
+            assertNotNull(governor);
+            assertTrue(governor.getCallCount() > 0);
+            assertTrue(governor.getBurstLimit() > 0);
+            assertTrue(governor.getBurstLimitRemaining() > 0);
+            assertEquals(0, governor.getInFlightCount());
+        }
+    }
 }
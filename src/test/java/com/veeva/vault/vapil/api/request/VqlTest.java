@@ -0,0 +1,36 @@
+package com.veeva.vault.vapil.api.request;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("VqlTest")
+@DisplayName("Vql should")
+public class VqlTest {
+
+	@Test
+	@DisplayName("name every object and relationship a query reads")
+	void testGetQueryTargets() {
+		assertEquals(List.of("product__v"), List.copyOf(Vql.getQueryTargets("SELECT id FROM product__v")));
+		assertEquals(List.of("documents"), List.copyOf(Vql.getQueryTargets("select id from ALLVERSIONS documents")));
+		assertEquals(List.of("parent__c", "children__cr"),
+				List.copyOf(Vql.getQueryTargets("SELECT id, (SELECT id FROM children__cr) FROM parent__c")));
+		assertEquals(List.of("product__v", "country__vr"),
+				List.copyOf(Vql.getQueryTargets("SELECT id FROM product__v WHERE country__vr.name__v = 'a.b FROM x'")));
+		assertEquals(List.of("product__v"),
+				List.copyOf(Vql.getQueryTargets("SELECT id FROM product__v WHERE name__v = 'it\\'s (' AND from_date__c > 1.5")));
+	}
+
+	@Test
+	@DisplayName("not name the targets of a query it cannot parse")
+	void testGetQueryTargetsUnknown() {
+		assertNull(Vql.getQueryTargets("SELECT id"));
+		assertNull(Vql.getQueryTargets("SELECT id FROM"));
+		assertNull(Vql.getQueryTargets("SELECT id FROM product__v WHERE name__v = 'open"));
+		assertNull(Vql.getQueryTargets("SELECT id, (SELECT id FROM children__cr FROM parent__c"));
+		assertNull(Vql.getQueryTargets("SELECT id FROM product__v) FROM country__v"));
+		assertNull(Vql.getQueryTargets("SELECT id FROM product__v FROM country__v"));
+	}
+}
@@ -9,6 +9,12 @@ import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Tag("HttpRequestConnectorTest")
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -59,4 +65,131 @@ public class HttpRequestConnectorTest {
             assertNotNull(responseConnector.getResponse());
         }
     }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("successfully send an API request to Vault with an explicit Accept-Encoding")
+    class TestSendAcceptEncoding {
+
+        private HttpResponseConnector responseConnector = null;
+
+        @Test
+        @Order(1)
+        void testRequest() {
+            String vaultDns = basicSettingsNode.get("vaultDNS").asText();
+            String endpoint = String.format("/api/%s/auth", VaultClient.VAULT_API_VERSION);
+            String url = String.format("https://%s%s", vaultDns, endpoint);
+            String vaultUsername = basicSettingsNode.get("vaultUsername").asText();
+            String vaultPassword = basicSettingsNode.get("vaultPassword").asText();
+
+            HttpRequestConnector requestConnector = new HttpRequestConnector(url);
+            requestConnector.addBodyParam("username", vaultUsername);
+            requestConnector.addBodyParam("password", vaultPassword);
+            requestConnector.setAcceptEncoding(HttpRequestConnector.HTTP_CONTENT_ENCODING_GZIP);
+
+            responseConnector = requestConnector.send(HttpRequestConnector.HttpMethod.POST);
+            assertNotNull(responseConnector);
+        }
+
+        @Test
+        @Order(2)
+        void testResponse() {
+            assertEquals(200, responseConnector.getStatusCode());
+            assertTrue(responseConnector.getResponse().startsWith("{"));
+            assertNull(responseConnector.headerFirstValueIgnoreCase(HttpRequestConnector.HTTP_HEADER_CONTENT_ENCODING));
+            assertNotNull(responseConnector.getTransferMetrics());
+            assertEquals(responseConnector.getResponse().getBytes(StandardCharsets.UTF_8).length,
+                    responseConnector.getTransferMetrics().getBytes());
+            assertTrue(responseConnector.getTransferMetrics().getWireBytes() > 0);
+        }
+
+        @Test
+        @Order(3)
+        void testUnsupportedEncoding() {
+            HttpRequestConnector requestConnector = new HttpRequestConnector("http://localhost:1/api");
+            assertThrows(IllegalArgumentException.class, () -> requestConnector.setAcceptEncoding("br"));
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("retry transient failures of requests that are safe to repeat")
+    class TestRetry {
+
+        // Nothing listens on port 1, so every attempt fails with a connection error
+        private static final String UNREACHABLE_URL = "http://localhost:1/api";
+
+        @Test
+        @Order(1)
+        void testSafeRequest() {
+            AtomicInteger attempts = new AtomicInteger();
+            HttpRequestConnector requestConnector = new HttpRequestConnector(UNREACHABLE_URL);
+            requestConnector.setRetryPolicy((attempt, statusCode, headers, exception) -> {
+                attempts.incrementAndGet();
+                assertNotNull(exception);
+                return attempt <= 2 ? 0 : -1;
+            });
+
+            assertNull(requestConnector.send(HttpRequestConnector.HttpMethod.GET));
+            assertEquals(3, attempts.get());
+        }
+
+        @Test
+        @Order(2)
+        void testUnsafeRequest() {
+            AtomicInteger attempts = new AtomicInteger();
+            HttpRequestConnector requestConnector = new HttpRequestConnector(UNREACHABLE_URL);
+            requestConnector.setRetryPolicy((attempt, statusCode, headers, exception) -> {
+                attempts.incrementAndGet();
+                return 0;
+            });
+
+            assertNull(requestConnector.send(HttpRequestConnector.HttpMethod.POST));
+            assertEquals(0, attempts.get());
+        }
+
+        @Test
+        @Order(3)
+        void testAsyncRequest() {
+            HttpRequestConnector requestConnector = new HttpRequestConnector(UNREACHABLE_URL);
+            requestConnector.setRetrySafe(true);
+            requestConnector.setRetryPolicy(new ExponentialBackoffRetryPolicy(2, 10, 20));
+
+            CompletableFuture<HttpResponseConnector> future = requestConnector.sendAsync(HttpRequestConnector.HttpMethod.POST);
+            assertThrows(CompletionException.class, future::join);
+        }
+    }
+
+    @Nested
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    @DisplayName("notify call listeners of each call attempt")
+    class TestCallListener {
+
+        // Nothing listens on port 1, so every attempt fails with a connection error
+        private static final String UNREACHABLE_URL = "http://localhost:1/api/v25.1/vobjects/product__v/00P000000000101";
+
+        @Test
+        @Order(1)
+        void testRetriedRequest() {
+            List<HttpCallEvent> events = new CopyOnWriteArrayList<>();
+            HttpCallHistograms histograms = new HttpCallHistograms();
+            HttpRequestConnector requestConnector = new HttpRequestConnector(UNREACHABLE_URL);
+            requestConnector.setCallListeners(List.of(events::add, histograms));
+            requestConnector.setRetryPolicy((attempt, statusCode, headers, exception) -> attempt < 2 ? 0 : -1);
+
+            assertNull(requestConnector.send(HttpRequestConnector.HttpMethod.GET));
+            assertEquals(2, events.size());
+            assertEquals(2, events.get(1).getAttempt());
+            assertEquals("/vobjects/product__v/{id}", events.get(0).getEndpoint());
+            assertEquals("vobjects", events.get(0).getApiFamily());
+            assertEquals(0, events.get(0).getStatusCode());
+            assertNotNull(events.get(0).getError());
+
+            assertEquals(2, histograms.getEndpointHistogram("GET /vobjects/product__v/{id}").getCount());
+            assertEquals(2, histograms.getErrorCount());
+        }
+    }
 }